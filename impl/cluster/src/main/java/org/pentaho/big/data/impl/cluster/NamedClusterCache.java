@@ -0,0 +1,208 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.cluster;
+
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+import org.pentaho.metastore.api.IMetaStore;
+import org.pentaho.metastore.api.exceptions.MetaStoreException;
+import org.pentaho.metastore.stores.xml.XmlMetaStore;
+import org.pentaho.metastore.util.PentahoDefaults;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * The named clusters of each metastore, deserialized once and indexed by name and by HDFS host, so that looking a
+ * cluster up doesn't read and parse every cluster of the metastore.
+ * <p>
+ * Changes made through {@link NamedClusterManager} drop the clusters of the metastore right away. Changes made
+ * elsewhere are picked up once the clusters are older than the revalidation interval: the clusters of an
+ * {@link XmlMetaStore} are then kept if none of its cluster files was added, removed or modified, those of other
+ * metastores are read again. A lookup that misses doesn't wait for the interval: the cluster files of an xml metastore
+ * are checked right away, other metastores are read again.
+ */
+class NamedClusterCache {
+
+  /**
+   * Reads every named cluster of a metastore.
+   */
+  interface Loader {
+    List<NamedCluster> load() throws MetaStoreException;
+  }
+
+  /**
+   * The named clusters of a metastore at one point in time.
+   */
+  static final class Clusters {
+    private final Map<String, NamedCluster> byName = new HashMap<>();
+    private final Map<String, NamedCluster> byHost = new HashMap<>();
+    private final long stamp;
+    private volatile long checkedAt;
+
+    Clusters( List<NamedCluster> namedClusters, long stamp, long checkedAt ) {
+      // the first cluster wins, as it did when the list was searched
+      for ( NamedCluster namedCluster : namedClusters ) {
+        byName.putIfAbsent( namedCluster.getName(), namedCluster );
+        if ( namedCluster.getHdfsHost() != null ) {
+          byHost.putIfAbsent( namedCluster.getHdfsHost(), namedCluster );
+        }
+      }
+      this.stamp = stamp;
+      this.checkedAt = checkedAt;
+    }
+
+    /**
+     * @return true if there is a cluster with the given name
+     */
+    boolean contains( String name ) {
+      return byName.containsKey( name );
+    }
+
+    /**
+     * @return true if there is a cluster with the given HDFS host
+     */
+    boolean containsHost( String hostName ) {
+      return byHost.containsKey( hostName );
+    }
+
+    /**
+     * @return a copy of the cluster with the given name, null if there is none
+     */
+    NamedCluster getByName( String name ) {
+      return copyOf( byName.get( name ) );
+    }
+
+    /**
+     * @return a copy of the first cluster with the given HDFS host, null if there is none
+     */
+    NamedCluster getByHost( String hostName ) {
+      return copyOf( byHost.get( hostName ) );
+    }
+
+    private static NamedCluster copyOf( NamedCluster namedCluster ) {
+      if ( namedCluster == null ) {
+        return null;
+      }
+      // callers own the clusters they are handed, as they did when every lookup deserialized them
+      NamedCluster copy = namedCluster.clone();
+      copy.setLastModifiedDate( namedCluster.getLastModifiedDate() );
+      return copy;
+    }
+  }
+
+  private static final long NO_STAMP = 0L;
+
+  private final long revalidateMillis;
+  private final LongSupplier clock;
+  private final Map<Object, Clusters> clusters = new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  NamedClusterCache( long revalidateMillis, LongSupplier clock ) {
+    this.revalidateMillis = revalidateMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the named clusters of a metastore, reading them if they aren't cached or may be outdated.
+   *
+   * @param metastore the metastore
+   * @param loader    reads the clusters of the metastore
+   * @return the clusters of the metastore
+   * @throws MetaStoreException if the clusters can't be read
+   */
+  Clusters get( IMetaStore metastore, Loader loader ) throws MetaStoreException {
+    return get( metastore, loader, clusters -> true );
+  }
+
+  /**
+   * Returns the named clusters of a metastore, reading them if they aren't cached, may be outdated or lack what is
+   * looked for.
+   *
+   * @param metastore the metastore
+   * @param loader    reads the clusters of the metastore
+   * @param found     tells whether the clusters hold what is looked for, cached clusters that don't are checked for
+   *                  changes right away, so that a cluster added outside the manager isn't missed
+   * @return the clusters of the metastore
+   * @throws MetaStoreException if the clusters can't be read
+   */
+  Clusters get( IMetaStore metastore, Loader loader, Predicate<Clusters> found ) throws MetaStoreException {
+    if ( revalidateMillis <= 0 ) {
+      return new Clusters( loader.load(), NO_STAMP, 0L );
+    }
+    Object key = keyOf( metastore );
+    long now = clock.getAsLong();
+    Clusters cached = clusters.get( key );
+    if ( cached != null ) {
+      if ( now - cached.checkedAt < revalidateMillis && found.test( cached ) ) {
+        return cached;
+      }
+      if ( metastore instanceof XmlMetaStore && cached.stamp == stampOf( (XmlMetaStore) metastore ) ) {
+        cached.checkedAt = now;
+        return cached;
+      }
+    }
+
+    long invalidated = invalidations.get();
+    long stamp = metastore instanceof XmlMetaStore ? stampOf( (XmlMetaStore) metastore ) : NO_STAMP;
+    Clusters loaded = new Clusters( loader.load(), stamp, now );
+    // clusters read while a change was made may be outdated, they are used once but not kept
+    if ( invalidations.get() == invalidated ) {
+      clusters.put( key, loaded );
+    }
+    return loaded;
+  }
+
+  /**
+   * Drops the cached clusters of a metastore.
+   */
+  void invalidate( IMetaStore metastore ) {
+    if ( metastore != null ) {
+      invalidations.incrementAndGet();
+      clusters.remove( keyOf( metastore ) );
+    }
+  }
+
+  /**
+   * Xml metastores are keyed by folder, since the slave server metastore is opened anew for every lookup.
+   */
+  private static Object keyOf( IMetaStore metastore ) {
+    if ( metastore instanceof XmlMetaStore ) {
+      return XmlMetaStore.class.getName() + ":" + ( (XmlMetaStore) metastore ).getRootFolder();
+    }
+    return metastore;
+  }
+
+  /**
+   * Computes a stamp of the names, sizes and modification times of the cluster files of an xml metastore.
+   */
+  private static long stampOf( XmlMetaStore metastore ) {
+    File[] files = new File( metastore.getRootFolder() + File.separator + PentahoDefaults.NAMESPACE + File.separator
+      + "NamedCluster" ).listFiles( File::isFile );
+    if ( files == null ) {
+      return NO_STAMP;
+    }
+    long stamp = files.length + 1L;
+    for ( File file : files ) {
+      // order independent, since listFiles doesn't guarantee an order
+      stamp += ( file.getName().hashCode() * 31L + file.lastModified() ) * 31L + file.length();
+    }
+    return stamp;
+  }
+}
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,6 +39,7 @@ import javax.xml.transform.stream.StreamResult;
 import org.apache.commons.beanutils.BeanMap;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.provider.url.UrlFileName;
 import org.apache.commons.vfs2.provider.url.UrlFileNameParser;
 import org.pentaho.di.core.encryption.Encr;
@@ -83,6 +85,13 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
 
   private static final Logger LOGGER = LogManager.getLogger( NamedClusterImpl.class );
 
+  private static final Pattern FULLY_QUALIFIED_URL =
+    Pattern.compile( "^(" + HDFS_SCHEME + "|" + WASB_SCHEME + "|" + MAPRFS_SCHEME + "|" + NC_SCHEME + "):\\/\\/" );
+
+  private static final Pattern VARIABLE_CHARACTERS = Pattern.compile( "[${}]" );
+
+  private static final UrlFileNameParser URL_FILE_NAME_PARSER = new UrlFileNameParser();
+
   private VariableSpace variables = new Variables();
 
   @MetaStoreAttribute
@@ -141,6 +150,9 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
 
   private ITwoWayPasswordEncoder passwordEncoder = new Base64TwoWayPasswordEncoder();
 
+  /** The parts of the cluster URL, built on first use and dropped when the HDFS settings change */
+  private volatile UrlTemplate urlTemplate;
+
   private static String hadoopActiveConfiguration = null;
 
   public NamedClusterImpl() {
@@ -311,18 +323,15 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
       } else if ( incomingURL.equals( "/" ) ) {
         outgoingURL = clusterURL;
       } else if ( clusterURL != null ) {
-        String noVariablesURL = incomingURL.replaceAll( "[${}]", "/" );
+        String noVariablesURL = VARIABLE_CHARACTERS.matcher( incomingURL ).replaceAll( "/" );
 
-        String fullyQualifiedIncomingURL = incomingURL;
+        String path;
         if ( !incomingURL.startsWith( hdfsScheme ) && !incomingURL.startsWith( NC_SCHEME ) ) {
-          fullyQualifiedIncomingURL = clusterURL + incomingURL;
-          noVariablesURL = clusterURL + incomingURL.replaceAll( "[${}]", "/" );
+          path = noVariablesURL.startsWith( "/" ) ? incomingURL
+            : pathOf( clusterURL + incomingURL, clusterURL + noVariablesURL );
+        } else {
+          path = pathOf( incomingURL, noVariablesURL );
         }
-
-        UrlFileNameParser parser = new UrlFileNameParser();
-        FileName fileName = parser.parseUri( null, null, noVariablesURL );
-        String root = fileName.getRootURI();
-        String path = fullyQualifiedIncomingURL.substring( root.length() - 1 );
         StringBuilder buffer = new StringBuilder();
         // Check for a special case where a fully qualified path (one that has the protocol in it).
         // This can only happen through variable replacement. See BACKLOG-15849. When this scenario
@@ -330,11 +339,7 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
         boolean prependCluster = true;
         if ( variableSpace != null ) {
           String filePath = variableSpace.environmentSubstitute( path );
-          StringBuilder pattern = new StringBuilder();
-          pattern.append( "^(" ).append( HDFS_SCHEME ).append( "|" ).append( WASB_SCHEME ).append( "|" ).append(
-              MAPRFS_SCHEME ).append( "|" ).append( NC_SCHEME ).append( "):\\/\\/" );
-          Pattern r = Pattern.compile( pattern.toString() );
-          Matcher m = r.matcher( filePath );
+          Matcher m = FULLY_QUALIFIED_URL.matcher( filePath );
           prependCluster = !m.find();
         }
         if ( prependCluster ) {
@@ -349,6 +354,14 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
     return outgoingURL;
   }
 
+  /**
+   * Returns the path of a fully qualified URL, using the URL with its variable characters replaced to find the root.
+   */
+  private static String pathOf( String url, String noVariablesURL ) throws FileSystemException {
+    FileName fileName = URL_FILE_NAME_PARSER.parseUri( null, null, noVariablesURL );
+    return url.substring( fileName.getRootURI().length() - 1 );
+  }
+
   @VisibleForTesting boolean isHdfsHostEmpty( VariableSpace variableSpace ) {
     String hostNameParsed = getHostNameParsed( variableSpace );
     return hostNameParsed == null || hostNameParsed.trim().isEmpty();
@@ -374,59 +387,27 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
     String clusterURL = null;
     try {
       if ( !Utils.isEmpty( scheme ) ) {
-        String ncHostname = getHdfsHost() != null ? getHdfsHost() : "";
-        String ncPort = getHdfsPort() != null ? getHdfsPort() : "";
-        String ncUsername = getHdfsUsername() != null ? getHdfsUsername() : "";
-        String ncPassword = getHdfsPassword() != null ? decodePassword( getHdfsPassword() ) : "";
-
+        UrlTemplate template = getUrlTemplate();
         if ( variableSpace != null ) {
           variableSpace.initializeVariablesFrom( getParentVariableSpace() );
-          if ( StringUtil.isVariable( scheme ) ) {
-            scheme =
-              variableSpace.getVariable( StringUtil.getVariableName( scheme ) ) != null ? variableSpace
-                .environmentSubstitute( scheme ) : null;
-          }
-          if ( StringUtil.isVariable( ncHostname ) ) {
-            ncHostname =
-              variableSpace.getVariable( StringUtil.getVariableName( ncHostname ) ) != null ? variableSpace
-                .environmentSubstitute( ncHostname ) : null;
-          }
-          if ( StringUtil.isVariable( ncPort ) ) {
-            ncPort =
-              variableSpace.getVariable( StringUtil.getVariableName( ncPort ) ) != null ? variableSpace
-                .environmentSubstitute( ncPort ) : null;
-          }
-          if ( StringUtil.isVariable( ncUsername ) ) {
-            ncUsername =
-              variableSpace.getVariable( StringUtil.getVariableName( ncUsername ) ) != null ? variableSpace
-                .environmentSubstitute( ncUsername ) : null;
-          }
-          if ( StringUtil.isVariable( ncPassword ) ) {
-            ncPassword =
-              variableSpace.getVariable( StringUtil.getVariableName( ncPassword ) ) != null ? variableSpace
-                .environmentSubstitute( ncPassword ) : null;
-          }
         }
-
-        ncHostname = ncHostname != null ? ncHostname.trim() : "";
-        if ( ncPort == null ) {
-          ncPort = "-1";
-        } else {
-          ncPort = ncPort.trim();
-          if ( Utils.isEmpty( ncPort ) ) {
-            ncPort = "-1";
-          }
+        if ( !template.hasVariables && !StringUtil.isVariable( scheme ) ) {
+          return template.urls.computeIfAbsent( scheme, template::buildURL );
         }
-        ncUsername = ncUsername != null ? ncUsername.trim() : "";
-        ncPassword = ncPassword != null ? ncPassword.trim() : "";
-
-        UrlFileName file =
-          new UrlFileName( scheme, ncHostname, Integer.parseInt( ncPort ), -1, ncUsername, ncPassword, null, null,
-            null );
-        clusterURL = file.getURI();
-        if ( clusterURL.endsWith( "/" ) ) {
-          clusterURL = clusterURL.substring( 0, clusterURL.lastIndexOf( '/' ) );
+
+        String ncHostname = template.hostname;
+        String ncPort = template.port;
+        String ncUsername = template.username;
+        String ncPassword = template.password;
+
+        if ( variableSpace != null ) {
+          scheme = substitute( scheme, variableSpace );
+          ncHostname = substitute( ncHostname, variableSpace );
+          ncPort = substitute( ncPort, variableSpace );
+          ncUsername = substitute( ncUsername, variableSpace );
+          ncPassword = substitute( ncPassword, variableSpace );
         }
+        clusterURL = buildURL( scheme, ncHostname, ncPort, ncUsername, ncPassword );
       }
     } catch ( Exception e ) {
       clusterURL = null;
@@ -434,6 +415,78 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
     return clusterURL;
   }
 
+  /**
+   * Resolves a setting that is a variable, null if the variable isn't set.
+   */
+  private static String substitute( String value, VariableSpace variableSpace ) {
+    if ( StringUtil.isVariable( value ) ) {
+      return variableSpace.getVariable( StringUtil.getVariableName( value ) ) != null
+        ? variableSpace.environmentSubstitute( value ) : null;
+    }
+    return value;
+  }
+
+  private static String buildURL( String scheme, String ncHostname, String ncPort, String ncUsername,
+                                  String ncPassword ) {
+    ncHostname = ncHostname != null ? ncHostname.trim() : "";
+    if ( ncPort == null ) {
+      ncPort = "-1";
+    } else {
+      ncPort = ncPort.trim();
+      if ( Utils.isEmpty( ncPort ) ) {
+        ncPort = "-1";
+      }
+    }
+    ncUsername = ncUsername != null ? ncUsername.trim() : "";
+    ncPassword = ncPassword != null ? ncPassword.trim() : "";
+
+    UrlFileName file =
+      new UrlFileName( scheme, ncHostname, Integer.parseInt( ncPort ), -1, ncUsername, ncPassword, null, null,
+        null );
+    String clusterURL = file.getURI();
+    if ( clusterURL.endsWith( "/" ) ) {
+      clusterURL = clusterURL.substring( 0, clusterURL.lastIndexOf( '/' ) );
+    }
+    return clusterURL;
+  }
+
+  private UrlTemplate getUrlTemplate() {
+    UrlTemplate template = urlTemplate;
+    if ( template == null ) {
+      template = new UrlTemplate( getHdfsHost() != null ? getHdfsHost() : "",
+        getHdfsPort() != null ? getHdfsPort() : "", getHdfsUsername() != null ? getHdfsUsername() : "",
+        getHdfsPassword() != null ? decodePassword( getHdfsPassword() ) : "" );
+      urlTemplate = template;
+    }
+    return template;
+  }
+
+  /**
+   * The HDFS settings of the cluster with the password decoded. The URL of a cluster whose settings have no variables
+   * is the same for every variable space, so it is built once per scheme.
+   */
+  private static final class UrlTemplate {
+    private final String hostname;
+    private final String port;
+    private final String username;
+    private final String password;
+    private final boolean hasVariables;
+    private final Map<String, String> urls = new ConcurrentHashMap<>();
+
+    private UrlTemplate( String hostname, String port, String username, String password ) {
+      this.hostname = hostname;
+      this.port = port;
+      this.username = username;
+      this.password = password;
+      this.hasVariables = StringUtil.isVariable( hostname ) || StringUtil.isVariable( port )
+        || StringUtil.isVariable( username ) || StringUtil.isVariable( password );
+    }
+
+    private String buildURL( String scheme ) {
+      return NamedClusterImpl.buildURL( scheme, hostname, port, username, password );
+    }
+  }
+
   /* (non-Javadoc)
    * @see java.lang.Object#equals(java.lang.Object)
    */
@@ -465,6 +518,7 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
 
   public void setHdfsHost( String hdfsHost ) {
     this.hdfsHost = hdfsHost;
+    urlTemplate = null;
   }
 
   public String getHdfsPort() {
@@ -473,6 +527,7 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
 
   public void setHdfsPort( String hdfsPort ) {
     this.hdfsPort = hdfsPort;
+    urlTemplate = null;
   }
 
   public String getHdfsUsername() {
@@ -481,6 +536,7 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
 
   public void setHdfsUsername( String hdfsUsername ) {
     this.hdfsUsername = hdfsUsername;
+    urlTemplate = null;
   }
 
   public String getHdfsPassword() {
@@ -489,6 +545,7 @@ public class NamedClusterImpl implements NamedCluster, NamedClusterOsgi {
 
   public void setHdfsPassword( String hdfsPassword ) {
     this.hdfsPassword = hdfsPassword;
+    urlTemplate = null;
   }
 
   public String getJobTrackerHost() {
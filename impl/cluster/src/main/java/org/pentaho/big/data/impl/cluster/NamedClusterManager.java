@@ -31,6 +31,7 @@ import org.pentaho.di.core.osgi.impl.NamedClusterSiteFileImpl;
 import org.pentaho.di.core.plugins.LifecyclePluginType;
 import org.pentaho.di.core.plugins.PluginInterface;
 import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.steps.named.cluster.NamedClusterEmbedManager;
@@ -54,14 +55,27 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class NamedClusterManager implements NamedClusterService {
 
   private static NamedClusterManager instance = new NamedClusterManager();
   public static final String BIG_DATA_SLAVE_METASTORE_DIR = "hadoop.configurations.path";
+  /**
+   * Variable with the number of milliseconds after which cached named clusters are checked for changes made outside
+   * this manager, 0 to read the metastore on every lookup
+   */
+  public static final String CLUSTER_CACHE_REVALIDATE_PROPERTY = "KETTLE_NAMED_CLUSTER_CACHE_REVALIDATE";
+  public static final long DEFAULT_CLUSTER_CACHE_REVALIDATE_MILLIS = 5000L;
   private static final Class<?> PKG = NamedClusterManager.class;
-  private Map<IMetaStore, MetaStoreFactory<NamedClusterImpl>> factoryMap = new HashMap<>();
+  private Map<IMetaStore, MetaStoreFactory<NamedClusterImpl>> factoryMap = new ConcurrentHashMap<>();
+  private final NamedClusterCache clusterCache = new NamedClusterCache(
+    Const.toLong( EnvUtil.getSystemProperty( CLUSTER_CACHE_REVALIDATE_PROPERTY ),
+      DEFAULT_CLUSTER_CACHE_REVALIDATE_MILLIS ), System::currentTimeMillis );
+  private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
   private NamedCluster clusterTemplate;
 
   private LogChannel log = new LogChannel( this );
@@ -104,10 +118,43 @@ public class NamedClusterManager implements NamedClusterService {
   @VisibleForTesting
   void putMetaStoreFactory( IMetaStore metastore, MetaStoreFactory<NamedClusterImpl> metaStoreFactory ) {
     factoryMap.put( metastore, metaStoreFactory );
+    clusterCache.invalidate( metastore );
   }
 
   @Override public void close( IMetaStore metastore ) {
-    factoryMap.remove( metastore );
+    if ( metastore != null ) {
+      factoryMap.remove( metastore );
+    }
+    clusterCache.invalidate( metastore );
+  }
+
+  /**
+   * Registers a listener that is called after a named cluster is created, updated or deleted through this manager, so
+   * that what was looked up before can be dropped.
+   */
+  public void addChangeListener( Runnable listener ) {
+    changeListeners.add( listener );
+  }
+
+  private void clustersChanged( IMetaStore metastore ) {
+    clusterCache.invalidate( metastore );
+    for ( Runnable listener : changeListeners ) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Returns the named clusters of the given metastore, indexed by name and host.
+   *
+   * @param found tells whether the clusters hold what is looked for, they are read again if they may not
+   */
+  private NamedClusterCache.Clusters getClusters( IMetaStore metastore, Predicate<NamedClusterCache.Clusters> found )
+    throws MetaStoreException {
+    return clusterCache.get( metastore, () -> list( metastore ), found );
+  }
+
+  private boolean hasCluster( String clusterName, IMetaStore metastore ) throws MetaStoreException {
+    return getClusters( metastore, clusters -> clusters.contains( clusterName ) ).contains( clusterName );
   }
 
   @Override
@@ -136,16 +183,17 @@ public class NamedClusterManager implements NamedClusterService {
   @Override
   public void create( NamedCluster namedCluster, IMetaStore metastore ) throws MetaStoreException {
     getMetaStoreFactory( metastore ).saveElement( new NamedClusterImpl( namedCluster ) );
+    clustersChanged( metastore );
   }
 
   @Override
   public NamedCluster read( String clusterName, IMetaStore metastore ) throws MetaStoreException {
     MetaStoreFactory<NamedClusterImpl> factory = getMetaStoreFactory( metastore );
 
-    if ( metastore == null || !listNames( metastore ).contains( clusterName ) ) {
+    if ( metastore == null || !hasCluster( clusterName, metastore ) ) {
       // only try the slave metastore if the given one fails
       IMetaStore slaveMetastore = getSlaveServerMetastore();
-      if ( slaveMetastore != null && listNames( slaveMetastore ).contains( clusterName ) ) {
+      if ( slaveMetastore != null && hasCluster( clusterName, slaveMetastore ) ) {
         factory = getMetaStoreFactory( slaveMetastore );
       }
     }
@@ -172,11 +220,13 @@ public class NamedClusterManager implements NamedClusterService {
         factory.saveElement( new NamedClusterImpl( namedCluster ) );
       }
     }
+    clustersChanged( metastore );
   }
 
   @Override
   public void delete( String clusterName, IMetaStore metastore ) throws MetaStoreException {
     getMetaStoreFactory( metastore ).deleteElement( clusterName );
+    clustersChanged( metastore );
   }
 
   @Override
@@ -254,16 +304,10 @@ public class NamedClusterManager implements NamedClusterService {
 
   private NamedCluster searchMetastoreByName( String namedCluster, IMetaStore metastore ) {
     try {
-      List<NamedCluster> namedClusters = list( metastore );
-      for ( NamedCluster nc : namedClusters ) {
-        if ( nc.getName().equals( namedCluster ) ) {
-          return nc;
-        }
-      }
+      return getClusters( metastore, clusters -> clusters.contains( namedCluster ) ).getByName( namedCluster );
     } catch ( MetaStoreException e ) {
       return null;
     }
-    return null;
   }
 
   public Map<String, Object> getProperties() {
@@ -290,17 +334,12 @@ public class NamedClusterManager implements NamedClusterService {
 
   private NamedCluster searchMetastoreByHost( String hostName, IMetaStore metastore ) {
     try {
-      List<NamedCluster> namedClusters = list( metastore );
-      for ( NamedCluster nc : namedClusters ) {
-        if ( hostName.equals( nc.getHdfsHost() ) ) {
-          loadSiteFilesIfNecessary( nc, metastore );
-          return nc;
-        }
-      }
+      NamedCluster nc = getClusters( metastore, clusters -> clusters.containsHost( hostName ) ).getByHost( hostName );
+      loadSiteFilesIfNecessary( nc, metastore );
+      return nc;
     } catch ( MetaStoreException e ) {
       return null;
     }
-    return null;
   }
 
   @Override
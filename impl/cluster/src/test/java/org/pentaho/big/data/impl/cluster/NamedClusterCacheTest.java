@@ -0,0 +1,165 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.cluster;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+import org.pentaho.metastore.api.IMetaStore;
+import org.pentaho.metastore.stores.xml.XmlMetaStore;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NamedClusterCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private AtomicLong now;
+  private AtomicInteger loads;
+  private NamedClusterCache cache;
+  private NamedClusterCache.Loader loader;
+
+  @Before
+  public void setup() {
+    now = new AtomicLong( 1000L );
+    loads = new AtomicInteger();
+    cache = new NamedClusterCache( 100L, now::get );
+    loader = () -> {
+      loads.incrementAndGet();
+      return Collections.singletonList( cluster( "cluster", "host" ) );
+    };
+  }
+
+  private static NamedCluster cluster( String name, String host ) {
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( name );
+    namedCluster.setHdfsHost( host );
+    namedCluster.setLastModifiedDate( 42L );
+    return namedCluster;
+  }
+
+  @Test
+  public void testClustersAreIndexedByNameAndHost() throws Exception {
+    NamedClusterCache.Clusters clusters = cache.get( mock( IMetaStore.class ),
+      () -> Arrays.asList( cluster( "a", "host1" ), cluster( "b", "host2" ), cluster( "c", "host1" ) ) );
+
+    assertEquals( "b", clusters.getByName( "b" ).getName() );
+    assertEquals( "a", clusters.getByHost( "host1" ).getName() );
+    assertEquals( 42L, clusters.getByHost( "host2" ).getLastModifiedDate() );
+    assertNull( clusters.getByName( "d" ) );
+    assertNull( clusters.getByHost( "host3" ) );
+  }
+
+  @Test
+  public void testClustersAreReadAgainAfterTheRevalidationInterval() throws Exception {
+    IMetaStore metaStore = mock( IMetaStore.class );
+    cache.get( metaStore, loader );
+    now.addAndGet( 99L );
+    cache.get( metaStore, loader );
+    assertEquals( 1, loads.get() );
+
+    now.addAndGet( 1L );
+    cache.get( metaStore, loader );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testInvalidateDropsTheClustersOfOneMetastore() throws Exception {
+    IMetaStore metaStore = mock( IMetaStore.class );
+    IMetaStore otherMetaStore = mock( IMetaStore.class );
+    cache.get( metaStore, loader );
+    cache.get( otherMetaStore, loader );
+
+    cache.invalidate( metaStore );
+    cache.get( metaStore, loader );
+    cache.get( otherMetaStore, loader );
+    assertEquals( 3, loads.get() );
+  }
+
+  @Test
+  public void testXmlMetaStoreClustersAreKeptUntilTheirFilesChange() throws Exception {
+    File root = temporaryFolder.getRoot();
+    File clusterFolder = new File( root, "pentaho" + File.separator + "NamedCluster" );
+    clusterFolder.mkdirs();
+    File clusterFile = new File( clusterFolder, "cluster.xml" );
+    Files.write( clusterFile.toPath(), "<element/>".getBytes( StandardCharsets.UTF_8 ) );
+
+    XmlMetaStore metaStore = mock( XmlMetaStore.class );
+    when( metaStore.getRootFolder() ).thenReturn( root.getAbsolutePath() );
+    XmlMetaStore sameFolder = mock( XmlMetaStore.class );
+    when( sameFolder.getRootFolder() ).thenReturn( root.getAbsolutePath() );
+
+    cache.get( metaStore, loader );
+    now.addAndGet( 500L );
+    cache.get( sameFolder, loader );
+    assertEquals( 1, loads.get() );
+
+    Files.write( clusterFile.toPath(), "<element></element>".getBytes( StandardCharsets.UTF_8 ) );
+    now.addAndGet( 500L );
+    cache.get( metaStore, loader );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testCacheIsBypassedWithoutRevalidationInterval() throws Exception {
+    cache = new NamedClusterCache( 0L, now::get );
+    IMetaStore metaStore = mock( IMetaStore.class );
+    cache.get( metaStore, loader );
+    cache.get( metaStore, loader );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testMissesReadTheClustersAgain() throws Exception {
+    IMetaStore metaStore = mock( IMetaStore.class );
+    cache.get( metaStore, loader );
+    cache.get( metaStore, loader, clusters -> clusters.contains( "cluster" ) );
+    assertEquals( 1, loads.get() );
+
+    cache.get( metaStore, loader, clusters -> clusters.contains( "other" ) );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testXmlMetaStoreMissesCheckTheClusterFiles() throws Exception {
+    File root = temporaryFolder.getRoot();
+    File clusterFolder = new File( root, "pentaho" + File.separator + "NamedCluster" );
+    clusterFolder.mkdirs();
+    Files.write( new File( clusterFolder, "cluster.xml" ).toPath(), "<element/>".getBytes( StandardCharsets.UTF_8 ) );
+    XmlMetaStore metaStore = mock( XmlMetaStore.class );
+    when( metaStore.getRootFolder() ).thenReturn( root.getAbsolutePath() );
+
+    cache.get( metaStore, loader );
+    cache.get( metaStore, loader, clusters -> clusters.containsHost( "other" ) );
+    assertEquals( 1, loads.get() );
+
+    Files.write( new File( clusterFolder, "other.xml" ).toPath(), "<element/>".getBytes( StandardCharsets.UTF_8 ) );
+    cache.get( metaStore, loader, clusters -> clusters.containsHost( "other" ) );
+    assertEquals( 2, loads.get() );
+  }
+}
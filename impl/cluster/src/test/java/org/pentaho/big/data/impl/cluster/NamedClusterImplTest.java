@@ -58,6 +58,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -458,9 +459,6 @@ public class NamedClusterImplTest {
     when( variableSpace.getVariable( "hostUrl" ) ).thenReturn( hostName );
     when( variableSpace.environmentSubstitute( namedCluster.getHdfsHost() ) ).thenReturn( hostName );
     when( variableSpace.environmentSubstitute( incomingURL ) ).thenReturn( hostName + "/test" );
-    String pathWithoutPrefix = "//" + hostName + ":" + hostPort + "//hdfsUrl//test";
-    String pathWithPrefix = HDFS_PREFIX + ":" + pathWithoutPrefix;
-    buildExtractSchemeMocks( HDFS_PREFIX, pathWithPrefix, pathWithoutPrefix );
     assertEquals( "hdfs://" + hostName + ":" + hostPort + incomingURL,
       namedCluster.processURLsubstitution( incomingURL, metaStore, variableSpace ) );
   }
@@ -477,10 +475,7 @@ public class NamedClusterImplTest {
     namedCluster.setHdfsUsername( "" );
     namedCluster.setHdfsPassword( "" );
     String incomingURL = "${" + variableName + "}/test";
-    String pathWithoutPrefix = "//" + hostname + ":" + hostPort + "//" + variableName + "//test";
-    String pathWithPrefix = HDFS_PREFIX + ":" + pathWithoutPrefix;
     when( variableSpace.environmentSubstitute( incomingURL ) ).thenReturn( "hdfs://FullyQualifiedPath/test" );
-    buildExtractSchemeMocks( HDFS_PREFIX, pathWithPrefix, pathWithoutPrefix );
     assertEquals( incomingURL, namedCluster.processURLsubstitution( incomingURL, metaStore, variableSpace ) );
   }
 
@@ -521,6 +516,57 @@ public class NamedClusterImplTest {
     assertEquals( incomingURL, namedCluster.processURLsubstitution( incomingURL, metaStore, variableSpace ) );
   }
 
+  @Test
+  public void testProcessURLSubstitutionVariants() {
+    namedCluster.setHdfsHost( "hostname" );
+    namedCluster.setHdfsPort( "8020" );
+    namedCluster.setHdfsUsername( null );
+    namedCluster.setHdfsPassword( null );
+    namedCluster.setMapr( false );
+    for ( String scheme : new String[] { "hdfs", "wasb", "s3" } ) {
+      namedCluster.setStorageScheme( scheme );
+      assertEquals( scheme + "://hostname:8020/tmp/file.txt",
+        namedCluster.processURLsubstitution( "/tmp/file.txt", metaStore, null ) );
+    }
+
+    namedCluster.setMapr( true );
+    assertEquals( "maprfs:///tmp/file.txt", namedCluster.processURLsubstitution( "/tmp/file.txt", metaStore, null ) );
+
+    namedCluster.setMapr( false );
+    namedCluster.setUseGateway( true );
+    assertEquals( "hc://" + namedClusterName + "/tmp/file.txt",
+      namedCluster.processURLsubstitution( "/tmp/file.txt", metaStore, null ) );
+  }
+
+  @Test
+  public void testGenerateURLIsBuiltOnceUntilTheSettingsChange() {
+    namedCluster.setHdfsHost( "hostname" );
+    namedCluster.setHdfsPort( "8020" );
+    namedCluster.setHdfsUsername( null );
+    namedCluster.setHdfsPassword( null );
+    String url = namedCluster.generateURL( "hdfs", metaStore, null );
+    assertEquals( "hdfs://hostname:8020", url );
+    assertSame( url, namedCluster.generateURL( "hdfs", metaStore, null ) );
+    assertEquals( "wasb://hostname:8020", namedCluster.generateURL( "wasb", metaStore, null ) );
+
+    namedCluster.setHdfsPort( "9000" );
+    assertEquals( "hdfs://hostname:9000", namedCluster.generateURL( "hdfs", metaStore, null ) );
+    namedCluster.setHdfsHost( "other" );
+    assertEquals( "hdfs://other:9000", namedCluster.generateURL( "hdfs", metaStore, null ) );
+  }
+
+  @Test
+  public void testGenerateURLResolvesVariablesOnEveryCall() {
+    namedCluster.setHdfsHost( "${hostVar}" );
+    namedCluster.setHdfsPort( "8020" );
+    namedCluster.setHdfsUsername( null );
+    namedCluster.setHdfsPassword( null );
+    when( variableSpace.getVariable( "hostVar" ) ).thenReturn( "first", "second" );
+    when( variableSpace.environmentSubstitute( "${hostVar}" ) ).thenReturn( "first", "second" );
+    assertEquals( "hdfs://first:8020", namedCluster.generateURL( "hdfs", metaStore, variableSpace ) );
+    assertEquals( "hdfs://second:8020", namedCluster.generateURL( "hdfs", metaStore, variableSpace ) );
+  }
+
   @Test
   public void testGenerateURLHDFSNoPort() {
     String scheme = "hdfs";
@@ -38,11 +38,13 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
@@ -148,6 +150,50 @@ public class NamedClusterManagerTest {
     verify( metaStoreFactory ).deleteElement( testName );
   }
 
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testReadLooksTheClusterUpInTheCachedClusters() throws MetaStoreException {
+    String testName = "testName";
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( testName );
+    List namedClusters = new ArrayList<>( Arrays.asList( namedCluster ) );
+    when( metaStoreFactory.getElements( anyBoolean(), any( List.class ) ) ).thenReturn( namedClusters );
+    when( metaStoreFactory.loadElement( testName ) ).thenReturn( namedCluster );
+
+    assertTrue( namedCluster == namedClusterManager.read( testName, metaStore ) );
+    assertTrue( namedCluster == namedClusterManager.read( testName, metaStore ) );
+    verify( metaStoreFactory, times( 1 ) ).getElements( anyBoolean(), any( List.class ) );
+    verify( metaStoreFactory, never() ).getElementNames( anyBoolean() );
+    verify( namedClusterManager, never() ).getSlaveServerMetastore();
+  }
+
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testClusterAddedOutsideTheManagerIsFoundRightAway() throws MetaStoreException {
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( "testName" );
+    when( metaStoreFactory.getElements( anyBoolean(), any( List.class ) ) ).thenReturn( new ArrayList<>() )
+      .thenReturn( new ArrayList<>( Arrays.asList( namedCluster ) ) );
+
+    assertNull( namedClusterManager.getNamedClusterByName( "otherName", metaStore ) );
+    assertEquals( namedCluster, namedClusterManager.getNamedClusterByName( "testName", metaStore ) );
+  }
+
+  @Test
+  public void testChangesAreReportedToListeners() throws MetaStoreException {
+    AtomicInteger changes = new AtomicInteger();
+    namedClusterManager.addChangeListener( changes::incrementAndGet );
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( "testName" );
+
+    namedClusterManager.read( "testName", metaStore );
+    assertEquals( 0, changes.get() );
+    namedClusterManager.create( namedCluster, metaStore );
+    namedClusterManager.update( namedCluster, metaStore );
+    namedClusterManager.delete( "testName", metaStore );
+    assertEquals( 3, changes.get() );
+  }
+
   @Test
   public void testList() throws MetaStoreException {
     NamedClusterImpl namedCluster = new NamedClusterImpl();
@@ -196,14 +242,22 @@ public class NamedClusterManagerTest {
   @SuppressWarnings( "unchecked" )
   public void testGetNamedClusterByName() throws MetaStoreException {
     String testName = "testName";
-    NamedCluster namedCluster = mock( NamedCluster.class );
-    when( namedCluster.getName() ).thenReturn( testName );
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( testName );
     List namedClusters = new ArrayList<>( Arrays.asList( namedCluster ) );
     when( metaStoreFactory.getElements( anyBoolean(), any( List.class ) ) ).thenReturn( namedClusters )
-      .thenReturn( namedClusters ).thenThrow( new MetaStoreException() );
+      .thenThrow( new MetaStoreException() );
     assertNull( namedClusterManager.getNamedClusterByName( testName, null ) );
-    assertEquals( namedCluster, namedClusterManager.getNamedClusterByName( testName, metaStore ) );
+    NamedCluster found = namedClusterManager.getNamedClusterByName( testName, metaStore );
+    assertEquals( namedCluster, found );
+    assertNotSame( namedCluster, found );
     assertNull( namedClusterManager.getNamedClusterByName( "fakeName", metaStore ) );
+    assertEquals( namedCluster, namedClusterManager.getNamedClusterByName( testName, metaStore ) );
+    // the miss read the metastore again
+    verify( metaStoreFactory, times( 2 ) ).getElements( anyBoolean(), any( List.class ) );
+
+    // deleting through the manager drops the cached clusters, so the failing read is seen
+    namedClusterManager.delete( "otherName", metaStore );
     assertNull( namedClusterManager.getNamedClusterByName( testName, metaStore ) );
   }
 
@@ -212,18 +266,42 @@ public class NamedClusterManagerTest {
   public void testGetNamedClusterByHost() throws MetaStoreException {
     String testName = "testName";
     String testHostName = "testHostName";
-    NamedCluster namedCluster = mock( NamedCluster.class );
-    when( namedCluster.getName() ).thenReturn( testName );
-    when( namedCluster.getHdfsHost() ).thenReturn( testHostName );
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( testName );
+    namedCluster.setHdfsHost( testHostName );
     List namedClusters = new ArrayList<>( Arrays.asList( namedCluster ) );
     when( metaStoreFactory.getElements( anyBoolean(), any( List.class ) ) ).thenReturn( namedClusters )
-      .thenReturn( namedClusters ).thenThrow( new MetaStoreException() );
+      .thenThrow( new MetaStoreException() );
     assertNull( namedClusterManager.getNamedClusterByHost( testHostName, null ) );
     assertEquals( namedCluster, namedClusterManager.getNamedClusterByHost( testHostName, metaStore ) );
     assertNull( namedClusterManager.getNamedClusterByHost( "fakeName", metaStore ) );
+    assertEquals( namedCluster, namedClusterManager.getNamedClusterByHost( testHostName, metaStore ) );
+    // the miss read the metastore again
+    verify( metaStoreFactory, times( 2 ) ).getElements( anyBoolean(), any( List.class ) );
+
+    namedClusterManager.create( new NamedClusterImpl(), metaStore );
     assertNull( namedClusterManager.getNamedClusterByHost( testHostName, metaStore ) );
   }
 
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testManyLookupsReadTheMetastoreOnce() throws MetaStoreException {
+    List namedClusters = new ArrayList<>();
+    for ( int i = 0; i < 200; i++ ) {
+      NamedClusterImpl namedCluster = new NamedClusterImpl();
+      namedCluster.setName( "cluster" + i );
+      namedCluster.setHdfsHost( "host" + i );
+      namedClusters.add( namedCluster );
+    }
+    when( metaStoreFactory.getElements( anyBoolean(), any( List.class ) ) ).thenReturn( namedClusters );
+
+    for ( int i = 0; i < 10000; i++ ) {
+      assertEquals( "cluster" + ( i % 200 ),
+        namedClusterManager.getNamedClusterByHost( "host" + ( i % 200 ), metaStore ).getName() );
+    }
+    verify( metaStoreFactory, times( 1 ) ).getElements( anyBoolean(), any( List.class ) );
+  }
+
   @Test
   public void testGetMetaStoreFactoryEmbeddedMetaStoreSuccess() throws MetaStoreException {
     NamedClusterManager namedClusterManager = new NamedClusterManager();
@@ -17,31 +17,77 @@ package org.pentaho.big.data.impl.vfs.hdfs;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.NameScope;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.pentaho.di.core.Const;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
 
-
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+/**
+ * A file in HDFS.
+ * <p>
+ * The status of the file is fetched from the NameNode once and kept until the file is changed through this object or
+ * refreshed, so resolving the type, size and modification time of a file costs a single call. Listing a folder passes
+ * the statuses returned by the listing on to its children, so they don't need a call of their own.
+ * <p>
+ * Random access reads go through {@link HDFSRandomAccessContent}. The number of bytes it reads ahead of small reads
+ * can be set with the {@value #READAHEAD_PROPERTY} property of the cluster configuration.
+ */
 public class HDFSFileObject extends AbstractFileObject  {
 
+  /** Hadoop property with the number of bytes read ahead of small random access reads */
+  public static final String READAHEAD_PROPERTY = "pentaho.hdfs.random.access.readahead";
+
+  public static final int DEFAULT_READAHEAD = 64 * 1024;
+
   private HadoopFileSystem hdfs;
 
+  /** The status of the file, null if it wasn't fetched yet or the file doesn't exist */
+  private volatile HadoopFileStatus status;
+
   public HDFSFileObject( final AbstractFileName name, final HDFSFileSystem fileSystem ) throws FileSystemException {
     super( name, fileSystem );
     hdfs = fileSystem.getHDFSFileSystem();
   }
 
+  /**
+   * Returns the status of the file, fetching it from the NameNode if it isn't known yet.
+   */
+  private HadoopFileStatus getStatus() throws Exception {
+    HadoopFileStatus current = status;
+    if ( current == null ) {
+      current = hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) );
+      status = current;
+    }
+    return current;
+  }
+
+  /**
+   * Sets the status of the file as returned by the listing of its parent folder.
+   */
+  void setStatus( HadoopFileStatus status ) {
+    this.status = status;
+  }
+
+  private void clearStatus() {
+    status = null;
+  }
+
   @Override
   protected long doGetContentSize() throws Exception {
-    return hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) ).getLen();
+    return getStatus().getLen();
   }
 
   @Override
   protected OutputStream doGetOutputStream( boolean append ) throws Exception {
+    clearStatus();
     OutputStream out;
     if ( append ) {
       out = hdfs.append( hdfs.getPath( getName().getPath() ) );
@@ -58,24 +104,34 @@ public class HDFSFileObject extends AbstractFileObject  {
 
   @Override
   protected InputStream doGetInputStream( final int bufferSize ) throws Exception {
-    return this.doGetInputStream();
+    InputStream in = this.doGetInputStream();
+    return bufferSize > 0 ? new BufferedInputStream( in, bufferSize ) : in;
+  }
+
+  @Override
+  protected RandomAccessContent doGetRandomAccessContent( final RandomAccessMode mode ) throws Exception {
+    if ( mode.requestWrite() ) {
+      throw new FileSystemException( "vfs.provider/random-access-not-supported.error" );
+    }
+    int readahead = Const.toInt( hdfs.getProperty( READAHEAD_PROPERTY, null ), DEFAULT_READAHEAD );
+    return new HDFSRandomAccessContent( this::doGetInputStream, doGetContentSize(), readahead );
   }
 
   @Override
   protected FileType doGetType() throws Exception {
-    HadoopFileStatus status = null;
+    HadoopFileStatus fileStatus = null;
     if ( null == hdfs ) {
       throw new IllegalStateException( "No HDFS file system present" );
     }
     try {
-      status = hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) );
+      fileStatus = getStatus();
     } catch ( Exception ex ) {
       // Ignore
     }
 
-    if ( status == null ) {
+    if ( fileStatus == null ) {
       return FileType.IMAGINARY;
-    } else if ( status.isDir() ) {
+    } else if ( fileStatus.isDir() ) {
       return FileType.FOLDER;
     } else {
       return FileType.FILE;
@@ -84,26 +140,33 @@ public class HDFSFileObject extends AbstractFileObject  {
 
   @Override
   public void doCreateFolder() throws Exception {
+    clearStatus();
     hdfs.mkdirs( hdfs.getPath( getName().getPath() ) );
   }
 
   @Override
   public void doDelete() throws Exception {
+    clearStatus();
     hdfs.delete( hdfs.getPath( getName().getPath() ), true );
   }
 
   @Override
   protected void doRename( FileObject newfile ) throws Exception {
+    clearStatus();
+    if ( newfile instanceof HDFSFileObject ) {
+      ( (HDFSFileObject) newfile ).clearStatus();
+    }
     hdfs.rename( hdfs.getPath( getName().getPath() ), hdfs.getPath( newfile.getName().getPath() ) );
   }
 
   @Override
   protected long doGetLastModifiedTime() throws Exception {
-    return hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) ).getModificationTime();
+    return getStatus().getModificationTime();
   }
 
   @Override
   protected boolean doSetLastModifiedTime( long modtime ) throws Exception {
+    clearStatus();
     hdfs.setTimes( hdfs.getPath( getName().getPath() ), modtime, System.currentTimeMillis() );
     return true;
   }
@@ -118,4 +181,31 @@ public class HDFSFileObject extends AbstractFileObject  {
     return children;
   }
 
+  @Override
+  protected FileObject[] doListChildrenResolved() throws Exception {
+    HadoopFileStatus[] statusList = hdfs.listStatus( hdfs.getPath( getName().getPath() ) );
+    FileObject[] children = new FileObject[ statusList.length ];
+    for ( int i = 0; i < statusList.length; i++ ) {
+      // the ./ prefix keeps names containing a colon from being taken for a scheme
+      FileObject child = resolveFile( "./" + statusList[ i ].getPath().getName(), NameScope.CHILD );
+      if ( child instanceof HDFSFileObject ) {
+        ( (HDFSFileObject) child ).setStatus( statusList[ i ] );
+      }
+      children[ i ] = child;
+    }
+    return children;
+  }
+
+  @Override
+  protected void onChange() throws Exception {
+    clearStatus();
+    super.onChange();
+  }
+
+  @Override
+  protected void doDetach() throws Exception {
+    clearStatus();
+    super.doDetach();
+  }
+
 }
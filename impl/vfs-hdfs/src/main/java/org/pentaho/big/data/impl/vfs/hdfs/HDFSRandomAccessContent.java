@@ -0,0 +1,223 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Read-only random access to a file in HDFS.
+ * <p>
+ * When the stream returned by the shim supports positioned reads ({@code readFully(long, byte[], int, int)}, as the
+ * Hadoop {@code FSDataInputStream} does) every read goes to its position directly, without seeking the stream.
+ * Otherwise the stream is skipped forward, or reopened for backward seeks. Reads smaller than the readahead size are
+ * served from a buffer filled with one read at their position, so reads that are close together cost a single call.
+ */
+public class HDFSRandomAccessContent extends AbstractRandomAccessStreamContent {
+
+  /**
+   * Opens the file at its start.
+   */
+  public interface StreamOpener {
+    InputStream open() throws IOException;
+  }
+
+  private static final MethodType READ_FULLY_TYPE =
+    MethodType.methodType( void.class, InputStream.class, long.class, byte[].class, int.class, int.class );
+
+  private final StreamOpener opener;
+  private final long length;
+  private final byte[] buffer;
+
+  private InputStream in;
+  private MethodHandle readFully;
+  private long streamPosition;
+
+  private long filePointer;
+  private long bufferStart;
+  private int bufferLength;
+  private DataInputStream dataInputStream;
+
+  /**
+   * @param opener    opens the file
+   * @param length    the length of the file
+   * @param readahead the number of bytes read ahead of small reads
+   */
+  public HDFSRandomAccessContent( StreamOpener opener, long length, int readahead ) throws IOException {
+    super( RandomAccessMode.READ );
+    this.opener = opener;
+    this.length = length;
+    this.buffer = new byte[ Math.max( 1, readahead ) ];
+    openStream();
+  }
+
+  private void openStream() throws IOException {
+    in = opener.open();
+    streamPosition = 0;
+    readFully = findReadFully( in );
+  }
+
+  private static MethodHandle findReadFully( InputStream in ) {
+    try {
+      return MethodHandles.publicLookup()
+        .unreflect( in.getClass().getMethod( "readFully", long.class, byte[].class, int.class, int.class ) )
+        .asType( READ_FULLY_TYPE );
+    } catch ( ReflectiveOperationException | RuntimeException e ) {
+      return null;
+    }
+  }
+
+  @Override
+  public long getFilePointer() {
+    return filePointer;
+  }
+
+  @Override
+  public void seek( long pos ) throws IOException {
+    if ( pos < 0 ) {
+      throw new IOException( "Negative seek offset " + pos );
+    }
+    filePointer = pos;
+  }
+
+  @Override
+  public long length() {
+    return length;
+  }
+
+  @Override
+  public void setLength( long newLength ) throws IOException {
+    throw new IOException( "HDFS random access content is read only" );
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return new InputStream() {
+      @Override
+      public int read() throws IOException {
+        byte[] one = new byte[ 1 ];
+        return HDFSRandomAccessContent.this.read( one, 0, 1 ) < 0 ? -1 : one[ 0 ] & 0xff;
+      }
+
+      @Override
+      public int read( byte[] b, int off, int len ) throws IOException {
+        return HDFSRandomAccessContent.this.read( b, off, len );
+      }
+
+      @Override
+      public long skip( long n ) {
+        long skipped = Math.max( 0, Math.min( n, length - filePointer ) );
+        filePointer += skipped;
+        return skipped;
+      }
+
+      @Override
+      public int available() {
+        return (int) Math.min( Integer.MAX_VALUE, Math.max( 0, length - filePointer ) );
+      }
+    };
+  }
+
+  @Override
+  protected DataInputStream getDataInputStream() {
+    if ( dataInputStream == null ) {
+      dataInputStream = new DataInputStream( getInputStream() );
+    }
+    return dataInputStream;
+  }
+
+  /**
+   * Reads up to {@code len} bytes at the file pointer and moves the pointer past them.
+   *
+   * @return the number of bytes read, -1 at the end of the file
+   */
+  int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( filePointer >= length ) {
+      return -1;
+    }
+    int n = (int) Math.min( len, length - filePointer );
+    if ( filePointer >= bufferStart && filePointer < bufferStart + bufferLength ) {
+      n = Math.min( n, (int) ( bufferStart + bufferLength - filePointer ) );
+      System.arraycopy( buffer, (int) ( filePointer - bufferStart ), b, off, n );
+    } else if ( n >= buffer.length ) {
+      readAt( filePointer, b, off, n );
+    } else {
+      // the buffer only holds what it was last filled with once the read succeeded
+      int fill = (int) Math.min( buffer.length, length - filePointer );
+      bufferLength = 0;
+      readAt( filePointer, buffer, 0, fill );
+      bufferStart = filePointer;
+      bufferLength = fill;
+      System.arraycopy( buffer, 0, b, off, n );
+    }
+    filePointer += n;
+    return n;
+  }
+
+  private void readAt( long position, byte[] b, int off, int len ) throws IOException {
+    if ( readFully != null ) {
+      try {
+        readFully.invokeExact( in, position, b, off, len );
+        return;
+      } catch ( IOException | RuntimeException | Error e ) {
+        throw e;
+      } catch ( Throwable t ) {
+        throw new IOException( t );
+      }
+    }
+
+    if ( position < streamPosition ) {
+      in.close();
+      openStream();
+    }
+    try {
+      while ( streamPosition < position ) {
+        long skipped = in.skip( position - streamPosition );
+        if ( skipped <= 0 ) {
+          throw new EOFException( "Unable to skip to offset " + position );
+        }
+        streamPosition += skipped;
+      }
+      int read = 0;
+      while ( read < len ) {
+        int count = in.read( b, off + read, len - read );
+        if ( count < 0 ) {
+          throw new EOFException( "Unexpected end of file at offset " + ( position + read ) );
+        }
+        read += count;
+        streamPosition += count;
+      }
+    } catch ( IOException | RuntimeException e ) {
+      // the stream may have moved past the bytes that were counted, it is reopened by the next read
+      streamPosition = Long.MAX_VALUE;
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -18,7 +18,12 @@ import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
+import org.apache.commons.vfs2.impl.DefaultFileSystemManager;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.provider.GenericFileName;
+import org.apache.commons.vfs2.provider.VfsComponentContext;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -27,6 +32,8 @@ import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
 
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -34,6 +41,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -90,6 +99,31 @@ public class HDFSFileObjectTest {
     assertEquals( inputStream, hdfsFileObject.doGetInputStream() );
   }
 
+  @Test
+  public void testDoGetInputStreamHonorsBufferSize() throws Exception {
+    InputStream inputStream = mock( InputStream.class );
+    when( hadoopFileSystem.open( hadoopFileSystemPath ) ).thenReturn( inputStream );
+    assertTrue( hdfsFileObject.doGetInputStream( 8192 ) instanceof BufferedInputStream );
+    assertEquals( inputStream, hdfsFileObject.doGetInputStream( 0 ) );
+  }
+
+  @Test
+  public void testDoGetRandomAccessContent() throws Exception {
+    HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) ).thenReturn( hadoopFileStatus );
+    when( hadoopFileStatus.getLen() ).thenReturn( 4L );
+    when( hadoopFileSystem.getProperty( HDFSFileObject.READAHEAD_PROPERTY, null ) ).thenReturn( "2" );
+    when( hadoopFileSystem.open( hadoopFileSystemPath ) )
+      .thenReturn( new ByteArrayInputStream( new byte[] { 1, 2, 3, 4 } ) );
+
+    RandomAccessContent content = hdfsFileObject.doGetRandomAccessContent( RandomAccessMode.READ );
+    assertEquals( 4L, content.length() );
+    content.seek( 2 );
+    assertEquals( 3, content.readByte() );
+    assertEquals( 3L, content.getFilePointer() );
+    content.close();
+  }
+
   @Test
   public void testDoGetTypeFile() throws Exception {
     HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
@@ -176,4 +210,71 @@ public class HDFSFileObjectTest {
     assertEquals( 1, children.length );
     assertEquals( childPathName, children[ 0 ] );
   }
+
+  @Test
+  public void testStatusIsFetchedOnceUntilTheFileChanges() throws Exception {
+    HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) ).thenReturn( hadoopFileStatus );
+    when( hadoopFileStatus.getLen() ).thenReturn( 321L );
+    when( hadoopFileStatus.getModificationTime() ).thenReturn( 8988L );
+
+    assertEquals( FileType.FILE, hdfsFileObject.doGetType() );
+    assertEquals( 321L, hdfsFileObject.doGetContentSize() );
+    assertEquals( 8988L, hdfsFileObject.doGetLastModifiedTime() );
+    verify( hadoopFileSystem, times( 1 ) ).getFileStatus( hadoopFileSystemPath );
+
+    hdfsFileObject.doDelete();
+    hdfsFileObject.doGetContentSize();
+    verify( hadoopFileSystem, times( 2 ) ).getFileStatus( hadoopFileSystemPath );
+  }
+
+  @Test
+  public void testListedChildrenDoNotFetchTheirStatus() throws Exception {
+    DefaultFileSystemManager manager = new DefaultFileSystemManager();
+    manager.init();
+    VfsComponentContext context = mock( VfsComponentContext.class );
+    when( context.getFileSystemManager() ).thenReturn( manager );
+    GenericFileName root = new GenericFileName( "hdfs", "namenode", 8020, 8020, null, null, "/", FileType.FOLDER );
+    HDFSFileSystem fileSystem = new HDFSFileSystem( root, null, hadoopFileSystem );
+    fileSystem.setContext( context );
+    fileSystem.init();
+
+    HadoopFileSystemPath dirPath = mock( HadoopFileSystemPath.class );
+    when( hadoopFileSystem.getPath( "/dir" ) ).thenReturn( dirPath );
+    HadoopFileStatus dirStatus = mock( HadoopFileStatus.class );
+    when( dirStatus.isDir() ).thenReturn( true );
+    when( hadoopFileSystem.getFileStatus( dirPath ) ).thenReturn( dirStatus );
+
+    int childCount = 3;
+    HadoopFileStatus[] childStatuses = new HadoopFileStatus[ childCount ];
+    HadoopFileSystemPath[] childPaths = new HadoopFileSystemPath[ childCount ];
+    for ( int i = 0; i < childCount; i++ ) {
+      childPaths[ i ] = mock( HadoopFileSystemPath.class );
+      when( childPaths[ i ].getName() ).thenReturn( "child " + i );
+      when( hadoopFileSystem.getPath( "/dir/child " + i ) ).thenReturn( childPaths[ i ] );
+      childStatuses[ i ] = mock( HadoopFileStatus.class );
+      when( childStatuses[ i ].getPath() ).thenReturn( childPaths[ i ] );
+      when( childStatuses[ i ].getLen() ).thenReturn( 100L + i );
+    }
+    when( hadoopFileSystem.listStatus( dirPath ) ).thenReturn( childStatuses );
+
+    FileObject[] children = fileSystem.resolveFile( "/dir" ).getChildren();
+
+    assertEquals( childCount, children.length );
+    for ( int i = 0; i < childCount; i++ ) {
+      assertEquals( "child " + i, children[ i ].getName().getBaseName() );
+      assertEquals( FileType.FILE, children[ i ].getType() );
+      assertEquals( 100L + i, children[ i ].getContent().getSize() );
+    }
+    verify( hadoopFileSystem, times( 1 ) ).listStatus( dirPath );
+    for ( HadoopFileSystemPath childPath : childPaths ) {
+      verify( hadoopFileSystem, never() ).getFileStatus( childPath );
+    }
+
+    // a refreshed child asks the NameNode again
+    when( hadoopFileSystem.getFileStatus( childPaths[ 0 ] ) ).thenReturn( childStatuses[ 0 ] );
+    children[ 0 ].refresh();
+    assertEquals( FileType.FILE, children[ 0 ].getType() );
+    verify( hadoopFileSystem, times( 1 ) ).getFileStatus( childPaths[ 0 ] );
+  }
 }
@@ -0,0 +1,201 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class HDFSRandomAccessContentTest {
+
+  private byte[] data;
+
+  /**
+   * Stands in for the Hadoop FSDataInputStream, counting its positioned reads.
+   */
+  public static class PositionedStream extends ByteArrayInputStream {
+    private final byte[] bytes;
+    private int positionedReads;
+
+    public PositionedStream( byte[] bytes ) {
+      super( bytes );
+      this.bytes = bytes;
+    }
+
+    public void readFully( long position, byte[] buffer, int offset, int length ) throws IOException {
+      if ( position + length > bytes.length ) {
+        throw new IOException( "End of file" );
+      }
+      positionedReads++;
+      System.arraycopy( bytes, (int) position, buffer, offset, length );
+    }
+  }
+
+  /**
+   * Fails the next positioned read once asked to, after overwriting part of the buffer.
+   */
+  public static class FailingPositionedStream extends PositionedStream {
+    private boolean failNext;
+
+    public FailingPositionedStream( byte[] bytes ) {
+      super( bytes );
+    }
+
+    @Override
+    public void readFully( long position, byte[] buffer, int offset, int length ) throws IOException {
+      if ( failNext ) {
+        failNext = false;
+        Arrays.fill( buffer, offset, offset + length / 2, (byte) 0 );
+        throw new IOException( "Connection reset" );
+      }
+      super.readFully( position, buffer, offset, length );
+    }
+  }
+
+  @Before
+  public void setup() {
+    data = new byte[ 1000 ];
+    for ( int i = 0; i < data.length; i++ ) {
+      data[ i ] = (byte) i;
+    }
+  }
+
+  @Test
+  public void testNearbyReadsAreServedByOnePositionedRead() throws Exception {
+    PositionedStream stream = new PositionedStream( data );
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( () -> stream, data.length, 100 );
+
+    content.seek( 500 );
+    assertEquals( (byte) 500, content.readByte() );
+    content.seek( 550 );
+    assertEquals( ( ( 550 & 0xff ) << 8 ) | ( 551 & 0xff ), content.readUnsignedShort() );
+    assertEquals( 1, stream.positionedReads );
+
+    content.seek( 10 );
+    assertEquals( (byte) 10, content.readByte() );
+    assertEquals( 2, stream.positionedReads );
+    assertEquals( 11L, content.getFilePointer() );
+  }
+
+  @Test
+  public void testLargeReadsBypassTheBuffer() throws Exception {
+    PositionedStream stream = new PositionedStream( data );
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( () -> stream, data.length, 16 );
+
+    byte[] read = new byte[ 64 ];
+    content.seek( 900 );
+    content.readFully( read );
+    byte[] expected = new byte[ 64 ];
+    System.arraycopy( data, 900, expected, 0, 64 );
+    assertArrayEquals( expected, read );
+    assertEquals( 1, stream.positionedReads );
+  }
+
+  @Test
+  public void testReadsStopAtTheEndOfTheFile() throws Exception {
+    HDFSRandomAccessContent content =
+      new HDFSRandomAccessContent( () -> new PositionedStream( data ), data.length, 100 );
+
+    content.seek( 990 );
+    InputStream in = content.getInputStream();
+    byte[] read = new byte[ 50 ];
+    assertEquals( 10, in.read( read ) );
+    assertEquals( -1, in.read() );
+  }
+
+  @Test
+  public void testStreamsWithoutPositionedReadsAreSkippedOrReopened() throws Exception {
+    AtomicInteger opens = new AtomicInteger();
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( () -> {
+      opens.incrementAndGet();
+      return new ByteArrayInputStream( data );
+    }, data.length, 10 );
+
+    content.seek( 300 );
+    assertEquals( (byte) 300, content.readByte() );
+    content.seek( 305 );
+    assertEquals( (byte) 305, content.readByte() );
+    content.seek( 700 );
+    assertEquals( (byte) 700, content.readByte() );
+    assertEquals( 1, opens.get() );
+
+    content.seek( 100 );
+    assertEquals( (byte) 100, content.readByte() );
+    assertEquals( 2, opens.get() );
+  }
+
+  @Test
+  public void testFailedReadDoesNotLeaveStaleBytesInTheBuffer() throws Exception {
+    FailingPositionedStream stream = new FailingPositionedStream( data );
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( () -> stream, data.length, 100 );
+
+    content.seek( 500 );
+    assertEquals( (byte) 500, content.readByte() );
+    stream.failNext = true;
+    content.seek( 10 );
+    try {
+      content.readByte();
+      fail( "The failed read was not reported" );
+    } catch ( IOException e ) {
+      // expected
+    }
+
+    content.seek( 10 );
+    assertEquals( (byte) 10, content.readByte() );
+    content.seek( 520 );
+    assertEquals( (byte) 520, content.readByte() );
+  }
+
+  @Test
+  public void testStreamIsReopenedAfterAFailedRead() throws Exception {
+    AtomicInteger opens = new AtomicInteger();
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( () -> {
+      boolean first = opens.incrementAndGet() == 1;
+      return new ByteArrayInputStream( data ) {
+        @Override
+        public synchronized int read( byte[] b, int off, int len ) {
+          if ( first && pos >= 300 ) {
+            // a short read followed by a broken connection
+            throw new IllegalStateException( "Connection reset" );
+          }
+          return super.read( b, off, Math.min( len, 3 ) );
+        }
+      };
+    }, data.length, 10 );
+
+    content.seek( 295 );
+    try {
+      content.readByte();
+      fail( "The failed read was not reported" );
+    } catch ( IllegalStateException e ) {
+      // expected
+    }
+
+    content.seek( 295 );
+    assertEquals( (byte) 295, content.readByte() );
+    content.seek( 600 );
+    assertEquals( (byte) 600, content.readByte() );
+    assertEquals( 2, opens.get() );
+  }
+}
+
@@ -28,6 +28,11 @@ import org.pentaho.di.repository.Repository;
 import org.w3c.dom.Node;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * User: RFellows Date: 6/5/12
@@ -142,35 +147,43 @@ public abstract class AbstractJobEntry<T extends BlockableJobConfig> extends Job
     final Result jobResult = result;
     result.setResult( true );
 
-    Thread t = new Thread( getExecutionRunnable( jobResult ) );
-
-    t.setUncaughtExceptionHandler( new Thread.UncaughtExceptionHandler() {
+    final Runnable runnable = getExecutionRunnable( jobResult );
+    final CompletableFuture<Void> finished = new CompletableFuture<>();
+    JobEntryExecutionService executionService = JobEntryExecutionService.getInstance();
+    Future<?> execution = executionService.execute( new Runnable() {
       @Override
-      public void uncaughtException( Thread t, Throwable e ) {
-        handleUncaughtThreadException( t, e, jobResult );
+      public void run() {
+        try {
+          runnable.run();
+        } catch ( Throwable e ) {
+          handleUncaughtThreadException( Thread.currentThread(), e, jobResult );
+        } finally {
+          finished.complete( null );
+        }
       }
     } );
 
-    t.start();
-
     if ( JobEntryUtils.asBoolean( getJobConfig().getBlockingExecution(), variables ) ) {
-      while ( !parentJob.isStopped() && t.isAlive() ) {
-        try {
-          t.join( JobEntryUtils.asLong( getJobConfig().getBlockingPollingInterval(), variables ) );
-        } catch ( InterruptedException ex ) {
-          // ignore
-          break;
-        }
+      // Wake up as soon as the execution finishes, the parent job being stopped is polled on the shared monitor
+      long pollingInterval = JobEntryUtils.asLong( getJobConfig().getBlockingPollingInterval(), variables );
+      CompletableFuture<Void> stopped =
+        executionService.monitor( () -> parentJob.isStopped(), pollingInterval, pollingInterval );
+      try {
+        CompletableFuture.anyOf( finished, stopped ).get();
+      } catch ( InterruptedException | ExecutionException ex ) {
+        // ignore
       }
-      // If the parent job is stopped and the thread is still running make sure to interrupt it
-      if ( t.isAlive() ) {
-        t.interrupt();
+      stopped.cancel( false );
+      // If the parent job is stopped and the execution is still running make sure to interrupt it
+      if ( !finished.isDone() ) {
+        execution.cancel( true );
         setJobResultFailed( result );
       }
-      // Wait for thread to die so we get the proper return status set in jobResult before returning
+      // Wait for the execution to end so we get the proper return status set in jobResult before returning
+      // Don't wait for more than 10 seconds in case the thread is really blocked
       try {
-        t.join( 10 * 1000 ); // Don't wait for more than 10 seconds in case the thread is really blocked
-      } catch ( InterruptedException e ) {
+        finished.get( 10, TimeUnit.SECONDS );
+      } catch ( InterruptedException | ExecutionException | TimeoutException e ) {
         // ignore
       }
     }
@@ -245,10 +258,10 @@ public abstract class AbstractJobEntry<T extends BlockableJobConfig> extends Job
   protected abstract Runnable getExecutionRunnable( final Result jobResult ) throws KettleException;
 
   /**
-   * Handle any clean up required when our execution thread encounters an unexpected {@link Exception}.
+   * Handle any clean up required when our execution encounters an unexpected {@link Exception}.
    * 
    * @param t
-   *          Thread that encountered the uncaught exception
+   *          Worker thread that encountered the uncaught exception
    * @param e
    *          Exception that was encountered
    * @param jobResult
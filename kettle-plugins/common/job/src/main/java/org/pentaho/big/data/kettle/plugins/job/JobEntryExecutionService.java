@@ -0,0 +1,178 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.job;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs and follows the work of long running big data job entries on threads shared by all of them.
+ * <p>
+ * The work of an entry runs on a pool of worker threads that are reused from one run to the next instead of a new
+ * thread per run. Whatever the entries wait for, a remote job to complete or the parent job to be stopped, is polled
+ * through a {@link StatusProbe} on a single scheduler of {@value #MONITOR_THREADS} threads, instead of every entry
+ * holding a thread that sleeps between polls. The future of a probe completes as soon as the probe is done, so
+ * completion callbacks run right away.
+ */
+public class JobEntryExecutionService {
+
+  public static final int MONITOR_THREADS = 2;
+
+  private static final long WORKER_KEEP_ALIVE_SECONDS = 10L;
+
+  private static final JobEntryExecutionService INSTANCE = new JobEntryExecutionService( MONITOR_THREADS );
+
+  private final ThreadPoolExecutor workers;
+  private final ScheduledThreadPoolExecutor monitors;
+
+  JobEntryExecutionService( int monitorThreads ) {
+    // workers aren't daemons, like the threads the entries used to start, so that a run isn't cut short when the
+    // job finishes first; idle ones go away quickly
+    workers = new ThreadPoolExecutor( 0, Integer.MAX_VALUE, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+      new SynchronousQueue<Runnable>(), threadFactory( "Big data job entry worker", false ) );
+    monitors = new ScheduledThreadPoolExecutor( monitorThreads, threadFactory( "Big data job entry monitor", true ) );
+    monitors.setRemoveOnCancelPolicy( true );
+  }
+
+  public static JobEntryExecutionService getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Runs the work of a job entry on a worker thread.
+   *
+   * @param task
+   *          the work to run
+   * @return the future of the work, cancelling it with interruption interrupts the worker
+   */
+  public Future<?> execute( Runnable task ) {
+    return workers.submit( task );
+  }
+
+  /**
+   * Polls a probe until it is done. The probe is polled right away, then after {@code initialPollMillis} ms, and the
+   * delay between polls doubles every time, up to {@code maxPollMillis} ms.
+   *
+   * @param probe
+   *          the probe to poll
+   * @param initialPollMillis
+   *          the delay before the second poll
+   * @param maxPollMillis
+   *          the longest delay between two polls, the same as {@code initialPollMillis} to poll at a fixed rate
+   * @return a future completed as soon as the probe is done, or completed exceptionally if the probe fails.
+   *         Cancelling it stops the polling
+   */
+  public CompletableFuture<Void> monitor( StatusProbe probe, long initialPollMillis, long maxPollMillis ) {
+    long initial = Math.max( 1L, initialPollMillis );
+    Poll poll = new Poll( probe, initial, Math.max( initial, maxPollMillis ) );
+    poll.schedule( 0L );
+    return poll.done;
+  }
+
+  /**
+   * Waits for a future of this service, cancelling it if the calling thread is interrupted.
+   *
+   * @param future
+   *          the future to wait for
+   * @throws InterruptedException
+   *           if the calling thread was interrupted
+   * @throws ExecutionException
+   *           if the work or the probe failed, with its failure as cause
+   */
+  public static void await( Future<?> future ) throws InterruptedException, ExecutionException {
+    try {
+      future.get();
+    } catch ( InterruptedException e ) {
+      future.cancel( true );
+      throw e;
+    }
+  }
+
+  /**
+   * @return the number of threads currently polling or waiting to poll probes
+   */
+  int getMonitorThreadCount() {
+    return monitors.getPoolSize();
+  }
+
+  /**
+   * @return the number of worker threads currently alive
+   */
+  int getWorkerThreadCount() {
+    return workers.getPoolSize();
+  }
+
+  void shutdown() {
+    workers.shutdownNow();
+    monitors.shutdownNow();
+  }
+
+  private static ThreadFactory threadFactory( final String name, final boolean daemon ) {
+    final AtomicInteger threadNr = new AtomicInteger();
+    return r -> {
+      Thread t = new Thread( r, name + " " + threadNr.incrementAndGet() );
+      t.setDaemon( daemon );
+      return t;
+    };
+  }
+
+  /**
+   * The polling of one probe.
+   */
+  private final class Poll implements Runnable {
+    private final StatusProbe probe;
+    private final long maxPollMillis;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private long pollMillis;
+
+    Poll( StatusProbe probe, long initialPollMillis, long maxPollMillis ) {
+      this.probe = probe;
+      this.pollMillis = initialPollMillis;
+      this.maxPollMillis = maxPollMillis;
+    }
+
+    void schedule( long delayMillis ) {
+      if ( !done.isDone() ) {
+        monitors.schedule( this, delayMillis, TimeUnit.MILLISECONDS );
+      }
+    }
+
+    @Override
+    public void run() {
+      if ( done.isDone() ) {
+        return;
+      }
+      try {
+        if ( probe.isDone() ) {
+          done.complete( null );
+          return;
+        }
+      } catch ( Throwable t ) {
+        done.completeExceptionally( t );
+        return;
+      }
+      long delay = pollMillis;
+      pollMillis = Math.min( pollMillis * 2, maxPollMillis );
+      schedule( delay );
+    }
+  }
+}
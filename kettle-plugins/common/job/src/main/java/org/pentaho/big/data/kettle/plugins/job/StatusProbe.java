@@ -0,0 +1,29 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.job;
+
+/**
+ * Tells whether something a job entry waits for, a remote job, a process or the parent job being stopped, happened.
+ * Probes are polled by the {@link JobEntryExecutionService} and must return quickly.
+ */
+public interface StatusProbe {
+
+  /**
+   * @return {@code true} once the awaited condition is met, polling stops then
+   * @throws Exception
+   *           if the status can't be read, polling stops and the failure is reported to the waiting job entry
+   */
+  boolean isDone() throws Exception;
+}
@@ -0,0 +1,168 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.job;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JobEntryExecutionServiceTest {
+
+  private JobEntryExecutionService service;
+
+  @Before
+  public void setup() {
+    service = new JobEntryExecutionService( 2 );
+  }
+
+  @After
+  public void tearDown() {
+    service.shutdown();
+  }
+
+  /**
+   * A probe that is done once told so, counting its polls.
+   */
+  private static class FakeProbe implements StatusProbe {
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final AtomicInteger polls = new AtomicInteger();
+
+    @Override
+    public boolean isDone() {
+      polls.incrementAndGet();
+      return done.get();
+    }
+  }
+
+  @Test
+  public void testManyProbesArePolledOnTheSharedThreads() throws Exception {
+    List<FakeProbe> probes = new ArrayList<FakeProbe>();
+    List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+    for ( int i = 0; i < 50; i++ ) {
+      FakeProbe probe = new FakeProbe();
+      probes.add( probe );
+      futures.add( service.monitor( probe, 5L, 20L ) );
+    }
+    Thread.sleep( 100L );
+    assertTrue( service.getMonitorThreadCount() <= 2 );
+
+    for ( FakeProbe probe : probes ) {
+      probe.done.set( true );
+    }
+    for ( CompletableFuture<Void> future : futures ) {
+      future.get( 5, TimeUnit.SECONDS );
+    }
+    assertTrue( service.getMonitorThreadCount() <= 2 );
+  }
+
+  @Test
+  public void testCompletionIsDetectedWithinOnePollInterval() throws Exception {
+    FakeProbe probe = new FakeProbe();
+    final AtomicInteger callbacks = new AtomicInteger();
+    CompletableFuture<Void> future = service.monitor( probe, 20L, 20L );
+    future.thenRun( callbacks::incrementAndGet );
+    Thread.sleep( 50L );
+    assertFalse( future.isDone() );
+
+    long start = System.nanoTime();
+    probe.done.set( true );
+    future.get( 5, TimeUnit.SECONDS );
+    long latencyMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+    assertTrue( "completion detected after " + latencyMillis + " ms", latencyMillis < 1000L );
+    assertEquals( 1, callbacks.get() );
+  }
+
+  @Test
+  public void testPollingBacksOff() throws Exception {
+    FakeProbe probe = new FakeProbe();
+    CompletableFuture<Void> future = service.monitor( probe, 10L, 80L );
+    Thread.sleep( 500L );
+    future.cancel( false );
+    // polling at a fixed 10 ms would be about 50 polls, backing off to 80 ms it is about 10
+    assertTrue( "polled " + probe.polls.get() + " times", probe.polls.get() < 20 );
+    assertTrue( probe.polls.get() > 2 );
+  }
+
+  @Test
+  public void testCancelledProbeIsNotPolledAnymore() throws Exception {
+    FakeProbe probe = new FakeProbe();
+    CompletableFuture<Void> future = service.monitor( probe, 5L, 5L );
+    Thread.sleep( 50L );
+    future.cancel( false );
+    Thread.sleep( 20L );
+    int polls = probe.polls.get();
+    Thread.sleep( 50L );
+    assertEquals( polls, probe.polls.get() );
+  }
+
+  @Test
+  public void testProbeFailureIsReported() throws Exception {
+    final IOException error = new IOException( "status unavailable" );
+    CompletableFuture<Void> future = service.monitor( () -> {
+      throw error;
+    }, 5L, 5L );
+    try {
+      JobEntryExecutionService.await( future );
+      fail( "the probe failure should have been reported" );
+    } catch ( ExecutionException e ) {
+      assertSame( error, e.getCause() );
+    }
+  }
+
+  @Test
+  public void testWorkerThreadsAreReused() throws Exception {
+    for ( int i = 0; i < 20; i++ ) {
+      service.execute( () -> {
+      } ).get( 5, TimeUnit.SECONDS );
+      // give the worker the time to go back to the pool
+      Thread.sleep( 10L );
+    }
+    assertEquals( 1, service.getWorkerThreadCount() );
+  }
+
+  @Test
+  public void testCancelledExecutionIsInterrupted() throws Exception {
+    final CountDownLatch started = new CountDownLatch( 1 );
+    final CountDownLatch interrupted = new CountDownLatch( 1 );
+    Future<?> execution = service.execute( () -> {
+      started.countDown();
+      try {
+        Thread.sleep( 10000L );
+      } catch ( InterruptedException e ) {
+        interrupted.countDown();
+      }
+    } );
+    assertTrue( started.await( 5, TimeUnit.SECONDS ) );
+    execution.cancel( true );
+    assertTrue( interrupted.await( 5, TimeUnit.SECONDS ) );
+  }
+}
@@ -77,6 +77,33 @@ public final class HadoopExecutionLogging implements AutoCloseable {
     }
   }
 
+  /**
+   * Wraps a task run on another thread on behalf of the execution started on the calling thread, so that the Hadoop
+   * events the task logs are routed to the log channel of that execution as well.
+   *
+   * @param task the task
+   * @return the wrapped task, or the task itself if no execution was started on the calling thread
+   */
+  public static Runnable propagate( final Runnable task ) {
+    final String logChannelId = ThreadContext.get( LOG_CHANNEL_ID_CONTEXT_KEY );
+    if ( logChannelId == null ) {
+      return task;
+    }
+    return () -> {
+      String previous = ThreadContext.get( LOG_CHANNEL_ID_CONTEXT_KEY );
+      ThreadContext.put( LOG_CHANNEL_ID_CONTEXT_KEY, logChannelId );
+      try {
+        task.run();
+      } finally {
+        if ( previous == null ) {
+          ThreadContext.remove( LOG_CHANNEL_ID_CONTEXT_KEY );
+        } else {
+          ThreadContext.put( LOG_CHANNEL_ID_CONTEXT_KEY, previous );
+        }
+      }
+    };
+  }
+
   @Override
   public void close() {
     if ( closed ) {
@@ -103,6 +103,24 @@ public class HadoopExecutionLoggingTest {
     assertMessagesContain( messages.getAllValues(), "application_6", "application_7" );
   }
 
+  @Test
+  public void routesEventsOfPropagatedTasksToTheOwningLogChannel() throws Exception {
+    LogChannelInterface logChannel = logChannel( "propagated" );
+
+    try ( HadoopExecutionLogging ignored = HadoopExecutionLogging.start( logChannel ) ) {
+      Thread worker = new Thread( HadoopExecutionLogging.propagate( () -> HADOOP_LOGGER.info( "application_8" ) ) );
+      worker.start();
+      worker.join( 10000 );
+      Thread unrelated = new Thread( () -> HADOOP_LOGGER.info( "application_9" ) );
+      unrelated.start();
+      unrelated.join( 10000 );
+    }
+
+    ArgumentCaptor<String> messages = ArgumentCaptor.forClass( String.class );
+    verify( logChannel ).logBasic( messages.capture() );
+    assertMessagesContain( messages.getAllValues(), "application_8" );
+  }
+
   private LogChannelInterface logChannel( String id ) {
     LogChannelInterface logChannel = mock( LogChannelInterface.class );
     when( logChannel.getLogChannelId() ).thenReturn( id );
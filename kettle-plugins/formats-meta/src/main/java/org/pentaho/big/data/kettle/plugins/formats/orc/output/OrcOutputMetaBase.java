@@ -49,6 +49,7 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
   public static final int DEFAULT_ROWS_BETWEEN_ENTRIES = 10000;
   public static final int DEFAULT_STRIPE_SIZE = 64; // In megabytes
   public static final int DEFAULT_COMPRESS_SIZE = 256; // In kilobytes
+  public static final int DEFAULT_MAX_OPEN_FILES = 16;
 
   @Injection( name = "FILENAME" )
   private String filename;
@@ -80,6 +81,18 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
   @Injection( name = "OVERRIDE_OUTPUT" )
   protected boolean overrideOutput;
 
+  /** Start a new file after this many rows, empty or 0 writes a single file */
+  @Injection( name = "OPTIONS_SPLIT_EVERY" )
+  protected String splitEvery;
+
+  /** Comma separated list of the fields that select the field=value/ directory of every row */
+  @Injection( name = "OPTIONS_PARTITION_FIELDS" )
+  protected String partitionFields = "";
+
+  /** The number of partition files kept open at the same time */
+  @Injection( name = "OPTIONS_MAX_OPEN_FILES" )
+  protected String maxOpenFiles = String.valueOf( DEFAULT_MAX_OPEN_FILES );
+
   @Override
   public void setDefault() {
     // TODO Auto-generated method stub
@@ -161,6 +174,55 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
     this.dateTimeFormat = dateTimeFormat;
   }
 
+  public long getSplitEvery( VariableSpace vspace ) {
+    return parseReplace( splitEvery, vspace, str -> Long.parseLong( str ), 0L );
+  }
+
+  public String getSplitEvery() {
+    return splitEvery;
+  }
+
+  public void setSplitEvery( String splitEvery ) {
+    this.splitEvery = splitEvery;
+  }
+
+  public String getPartitionFields() {
+    return partitionFields;
+  }
+
+  public void setPartitionFields( String partitionFields ) {
+    this.partitionFields = partitionFields;
+  }
+
+  /**
+   * @return the names of the partition fields, an empty array when the output is not partitioned
+   */
+  public String[] getPartitionFields( VariableSpace vspace ) {
+    String fieldList = vspace != null ? vspace.environmentSubstitute( partitionFields ) : partitionFields;
+    List<String> fields = new ArrayList<>();
+    if ( !Utils.isEmpty( fieldList ) ) {
+      for ( String field : fieldList.split( "," ) ) {
+        if ( !field.trim().isEmpty() ) {
+          fields.add( field.trim() );
+        }
+      }
+    }
+    return fields.toArray( new String[ 0 ] );
+  }
+
+  public int getMaxOpenFiles( VariableSpace vspace ) {
+    int value = parseReplace( maxOpenFiles, vspace, str -> Integer.parseInt( str ), DEFAULT_MAX_OPEN_FILES );
+    return value > 0 ? value : DEFAULT_MAX_OPEN_FILES;
+  }
+
+  public String getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
+  public void setMaxOpenFiles( String maxOpenFiles ) {
+    this.maxOpenFiles = maxOpenFiles;
+  }
+
   @Override
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode, metaStore );
@@ -194,6 +256,9 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
       dateTimeFormat = XMLHandler.getTagValue( stepnode, FieldNames.DATE_FORMAT );
       dateInFileName = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, FieldNames.DATE_IN_FILE_NAME ) );
       timeInFileName = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, FieldNames.TIME_IN_FILE_NAME ) );
+      splitEvery = XMLHandler.getTagValue( stepnode, FieldNames.SPLIT_EVERY );
+      partitionFields = XMLHandler.getTagValue( stepnode, FieldNames.PARTITION_FIELDS );
+      maxOpenFiles = XMLHandler.getTagValue( stepnode, FieldNames.MAX_OPEN_FILES );
 
     } catch ( Exception e ) {
       throw new KettleXMLException( "Unable to load step info from XML", e );
@@ -215,6 +280,9 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
     retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.DATE_FORMAT, dateTimeFormat ) );
     retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.DATE_IN_FILE_NAME, dateInFileName ) );
     retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.TIME_IN_FILE_NAME, timeInFileName ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.SPLIT_EVERY, splitEvery ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.PARTITION_FIELDS, partitionFields ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.MAX_OPEN_FILES, maxOpenFiles ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < outputFields.size(); i++ ) {
@@ -250,6 +318,9 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
       dateTimeFormat = rep.getStepAttributeString( id_step, FieldNames.DATE_FORMAT );
       dateInFileName = rep.getStepAttributeBoolean( id_step, FieldNames.DATE_IN_FILE_NAME );
       timeInFileName = rep.getStepAttributeBoolean( id_step, FieldNames.TIME_IN_FILE_NAME );
+      splitEvery = rep.getStepAttributeString( id_step, FieldNames.SPLIT_EVERY );
+      partitionFields = rep.getStepAttributeString( id_step, FieldNames.PARTITION_FIELDS );
+      maxOpenFiles = rep.getStepAttributeString( id_step, FieldNames.MAX_OPEN_FILES );
 
       // using the "type" column to get the number of field rows because "type" is guaranteed not to be null.
       int nrfields = rep.countNrStepAttributes( id_step, "type" );
@@ -288,6 +359,9 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
       rep.saveStepAttribute( id_transformation, id_step, FieldNames.DATE_FORMAT, dateTimeFormat );
       rep.saveStepAttribute( id_transformation, id_step, FieldNames.DATE_IN_FILE_NAME, dateInFileName );
       rep.saveStepAttribute( id_transformation, id_step, FieldNames.TIME_IN_FILE_NAME, timeInFileName );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.SPLIT_EVERY, splitEvery );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.PARTITION_FIELDS, partitionFields );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.MAX_OPEN_FILES, maxOpenFiles );
 
       for ( int i = 0; i < outputFields.size(); i++ ) {
         OrcOutputField field = outputFields.get( i );
@@ -389,5 +463,8 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
     public static final String TIME_IN_FILE_NAME = "timeInFileName";
     public static final String DATE_FORMAT = "dateTimeFormat";
     public static final String STRIPE_SIZE = "stripeSize";
+    public static final String SPLIT_EVERY = "splitEvery";
+    public static final String PARTITION_FIELDS = "partitionFields";
+    public static final String MAX_OPEN_FILES = "maxOpenFiles";
   }
 }
@@ -50,10 +50,24 @@ import java.util.List;
 public abstract class ParquetInputMetaBase extends
   BaseFileInputMeta<BaseFileInputAdditionalField, FormatInputFile, ParquetInputField> {
 
+  public static final int DEFAULT_SPLIT_QUEUE_SIZE = 10000;
+
   /** If receiving input rows, should we pass through existing fields? */
   @Injection( name = "IGNORE_EMPTY_FOLDER" )
   boolean ignoreEmptyFolder = false;
 
+  /** Number of splits read concurrently by a single step copy. 1 keeps the serial, one-split-at-a-time reading. */
+  @Injection( name = "PARALLEL_SPLIT_READS" )
+  int parallelSplitReads = 1;
+
+  /** Maximum number of rows buffered ahead of the step thread when splits are read in parallel. */
+  @Injection( name = "SPLIT_QUEUE_SIZE" )
+  int splitQueueSize = DEFAULT_SPLIT_QUEUE_SIZE;
+
+  /** When splits are read in parallel, should rows still be emitted in split order? */
+  @Injection( name = "PRESERVE_SPLIT_ORDER" )
+  boolean preserveSplitOrder = true;
+
   public ParquetInputMetaBase() {
     additionalOutputFields = new BaseFileInputAdditionalField();
     inputFiles = new FormatInputFile();
@@ -68,6 +82,30 @@ public abstract class ParquetInputMetaBase extends
     this.ignoreEmptyFolder = ignoreEmptyFolder;
   }
 
+  public int getParallelSplitReads() {
+    return parallelSplitReads;
+  }
+
+  public void setParallelSplitReads( int parallelSplitReads ) {
+    this.parallelSplitReads = parallelSplitReads;
+  }
+
+  public int getSplitQueueSize() {
+    return splitQueueSize;
+  }
+
+  public void setSplitQueueSize( int splitQueueSize ) {
+    this.splitQueueSize = splitQueueSize;
+  }
+
+  public boolean isPreserveSplitOrder() {
+    return preserveSplitOrder;
+  }
+
+  public void setPreserveSplitOrder( boolean preserveSplitOrder ) {
+    this.preserveSplitOrder = preserveSplitOrder;
+  }
+
   public String getFilename() {
     if ( inputFiles != null && inputFiles.fileName != null && inputFiles.fileName.length > 0 ) {
       return inputFiles.fileName[0];
@@ -111,6 +149,9 @@ public abstract class ParquetInputMetaBase extends
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "passing_through_fields", inputFiles.passingThruFields ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "ignore_empty_folder", ignoreEmptyFolder ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "parallel_split_reads", parallelSplitReads ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "split_queue_size", splitQueueSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "preserve_split_order", preserveSplitOrder ) );
     retval.append( "    <file>" ).append( Const.CR );
     //we need the equals by size arrays for inputFiles.fileName[i], inputFiles.fileMask[i], inputFiles.fileRequired[i], inputFiles.includeSubFolders[i]
     //to prevent the ArrayIndexOutOfBoundsException
@@ -161,6 +202,9 @@ public abstract class ParquetInputMetaBase extends
     throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "ignore_empty_folder", ignoreEmptyFolder );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel_split_reads", parallelSplitReads );
+      rep.saveStepAttribute( id_transformation, id_step, "split_queue_size", splitQueueSize );
+      rep.saveStepAttribute( id_transformation, id_step, "preserve_split_order", preserveSplitOrder );
       rep.saveStepAttribute( id_transformation, id_step, "passing_through_fields", inputFiles.passingThruFields );
       if ( !( inputFiles.fileName.length == 1 && inputFiles.fileName[0].equalsIgnoreCase( "" ) ) ) {
         for ( int i = 0; i < inputFiles.fileName.length; i++ ) {
@@ -208,6 +252,10 @@ public abstract class ParquetInputMetaBase extends
     allocateFiles( nrfiles );
     inputFiles.passingThruFields = ValueMetaBase.convertStringToBoolean( passThroughFields );
     ignoreEmptyFolder = ValueMetaBase.convertStringToBoolean( skipIfNoFile );
+    parallelSplitReads = Const.toInt( XMLHandler.getTagValue( stepnode, "parallel_split_reads" ), 1 );
+    splitQueueSize = Const.toInt( XMLHandler.getTagValue( stepnode, "split_queue_size" ), DEFAULT_SPLIT_QUEUE_SIZE );
+    String preserveOrder = XMLHandler.getTagValue( stepnode, "preserve_split_order" );
+    preserveSplitOrder = preserveOrder == null || ValueMetaBase.convertStringToBoolean( preserveOrder );
     for ( int i = 0; i < nrfiles; i++ ) {
       Node envnode = XMLHandler.getSubNodeByNr( filenode, "environment", i );
       Node filenamenode = XMLHandler.getSubNodeByNr( filenode, "name", i );
@@ -254,6 +302,15 @@ public abstract class ParquetInputMetaBase extends
 
       inputFiles.passingThruFields = rep.getStepAttributeBoolean( id_step, "passing_through_fields" );
       ignoreEmptyFolder = rep.getStepAttributeBoolean( id_step, "ignore_empty_folder" );
+      parallelSplitReads = (int) rep.getStepAttributeInteger( id_step, "parallel_split_reads" );
+      if ( parallelSplitReads < 1 ) {
+        parallelSplitReads = 1;
+      }
+      splitQueueSize = (int) rep.getStepAttributeInteger( id_step, "split_queue_size" );
+      if ( splitQueueSize < 1 ) {
+        splitQueueSize = DEFAULT_SPLIT_QUEUE_SIZE;
+      }
+      preserveSplitOrder = rep.getStepAttributeBoolean( id_step, 0, "preserve_split_order", true );
       for ( int i = 0; i < nrfiles; i++ ) {
         inputFiles.environment[ i ] = rep.getStepAttributeString( id_step, i, "environment" );
         inputFiles.fileName[ i ] = rep.getStepAttributeString( id_step, i, "file_name" );
@@ -312,6 +369,9 @@ public abstract class ParquetInputMetaBase extends
   public void setDefault() {
     allocateFiles( 0 );
     inputFields = new ParquetInputField[ 0 ];
+    parallelSplitReads = 1;
+    splitQueueSize = DEFAULT_SPLIT_QUEUE_SIZE;
+    preserveSplitOrder = true;
   }
 
   @Override
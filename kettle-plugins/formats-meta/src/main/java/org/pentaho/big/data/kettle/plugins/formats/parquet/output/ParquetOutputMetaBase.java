@@ -50,6 +50,8 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
 
   private static final Class<?> PKG = ParquetOutputMetaBase.class;
 
+  public static final int DEFAULT_MAX_OPEN_FILES = 16;
+
   @Injection( name = "COMPRESSION" )
   public String compressionType;
   @Injection( name = "PARQUET_VERSION" )
@@ -83,6 +85,18 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
   @Injection( name = "FILENAME", group = "FILENAME_LINES" )
   public String filename;
 
+  /** Start a new file after this many rows, empty or 0 writes a single file */
+  @Injection( name = "SPLIT_EVERY" )
+  public String splitEvery;
+
+  /** Comma separated list of the fields that select the field=value/ directory of every row */
+  @Injection( name = "PARTITION_FIELDS" )
+  public String partitionFields;
+
+  /** The number of partition files kept open at the same time */
+  @Injection( name = "MAX_OPEN_FILES" )
+  public String maxOpenFiles;
+
   @InjectionDeep
   private List<ParquetOutputField> outputFields = new ArrayList<ParquetOutputField>();
 
@@ -91,6 +105,9 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
     outputFields = new ArrayList<ParquetOutputField>();
     dictPageSize = String.valueOf( 1024 );
     extension = "parquet";
+    splitEvery = null;
+    partitionFields = null;
+    maxOpenFiles = String.valueOf( DEFAULT_MAX_OPEN_FILES );
   }
 
   public String getFilename() {
@@ -176,6 +193,9 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
       dateInFilename = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "dateInFilename" ) );
       timeInFilename = "Y".equalsIgnoreCase( ( XMLHandler.getTagValue( stepnode, "timeInFilename" ) ) );
       dateTimeFormat = XMLHandler.getTagValue( stepnode, "dateTimeFormat" );
+      splitEvery = XMLHandler.getTagValue( stepnode, "splitEvery" );
+      partitionFields = XMLHandler.getTagValue( stepnode, "partitionFields" );
+      maxOpenFiles = XMLHandler.getTagValue( stepnode, "maxOpenFiles" );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
@@ -219,6 +239,9 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
     retval.append( "    " ).append( XMLHandler.addTagValue( "dateInFilename", dateInFilename ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "timeInFilename", timeInFilename ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "dateTimeFormat", dateTimeFormat ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "splitEvery", splitEvery ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "partitionFields", partitionFields ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "maxOpenFiles", maxOpenFiles ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < outputFields.size(); i++ ) {
@@ -273,6 +296,9 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
       dateInFilename = rep.getStepAttributeBoolean( id_step, "dateInFilename" );
       timeInFilename = rep.getStepAttributeBoolean( id_step, "timeInFilename" );
       dateTimeFormat = rep.getStepAttributeString( id_step, "dateTimeFormat" );
+      splitEvery = rep.getStepAttributeString( id_step, "splitEvery" );
+      partitionFields = rep.getStepAttributeString( id_step, "partitionFields" );
+      maxOpenFiles = rep.getStepAttributeString( id_step, "maxOpenFiles" );
 
       // using the "type" column to get the number of field rows because "type" is guaranteed not to be null.
       int nrfields = rep.countNrStepAttributes( id_step, "type" );
@@ -312,6 +338,9 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
       rep.saveStepAttribute( id_transformation, id_step, "dateInFilename", dateInFilename );
       rep.saveStepAttribute( id_transformation, id_step, "timeInFilename", timeInFilename );
       rep.saveStepAttribute( id_transformation, id_step, "dateTimeFormat", dateTimeFormat );
+      rep.saveStepAttribute( id_transformation, id_step, "splitEvery", splitEvery );
+      rep.saveStepAttribute( id_transformation, id_step, "partitionFields", partitionFields );
+      rep.saveStepAttribute( id_transformation, id_step, "maxOpenFiles", maxOpenFiles );
       for ( int i = 0; i < outputFields.size(); i++ ) {
         ParquetOutputField field = outputFields.get( i );
         rep.saveStepAttribute( id_transformation, id_step, i, "path", field.getFormatFieldName() );
@@ -420,6 +449,58 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
     this.dictPageSize = dictPageSize;
   }
 
+  public long getSplitEvery( VariableSpace vspace ) {
+    return parseReplace( splitEvery, vspace, s -> Long.parseLong( s ), 0L );
+  }
+
+  public String getSplitEvery() {
+    return splitEvery;
+  }
+
+  public void setSplitEvery( String splitEvery ) {
+    this.splitEvery = splitEvery;
+  }
+
+  /**
+   * @return the names of the partition fields, an empty array when the output is not partitioned
+   */
+  public String[] getPartitionFields( VariableSpace vspace ) {
+    return splitFieldList( vspace != null ? vspace.environmentSubstitute( partitionFields ) : partitionFields );
+  }
+
+  public String getPartitionFields() {
+    return partitionFields;
+  }
+
+  public void setPartitionFields( String partitionFields ) {
+    this.partitionFields = partitionFields;
+  }
+
+  public int getMaxOpenFiles( VariableSpace vspace ) {
+    int value = parseReplace( maxOpenFiles, vspace, s -> Integer.parseInt( s ), DEFAULT_MAX_OPEN_FILES );
+    return value > 0 ? value : DEFAULT_MAX_OPEN_FILES;
+  }
+
+  public String getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
+  public void setMaxOpenFiles( String maxOpenFiles ) {
+    this.maxOpenFiles = maxOpenFiles;
+  }
+
+  static String[] splitFieldList( String fieldList ) {
+    List<String> fields = new ArrayList<>();
+    if ( !Utils.isEmpty( fieldList ) ) {
+      for ( String field : fieldList.split( "," ) ) {
+        if ( !field.trim().isEmpty() ) {
+          fields.add( field.trim() );
+        }
+      }
+    }
+    return fields.toArray( new String[ 0 ] );
+  }
+
   public String[] getCompressionTypes() {
     return getStrings( CompressionCodecName.values() );
   }
@@ -19,6 +19,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -89,4 +90,20 @@ public class OrcOutputMetabaseTest {
     metaBase.setCompressionType( "ZSTD" );
     Assert.assertTrue( metaBase.getCompressionType().equals( CompressionKind.ZSTD.toString() ) );
   }
+
+  @Test
+  public void testSplitEveryAndMaxOpenFilesAcceptVariables() {
+    Variables variables = new Variables();
+    variables.setVariable( "SPLIT", "1000" );
+    variables.setVariable( "OPEN", "4" );
+    metaBase.setSplitEvery( "${SPLIT}" );
+    metaBase.setMaxOpenFiles( "${OPEN}" );
+    Assert.assertEquals( 1000L, metaBase.getSplitEvery( variables ) );
+    Assert.assertEquals( 4, metaBase.getMaxOpenFiles( variables ) );
+
+    metaBase.setSplitEvery( null );
+    metaBase.setMaxOpenFiles( "not a number" );
+    Assert.assertEquals( 0L, metaBase.getSplitEvery( variables ) );
+    Assert.assertEquals( OrcOutputMetaBase.DEFAULT_MAX_OPEN_FILES, metaBase.getMaxOpenFiles( variables ) );
+  }
 }
@@ -14,9 +14,11 @@ package org.pentaho.big.data.kettle.plugins.formats.impl;
 
 import org.pentaho.big.data.api.services.BigDataServicesHelper;
 import org.pentaho.big.data.impl.cluster.NamedClusterManager;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.service.PluginServiceLoader;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
@@ -24,16 +26,60 @@ import org.pentaho.metastore.locator.api.MetastoreLocator;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves the named cluster a file name refers to, by cluster name for {@code hc://} URLs and by HDFS host for the
+ * others.
+ * <p>
+ * The steps resolve their cluster on every init and for every file, so resolutions are cached by scheme, host and
+ * embedded metastore key, for {@value #DEFAULT_CACHE_TTL_MILLIS} milliseconds by default ({@value #CACHE_TTL_PROPERTY}
+ * sets it, {@code 0} disables the cache). Callers get their own copy of a cached cluster. File names that don't
+ * resolve to a cluster are not cached, so that a cluster is used as soon as it is defined, and the cache is cleared
+ * whenever a cluster is created, updated or deleted through the {@link NamedClusterManager}.
+ */
 public class NamedClusterResolver {
 
+  public static final String CACHE_TTL_PROPERTY = "KETTLE_NAMED_CLUSTER_RESOLVER_CACHE_TTL";
+
+  public static final long DEFAULT_CACHE_TTL_MILLIS = 30000L;
+
+  static final int MAX_CACHE_ENTRIES = 256;
+
+  private static final class Resolution {
+    private final NamedCluster namedCluster;
+    private final long resolvedAt;
+
+    Resolution( NamedCluster namedCluster, long resolvedAt ) {
+      this.namedCluster = namedCluster;
+      this.resolvedAt = resolvedAt;
+    }
+  }
+
   private final NamedClusterServiceLocator namedClusterServiceLocator;
   private final NamedClusterService namedClusterService;
   private MetastoreLocator metaStoreService;
   private static NamedClusterResolver namedClusterResolver = null;
 
+  private final long cacheTtlMillis;
+  private final LongSupplier clock;
+  private final Map<List<String>, Resolution> resolutions =
+    new LinkedHashMap<List<String>, Resolution>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<List<String>, Resolution> eldest ) {
+        return size() > MAX_CACHE_ENTRIES;
+      }
+    };
+  private final AtomicLong cacheHits = new AtomicLong();
+  private final AtomicLong cacheMisses = new AtomicLong();
+
   private NamedClusterResolver() {
     this( BigDataServicesHelper.getNamedClusterServiceLocator(),
       NamedClusterManager.getInstance() );
@@ -41,8 +87,20 @@ public class NamedClusterResolver {
 
   private NamedClusterResolver( NamedClusterServiceLocator namedClusterServiceLocator,
                                 NamedClusterService namedClusterService ) {
+    this( namedClusterServiceLocator, namedClusterService,
+      Const.toLong( EnvUtil.getSystemProperty( CACHE_TTL_PROPERTY ), DEFAULT_CACHE_TTL_MILLIS ),
+      System::currentTimeMillis );
+  }
+
+  NamedClusterResolver( NamedClusterServiceLocator namedClusterServiceLocator,
+                        NamedClusterService namedClusterService, long cacheTtlMillis, LongSupplier clock ) {
     this.namedClusterServiceLocator = namedClusterServiceLocator;
     this.namedClusterService = namedClusterService;
+    this.cacheTtlMillis = cacheTtlMillis;
+    this.clock = clock;
+    if ( namedClusterService instanceof NamedClusterManager ) {
+      ( (NamedClusterManager) namedClusterService ).addChangeListener( this::clearCache );
+    }
   }
 
   public static synchronized NamedClusterResolver getInstance() {
@@ -80,25 +138,96 @@ public class NamedClusterResolver {
       MetastoreLocator metastoreLocator = getMetastoreLocator();
 
       if ( metastoreLocator != null ) {
-        if ( scheme != null && scheme.equals( "hc" ) ) {
-          namedCluster = namedClusterService.getNamedClusterByName( hostName, metastoreLocator.getMetastore() );
-          if ( namedCluster == null && embeddedMetastoreKey != null ) {
-            namedCluster = namedClusterService
-              .getNamedClusterByName( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
-          }
-        } else {
-          namedCluster
-            = namedClusterService.getNamedClusterByHost( hostName, metastoreLocator.getMetastore( embeddedMetastoreKey ) );
-          if ( namedCluster == null && embeddedMetastoreKey != null ) {
-            namedCluster = namedClusterService
-              .getNamedClusterByHost( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
-          }
+        boolean byName = scheme != null && scheme.equals( "hc" );
+        List<String> key = Arrays.asList( byName ? "hc" : "host", hostName, embeddedMetastoreKey );
+        Resolution cached = getCachedResolution( key );
+        if ( cached != null ) {
+          return copyOf( cached.namedCluster );
         }
+        namedCluster = resolveNamedCluster( metastoreLocator, byName, hostName, embeddedMetastoreKey );
+        if ( namedCluster != null && cacheTtlMillis > 0 ) {
+          cacheResolution( key, namedCluster );
+          namedCluster = copyOf( namedCluster );
+        }
+      }
+    }
+    return namedCluster;
+  }
+
+  private NamedCluster resolveNamedCluster( MetastoreLocator metastoreLocator, boolean byName, String hostName,
+                                            String embeddedMetastoreKey ) {
+    NamedCluster namedCluster;
+    if ( byName ) {
+      namedCluster = namedClusterService.getNamedClusterByName( hostName, metastoreLocator.getMetastore() );
+      if ( namedCluster == null && embeddedMetastoreKey != null ) {
+        namedCluster = namedClusterService
+          .getNamedClusterByName( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
+      }
+    } else {
+      namedCluster
+        = namedClusterService.getNamedClusterByHost( hostName, metastoreLocator.getMetastore( embeddedMetastoreKey ) );
+      if ( namedCluster == null && embeddedMetastoreKey != null ) {
+        namedCluster = namedClusterService
+          .getNamedClusterByHost( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
       }
     }
     return namedCluster;
   }
 
+  private static NamedCluster copyOf( NamedCluster namedCluster ) {
+    // callers own the clusters they are handed, as they do when the cluster is looked up
+    NamedCluster copy = namedCluster.clone();
+    copy.setLastModifiedDate( namedCluster.getLastModifiedDate() );
+    return copy;
+  }
+
+  private Resolution getCachedResolution( List<String> key ) {
+    if ( cacheTtlMillis <= 0 ) {
+      return null;
+    }
+    Resolution resolution;
+    synchronized ( resolutions ) {
+      resolution = resolutions.get( key );
+    }
+    if ( resolution != null && clock.getAsLong() - resolution.resolvedAt < cacheTtlMillis ) {
+      cacheHits.incrementAndGet();
+      return resolution;
+    }
+    cacheMisses.incrementAndGet();
+    return null;
+  }
+
+  private void cacheResolution( List<String> key, NamedCluster namedCluster ) {
+    if ( cacheTtlMillis > 0 ) {
+      synchronized ( resolutions ) {
+        resolutions.put( key, new Resolution( namedCluster, clock.getAsLong() ) );
+      }
+    }
+  }
+
+  /**
+   * @return the number of resolutions answered from the cache
+   */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /**
+   * @return the number of resolutions that had to look the cluster up
+   */
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
+  /**
+   * Drops every cached resolution, so that clusters added or changed since are seen right away.
+   */
+  public void clearCache() {
+    synchronized ( resolutions ) {
+      resolutions.clear();
+    }
+  }
+
   private Optional<URI> fileUri( String fileName ) {
     try {
       return Optional.of( new URI( fileName ) );
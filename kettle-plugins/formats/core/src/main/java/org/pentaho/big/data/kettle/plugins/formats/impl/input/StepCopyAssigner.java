@@ -0,0 +1,51 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divides the units of work of an input step (splits, files) between the copies of the step, so that running a step
+ * with several copies reads every unit exactly once instead of once per copy.
+ * <p>
+ * Units are dealt round robin by their position in the list: copy {@code n} out of {@code count} takes units
+ * {@code n, n + count, n + 2 * count, ...}. The assignment only depends on the order of the list, so every copy
+ * computes the same partition independently.
+ */
+public class StepCopyAssigner {
+
+  private StepCopyAssigner() {
+  }
+
+  /**
+   * @param units     all the units of work of the step, in the same order for every copy
+   * @param copyNr    the (zero based) number of the current copy
+   * @param copyCount the total number of copies of the step
+   * @return the units the given copy should read
+   */
+  public static <T> List<T> assign( List<T> units, int copyNr, int copyCount ) {
+    if ( units == null || copyCount <= 1 ) {
+      return units;
+    }
+    if ( copyNr < 0 || copyNr >= copyCount ) {
+      throw new IllegalArgumentException( "Copy " + copyNr + " is out of range for " + copyCount + " copies" );
+    }
+    List<T> assigned = new ArrayList<>( units.size() / copyCount + 1 );
+    for ( int i = copyNr; i < units.size(); i += copyCount ) {
+      assigned.add( units.get( i ) );
+    }
+    return assigned;
+  }
+}
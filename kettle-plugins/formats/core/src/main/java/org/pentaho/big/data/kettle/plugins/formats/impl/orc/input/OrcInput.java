@@ -18,6 +18,7 @@ import org.apache.commons.vfs2.FileObject;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
 import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
+import org.pentaho.big.data.kettle.plugins.formats.impl.input.StepCopyAssigner;
 import org.pentaho.big.data.kettle.plugins.formats.orc.input.OrcInputMetaBase;
 import org.pentaho.di.core.bowl.Bowl;
 import org.pentaho.di.core.RowMetaAndData;
@@ -36,6 +37,7 @@ import org.pentaho.hadoop.shim.api.format.FormatService;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcInputFormat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -52,31 +54,27 @@ public class OrcInput extends BaseFileInputStep<OrcInputMeta, OrcInputData> {
     meta = (OrcInputMeta) smi;
     data = (OrcInputData) sdi;
     try {
-      if ( data.input == null || data.reader == null || data.rowIterator == null ) {
-        FormatService formatService = getFormatService();
-        if ( meta.inputFiles == null || meta.getFilename() == null || meta.getFilename().length() == 0 ) {
-          throw new KettleException( "No input files defined" );
-        }
-        data.input = formatService.createInputFormat( IPentahoOrcInputFormat.class, getNamedCluster() );
-
-        String inputFileName = getKettleVFSFileName( getTransMeta().getBowl(),
-          meta.getParentStepMeta().getParentTransMeta().environmentSubstitute( meta.getFilename() ) );
-
-        data.input.setInputFile( inputFileName );
-        data.input.setSchema( createSchemaFromMeta( meta ) );
-        data.reader = data.input.createRecordReader( null );
-        data.rowIterator = data.reader.iterator();
+      if ( data.files == null ) {
+        initFiles();
       }
-      if ( data.rowIterator.hasNext() ) {
-        RowMetaAndData row = data.rowIterator.next();
-        putRow( row.getRowMeta(), row.getData() );
-        return true;
-      } else {
+      while ( true ) {
+        if ( data.input == null || data.reader == null || data.rowIterator == null ) {
+          if ( data.currentFile >= data.files.size() ) {
+            setOutputDone();
+            return false;
+          }
+          openReader( data.files.get( data.currentFile ) );
+        }
+        if ( data.rowIterator.hasNext() ) {
+          RowMetaAndData row = data.rowIterator.next();
+          putRow( row.getRowMeta(), row.getData() );
+          return true;
+        }
         data.reader.close();
         data.reader = null;
+        data.rowIterator = null;
         data.input = null;
-        setOutputDone();
-        return false;
+        data.currentFile++;
       }
     } catch ( KettleException ex ) {
       throw ex;
@@ -85,6 +83,38 @@ public class OrcInput extends BaseFileInputStep<OrcInputMeta, OrcInputData> {
     }
   }
 
+  /**
+   * Resolves the input files and keeps the ones this step copy is responsible for, so that several copies of the step
+   * read disjoint sets of files.
+   */
+  void initFiles() throws KettleException {
+    if ( meta.inputFiles == null || meta.getFilename() == null || meta.getFilename().length() == 0 ) {
+      throw new KettleException( "No input files defined" );
+    }
+    List<String> files = new ArrayList<>();
+    for ( String file : meta.inputFiles.fileName ) {
+      if ( file != null && !file.isEmpty() ) {
+        files.add( file );
+      }
+    }
+    data.files = StepCopyAssigner.assign( files, getUniqueStepNrAcrossSlaves(), getUniqueStepCountAcrossSlaves() );
+    data.currentFile = 0;
+    logDebug( "Input file count: {0}, read by this copy: {1}", files.size(), data.files.size() );
+  }
+
+  private void openReader( String file ) throws Exception {
+    FormatService formatService = getFormatService();
+    data.input = formatService.createInputFormat( IPentahoOrcInputFormat.class, getNamedCluster() );
+
+    String inputFileName = getKettleVFSFileName( getTransMeta().getBowl(),
+      meta.getParentStepMeta().getParentTransMeta().environmentSubstitute( file ) );
+
+    data.input.setInputFile( inputFileName );
+    data.input.setSchema( createSchemaFromMeta( meta ) );
+    data.reader = data.input.createRecordReader( null );
+    data.rowIterator = data.reader.iterator();
+  }
+
   private NamedCluster getNamedCluster() {
     return meta.getNamedClusterResolver().resolveNamedCluster( environmentSubstitute( meta.getFilename() ) );
   }
@@ -15,6 +15,7 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.input;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -27,4 +28,6 @@ public class OrcInputData extends BaseFileInputStepData {
   IPentahoRecordReader reader;
   Iterator<RowMetaAndData> rowIterator;
   RowMetaInterface outputRowMeta;
+  List<String> files;
+  int currentFile;
 }
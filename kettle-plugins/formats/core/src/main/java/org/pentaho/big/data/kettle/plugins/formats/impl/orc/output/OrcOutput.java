@@ -16,14 +16,15 @@ package org.pentaho.big.data.kettle.plugins.formats.impl.orc.output;
 
 
 import org.apache.orc.CompressionKind;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.FilePublisher;
 import org.pentaho.big.data.kettle.plugins.formats.impl.output.PvfsFileAliaser;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.RollingFileWriter;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
-import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -71,38 +72,43 @@ public class OrcOutput extends BaseStep implements StepInterface {
       meta = (OrcOutputMeta) smi;
       data = (OrcOutputData) sdi;
 
-      if ( data.output == null ) {
+      if ( data.output == null && data.files == null ) {
         init();
       }
 
       Object[] currentRow = getRow();
       if ( currentRow != null ) {
-        //create new outputMeta
-        RowMetaInterface outputRMI = new RowMeta();
-        //create data equals with output fileds
-        Object[] outputData = new Object[ meta.getOutputFields().size() ];
-        for ( int i = 0; i < meta.getOutputFields().size(); i++ ) {
-          int inputRowIndex = getInputRowMeta().indexOfValue( meta.getOutputFields().get( i ).getPentahoFieldName() );
-          if ( inputRowIndex == -1 ) {
-            throw new KettleException( "Field name [" + meta.getOutputFields().get( i ).getPentahoFieldName()
-              + " ] couldn't be found in the input stream!" );
-          } else {
-            ValueMetaInterface vmi = ValueMetaFactory.cloneValueMeta( getInputRowMeta().getValueMeta( inputRowIndex ) );
-            //add output value meta according output fields
-            outputRMI.addValueMeta( i, vmi );
-            //add output data according output fields
-            outputData[ i ] = currentRow[ inputRowIndex ];
-          }
+        if ( data.fieldIndexes == null ) {
+          resolveOutputFields();
         }
-        RowMetaAndData row = new RowMetaAndData( outputRMI, outputData );
-        data.writer.write( row );
-        putRow( row.getRowMeta(), row.getData() );
+        Object[] outputData = new Object[ data.fieldIndexes.length ];
+        for ( int i = 0; i < data.fieldIndexes.length; i++ ) {
+          outputData[ i ] = currentRow[ data.fieldIndexes[ i ] ];
+        }
+        // rows are still written one at a time; the record writer is done with the row when write returns, so the
+        // holder is reused instead of wrapping every row in a new RowMetaAndData
+        if ( data.row == null ) {
+          data.row = new RowMetaAndData( data.outputRowMeta );
+        }
+        data.row.setData( outputData );
+        if ( data.files != null ) {
+          data.files.write( getInputRowMeta(), currentRow, data.row );
+        } else {
+          data.writer.write( data.row );
+        }
+        putRow( data.outputRowMeta, outputData );
         return true;
       } else {
         // no more input to be expected...
-        closeWriter();
-        pvfsFileAliaser.copyFileToFinalDestination();
-        pvfsFileAliaser.deleteTempFileAndFolder();
+        if ( data.files != null ) {
+          data.files.close();
+          data.files = null;
+        } else {
+          closeWriter();
+          pvfsFileAliaser.copyFileToFinalDestination();
+          pvfsFileAliaser.deleteTempFileAndFolder();
+          pvfsFileAliaser = null;
+        }
         setOutputDone();
         return false;
       }
@@ -110,12 +116,14 @@ public class OrcOutput extends BaseStep implements StepInterface {
       String sanitizedMessage = sanitizeForLog( e.getMessage() );
       getLogChannel().logError( sanitizedMessage != null ? sanitizedMessage : e.getClass().getSimpleName() );
       setErrors( 1 );
-      pvfsFileAliaser.deleteTempFileAndFolder();
+      discardFiles();
       setOutputDone();
       return false;
     } catch ( KettleException ex ) {
+      discardFiles();
       throw ex;
     } catch ( Exception ex ) {
+      discardFiles();
       String sanitizedMessage = sanitizeForLog( ex.getMessage() );
       if ( sanitizedMessage == null || sanitizedMessage.equals( ex.getMessage() ) ) {
         throw new KettleException( ex );
@@ -137,14 +145,39 @@ public class OrcOutput extends BaseStep implements StepInterface {
       throw new KettleException( "No output files defined" );
     }
 
-    data.output = formatService.createOutputFormat( IPentahoOrcOutputFormat.class, getNamedCluster() );
-
     String outputFileName = environmentSubstitute( meta.constructOutputFilename() );
+    long splitEvery = meta.getSplitEvery( variables );
+    String[] partitionFields = meta.getPartitionFields( variables );
+    if ( splitEvery > 0 || partitionFields.length > 0 ) {
+      int maxOpenFiles = meta.getMaxOpenFiles( variables );
+      // the file number goes before the .orc extension, when the file name has one
+      data.files = new RollingFileWriter( outputFileName, "orc", splitEvery, partitionFields, maxOpenFiles,
+        fileName -> openFile( formatService, fileName ),
+        new FilePublisher( FilePublisher.DEFAULT_UPLOAD_THREADS, maxOpenFiles, getStepname() ) );
+      return;
+    }
+
+    data.output = formatService.createOutputFormat( IPentahoOrcOutputFormat.class, getNamedCluster() );
     pvfsFileAliaser = new PvfsFileAliaser( getTransMeta().getBowl(), outputFileName, getTransMeta(), data.output,
       meta.isOverrideOutput(), getLogChannel() );
 
     data.output.setOutputFile( pvfsFileAliaser.generateAlias(), meta.isOverrideOutput() );
-    data.output.setFields( meta.getOutputFields() );
+    configureOutput( data.output );
+    data.writer = data.output.createRecordWriter();
+  }
+
+  private RollingFileWriter.OutputFile openFile( FormatService formatService, String fileName ) throws Exception {
+    IPentahoOrcOutputFormat output =
+      formatService.createOutputFormat( IPentahoOrcOutputFormat.class, getNamedCluster() );
+    PvfsFileAliaser aliaser = new PvfsFileAliaser( getTransMeta().getBowl(), fileName, getTransMeta(), output,
+      meta.isOverrideOutput(), getLogChannel() );
+    output.setOutputFile( aliaser.generateAlias(), meta.isOverrideOutput() );
+    configureOutput( output );
+    return new RollingFileWriter.OutputFile( output.createRecordWriter(), aliaser );
+  }
+
+  private void configureOutput( IPentahoOrcOutputFormat output ) throws Exception {
+    output.setFields( meta.getOutputFields() );
 
     CompressionKind compression;
     try {
@@ -152,25 +185,70 @@ public class OrcOutput extends BaseStep implements StepInterface {
     } catch ( Exception ex ) {
       compression = CompressionKind.NONE;
     }
-    data.output.setCompression( compression );
+    output.setCompression( compression );
     if ( compression != CompressionKind.NONE ) {
-      data.output.setCompressSize( meta.getCompressSize() );
+      output.setCompressSize( meta.getCompressSize() );
     }
-    data.output.setRowIndexStride( meta.getRowsBetweenEntries() );
-    data.output.setStripeSize( meta.getStripeSize() );
-    data.writer = data.output.createRecordWriter();
+    output.setRowIndexStride( meta.getRowsBetweenEntries() );
+    output.setStripeSize( meta.getStripeSize() );
+  }
+
+  /**
+   * Builds the output row layout and the position of every output field in the input row once, on the first row, so
+   * that the rows only have to be copied afterwards.
+   */
+  void resolveOutputFields() throws KettleException {
+    RowMetaInterface inputRowMeta = getInputRowMeta();
+    int nrFields = meta.getOutputFields().size();
+    RowMetaInterface outputRowMeta = new RowMeta();
+    int[] fieldIndexes = new int[ nrFields ];
+    for ( int i = 0; i < nrFields; i++ ) {
+      String fieldName = meta.getOutputFields().get( i ).getPentahoFieldName();
+      int inputRowIndex = inputRowMeta.indexOfValue( fieldName );
+      if ( inputRowIndex == -1 ) {
+        throw new KettleException( "Field name [" + fieldName + " ] couldn't be found in the input stream!" );
+      }
+      outputRowMeta.addValueMeta( i, ValueMetaFactory.cloneValueMeta( inputRowMeta.getValueMeta( inputRowIndex ) ) );
+      fieldIndexes[ i ] = inputRowIndex;
+    }
+    data.outputRowMeta = outputRowMeta;
+    data.fieldIndexes = fieldIndexes;
   }
 
   private NamedCluster getNamedCluster() {
     return meta.getNamedClusterResolver().resolveNamedCluster( environmentSubstitute( meta.getFilename() ) );
   }
 
+  /**
+   * Drops the files that are still being written, together with their temporary files.
+   */
+  private void discardFiles() {
+    if ( data.files != null ) {
+      data.files.discard();
+      data.files = null;
+    }
+    if ( data.writer != null ) {
+      try {
+        data.writer.close();
+      } catch ( Exception e ) {
+        // the file is dropped anyway
+      }
+      data.writer = null;
+    }
+    data.output = null;
+    if ( pvfsFileAliaser != null ) {
+      pvfsFileAliaser.deleteTempFileAndFolder();
+      pvfsFileAliaser = null;
+    }
+  }
+
   public void closeWriter() throws KettleException {
     try {
       data.writer.close();
     } catch ( IOException e ) {
       throw new KettleException( e );
     }
+    data.writer = null;
     data.output = null;
   }
 
@@ -180,6 +258,14 @@ public class OrcOutput extends BaseStep implements StepInterface {
     return super.init( smi, sdi );
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (OrcOutputData) sdi;
+    // a stopped or aborted transformation leaves the files it was writing open
+    discardFiles();
+    super.dispose( smi, sdi );
+  }
+
   static String sanitizeForLog( String value ) {
     if ( value == null ) {
       return null;
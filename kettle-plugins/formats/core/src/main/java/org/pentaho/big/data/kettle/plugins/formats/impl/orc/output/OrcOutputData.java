@@ -13,6 +13,9 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.output;
 
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.RollingFileWriter;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcOutputFormat;
@@ -22,4 +25,8 @@ public class OrcOutputData extends BaseStepData implements StepDataInterface {
 
   public IPentahoOrcOutputFormat output;
   public IPentahoRecordWriter writer;
+  public RowMetaAndData row;
+  public RowMetaInterface outputRowMeta;
+  public int[] fieldIndexes;
+  public RollingFileWriter files;
 }
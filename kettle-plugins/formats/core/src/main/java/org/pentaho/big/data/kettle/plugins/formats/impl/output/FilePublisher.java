@@ -0,0 +1,120 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies finished output files from their temporary alias location to their final destination on background threads,
+ * so the step can keep writing the next files while the previous ones are uploaded.
+ * <p>
+ * Every file waiting for its upload still takes temporary space, so at most {@code maxPendingFiles} files are queued or
+ * being uploaded at any time; {@link #publish(PvfsFileAliaser)} blocks the step until an upload finishes when the limit
+ * is reached.
+ */
+public class FilePublisher {
+  public static final int DEFAULT_UPLOAD_THREADS = 4;
+
+  private final ExecutorService executor;
+  private final Semaphore pendingFiles;
+  private final int maxPendingFiles;
+  private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+  /**
+   * @param uploadThreads   the number of files uploaded at the same time
+   * @param maxPendingFiles the number of finished files that may wait for their upload
+   * @param threadName      the prefix of the names of the upload threads
+   */
+  public FilePublisher( int uploadThreads, int maxPendingFiles, String threadName ) {
+    AtomicInteger threadNr = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool( Math.max( 1, uploadThreads ), r -> {
+      Thread t = new Thread( r, threadName + " upload " + threadNr.incrementAndGet() );
+      t.setDaemon( true );
+      return t;
+    } );
+    this.maxPendingFiles = Math.max( 1, maxPendingFiles );
+    this.pendingFiles = new Semaphore( this.maxPendingFiles );
+  }
+
+  /**
+   * Queues the upload of a closed file, the temporary file is removed once it is uploaded.
+   */
+  public void publish( PvfsFileAliaser aliaser ) throws Exception {
+    checkFailure();
+    pendingFiles.acquire();
+    try {
+      executor.execute( new Upload( aliaser ) );
+    } catch ( RuntimeException e ) {
+      pendingFiles.release();
+      throw e;
+    }
+  }
+
+  private class Upload implements Runnable {
+    private final PvfsFileAliaser aliaser;
+
+    Upload( PvfsFileAliaser aliaser ) {
+      this.aliaser = aliaser;
+    }
+
+    @Override
+    public void run() {
+      try {
+        aliaser.copyFileToFinalDestination();
+      } catch ( Exception e ) {
+        failure.compareAndSet( null, e );
+      } finally {
+        aliaser.deleteTempFileAndFolder();
+        pendingFiles.release();
+      }
+    }
+  }
+
+  /**
+   * Waits until every queued file is uploaded.
+   */
+  public void await() throws Exception {
+    pendingFiles.acquire( maxPendingFiles );
+    pendingFiles.release( maxPendingFiles );
+    executor.shutdown();
+    checkFailure();
+  }
+
+  /**
+   * Stops the uploads after a failure or when the step is stopped, files that were not uploaded yet are dropped and
+   * the upload threads are ended.
+   */
+  public void discard() {
+    for ( Runnable notStarted : executor.shutdownNow() ) {
+      ( (Upload) notStarted ).aliaser.deleteTempFileAndFolder();
+    }
+    try {
+      executor.awaitTermination( 1, TimeUnit.MINUTES );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void checkFailure() throws Exception {
+    Exception e = failure.get();
+    if ( e != null ) {
+      throw e;
+    }
+  }
+}
@@ -35,6 +35,11 @@ import java.nio.file.FileAlreadyExistsException;
  * supoorted for the output content.
  */
 public class PvfsFileAliaser {
+  /**
+   * Output files are large, so they are copied in big blocks instead of the 8k default of IOUtils.copy
+   */
+  static final int COPY_BUFFER_SIZE = 1024 * 1024;
+
   private String finalFilePath;
 
   private String temporaryFilePath;
@@ -87,7 +92,7 @@ public class PvfsFileAliaser {
       FileObject destFile = ikettleVFS.getFileObject( finalFilePath, variableSpace );
       try ( InputStream in = KettleVFS.getInputStream( srcFile );
             OutputStream out = ikettleVFS.getOutputStream( destFile, false ) ) {
-        IOUtils.copy( in, out );
+        IOUtils.copyLarge( in, out, new byte[ COPY_BUFFER_SIZE ] );
       }
     }
   }
@@ -0,0 +1,265 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Spreads the rows of an output step over several files instead of a single one.
+ * <p>
+ * When a split size is set, a file is closed and published once it holds that many rows and the next row starts a new
+ * file. When partition fields are set, every row goes to a file in a Hive style {@code field=value/} directory below
+ * the directory of the output file. At most {@code maxOpenFiles} partition files are kept open; opening another one
+ * closes the least recently written file, and rows that arrive for its partition later go to a new file.
+ * <p>
+ * Files are named after the output file name of the step with a {@code _<number>} suffix, numbered per partition, in
+ * front of the extension.
+ * <p>
+ * With a {@link FilePublisher} closed files are moved to their final destination in the background while the next
+ * files are written, otherwise they are moved before the step continues.
+ */
+public class RollingFileWriter {
+
+  /**
+   * The partition directory used for null values, as Hive does.
+   */
+  public static final String DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+  /**
+   * Opens the record writer of a single output file.
+   */
+  public interface FileOpener {
+    OutputFile open( String fileName ) throws Exception;
+  }
+
+  /**
+   * The record writer of an output file together with the aliaser that moves the file to its final destination.
+   */
+  public static class OutputFile {
+    private final IPentahoRecordWriter writer;
+    private final PvfsFileAliaser aliaser;
+    private long rows;
+
+    public OutputFile( IPentahoRecordWriter writer, PvfsFileAliaser aliaser ) {
+      this.writer = writer;
+      this.aliaser = aliaser;
+    }
+
+    void close( FilePublisher publisher ) throws Exception {
+      writer.close();
+      if ( publisher != null ) {
+        publisher.publish( aliaser );
+      } else {
+        aliaser.copyFileToFinalDestination();
+        aliaser.deleteTempFileAndFolder();
+      }
+    }
+
+    void discard() {
+      try {
+        writer.close();
+      } catch ( Exception e ) {
+        // the file is dropped anyway
+      }
+      aliaser.deleteTempFileAndFolder();
+    }
+  }
+
+  private final String baseFileName;
+  private final String extension;
+  private final long splitEvery;
+  private final String[] partitionFields;
+  private final int maxOpenFiles;
+  private final FileOpener opener;
+  private final FilePublisher publisher;
+
+  private final LinkedHashMap<String, OutputFile> openFiles = new LinkedHashMap<>( 16, 0.75f, true );
+  private final Map<String, Integer> fileNumbers = new HashMap<>();
+  private int[] partitionIndexes;
+
+  /**
+   * @param outputFileName  the output file name of the step, as built by the step meta
+   * @param extension       the extension at the end of the output file name, may be null
+   * @param splitEvery      the number of rows after which a new file is started, 0 to never split
+   * @param partitionFields the fields the output is partitioned on, may be empty
+   * @param maxOpenFiles    the number of files that are kept open at the same time
+   * @param opener          opens the record writer of a file
+   */
+  public RollingFileWriter( String outputFileName, String extension, long splitEvery, String[] partitionFields,
+                            int maxOpenFiles, FileOpener opener ) {
+    this( outputFileName, extension, splitEvery, partitionFields, maxOpenFiles, opener, null );
+  }
+
+  /**
+   * @param publisher moves closed files to their final destination in the background, may be null
+   */
+  public RollingFileWriter( String outputFileName, String extension, long splitEvery, String[] partitionFields,
+                            int maxOpenFiles, FileOpener opener, FilePublisher publisher ) {
+    String suffix = extension == null || extension.isEmpty() ? "" : "." + extension;
+    if ( !suffix.isEmpty() && outputFileName.endsWith( suffix ) ) {
+      this.baseFileName = outputFileName.substring( 0, outputFileName.length() - suffix.length() );
+      this.extension = suffix;
+    } else {
+      this.baseFileName = outputFileName;
+      this.extension = "";
+    }
+    this.splitEvery = splitEvery;
+    this.partitionFields = partitionFields;
+    this.maxOpenFiles = Math.max( 1, maxOpenFiles );
+    this.opener = opener;
+    this.publisher = publisher;
+  }
+
+  /**
+   * Writes a row to the file of its partition.
+   *
+   * @param rowMeta   the layout of the input row, used to find the partition values
+   * @param row       the input row
+   * @param outputRow the row handed to the record writer
+   */
+  public void write( RowMetaInterface rowMeta, Object[] row, RowMetaAndData outputRow ) throws Exception {
+    String partition = partitionPath( rowMeta, row );
+    OutputFile file = openFiles.get( partition );
+    if ( file == null ) {
+      file = openFile( partition );
+    }
+    file.writer.write( outputRow );
+    file.rows++;
+    if ( splitEvery > 0 && file.rows >= splitEvery ) {
+      openFiles.remove( partition );
+      file.close( publisher );
+    }
+  }
+
+  /**
+   * Closes all open files and waits until every file is moved to its final destination.
+   */
+  public void close() throws Exception {
+    Exception failure = null;
+    for ( Iterator<OutputFile> files = openFiles.values().iterator(); files.hasNext(); ) {
+      OutputFile file = files.next();
+      files.remove();
+      try {
+        file.close( publisher );
+      } catch ( Exception e ) {
+        if ( failure == null ) {
+          failure = e;
+        }
+      }
+    }
+    if ( publisher != null ) {
+      try {
+        publisher.await();
+      } catch ( Exception e ) {
+        if ( failure == null ) {
+          failure = e;
+        }
+      }
+    }
+    if ( failure != null ) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Closes all open files without publishing them, after a failure.
+   */
+  public void discard() {
+    if ( publisher != null ) {
+      publisher.discard();
+    }
+    for ( OutputFile file : openFiles.values() ) {
+      file.discard();
+    }
+    openFiles.clear();
+  }
+
+  int getOpenFileCount() {
+    return openFiles.size();
+  }
+
+  private OutputFile openFile( String partition ) throws Exception {
+    if ( openFiles.size() >= maxOpenFiles ) {
+      Iterator<OutputFile> leastRecent = openFiles.values().iterator();
+      OutputFile evicted = leastRecent.next();
+      leastRecent.remove();
+      evicted.close( publisher );
+    }
+    int fileNr = fileNumbers.merge( partition, 1, Integer::sum ) - 1;
+    OutputFile file = opener.open( fileName( partition, fileNr ) );
+    openFiles.put( partition, file );
+    return file;
+  }
+
+  String fileName( String partition, int fileNr ) {
+    int nameStart = Math.max( baseFileName.lastIndexOf( '/' ), baseFileName.lastIndexOf( '\\' ) ) + 1;
+    return baseFileName.substring( 0, nameStart ) + partition + baseFileName.substring( nameStart ) + '_' + fileNr
+      + extension;
+  }
+
+  String partitionPath( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    if ( partitionFields.length == 0 ) {
+      return "";
+    }
+    if ( partitionIndexes == null ) {
+      int[] indexes = new int[ partitionFields.length ];
+      for ( int i = 0; i < partitionFields.length; i++ ) {
+        indexes[ i ] = rowMeta.indexOfValue( partitionFields[ i ] );
+        if ( indexes[ i ] < 0 ) {
+          throw new KettleException(
+            "Partition field [" + partitionFields[ i ] + "] couldn't be found in the input stream!" );
+        }
+      }
+      partitionIndexes = indexes;
+    }
+    StringBuilder path = new StringBuilder();
+    for ( int i = 0; i < partitionFields.length; i++ ) {
+      String value = rowMeta.getString( row, partitionIndexes[ i ] );
+      path.append( escapePathName( partitionFields[ i ] ) ).append( '=' )
+        .append( value == null || value.isEmpty() ? DEFAULT_PARTITION : escapePathName( value ) ).append( '/' );
+    }
+    return path.toString();
+  }
+
+  /**
+   * Percent-encodes the characters Hive does not allow in partition directory names.
+   */
+  static String escapePathName( String name ) {
+    StringBuilder escaped = null;
+    for ( int i = 0; i < name.length(); i++ ) {
+      char c = name.charAt( i );
+      if ( needsEscaping( c ) ) {
+        if ( escaped == null ) {
+          escaped = new StringBuilder( name.length() + 8 ).append( name, 0, i );
+        }
+        escaped.append( '%' ).append( String.format( "%02X", (int) c ) );
+      } else if ( escaped != null ) {
+        escaped.append( c );
+      }
+    }
+    return escaped == null ? name : escaped.toString();
+  }
+
+  private static boolean needsEscaping( char c ) {
+    return c < ' ' || c == '\u007F' || "\"#%'*/:=?\\{[]^".indexOf( c ) >= 0;
+  }
+}
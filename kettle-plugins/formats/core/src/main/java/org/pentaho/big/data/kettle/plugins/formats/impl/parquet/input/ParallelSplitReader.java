@@ -0,0 +1,186 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.input;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoInputSplit;
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoRecordReader;
+import org.pentaho.hadoop.shim.api.format.IPentahoParquetInputFormat;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the splits of a Parquet input on a small pool of worker threads and hands the rows to the step thread through
+ * bounded queues, so the step thread only has to call putRow.
+ * <p>
+ * At most {@code parallelism} splits are open at any time. When split order is preserved every open split gets its
+ * own queue and the splits are drained in order; otherwise all workers share a single queue and rows are emitted in
+ * whatever order they are read.
+ */
+class ParallelSplitReader implements Closeable {
+  private static final RowMetaAndData END_OF_SPLIT = new RowMetaAndData();
+  private static final long POLL_MILLIS = 100L;
+
+  private final IPentahoParquetInputFormat input;
+  private final List<IPentahoInputSplit> splits;
+  private final int parallelism;
+  private final int queueSize;
+  private final boolean preserveOrder;
+  private final String threadName;
+
+  private final AtomicInteger nextSplit = new AtomicInteger();
+  private final AtomicReference<Exception> failure = new AtomicReference<>();
+  private final Semaphore openSplits;
+  private final BlockingQueue<RowMetaAndData>[] splitQueues;
+  private final BlockingQueue<RowMetaAndData> sharedQueue;
+
+  private ExecutorService executor;
+  private int currentSplit;
+  private int finishedSplits;
+  private volatile boolean closed;
+
+  @SuppressWarnings( "unchecked" )
+  ParallelSplitReader( IPentahoParquetInputFormat input, List<IPentahoInputSplit> splits, int parallelism,
+                       int queueSize, boolean preserveOrder, String threadName ) {
+    this.input = input;
+    this.splits = splits;
+    this.parallelism = Math.max( 1, Math.min( parallelism, splits.size() ) );
+    this.queueSize = Math.max( 1, queueSize );
+    this.preserveOrder = preserveOrder;
+    this.threadName = threadName;
+    this.openSplits = new Semaphore( this.parallelism );
+    if ( preserveOrder ) {
+      splitQueues = new BlockingQueue[ splits.size() ];
+      sharedQueue = null;
+    } else {
+      splitQueues = null;
+      sharedQueue = new LinkedBlockingQueue<>( this.queueSize );
+    }
+  }
+
+  void start() {
+    AtomicInteger threadNr = new AtomicInteger();
+    executor = Executors.newFixedThreadPool( parallelism, r -> {
+      Thread t = new Thread( r, threadName + " split reader " + threadNr.incrementAndGet() );
+      t.setDaemon( true );
+      return t;
+    } );
+    for ( int i = 0; i < parallelism; i++ ) {
+      executor.submit( this::readSplits );
+    }
+  }
+
+  /**
+   * @return the next row, or {@code null} when every split has been read
+   */
+  RowMetaAndData next() throws Exception {
+    while ( true ) {
+      if ( preserveOrder ? currentSplit >= splits.size() : finishedSplits >= splits.size() ) {
+        return null;
+      }
+      BlockingQueue<RowMetaAndData> queue = preserveOrder ? queueFor( currentSplit ) : sharedQueue;
+      RowMetaAndData row = queue.poll( POLL_MILLIS, TimeUnit.MILLISECONDS );
+      if ( row == null ) {
+        checkFailure();
+      } else if ( row == END_OF_SPLIT ) {
+        if ( preserveOrder ) {
+          releaseQueue( currentSplit );
+          currentSplit++;
+          openSplits.release();
+        } else {
+          finishedSplits++;
+        }
+      } else {
+        return row;
+      }
+    }
+  }
+
+  private synchronized BlockingQueue<RowMetaAndData> queueFor( int split ) {
+    if ( splitQueues[ split ] == null ) {
+      splitQueues[ split ] = new LinkedBlockingQueue<>( Math.max( 1, queueSize / parallelism ) );
+    }
+    return splitQueues[ split ];
+  }
+
+  private synchronized void releaseQueue( int split ) {
+    splitQueues[ split ] = null;
+  }
+
+  private void checkFailure() throws Exception {
+    Exception e = failure.get();
+    if ( e != null ) {
+      throw e;
+    }
+  }
+
+  private void readSplits() {
+    try {
+      while ( !closed ) {
+        openSplits.acquire();
+        int split = nextSplit.getAndIncrement();
+        if ( split >= splits.size() ) {
+          openSplits.release();
+          return;
+        }
+        BlockingQueue<RowMetaAndData> queue = preserveOrder ? queueFor( split ) : sharedQueue;
+        readSplit( splits.get( split ), queue );
+        queue.put( END_OF_SPLIT );
+        if ( !preserveOrder ) {
+          openSplits.release();
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    } catch ( Exception e ) {
+      failure.compareAndSet( null, e );
+    }
+  }
+
+  private void readSplit( IPentahoInputSplit split, BlockingQueue<RowMetaAndData> queue ) throws Exception {
+    IPentahoRecordReader reader;
+    // the input format is shared by all the workers, only reading from the created readers is done concurrently
+    synchronized ( input ) {
+      reader = input.createRecordReader( split );
+    }
+    try {
+      for ( RowMetaAndData row : reader ) {
+        if ( closed ) {
+          return;
+        }
+        queue.put( row );
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    if ( executor != null ) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+}
@@ -15,6 +15,7 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.input;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.big.data.kettle.plugins.formats.impl.input.StepCopyAssigner;
 import org.pentaho.big.data.kettle.plugins.formats.parquet.input.ParquetInputField;
 import org.pentaho.big.data.kettle.plugins.formats.parquet.input.ParquetInputMetaBase;
 import org.pentaho.di.core.bowl.Bowl;
@@ -81,6 +82,10 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
         initSplits();
       }
 
+      if ( meta.getParallelSplitReads() > 1 && data.splits.size() > 1 ) {
+        return processRowParallel();
+      }
+
       if ( data.currentSplit >= data.splits.size() ) {
         setOutputDone();
         return false;
@@ -110,6 +115,34 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
     }
   }
 
+  /**
+   * Reads the splits on worker threads and only moves the prefetched rows to the next steps on the step thread.
+   */
+  boolean processRowParallel() throws Exception {
+    if ( data.splitReader == null ) {
+      logDebug( "Reading {0} splits with {1} parallel readers", data.splits.size(), meta.getParallelSplitReads() );
+      data.splitReader = new ParallelSplitReader( data.input, data.splits, meta.getParallelSplitReads(),
+        meta.getSplitQueueSize(), meta.isPreserveSplitOrder(), getStepname() );
+      data.splitReader.start();
+    }
+
+    RowMetaAndData row = data.splitReader.next();
+    if ( row == null ) {
+      closeSplitReader();
+      setOutputDone();
+      return false;
+    }
+    putRow( row.getRowMeta(), row.getData() );
+    return true;
+  }
+
+  private void closeSplitReader() {
+    if ( data.splitReader != null ) {
+      data.splitReader.close();
+      data.splitReader = null;
+    }
+  }
+
   void initSplits() throws Exception {
     FormatService
       formatService =
@@ -164,8 +197,9 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
       }
       data.input.setSplitSize( SPLIT_SIZE );
 
-      data.splits = data.input.getSplits();
-      logDebug( "Input split count: {0}", data.splits.size() );
+      List<IPentahoInputSplit> splits = data.input.getSplits();
+      data.splits = StepCopyAssigner.assign( splits, getUniqueStepNrAcrossSlaves(), getUniqueStepCountAcrossSlaves() );
+      logDebug( "Input split count: {0}, read by this copy: {1}", splits.size(), data.splits.size() );
     }
     data.currentSplit = 0;
   }
@@ -185,6 +219,12 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
     return true;
   }
 
+  @Override public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (ParquetInputData) sdi;
+    closeSplitReader();
+    super.dispose( smi, sdi );
+  }
+
   @Override protected IBaseFileInputReader createReader( ParquetInputMeta meta, ParquetInputData data, FileObject file )
     throws Exception {
     return null;
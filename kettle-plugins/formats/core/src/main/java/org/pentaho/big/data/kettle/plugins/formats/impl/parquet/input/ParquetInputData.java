@@ -31,4 +31,5 @@ public class ParquetInputData extends BaseFileInputStepData {
   IPentahoRecordReader reader;
   Iterator<RowMetaAndData> rowIterator;
   RowMetaInterface outputRowMeta;
+  ParallelSplitReader splitReader;
 }
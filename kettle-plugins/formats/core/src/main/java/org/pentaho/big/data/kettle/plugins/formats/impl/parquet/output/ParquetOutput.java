@@ -15,7 +15,9 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.output;
 
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.FilePublisher;
 import org.pentaho.big.data.kettle.plugins.formats.impl.output.PvfsFileAliaser;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.RollingFileWriter;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
 import org.pentaho.big.data.kettle.plugins.formats.parquet.output.ParquetOutputMetaBase;
@@ -50,47 +52,75 @@ public class ParquetOutput extends BaseStep implements StepInterface {
   @Override
   public synchronized boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     try {
-      if ( data.output == null ) {
+      if ( data.output == null && data.files == null ) {
         init( getInputRowMeta() );
       }
 
       Object[] currentRow = getRow();
       if ( currentRow != null ) {
-        RowMetaAndData row = new RowMetaAndData( getInputRowMeta(), currentRow );
-        data.writer.write( row );
+        // rows are still written one at a time; the record writer is done with the row when write returns, so the
+        // holder is reused instead of wrapping every row in a new RowMetaAndData
+        if ( data.row == null ) {
+          data.row = new RowMetaAndData( getInputRowMeta() );
+        }
+        data.row.setData( currentRow );
+        if ( data.files != null ) {
+          data.files.write( getInputRowMeta(), currentRow, data.row );
+        } else {
+          data.writer.write( data.row );
+        }
         incrementLinesOutput();
-        putRow( row.getRowMeta(), row.getData() ); // in case we want it to go further or DET...
+        putRow( getInputRowMeta(), currentRow ); // in case we want it to go further or DET...
         return true;
       } else {
         // no more input to be expected...
-        closeWriter();
-        pvfsFileAliaser.copyFileToFinalDestination();
-        pvfsFileAliaser.deleteTempFileAndFolder();
+        if ( data.files != null ) {
+          data.files.close();
+          data.files = null;
+        } else {
+          closeWriter();
+          pvfsFileAliaser.copyFileToFinalDestination();
+          pvfsFileAliaser.deleteTempFileAndFolder();
+          pvfsFileAliaser = null;
+        }
         setOutputDone();
         return false;
       }
     } catch ( KettleException ex ) {
-      try {
-        closeWriter();
-        pvfsFileAliaser.deleteTempFileAndFolder();
-      } catch ( Exception ex2 ) {
-        // Do nothing
-      }
+      discardOutput();
       throw ex;
     } catch ( IllegalStateException e ) {
       getLogChannel().logError( e.getMessage() );
       setErrors( 1 );
-      pvfsFileAliaser.deleteTempFileAndFolder();
+      discardOutput();
       setOutputDone();
       return false;
     } catch ( Exception ex ) {
+      discardOutput();
+      throw new KettleException( ex );
+    }
+  }
+
+  /**
+   * Drops the files that are still being written, together with their temporary files.
+   */
+  private void discardOutput() {
+    if ( data.files != null ) {
+      data.files.discard();
+      data.files = null;
+    }
+    if ( data.writer != null ) {
       try {
-        closeWriter();
-        pvfsFileAliaser.deleteTempFileAndFolder();
+        data.writer.close();
       } catch ( Exception ex2 ) {
         // Do nothing
       }
-      throw new KettleException( ex );
+      data.writer = null;
+    }
+    data.output = null;
+    if ( pvfsFileAliaser != null ) {
+      pvfsFileAliaser.deleteTempFileAndFolder();
+      pvfsFileAliaser = null;
     }
   }
 
@@ -106,13 +136,37 @@ public class ParquetOutput extends BaseStep implements StepInterface {
       throw new KettleException( "No output files defined" );
     }
 
-    data.output = formatService.createOutputFormat( IPentahoParquetOutputFormat.class, getNamedCluster() );
-
     String outputFileName = environmentSubstitute( meta.constructOutputFilename() );
+    long splitEvery = meta.getSplitEvery( variables );
+    String[] partitionFields = meta.getPartitionFields( variables );
+    if ( splitEvery > 0 || partitionFields.length > 0 ) {
+      int maxOpenFiles = meta.getMaxOpenFiles( variables );
+      data.files = new RollingFileWriter( outputFileName, environmentSubstitute( meta.getExtension() ), splitEvery,
+        partitionFields, maxOpenFiles, fileName -> openFile( formatService, fileName ),
+        new FilePublisher( FilePublisher.DEFAULT_UPLOAD_THREADS, maxOpenFiles, getStepname() ) );
+      return;
+    }
+
+    data.output = formatService.createOutputFormat( IPentahoParquetOutputFormat.class, getNamedCluster() );
     pvfsFileAliaser = new PvfsFileAliaser( getTransMeta().getBowl(), outputFileName, getTransMeta(), data.output,
       meta.overrideOutput, getLogChannel() );
     data.output.setOutputFile( pvfsFileAliaser.generateAlias(), meta.overrideOutput );
-    data.output.setFields( meta.getOutputFields() );
+    configureOutput( data.output );
+    data.writer = data.output.createRecordWriter();
+  }
+
+  private RollingFileWriter.OutputFile openFile( FormatService formatService, String fileName ) throws Exception {
+    IPentahoParquetOutputFormat output =
+      formatService.createOutputFormat( IPentahoParquetOutputFormat.class, getNamedCluster() );
+    PvfsFileAliaser aliaser = new PvfsFileAliaser( getTransMeta().getBowl(), fileName, getTransMeta(), output,
+      meta.overrideOutput, getLogChannel() );
+    output.setOutputFile( aliaser.generateAlias(), meta.overrideOutput );
+    configureOutput( output );
+    return new RollingFileWriter.OutputFile( output.createRecordWriter(), aliaser );
+  }
+
+  private void configureOutput( IPentahoParquetOutputFormat output ) throws Exception {
+    output.setFields( meta.getOutputFields() );
 
     CompressionCodecName compression;
     try {
@@ -121,23 +175,21 @@ public class ParquetOutput extends BaseStep implements StepInterface {
     } catch ( Exception ex ) {
       compression = CompressionCodecName.UNCOMPRESSED;
     }
-    data.output.setCompression( compression );
-    data.output
+    output.setCompression( compression );
+    output
       .setVersion(
         ParquetOutputMetaBase.ParquetVersion.PARQUET_1.equals( meta.getParquetVersion( variables ) )
           ? IPentahoParquetOutputFormat.VERSION.VERSION_1_0 : IPentahoParquetOutputFormat.VERSION.VERSION_2_0 );
     if ( meta.getRowGroupSize( variables ) > 0 ) {
-      data.output.setRowGroupSize( meta.getRowGroupSize( variables ) * 1024 * 1024 );
+      output.setRowGroupSize( meta.getRowGroupSize( variables ) * 1024 * 1024 );
     }
     if ( meta.getDataPageSize( variables ) > 0 ) {
-      data.output.setDataPageSize( meta.getDataPageSize( variables ) * 1024 );
+      output.setDataPageSize( meta.getDataPageSize( variables ) * 1024 );
     }
-    data.output.enableDictionary( meta.enableDictionary );
+    output.enableDictionary( meta.enableDictionary );
     if ( meta.getDictPageSize( variables ) > 0 ) {
-      data.output.setDictionaryPageSize( meta.getDictPageSize( variables ) * 1024 );
+      output.setDictionaryPageSize( meta.getDictPageSize( variables ) * 1024 );
     }
-
-    data.writer = data.output.createRecordWriter();
   }
 
   private NamedCluster getNamedCluster() {
@@ -150,6 +202,7 @@ public class ParquetOutput extends BaseStep implements StepInterface {
     } catch ( IOException e ) {
       throw new KettleException( e );
     }
+    data.writer = null;
     data.output = null;
   }
 
@@ -168,4 +221,12 @@ public class ParquetOutput extends BaseStep implements StepInterface {
     }
     return true;
   }
+
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (ParquetOutputData) sdi;
+    // a stopped or aborted transformation leaves the files it was writing open
+    discardOutput();
+    super.dispose( smi, sdi );
+  }
 }
@@ -13,6 +13,8 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.output;
 
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.RollingFileWriter;
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
@@ -22,4 +24,6 @@ public class ParquetOutputData extends BaseStepData implements StepDataInterface
 
   public IPentahoParquetOutputFormat output;
   public IPentahoRecordWriter writer;
+  public RowMetaAndData row;
+  public RollingFileWriter files;
 }
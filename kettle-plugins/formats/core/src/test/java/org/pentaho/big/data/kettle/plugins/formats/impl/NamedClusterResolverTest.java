@@ -17,17 +17,20 @@ package org.pentaho.big.data.kettle.plugins.formats.impl;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
 import org.junit.AfterClass;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -39,6 +42,7 @@ import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
 import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.big.data.impl.cluster.NamedClusterManager;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.logging.KettleLoggingEventListener;
 import org.pentaho.di.core.service.PluginServiceLoader;
@@ -94,6 +98,9 @@ public class NamedClusterResolverTest {
     lenient().when( metaStoreService.getMetastore( ArgumentMatchers.any() ) ).thenReturn( metaStore );
     lenient().when( metaStoreService.getExplicitMetastore( ArgumentMatchers.any() ) ).thenReturn( metaStore );
 
+    // the resolver hands out copies of the clusters it caches
+    lenient().when( namedCluster.clone() ).thenReturn( namedCluster );
+
     // Use the specific metaStore object in the mocks to ensure matching
     lenient().when( namedClusterService.getNamedClusterByName( ArgumentMatchers.eq( "testhc" ), ArgumentMatchers.same( metaStore ) ) )
       .thenReturn( namedCluster );
@@ -180,4 +187,80 @@ public class NamedClusterResolverTest {
     assertEquals( namedCluster, cluster );
   }
 
+  @Test
+  public void testResolutionsAreCachedUntilTheyExpire() {
+    AtomicLong now = new AtomicLong();
+    NamedClusterResolver resolver =
+      new NamedClusterResolver( namedClusterServiceLocator, namedClusterService, 1000L, now::get );
+
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hdfs://somehost/path/a" ) );
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hdfs://somehost/path/b" ) );
+    verify( namedClusterService, times( 1 ) ).getNamedClusterByHost( "somehost", metaStore );
+    assertEquals( 1L, resolver.getCacheHits() );
+    assertEquals( 1L, resolver.getCacheMisses() );
+
+    now.addAndGet( 1000L );
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hdfs://somehost/path/c" ) );
+    verify( namedClusterService, times( 2 ) ).getNamedClusterByHost( "somehost", metaStore );
+    assertEquals( 2L, resolver.getCacheMisses() );
+  }
+
+  @Test
+  public void testResolutionsAreCachedPerEmbeddedMetastore() {
+    NamedClusterResolver resolver =
+      new NamedClusterResolver( namedClusterServiceLocator, namedClusterService, 1000L, () -> 0L );
+
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hc://testhc/path" ) );
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hc://testhc/path", "embedded" ) );
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hc://testhc/other", "embedded" ) );
+    assertEquals( 1L, resolver.getCacheHits() );
+    assertEquals( 2L, resolver.getCacheMisses() );
+
+    resolver.clearCache();
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hc://testhc/path" ) );
+    assertEquals( 3L, resolver.getCacheMisses() );
+  }
+
+  @Test
+  public void testCachedClustersAreCopiedForEveryCaller() {
+    NamedCluster found = Mockito.mock( NamedCluster.class );
+    NamedCluster firstCopy = Mockito.mock( NamedCluster.class );
+    NamedCluster secondCopy = Mockito.mock( NamedCluster.class );
+    when( found.clone() ).thenReturn( firstCopy, secondCopy );
+    when( namedClusterService.getNamedClusterByHost( "otherhost", metaStore ) ).thenReturn( found );
+    NamedClusterResolver resolver =
+      new NamedClusterResolver( namedClusterServiceLocator, namedClusterService, 1000L, () -> 0L );
+
+    assertSame( firstCopy, resolver.resolveNamedCluster( "hdfs://otherhost/path/a" ) );
+    assertSame( secondCopy, resolver.resolveNamedCluster( "hdfs://otherhost/path/b" ) );
+    assertEquals( 1L, resolver.getCacheHits() );
+  }
+
+  @Test
+  public void testUnresolvedFileNamesAreNotCached() {
+    NamedClusterResolver resolver =
+      new NamedClusterResolver( namedClusterServiceLocator, namedClusterService, 1000L, () -> 0L );
+
+    assertNull( resolver.resolveNamedCluster( "hc://newhc/path" ) );
+    when( namedClusterService.getNamedClusterByName( "newhc", metaStore ) ).thenReturn( namedCluster );
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hc://newhc/path" ) );
+    assertEquals( 0L, resolver.getCacheHits() );
+    assertEquals( 2L, resolver.getCacheMisses() );
+  }
+
+  @Test
+  public void testCacheIsClearedWhenNamedClustersChange() {
+    NamedClusterManager namedClusterManager = Mockito.mock( NamedClusterManager.class );
+    when( namedClusterManager.getNamedClusterByHost( "somehost", metaStore ) ).thenReturn( namedCluster );
+    NamedClusterResolver resolver =
+      new NamedClusterResolver( namedClusterServiceLocator, namedClusterManager, 1000L, () -> 0L );
+    ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass( Runnable.class );
+    verify( namedClusterManager ).addChangeListener( listener.capture() );
+
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hdfs://somehost/path/a" ) );
+    listener.getValue().run();
+    assertEquals( namedCluster, resolver.resolveNamedCluster( "hdfs://somehost/path/b" ) );
+    verify( namedClusterManager, times( 2 ) ).getNamedClusterByHost( "somehost", metaStore );
+  }
+
 }
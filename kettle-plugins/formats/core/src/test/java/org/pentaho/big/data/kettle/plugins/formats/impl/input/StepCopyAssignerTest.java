@@ -0,0 +1,69 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.input;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class StepCopyAssignerTest {
+
+  @Test
+  public void testSingleCopyTakesEverything() {
+    List<String> units = Arrays.asList( "a", "b", "c" );
+    assertSame( units, StepCopyAssigner.assign( units, 0, 1 ) );
+    assertSame( units, StepCopyAssigner.assign( units, 0, 0 ) );
+  }
+
+  @Test
+  public void testRoundRobinAssignment() {
+    List<Integer> units = Arrays.asList( 0, 1, 2, 3, 4, 5, 6 );
+    assertEquals( Arrays.asList( 0, 3, 6 ), StepCopyAssigner.assign( units, 0, 3 ) );
+    assertEquals( Arrays.asList( 1, 4 ), StepCopyAssigner.assign( units, 1, 3 ) );
+    assertEquals( Arrays.asList( 2, 5 ), StepCopyAssigner.assign( units, 2, 3 ) );
+  }
+
+  @Test
+  public void testCopiesCoverEveryUnitExactlyOnce() {
+    List<Integer> units = new ArrayList<>();
+    for ( int i = 0; i < 101; i++ ) {
+      units.add( i );
+    }
+    for ( int copies = 1; copies <= 8; copies++ ) {
+      List<Integer> assigned = new ArrayList<>();
+      for ( int copyNr = 0; copyNr < copies; copyNr++ ) {
+        assigned.addAll( StepCopyAssigner.assign( units, copyNr, copies ) );
+      }
+      Collections.sort( assigned );
+      assertEquals( units, assigned );
+    }
+  }
+
+  @Test
+  public void testMoreCopiesThanUnits() {
+    List<String> units = Collections.singletonList( "only" );
+    assertEquals( units, StepCopyAssigner.assign( units, 0, 4 ) );
+    assertEquals( Collections.emptyList(), StepCopyAssigner.assign( units, 3, 4 ) );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testCopyOutOfRange() {
+    StepCopyAssigner.assign( Arrays.asList( "a", "b" ), 2, 2 );
+  }
+}
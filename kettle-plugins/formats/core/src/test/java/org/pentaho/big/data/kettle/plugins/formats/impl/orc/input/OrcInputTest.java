@@ -55,6 +55,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.spy;
@@ -184,6 +185,32 @@ public class OrcInputTest {
     }
   }
 
+  @Test
+  public void testStepCopiesReadDisjointFiles() throws Exception {
+    String[] files = { "orcFile0", "orcFile1", "orcFile2", "orcFile3", "orcFile4" };
+    orcInputMeta.inputFiles.fileName = files;
+    when( mockTransMeta.environmentSubstitute( anyString() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    when( mockStepMeta.getCopies() ).thenReturn( 2 );
+
+    int rowsProcessed = 0;
+    for ( int copyNr = 0; copyNr < 2; copyNr++ ) {
+      OrcInput copy = new OrcInput( mockStepMeta, mockStepDataInterface, copyNr, mockTransMeta, mockTrans );
+      copy.setRowHandler( mockRowHandler );
+      copy.setLogLevel( LogLevel.ERROR );
+      copy.setTransMeta( mockTransMeta );
+      OrcInputData copyData = new OrcInputData();
+      while ( copy.processRow( orcInputMeta, copyData ) ) {
+        rowsProcessed++;
+      }
+    }
+
+    // 5 files with 2 rows each, every file read by exactly one copy
+    assertEquals( 10, rowsProcessed );
+    for ( String file : files ) {
+      verify( mockPentahoOrcInputFormat, times( 1 ) ).setInputFile( file );
+    }
+  }
+
   @Test
   public void testInit() {
     assertEquals( true, orcInput.init() );
@@ -52,6 +52,9 @@ public class OrcOutputMetaInjectionTest  extends BaseMetadataInjectionTest<OrcOu
     check( "OPTIONS_STRIPE_SIZE", () -> meta.getStripeSize() );
     check( "OPTIONS_TIME_IN_FILE_NAME", () -> meta.isTimeInFileName() );
     check( "OVERRIDE_OUTPUT", () -> meta.isOverrideOutput() );
+    check( "OPTIONS_SPLIT_EVERY", () -> meta.getSplitEvery() );
+    check( "OPTIONS_PARTITION_FIELDS", () -> meta.getPartitionFields() );
+    check( "OPTIONS_MAX_OPEN_FILES", () -> meta.getMaxOpenFiles() );
 
     check( "FIELD_DECIMAL_PRECISION", () -> meta.getOutputFields().get( 0 ).getPrecision() );
     check( "FIELD_DECIMAL_SCALE", () -> meta.getOutputFields().get( 0 ).getScale() );
@@ -22,6 +22,7 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.pentaho.big.data.kettle.plugins.formats.impl.NamedClusterResolver;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.RollingFileWriter;
 import org.pentaho.big.data.kettle.plugins.formats.orc.output.OrcOutputField;
 import org.pentaho.di.core.bowl.DefaultBowl;
 import org.pentaho.di.core.RowMetaAndData;
@@ -48,11 +49,15 @@ import org.pentaho.metastore.locator.api.MetastoreLocator;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -180,6 +185,63 @@ public class OrcOutputTest {
     }
   }
 
+  @Test
+  public void testOutputFieldsResolvedOnce() throws Exception {
+    verify( orcOutput, times( 0 ) ).resolveOutputFields();
+    while ( orcOutput.processRow( orcOutputMeta, orcOutputData ) ) {
+      // write all the rows
+    }
+    verify( orcOutput, times( 1 ) ).resolveOutputFields();
+    assertArrayEquals( new int[] { 0 }, orcOutputData.fieldIndexes );
+  }
+
+  @Test
+  public void testProcessRowMapsReorderedFields() throws Exception {
+    RowMeta wideRowMeta = new RowMeta();
+    Object[] wideRow = new Object[ 50 ];
+    for ( int i = 0; i < wideRow.length; i++ ) {
+      wideRowMeta.addValueMeta( new ValueMetaString( "field" + i ) );
+      wideRow[ i ] = "value" + i;
+    }
+    List<OrcOutputField> fields = new ArrayList<>();
+    for ( int i = wideRow.length - 1; i >= 0; i -= 7 ) {
+      OrcOutputField field = new OrcOutputField();
+      field.setPentahoFieldName( "field" + i );
+      fields.add( field );
+    }
+    orcOutputMeta.setOutputFields( fields );
+    orcOutput.setInputRowMeta( wideRowMeta );
+    when( mockRowHandler.getRow() ).thenReturn( wideRow, wideRow.clone(), null );
+    ArgumentCaptor<RowMeta> rowMetaCaptor = ArgumentCaptor.forClass( RowMeta.class );
+    ArgumentCaptor<Object[]> dataCaptor = ArgumentCaptor.forClass( Object[].class );
+
+    while ( orcOutput.processRow( orcOutputMeta, orcOutputData ) ) {
+      // write all the rows
+    }
+
+    verify( mockRowHandler, times( 2 ) ).putRow( rowMetaCaptor.capture(), dataCaptor.capture() );
+    for ( Object[] row : dataCaptor.getAllValues() ) {
+      for ( int i = 0; i < fields.size(); i++ ) {
+        assertEquals( "value" + ( wideRow.length - 1 - 7 * i ), row[ i ] );
+        assertEquals( "field" + ( wideRow.length - 1 - 7 * i ),
+          rowMetaCaptor.getValue().getValueMeta( i ).getName() );
+      }
+    }
+  }
+
+  @Test
+  public void testProcessRowMissingField() throws Exception {
+    OrcOutputField field = new OrcOutputField();
+    field.setPentahoFieldName( "missing" );
+    orcOutputMeta.setOutputFields( Collections.singletonList( field ) );
+    try {
+      orcOutput.processRow( orcOutputMeta, orcOutputData );
+      fail( "No Kettle Exception thrown" );
+    } catch ( KettleException kex ) {
+      assertTrue( kex.getMessage().contains( "missing" ) );
+    }
+  }
+
   @Test
   public void testProcessRowIllegalState() throws Exception {
     doThrow(
@@ -308,4 +370,64 @@ public class OrcOutputTest {
     assertTrue( outputFile.exists() );
     outputFile.delete();
   }
+
+  @Test
+  public void testDisposeDiscardsTheFileOfAStoppedRun() throws Exception {
+    String aliasPath = Files.createTempDirectory( "testDisposeAliasFile" ) + File.separator + "dummyFile";
+    new File( aliasPath ).createNewFile();
+    when( mockPentahoOrcOutputFormat.generateAlias( anyString() ) ).thenReturn( aliasPath );
+
+    assertTrue( orcOutput.processRow( orcOutputMeta, orcOutputData ) );
+    orcOutput.dispose( orcOutputMeta, orcOutputData );
+
+    verify( mockPentahoOrcRecordWriter ).close();
+    assertFalse( new File( aliasPath ).exists() );
+    assertFalse( new File( OUTPUT_FILE_NAME ).exists() );
+    assertNull( orcOutputData.writer );
+    assertNull( orcOutputData.output );
+
+    // a second dispose has nothing left to drop
+    orcOutput.dispose( orcOutputMeta, orcOutputData );
+    verify( mockPentahoOrcRecordWriter ).close();
+  }
+
+  @Test
+  public void testDisposeDiscardsTheRollingFilesAndTheirUploads() {
+    RollingFileWriter files = mock( RollingFileWriter.class );
+    orcOutputData.files = files;
+
+    orcOutput.dispose( orcOutputMeta, orcOutputData );
+
+    verify( files ).discard();
+    assertNull( orcOutputData.files );
+  }
+
+  private List<String> processAndCaptureOutputFiles() throws Exception {
+    while ( orcOutput.processRow( orcOutputMeta, orcOutputData ) ) {
+      // next row
+    }
+    ArgumentCaptor<String> fileNames = ArgumentCaptor.forClass( String.class );
+    verify( mockPentahoOrcOutputFormat, Mockito.atLeastOnce() ).setOutputFile( fileNames.capture(), anyBoolean() );
+    return fileNames.getAllValues();
+  }
+
+  @Test
+  public void testRolledFilesKeepTheOrcExtension() throws Exception {
+    orcOutputMeta.setFilename( OUTPUT_FILE_NAME + ".orc" );
+    orcOutputMeta.setSplitEvery( "2" );
+
+    assertEquals( Arrays.asList( OUTPUT_FILE_NAME + "_0.orc", OUTPUT_FILE_NAME + "_1.orc" ),
+      processAndCaptureOutputFiles() );
+  }
+
+  @Test
+  public void testPartitionedFilesKeepTheOrcExtension() throws Exception {
+    orcOutputMeta.setFilename( OUTPUT_FILE_NAME + ".orc" );
+    orcOutputMeta.setPartitionFields( "StringName" );
+
+    assertEquals( Arrays.asList( "StringName=string1/" + OUTPUT_FILE_NAME + "_0.orc",
+      "StringName=string2/" + OUTPUT_FILE_NAME + "_0.orc", "StringName=string3/" + OUTPUT_FILE_NAME + "_0.orc" ),
+      processAndCaptureOutputFiles() );
+  }
 }
+
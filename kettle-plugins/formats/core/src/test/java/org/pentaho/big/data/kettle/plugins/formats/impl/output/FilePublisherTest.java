@@ -0,0 +1,126 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class FilePublisherTest {
+
+  @Test
+  public void testAwaitWaitsForEveryUpload() throws Exception {
+    FilePublisher publisher = new FilePublisher( 3, 4, "test" );
+    List<PvfsFileAliaser> aliasers = new ArrayList<>();
+    for ( int i = 0; i < 10; i++ ) {
+      PvfsFileAliaser aliaser = mock( PvfsFileAliaser.class );
+      aliasers.add( aliaser );
+      publisher.publish( aliaser );
+    }
+    publisher.await();
+
+    for ( PvfsFileAliaser aliaser : aliasers ) {
+      verify( aliaser ).copyFileToFinalDestination();
+      verify( aliaser ).deleteTempFileAndFolder();
+    }
+  }
+
+  @Test
+  public void testPendingFilesAreBounded() throws Exception {
+    FilePublisher publisher = new FilePublisher( 2, 2, "test" );
+    CountDownLatch uploadsMayFinish = new CountDownLatch( 1 );
+    for ( int i = 0; i < 2; i++ ) {
+      PvfsFileAliaser slow = mock( PvfsFileAliaser.class );
+      doAnswer( invocation -> uploadsMayFinish.await( 10, TimeUnit.SECONDS ) ).when( slow )
+        .copyFileToFinalDestination();
+      publisher.publish( slow );
+    }
+
+    CountDownLatch thirdPublished = new CountDownLatch( 1 );
+    Thread writer = new Thread( () -> {
+      try {
+        publisher.publish( mock( PvfsFileAliaser.class ) );
+        thirdPublished.countDown();
+      } catch ( Exception e ) {
+        // the latch stays closed and the test fails
+      }
+    } );
+    writer.start();
+
+    assertFalse( thirdPublished.await( 200, TimeUnit.MILLISECONDS ) );
+    uploadsMayFinish.countDown();
+    assertTrue( thirdPublished.await( 10, TimeUnit.SECONDS ) );
+    publisher.await();
+  }
+
+  @Test
+  public void testUploadFailureIsRethrown() throws Exception {
+    FilePublisher publisher = new FilePublisher( 1, 2, "test" );
+    PvfsFileAliaser broken = mock( PvfsFileAliaser.class );
+    IOException failure = new IOException( "upload failed" );
+    doThrow( failure ).when( broken ).copyFileToFinalDestination();
+    publisher.publish( broken );
+
+    try {
+      publisher.await();
+      fail( "Upload failure was not propagated" );
+    } catch ( IOException e ) {
+      assertSame( failure, e );
+    }
+    verify( broken ).deleteTempFileAndFolder();
+  }
+
+  @Test( timeout = 10000 )
+  public void testDiscardStopsTheUploadThreadsAndDropsQueuedFiles() throws Exception {
+    FilePublisher publisher = new FilePublisher( 1, 3, "discarded" );
+    CountDownLatch uploading = new CountDownLatch( 1 );
+    PvfsFileAliaser running = mock( PvfsFileAliaser.class );
+    doAnswer( invocation -> {
+      uploading.countDown();
+      Thread.sleep( 10000L );
+      return null;
+    } ).when( running ).copyFileToFinalDestination();
+    publisher.publish( running );
+    PvfsFileAliaser queued = mock( PvfsFileAliaser.class );
+    publisher.publish( queued );
+    uploading.await();
+
+    publisher.discard();
+
+    verify( queued, never() ).copyFileToFinalDestination();
+    verify( queued ).deleteTempFileAndFolder();
+    verify( running ).deleteTempFileAndFolder();
+    for ( Thread thread : Thread.getAllStackTraces().keySet() ) {
+      if ( thread.getName().startsWith( "discarded upload" ) ) {
+        thread.join( 1000L );
+        assertFalse( thread.isAlive() );
+      }
+    }
+  }
+}
+
@@ -26,7 +26,9 @@ import org.pentaho.hadoop.shim.api.format.IPvfsAliasGenerator;
 
 import java.io.File;
 import java.nio.file.Files;
+import java.util.Random;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -76,6 +78,19 @@ public class PvfsFileAliaserTest {
     assertFalse( new File( new File( temporaryPath ).getParent() ).exists() );
   }
 
+  @Test
+  public void testCopyLargeFile() throws Exception {
+    byte[] content = new byte[ 3 * PvfsFileAliaser.COPY_BUFFER_SIZE + 17 ];
+    new Random( 42 ).nextBytes( content );
+    Files.write( new File( temporaryPath ).toPath(), content );
+
+    pvfsFileAliaser.generateAlias();
+    pvfsFileAliaser.copyFileToFinalDestination();
+
+    assertArrayEquals( content, Files.readAllBytes( finalFile.toPath() ) );
+    pvfsFileAliaser.deleteTempFileAndFolder();
+  }
+
   @Test
   public void testGenerateWithInactiveAlias() throws Exception {
     when( aliasGenerator.generateAlias( anyString() ) ).thenReturn( null );
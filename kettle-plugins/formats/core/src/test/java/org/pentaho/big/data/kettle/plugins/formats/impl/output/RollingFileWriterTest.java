@@ -0,0 +1,150 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class RollingFileWriterTest {
+  private RowMeta rowMeta;
+  private Map<String, IPentahoRecordWriter> writers;
+  private Map<String, PvfsFileAliaser> aliasers;
+  private RollingFileWriter.FileOpener opener;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "country" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "city" ) );
+    writers = new LinkedHashMap<>();
+    aliasers = new LinkedHashMap<>();
+    opener = fileName -> {
+      IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+      PvfsFileAliaser aliaser = mock( PvfsFileAliaser.class );
+      writers.put( fileName, writer );
+      aliasers.put( fileName, aliaser );
+      return new RollingFileWriter.OutputFile( writer, aliaser );
+    };
+  }
+
+  @Test
+  public void testSplitEveryRows() throws Exception {
+    RollingFileWriter files = new RollingFileWriter( "/out/data.parquet", "parquet", 2, new String[ 0 ], 1, opener );
+
+    for ( int i = 0; i < 5; i++ ) {
+      write( files, "NL", "city" + i );
+    }
+    assertEquals( 1, files.getOpenFileCount() );
+    files.close();
+
+    assertEquals( Arrays.asList( "/out/data_0.parquet", "/out/data_1.parquet", "/out/data_2.parquet" ),
+      new ArrayList<>( writers.keySet() ) );
+    verify( writers.get( "/out/data_0.parquet" ), times( 2 ) ).write( any() );
+    verify( writers.get( "/out/data_2.parquet" ), times( 1 ) ).write( any() );
+    for ( String fileName : writers.keySet() ) {
+      verify( writers.get( fileName ) ).close();
+      verify( aliasers.get( fileName ) ).copyFileToFinalDestination();
+      verify( aliasers.get( fileName ) ).deleteTempFileAndFolder();
+    }
+    assertEquals( 0, files.getOpenFileCount() );
+  }
+
+  @Test
+  public void testPartitionDirectories() throws Exception {
+    RollingFileWriter files =
+      new RollingFileWriter( "/out/data", null, 0, new String[] { "country", "city" }, 10, opener );
+
+    write( files, "NL", "Den Haag" );
+    write( files, "US", "a/b" );
+    write( files, "NL", "Den Haag" );
+    write( files, null, "x" );
+    files.close();
+
+    assertEquals( Arrays.asList( "/out/country=NL/city=Den Haag/data_0", "/out/country=US/city=a%2Fb/data_0",
+        "/out/country=__HIVE_DEFAULT_PARTITION__/city=x/data_0" ), new ArrayList<>( writers.keySet() ) );
+    verify( writers.get( "/out/country=NL/city=Den Haag/data_0" ), times( 2 ) ).write( any() );
+  }
+
+  @Test
+  public void testLeastRecentlyWrittenFileIsEvicted() throws Exception {
+    RollingFileWriter files = new RollingFileWriter( "/out/data", null, 0, new String[] { "country" }, 2, opener );
+
+    write( files, "NL", "a" );
+    write( files, "US", "b" );
+    write( files, "NL", "c" );
+    write( files, "BE", "d" );
+
+    assertEquals( 2, files.getOpenFileCount() );
+    verify( aliasers.get( "/out/country=US/data_0" ) ).copyFileToFinalDestination();
+    verify( aliasers.get( "/out/country=NL/data_0" ), never() ).copyFileToFinalDestination();
+
+    write( files, "US", "e" );
+    verify( aliasers.get( "/out/country=NL/data_0" ) ).copyFileToFinalDestination();
+    assertEquals( Arrays.asList( "/out/country=NL/data_0", "/out/country=US/data_0", "/out/country=BE/data_0",
+      "/out/country=US/data_1" ), new ArrayList<>( writers.keySet() ) );
+  }
+
+  @Test
+  public void testDiscardDoesNotPublish() throws Exception {
+    RollingFileWriter files = new RollingFileWriter( "/out/data", null, 0, new String[] { "country" }, 10, opener );
+
+    write( files, "NL", "a" );
+    files.discard();
+
+    PvfsFileAliaser aliaser = aliasers.get( "/out/country=NL/data_0" );
+    verify( aliaser, never() ).copyFileToFinalDestination();
+    verify( aliaser ).deleteTempFileAndFolder();
+    assertEquals( 0, files.getOpenFileCount() );
+  }
+
+  @Test
+  public void testMissingPartitionField() throws Exception {
+    RollingFileWriter files = new RollingFileWriter( "/out/data", null, 0, new String[] { "zip" }, 10, opener );
+    try {
+      write( files, "NL", "a" );
+      fail( "Missing partition field was not reported" );
+    } catch ( KettleException e ) {
+      assertEquals( 0, writers.size() );
+    }
+  }
+
+  @Test
+  public void testEscapePathName() {
+    assertEquals( "plain value", RollingFileWriter.escapePathName( "plain value" ) );
+    assertEquals( "a%3Db%2Fc%25", RollingFileWriter.escapePathName( "a=b/c%" ) );
+  }
+
+  private void write( RollingFileWriter files, String country, String city ) throws Exception {
+    Object[] row = new Object[] { country, city };
+    files.write( rowMeta, row, new RowMetaAndData( rowMeta, row ) );
+  }
+}
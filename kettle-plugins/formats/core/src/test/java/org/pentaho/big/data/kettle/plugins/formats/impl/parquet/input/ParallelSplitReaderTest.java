@@ -0,0 +1,143 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.input;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoInputSplit;
+import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoRecordReader;
+import org.pentaho.hadoop.shim.api.format.IPentahoParquetInputFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParallelSplitReaderTest {
+  private static final int SPLITS = 5;
+  private static final int ROWS_PER_SPLIT = 250;
+
+  private IPentahoParquetInputFormat input;
+  private List<IPentahoInputSplit> splits;
+  private List<IPentahoRecordReader> readers;
+  private ParallelSplitReader splitReader;
+
+  @Before
+  public void setUp() throws Exception {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    input = mock( IPentahoParquetInputFormat.class );
+    splits = new ArrayList<>();
+    readers = new ArrayList<>();
+    for ( int split = 0; split < SPLITS; split++ ) {
+      List<RowMetaAndData> rows = new ArrayList<>();
+      for ( int row = 0; row < ROWS_PER_SPLIT; row++ ) {
+        rows.add( new RowMetaAndData( rowMeta, split + ":" + row ) );
+      }
+      IPentahoInputSplit inputSplit = mock( IPentahoInputSplit.class );
+      IPentahoRecordReader reader = mock( IPentahoRecordReader.class );
+      when( reader.iterator() ).thenReturn( rows.iterator() );
+      when( input.createRecordReader( inputSplit ) ).thenReturn( reader );
+      splits.add( inputSplit );
+      readers.add( reader );
+    }
+  }
+
+  @After
+  public void tearDown() {
+    if ( splitReader != null ) {
+      splitReader.close();
+    }
+  }
+
+  @Test
+  public void testPreservesSplitOrder() throws Exception {
+    splitReader = new ParallelSplitReader( input, splits, 3, 16, true, "test" );
+    splitReader.start();
+
+    List<String> values = readAll();
+
+    assertEquals( expectedValues(), values );
+    for ( IPentahoRecordReader reader : readers ) {
+      verify( reader ).close();
+    }
+  }
+
+  @Test
+  public void testUnorderedReadsEveryRowOnce() throws Exception {
+    splitReader = new ParallelSplitReader( input, splits, 4, 16, false, "test" );
+    splitReader.start();
+
+    List<String> values = readAll();
+
+    List<String> expected = expectedValues();
+    Collections.sort( values );
+    Collections.sort( expected );
+    assertEquals( expected, values );
+  }
+
+  @Test
+  public void testMoreReadersThanSplits() throws Exception {
+    splitReader = new ParallelSplitReader( input, splits.subList( 0, 2 ), 8, 1, true, "test" );
+    splitReader.start();
+
+    assertEquals( expectedValues().subList( 0, 2 * ROWS_PER_SPLIT ), readAll() );
+  }
+
+  @Test
+  public void testReaderFailureIsRethrown() throws Exception {
+    IOException failure = new IOException( "broken split" );
+    when( input.createRecordReader( splits.get( 2 ) ) ).thenThrow( failure );
+    splitReader = new ParallelSplitReader( input, splits, 2, 16, true, "test" );
+    splitReader.start();
+
+    try {
+      readAll();
+      fail( "Reader failure was not propagated" );
+    } catch ( IOException e ) {
+      assertSame( failure, e );
+    }
+  }
+
+  private List<String> readAll() throws Exception {
+    List<String> values = new ArrayList<>();
+    RowMetaAndData row;
+    while ( ( row = splitReader.next() ) != null ) {
+      values.add( (String) row.getData()[ 0 ] );
+    }
+    assertNull( splitReader.next() );
+    return values;
+  }
+
+  private List<String> expectedValues() {
+    List<String> values = new ArrayList<>();
+    for ( int split = 0; split < SPLITS; split++ ) {
+      for ( int row = 0; row < ROWS_PER_SPLIT; row++ ) {
+        values.add( split + ":" + row );
+      }
+    }
+    return values;
+  }
+}
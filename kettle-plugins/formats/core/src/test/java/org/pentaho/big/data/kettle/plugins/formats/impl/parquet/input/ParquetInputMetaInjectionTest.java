@@ -53,6 +53,23 @@ public class ParquetInputMetaInjectionTest extends BaseMetadataInjectionTest<Par
       }
     } );
 
+    check( "PARALLEL_SPLIT_READS", new IntGetter() {
+      public int get() {
+        return meta.getParallelSplitReads();
+      }
+    } );
+
+    check( "SPLIT_QUEUE_SIZE", new IntGetter() {
+      public int get() {
+        return meta.getSplitQueueSize();
+      }
+    } );
+
+    check( "PRESERVE_SPLIT_ORDER", new BooleanGetter() {
+      public boolean get() {
+        return meta.isPreserveSplitOrder();
+      }
+    } );
 
     String[] typeNames = ValueMetaBase.getAllTypes();
     checkStringToInt( "FIELD_TYPE", new IntGetter() {
@@ -49,6 +49,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -58,6 +59,7 @@ import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -187,6 +189,49 @@ public class ParquetInputTest {
     }
   }
 
+  @Test
+  public void testStepCopiesReadDisjointSplits() throws Exception {
+    int copies = 3;
+    List<IPentahoInputFormat.IPentahoInputSplit> splits = new ArrayList<>();
+    List<Object> expected = new ArrayList<>();
+    for ( int i = 0; i < 7; i++ ) {
+      IPentahoInputFormat.IPentahoInputSplit split = mock( IPentahoInputFormat.IPentahoInputSplit.class );
+      IPentahoParquetInputFormat.IPentahoRecordReader reader =
+        mock( IPentahoParquetInputFormat.IPentahoRecordReader.class );
+      when( reader.iterator() ).thenReturn(
+        Collections.singletonList( new RowMetaAndData( parquetRowMeta, "split" + i, true, i ) ).iterator() );
+      when( mockPentahoParquetInputFormat.createRecordReader( split ) ).thenReturn( reader );
+      splits.add( split );
+      expected.add( "split" + i );
+    }
+    when( mockPentahoParquetInputFormat.getSplits() ).thenReturn( splits );
+    when( mockStepMeta.getCopies() ).thenReturn( copies );
+
+    for ( int copyNr = 0; copyNr < copies; copyNr++ ) {
+      ParquetInput copy = new ParquetInput( mockStepMeta, mockStepDataInterface, copyNr, mockTransMeta, mockTrans );
+      copy.setRowHandler( mockRowHandler );
+      copy.setLogLevel( LogLevel.ERROR );
+      copy.setTransMeta( mockTransMeta );
+      ParquetInputData copyData = new ParquetInputData();
+      while ( copy.processRow( parquetInputMeta, copyData ) ) {
+        // read everything assigned to this copy
+      }
+    }
+
+    // every split is read by exactly one copy, so all the copies together produce the single copy row set
+    ArgumentCaptor<Object[]> dataCaptor = ArgumentCaptor.forClass( Object[].class );
+    verify( mockRowHandler, times( expected.size() ) ).putRow( any( RowMeta.class ), dataCaptor.capture() );
+    List<Object> read = new ArrayList<>();
+    for ( Object[] row : dataCaptor.getAllValues() ) {
+      read.add( row[ 0 ] );
+    }
+    read.sort( null );
+    assertEquals( expected, read );
+    for ( IPentahoInputFormat.IPentahoInputSplit split : splits ) {
+      verify( mockPentahoParquetInputFormat, times( 1 ) ).createRecordReader( split );
+    }
+  }
+
   @Test
   public void testInit() {
     assertEquals( true, parquetInput.init() );
@@ -87,6 +87,21 @@ public class ParquetOutputMetaInjectionTest extends BaseMetadataInjectionTest<Pa
         return meta.getDateTimeFormat();
       }
     } );
+    check( "SPLIT_EVERY", new StringGetter() {
+      public String get() {
+        return meta.getSplitEvery();
+      }
+    } );
+    check( "PARTITION_FIELDS", new StringGetter() {
+      public String get() {
+        return meta.getPartitionFields();
+      }
+    } );
+    check( "MAX_OPEN_FILES", new StringGetter() {
+      public String get() {
+        return meta.getMaxOpenFiles();
+      }
+    } );
 
     check( "FIELD_NAME", new StringGetter() {
       public String get() {
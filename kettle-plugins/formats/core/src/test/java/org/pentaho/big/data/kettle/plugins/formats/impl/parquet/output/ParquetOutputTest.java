@@ -24,6 +24,7 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.pentaho.big.data.kettle.plugins.formats.impl.NamedClusterResolver;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.RollingFileWriter;
 import org.pentaho.big.data.kettle.plugins.formats.parquet.output.ParquetOutputField;
 import org.pentaho.di.core.bowl.DefaultBowl;
 import org.pentaho.di.core.RowMetaAndData;
@@ -52,17 +53,21 @@ import org.pentaho.metastore.locator.api.MetastoreLocator;
 import java.io.File;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -193,6 +198,26 @@ public class ParquetOutputTest {
     }
   }
 
+  @Test
+  public void testProcessRowReusesWriterRow() throws Exception {
+    List<Object> written = new ArrayList<>();
+    List<RowMetaAndData> holders = new ArrayList<>();
+    doAnswer( invocation -> {
+      RowMetaAndData row = invocation.getArgument( 0 );
+      holders.add( row );
+      written.add( row.getData()[ 0 ] );
+      return null;
+    } ).when( mockPentahoParquetRecordWriter ).write( any( RowMetaAndData.class ) );
+
+    while ( parquetOutput.processRow( parquetOutputMeta, parquetOutputData ) ) {
+      // write all the rows
+    }
+
+    assertEquals( Arrays.asList( "string1", "string2", "string3" ), written );
+    assertSame( holders.get( 0 ), holders.get( 1 ) );
+    assertSame( holders.get( 0 ), holders.get( 2 ) );
+  }
+
   @Test
   public void initShouldPassEmbeddedMetastoreKey() {
     ParquetOutputMeta stepMetaInterface = mock( ParquetOutputMeta.class );
@@ -308,4 +333,36 @@ public class ParquetOutputTest {
     assertTrue( outputFile.exists() );
     outputFile.delete();
   }
+
+  @Test
+  public void testDisposeDiscardsTheFileOfAStoppedRun() throws Exception {
+    String aliasPath = Files.createTempDirectory( "testDisposeAliasFile" ) + File.separator + "dummyFile";
+    new File( aliasPath ).createNewFile();
+    when( mockPentahoParquetOutputFormat.generateAlias( anyString() ) ).thenReturn( aliasPath );
+
+    assertTrue( parquetOutput.processRow( parquetOutputMeta, parquetOutputData ) );
+    parquetOutput.dispose( parquetOutputMeta, parquetOutputData );
+
+    verify( mockPentahoParquetRecordWriter ).close();
+    assertFalse( new File( aliasPath ).exists() );
+    assertFalse( new File( OUTPUT_FILE_NAME ).exists() );
+    assertNull( parquetOutputData.writer );
+    assertNull( parquetOutputData.output );
+
+    // a second dispose has nothing left to drop
+    parquetOutput.dispose( parquetOutputMeta, parquetOutputData );
+    verify( mockPentahoParquetRecordWriter ).close();
+  }
+
+  @Test
+  public void testDisposeDiscardsTheRollingFilesAndTheirUploads() {
+    RollingFileWriter files = mock( RollingFileWriter.class );
+    parquetOutputData.files = files;
+
+    parquetOutput.dispose( parquetOutputMeta, parquetOutputData );
+
+    verify( files ).discard();
+    assertNull( parquetOutputData.files );
+  }
 }
+
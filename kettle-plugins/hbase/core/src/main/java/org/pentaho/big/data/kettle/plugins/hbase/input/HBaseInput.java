@@ -16,12 +16,15 @@ package org.pentaho.big.data.kettle.plugins.hbase.input;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.HBaseRowToKettleTuple;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappedColumn;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
 import org.pentaho.hadoop.shim.api.hbase.HBaseService;
@@ -61,6 +64,9 @@ public class HBaseInput extends BaseStep implements StepInterface {
   private HBaseService hBaseService;
   private HBaseTable m_hbAdminTable;
   private ResultScanner resultScanner;
+  private String m_keyConversionMask;
+  private List<String[]> m_keyRanges;
+  private int m_nextKeyRange;
   private HBaseValueMetaInterfaceFactory hBaseValueMetaInterfaceFactory;
 
   public HBaseInput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
@@ -92,6 +98,12 @@ public class HBaseInput extends BaseStep implements StepInterface {
    */
   protected HBaseRowToKettleTuple m_tupleHandler;
 
+  /** Index of the key in the outgoing row (-1 if the key is not output) */
+  protected int m_outputKeyIndex = -1;
+
+  /** The non-key output columns resolved against the outgoing row */
+  protected MappedColumn[] m_outputColumns;
+
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
 
@@ -119,7 +131,8 @@ public class HBaseInput extends BaseStep implements StepInterface {
             "HBaseInput.Error.UnableToObtainConnection" ), ex );
       }
       try {
-        m_mappingAdmin = new MappingAdmin( m_hbAdmin );
+        m_mappingAdmin = new MappingAdmin( m_hbAdmin, MappingCache.clusterScope( m_meta.getNamedCluster(), this,
+            environmentSubstitute( m_meta.getCoreConfigURL() ) ) );
       } catch ( Exception ex ) {
         throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
             "HBaseInput.Error.UnableToCreateAMappingAdminConnection" ), ex );
@@ -214,44 +227,42 @@ public class HBaseInput extends BaseStep implements StepInterface {
             "HBaseInput.Error.UnableToSetSourceTableForScan" ), ex );
       }
 
-      ResultScannerBuilder scannerBuilder = m_hbAdminTable
-        .createScannerBuilder( m_tableMapping, dateOrNumberConversionMaskForKey, m_meta.getKeyStartValue(),
-          m_meta.getKeyStopValue(), m_meta.getScannerCacheSize(), log, this );
-
-      // LIMIT THE SCAN TO JUST THE COLUMNS IN THE MAPPING
-      // User-selected output columns?
-      if ( m_userOutputColumns != null && m_userOutputColumns.size() > 0 && !m_tableMapping.isTupleMapping() ) {
-        HBaseInputData.setScanColumns( scannerBuilder, m_userOutputColumns, m_tableMapping );
-      }
-
-      // set any filters
-      if ( m_meta.getColumnFilters() != null && m_meta.getColumnFilters().size() > 0 ) {
-        HBaseInputData.setScanFilters( scannerBuilder, m_meta.getColumnFilters(), m_meta.getMatchAnyFilter(),
-          m_columnsMappedByAlias, this );
-      }
+      m_keyConversionMask = dateOrNumberConversionMaskForKey;
+      m_keyRanges = getKeyRanges();
 
       if ( !isStopped() ) {
-        try {
-          resultScanner = scannerBuilder.build();
-        } catch ( Exception e ) {
-          throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
-              "HBaseInput.Error.UnableToExecuteSourceTableScan" ), e );
-        }
-
         // set up the output fields (using the mapping)
         m_data.setOutputRowMeta( new RowMeta() );
         m_meta.getFields( getTransMeta().getBowl(), m_data.getOutputRowMeta(), getStepname(), null, null, this,
           repository, metaStore );
+
+        if ( !m_tableMapping.isTupleMapping() ) {
+          m_outputKeyIndex =
+              HBaseInputData.getOutputKeyIndex( m_userOutputColumns, m_tableMapping, m_data.getOutputRowMeta() );
+          m_outputColumns =
+              HBaseInputData.compileOutputColumns( m_userOutputColumns, m_columnsMappedByAlias, m_data
+                  .getOutputRowMeta() );
+        }
       }
     }
 
     Result next = null;
-    if ( !isStopped() ) {
+    while ( next == null && !isStopped() ) {
+      if ( resultScanner == null ) {
+        if ( m_nextKeyRange >= m_keyRanges.size() ) {
+          break;
+        }
+        String[] keyRange = m_keyRanges.get( m_nextKeyRange++ );
+        resultScanner = openScanner( keyRange[0], keyRange[1] );
+      }
       try {
         next = resultScanner.next();
       } catch ( Exception e ) {
         throw new KettleException( e.getMessage(), e );
       }
+      if ( next == null ) {
+        closeScanner();
+      }
     }
 
     if ( next == null ) {
@@ -277,8 +288,8 @@ public class HBaseInput extends BaseStep implements StepInterface {
       return true;
     } else {
       Object[] outRowData =
-          HBaseInputData.getOutputRow( next, m_userOutputColumns, m_columnsMappedByAlias, m_tableMapping, m_data
-              .getOutputRowMeta() );
+          HBaseInputData.getOutputRow( next, m_outputKeyIndex, m_outputColumns, m_tableMapping, m_data
+              .getOutputRowMeta().size() );
       putRow( m_data.getOutputRowMeta(), outRowData );
       return true;
     }
@@ -304,6 +315,69 @@ public class HBaseInput extends BaseStep implements StepInterface {
     return false;
   }
 
+  /**
+   * Works out the key ranges this copy of the step scans. Without key range splits every copy scans the whole range.
+   */
+  protected List<String[]> getKeyRanges() {
+    String keyStart = m_meta.getKeyStartValue();
+    String keyStop = m_meta.getKeyStopValue();
+    int splits = Const.toInt( environmentSubstitute( m_meta.getKeyRangeSplits() ), 0 );
+    if ( splits <= 0 ) {
+      return Collections.singletonList( new String[] { keyStart, keyStop } );
+    }
+
+    List<String[]> ranges =
+        KeyRangeSplitter.split( m_tableMapping.getKeyType(), environmentSubstitute( keyStart ),
+            environmentSubstitute( keyStop ), splits );
+    if ( ranges == null ) {
+      logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.KeyRangeNotSplittable" ) );
+      ranges = Collections.singletonList( new String[] { keyStart, keyStop } );
+    }
+    List<String[]> assigned =
+        KeyRangeSplitter.assign( ranges, getUniqueStepNrAcrossSlaves(), getUniqueStepCountAcrossSlaves() );
+    logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.ScanningKeyRanges", assigned.size(),
+        ranges.size() ) );
+    return assigned;
+  }
+
+  /**
+   * Builds a scanner over one key range, with the scanner cache, columns and filters of the step.
+   */
+  protected ResultScanner openScanner( String keyStart, String keyStop ) throws KettleException {
+    ResultScannerBuilder scannerBuilder = m_hbAdminTable
+      .createScannerBuilder( m_tableMapping, m_keyConversionMask, keyStart, keyStop, m_meta.getScannerCacheSize(),
+        log, this );
+
+    // LIMIT THE SCAN TO JUST THE COLUMNS IN THE MAPPING
+    // User-selected output columns?
+    if ( m_userOutputColumns != null && m_userOutputColumns.size() > 0 && !m_tableMapping.isTupleMapping() ) {
+      HBaseInputData.setScanColumns( scannerBuilder, m_userOutputColumns, m_tableMapping );
+    }
+
+    // set any filters
+    if ( m_meta.getColumnFilters() != null && m_meta.getColumnFilters().size() > 0 ) {
+      HBaseInputData.setScanFilters( scannerBuilder, m_meta.getColumnFilters(), m_meta.getMatchAnyFilter(),
+        m_columnsMappedByAlias, this );
+    }
+
+    try {
+      return scannerBuilder.build();
+    } catch ( Exception e ) {
+      throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
+          "HBaseInput.Error.UnableToExecuteSourceTableScan" ), e );
+    }
+  }
+
+  private void closeScanner() throws KettleException {
+    ResultScanner scanner = resultScanner;
+    resultScanner = null;
+    try {
+      scanner.close();
+    } catch ( Exception e ) {
+      throw new KettleException( e.getMessage(), e );
+    }
+  }
+
   public static int getKettleTypeByKeyType( Mapping.KeyType keyType ) {
     if ( keyType == null ) {
       return ValueMetaInterface.TYPE_NONE;
@@ -15,6 +15,7 @@
 package org.pentaho.big.data.kettle.plugins.hbase.input;
 
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.HBaseRowToKettleTuple;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappedColumn;
 import org.pentaho.hadoop.shim.api.hbase.HBaseService;
 import org.pentaho.hadoop.shim.api.hbase.mapping.ColumnFilter;
 import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
@@ -32,10 +33,10 @@ import org.pentaho.di.trans.step.StepDataInterface;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Class providing an input step for reading data from an HBase table according to meta data mapping info stored in a
@@ -231,99 +232,114 @@ public class HBaseInputData extends BaseStepData implements StepDataInterface {
     int size = ( userOutputColumns != null && userOutputColumns.size() > 0 ) ? userOutputColumns.size()
       : tableMapping.numMappedColumns() + 1; // + 1 for the key
 
-    Object[] outputRowData = RowDataUtil.allocateRowData( size );
+    return getOutputRow( result, getOutputKeyIndex( userOutputColumns, tableMapping, outputRowMeta ),
+        compileOutputColumns( userOutputColumns, columnsMappedByAlias, outputRowMeta ), tableMapping, size );
+  }
 
-    // User-selected output columns?
+  /**
+   * Get the index of the key in the outgoing row
+   * 
+   * @param userOutputColumns
+   *          user-specified subset of columns (if any) from the mapping
+   * @param tableMapping
+   *          the mapping to use
+   * @param outputRowMeta
+   *          the outgoing row meta
+   * @return the index of the key, or -1 if the user did not select the key for output
+   */
+  public static int getOutputKeyIndex( List<HBaseValueMetaInterface> userOutputColumns, Mapping tableMapping,
+      RowMetaInterface outputRowMeta ) {
     if ( userOutputColumns != null && userOutputColumns.size() > 0 ) {
       for ( HBaseValueMetaInterface currentCol : userOutputColumns ) {
         if ( currentCol.isKey() ) {
-          byte[] rawKey = null;
-          try {
-            rawKey = result.getRow();
-          } catch ( Exception e ) {
-            throw new KettleException( e );
-          }
-          Object decodedKey = tableMapping.decodeKeyValue( rawKey );
-          int keyIndex = outputRowMeta.indexOfValue( currentCol.getAlias() );
-          outputRowData[keyIndex] = decodedKey;
-        } else {
-          String colFamilyName = currentCol.getColumnFamily();
-          String qualifier = currentCol.getColumnName();
-
-          boolean binaryColName = false;
-          if ( qualifier.startsWith( "@@@binary@@@" ) ) {
-            qualifier = qualifier.replace( "@@@binary@@@", "" );
-            // assume hex encoded
-            binaryColName = true;
-          }
-
-          byte[] kv = null;
-          try {
-            kv = result.getValue( colFamilyName, qualifier, binaryColName );
-          } catch ( Exception e ) {
-            throw new KettleException( e );
-          }
-
-          int outputIndex = outputRowMeta.indexOfValue( currentCol.getAlias() );
-          if ( outputIndex < 0 ) {
-            throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
-                "HBaseInput.Error.ColumnNotDefinedInOutput", currentCol.getAlias() ) );
-          }
-
-          Object decodedVal = currentCol.decodeColumnValue( ( kv == null ) ? null : kv );
-
-          outputRowData[outputIndex] = decodedVal;
+          return outputRowMeta.indexOfValue( currentCol.getAlias() );
         }
       }
-    } else {
-      // do the key first
-      byte[] rawKey = null;
-      try {
-        rawKey = result.getRow();
-      } catch ( Exception e ) {
-        throw new KettleException( e );
-      }
-
-      Object decodedKey = tableMapping.decodeKeyValue( rawKey );
-      int keyIndex = outputRowMeta.indexOfValue( tableMapping.getKeyName() );
-      outputRowData[keyIndex] = decodedKey;
+      return -1;
+    }
+    return outputRowMeta.indexOfValue( tableMapping.getKeyName() );
+  }
 
-      Set<String> aliasSet = columnsMappedByAlias.keySet();
+  /**
+   * Resolve the non-key output columns against the outgoing row meta once, for use with
+   * {@link #getOutputRow(Result, int, MappedColumn[], Mapping, int)}
+   * 
+   * @param userOutputColumns
+   *          user-specified subset of columns (if any) from the mapping
+   * @param columnsMappedByAlias
+   *          columns in the mapping keyed by alias
+   * @param outputRowMeta
+   *          the outgoing row meta
+   * @return the output columns with their index in the outgoing row
+   * @throws KettleException
+   *           if a column is not defined in the outgoing row meta
+   */
+  public static MappedColumn[] compileOutputColumns( List<HBaseValueMetaInterface> userOutputColumns,
+      Map<String, HBaseValueMetaInterface> columnsMappedByAlias, RowMetaInterface outputRowMeta )
+    throws KettleException {
 
-      for ( String name : aliasSet ) {
-        HBaseValueMetaInterface currentCol = columnsMappedByAlias.get( name );
-        String colFamilyName = currentCol.getColumnFamily();
-        String qualifier = currentCol.getColumnName();
-        if ( currentCol.isKey() ) {
-          // skip key as it has already been processed 
-          // and is not in the scan's columns 
-          continue;
-        }
+    Collection<HBaseValueMetaInterface> outputColumns =
+        ( userOutputColumns != null && userOutputColumns.size() > 0 ) ? userOutputColumns : columnsMappedByAlias
+            .values();
 
-        boolean binaryColName = false;
-        if ( qualifier.startsWith( "@@@binary@@@" ) ) {
-          qualifier = qualifier.replace( "@@@binary@@@", "" );
-          // assume hex encoded
-          binaryColName = true;
-        }
+    List<MappedColumn> columns = new ArrayList<>( outputColumns.size() );
+    for ( HBaseValueMetaInterface currentCol : outputColumns ) {
+      if ( currentCol.isKey() ) {
+        // the key is not in the scan's columns
+        continue;
+      }
+      int outputIndex = outputRowMeta.indexOfValue( currentCol.getAlias() );
+      if ( outputIndex < 0 ) {
+        throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
+            "HBaseInput.Error.ColumnNotDefinedInOutput", currentCol.getAlias() ) );
+      }
+      columns.add( new MappedColumn( outputIndex, currentCol, null ) );
+    }
+    return columns.toArray( new MappedColumn[ 0 ] );
+  }
 
-        byte[] kv = null;
-        try {
-          kv = result.getValue( colFamilyName, qualifier, binaryColName );
-        } catch ( Exception e ) {
-          throw new KettleException( e );
-        }
+  /**
+   * Convert/decode the current hbase row into a kettle row using columns compiled by
+   * {@link #compileOutputColumns(List, Map, RowMetaInterface)}
+   * 
+   * @param result
+   *          the result to use
+   * @param keyIndex
+   *          the index of the key in the outgoing row, -1 if the key is not output
+   * @param columns
+   *          the compiled output columns
+   * @param tableMapping
+   *          the mapping to use
+   * @param size
+   *          the number of fields in the outgoing row
+   * @return a kettle row
+   * @throws KettleException
+   *           if a problem occurs
+   */
+  public static Object[] getOutputRow( Result result, int keyIndex, MappedColumn[] columns, Mapping tableMapping,
+      int size ) throws KettleException {
 
-        int outputIndex = outputRowMeta.indexOfValue( name );
-        if ( outputIndex < 0 ) {
-          throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
-              "HBaseInput.Error.ColumnNotDefinedInOutput", name ) );
-        }
+    Object[] outputRowData = RowDataUtil.allocateRowData( size );
 
-        Object decodedVal = currentCol.decodeColumnValue( ( kv == null ) ? null : kv );
+    if ( keyIndex >= 0 ) {
+      byte[] rawKey = null;
+      try {
+        rawKey = result.getRow();
+      } catch ( Exception e ) {
+        throw new KettleException( e );
+      }
+      outputRowData[keyIndex] = tableMapping.decodeKeyValue( rawKey );
+    }
 
-        outputRowData[outputIndex] = decodedVal;
+    for ( MappedColumn column : columns ) {
+      byte[] kv = null;
+      try {
+        kv = result.getValue( column.getFamily(), column.getQualifier(), column.isBinaryQualifier() );
+      } catch ( Exception e ) {
+        throw new KettleException( e );
       }
+
+      outputRowData[column.getIndex()] = column.getColumn().decodeColumnValue( kv );
     }
 
     return outputRowData;
@@ -23,6 +23,7 @@ import org.pentaho.big.data.kettle.plugins.hbase.MappingDefinition;
 import org.pentaho.big.data.kettle.plugins.hbase.NamedClusterLoadSaveUtil;
 import org.pentaho.big.data.kettle.plugins.hbase.ServiceStatus;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingUtils;
 import org.pentaho.big.data.kettle.plugins.hbase.meta.AELHBaseMappingImpl;
 import org.pentaho.big.data.kettle.plugins.hbase.meta.AELHBaseValueMetaImpl;
@@ -148,6 +149,12 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "SCANNER_ROW_CACHE_SIZE" )
   protected String m_scannerCacheSize;
 
+  /**
+   * Number of key ranges to split the scan into
+   */
+  @Injection( name = "KEY_RANGE_SPLITS" )
+  protected String m_keyRangeSplits;
+
   protected transient Mapping m_cachedMapping;
 
   /**
@@ -387,6 +394,25 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     return m_scannerCacheSize;
   }
 
+  /**
+   * Set the number of key ranges to split the scan into. The ranges are divided between the copies of the step, so
+   * several copies can scan the table in parallel. Only numeric keys with both a start and a stop value can be split.
+   *
+   * @param splits the number of key ranges, may be null to scan the whole range in every copy
+   */
+  public void setKeyRangeSplits( String splits ) {
+    m_keyRangeSplits = splits;
+  }
+
+  /**
+   * Get the number of key ranges to split the scan into
+   *
+   * @return the number of key ranges
+   */
+  public String getKeyRangeSplits() {
+    return m_keyRangeSplits;
+  }
+
   /**
    * Set a list of fields to emit from this steo. If not specified, then all fields defined in the mapping for the
    * source table will be emitted.
@@ -433,6 +459,7 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     m_sourceMappingName = null;
     m_keyStart = null;
     m_keyStop = null;
+    m_keyRangeSplits = null;
     namedCluster = namedClusterService.getClusterTemplate();
   }
 
@@ -610,6 +637,9 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     if ( !Const.isEmpty( m_scannerCacheSize ) ) {
       retval.append( "\n    " ).append( XMLHandler.addTagValue( "scanner_cache_size", m_scannerCacheSize ) );
     }
+    if ( !Const.isEmpty( m_keyRangeSplits ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "key_range_splits", m_keyRangeSplits ) );
+    }
 
     if ( m_outputFields != null && m_outputFields.size() > 0 ) {
       retval.append( "\n    " ).append( XMLHandler.openTag( "output_fields" ) );
@@ -665,6 +695,7 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     m_keyStart = XMLHandler.getTagValue( stepnode, "key_start" );
     m_keyStop = XMLHandler.getTagValue( stepnode, "key_stop" );
     m_scannerCacheSize = XMLHandler.getTagValue( stepnode, "scanner_cache_size" );
+    m_keyRangeSplits = XMLHandler.getTagValue( stepnode, "key_range_splits" );
     String m = XMLHandler.getTagValue( stepnode, "match_any_filter" );
     if ( !Const.isEmpty( m ) ) {
       m_matchAnyFilter = m.equalsIgnoreCase( "Y" );
@@ -769,6 +800,9 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     if ( !Const.isEmpty( m_scannerCacheSize ) ) {
       rep.saveStepAttribute( id_transformation, id_step, 0, "scanner_cache_size", m_scannerCacheSize );
     }
+    if ( !Const.isEmpty( m_keyRangeSplits ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "key_range_splits", m_keyRangeSplits );
+    }
 
     if ( m_outputFields != null && m_outputFields.size() > 0 ) {
 
@@ -816,6 +850,7 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     m_keyStop = rep.getStepAttributeString( id_step, 0, "key_stop" );
     m_matchAnyFilter = rep.getStepAttributeBoolean( id_step, 0, "match_any_filter" );
     m_scannerCacheSize = rep.getStepAttributeString( id_step, 0, "scanner_cache_size" );
+    m_keyRangeSplits = rep.getStepAttributeString( id_step, 0, "key_range_splits" );
 
     if ( hBaseService != null ) {
       HBaseValueMetaInterfaceFactory valueMetaInterfaceFactory = hBaseService.getHBaseValueMetaInterfaceFactory();
@@ -918,7 +953,7 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
             logBasic( m );
           }
 
-          mappingAdmin = new MappingAdmin( conf );
+          mappingAdmin = new MappingAdmin( conf, MappingCache.clusterScope( namedCluster, space, coreConf ) );
 
           m_cachedMapping = mappingAdmin.getMapping( space.environmentSubstitute( m_sourceTableName ),
             space.environmentSubstitute( m_sourceMappingName ) );
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the key range of a scan into contiguous sub ranges and divides them between the copies of the HBase input
+ * step, so that every copy runs its own scanners over a disjoint part of the table.
+ * <p>
+ * The shim does not expose the region boundaries of a table, so the ranges are computed from the start and stop key
+ * of the scan. That is only possible for integer keys with both bounds set; other keys are scanned as a single range.
+ */
+final class KeyRangeSplitter {
+
+  private KeyRangeSplitter() {
+  }
+
+  /**
+   * Splits [start, stop) into at most {@code splits} ranges of (nearly) equal width.
+   *
+   * @param keyType the type of the table key
+   * @param start   the start key value (inclusive)
+   * @param stop    the stop key value (exclusive)
+   * @param splits  the number of ranges wanted
+   * @return the start and stop value of every range, or null if the key range can't be split
+   */
+  static List<String[]> split( Mapping.KeyType keyType, String start, String stop, int splits ) {
+    if ( !isIntegerKey( keyType ) ) {
+      return null;
+    }
+    BigInteger lower = parse( start );
+    BigInteger upper = parse( stop );
+    if ( lower == null || upper == null ) {
+      return null;
+    }
+
+    List<String[]> ranges = new ArrayList<>();
+    BigInteger width = upper.subtract( lower );
+    if ( width.signum() <= 0 || splits <= 1 ) {
+      ranges.add( new String[] { start, stop } );
+      return ranges;
+    }
+    BigInteger count = width.min( BigInteger.valueOf( splits ) );
+    String rangeStart = start;
+    for ( long i = 1; i <= count.longValue(); i++ ) {
+      String rangeStop = i == count.longValue() ? stop
+        : lower.add( width.multiply( BigInteger.valueOf( i ) ).divide( count ) ).toString();
+      ranges.add( new String[] { rangeStart, rangeStop } );
+      rangeStart = rangeStop;
+    }
+    return ranges;
+  }
+
+  /**
+   * Keeps every {@code copyCount}-th range starting at {@code copyNr}, so that the copies together scan every range
+   * exactly once.
+   */
+  static <T> List<T> assign( List<T> ranges, int copyNr, int copyCount ) {
+    if ( copyCount <= 1 ) {
+      return ranges;
+    }
+    List<T> assigned = new ArrayList<>();
+    for ( int i = copyNr; i < ranges.size(); i += copyCount ) {
+      assigned.add( ranges.get( i ) );
+    }
+    return assigned;
+  }
+
+  private static boolean isIntegerKey( Mapping.KeyType keyType ) {
+    if ( keyType == null ) {
+      return false;
+    }
+    switch ( keyType ) {
+      case INTEGER:
+      case UNSIGNED_INTEGER:
+      case LONG:
+      case UNSIGNED_LONG:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static BigInteger parse( String key ) {
+    if ( key == null || key.trim().isEmpty() ) {
+      return null;
+    }
+    try {
+      // values with a conversion mask (value@mask) are left to the shim
+      return new BigInteger( key.trim() );
+    } catch ( NumberFormatException e ) {
+      return null;
+    }
+  }
+}
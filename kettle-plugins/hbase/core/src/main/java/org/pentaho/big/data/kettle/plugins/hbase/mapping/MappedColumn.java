@@ -0,0 +1,88 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+
+/**
+ * A mapped column resolved against the row layout of a step, so that the per row loops of the HBase steps don't have
+ * to look the column up by name and re-derive its family and qualifier for every value.
+ * <p>
+ * The qualifier is stored without the {@code @@@binary@@@} prefix that marks hex encoded column names; whether it was
+ * present is kept in {@link #isBinaryQualifier()}.
+ */
+public class MappedColumn {
+
+  /**
+   * Prefix of the column names in a mapping that hold a hex encoded qualifier.
+   */
+  public static final String BINARY_QUALIFIER_PREFIX = "@@@binary@@@";
+
+  private final int index;
+  private final HBaseValueMetaInterface column;
+  private final ValueMetaInterface valueMeta;
+  private final String family;
+  private final String qualifier;
+  private final boolean binaryQualifier;
+
+  /**
+   * @param index     the index of the column's field in the Kettle row
+   * @param column    the mapped column, used to encode and decode the values
+   * @param valueMeta the meta data of the field in the Kettle row, may be null when only decoding
+   */
+  public MappedColumn( int index, HBaseValueMetaInterface column, ValueMetaInterface valueMeta ) {
+    this.index = index;
+    this.column = column;
+    this.valueMeta = valueMeta;
+    this.family = column.getColumnFamily();
+
+    String columnName = column.getColumnName();
+    if ( columnName != null && columnName.startsWith( BINARY_QUALIFIER_PREFIX ) ) {
+      this.qualifier = columnName.replace( BINARY_QUALIFIER_PREFIX, "" );
+      this.binaryQualifier = true;
+    } else {
+      this.qualifier = columnName;
+      this.binaryQualifier = false;
+    }
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public HBaseValueMetaInterface getColumn() {
+    return column;
+  }
+
+  public ValueMetaInterface getValueMeta() {
+    return valueMeta;
+  }
+
+  public String getFamily() {
+    return family;
+  }
+
+  public String getQualifier() {
+    return qualifier;
+  }
+
+  public boolean isBinaryQualifier() {
+    return binaryQualifier;
+  }
+
+  public boolean isKey() {
+    return column.isKey();
+  }
+}
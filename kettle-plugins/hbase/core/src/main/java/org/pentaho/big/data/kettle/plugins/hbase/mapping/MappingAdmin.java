@@ -39,6 +39,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -62,6 +63,9 @@ public class MappingAdmin implements Closeable {
 
   private final HBaseConnection hBaseConnection;
 
+  /** Identifies the cluster in the mapping cache, null if mappings are not cached */
+  private final String cacheScope;
+
   /** Name of the mapping table (might make this configurable at some stage) */
   protected String m_mappingTableName = "pentaho_mappings";
 
@@ -91,7 +95,21 @@ public class MappingAdmin implements Closeable {
 
 
   public MappingAdmin( HBaseConnection hBaseConnection ) {
+    this( hBaseConnection, null );
+  }
+
+  /**
+   * Constructor for a mapping admin that reads mappings through the process wide {@link MappingCache}.
+   *
+   * @param hBaseConnection
+   *          the connection to the cluster holding the mapping table
+   * @param cacheScope
+   *          identifies the cluster in the mapping cache, see {@link MappingCache#clusterScope}; null to always read
+   *          mappings from the mapping table
+   */
+  public MappingAdmin( HBaseConnection hBaseConnection, String cacheScope ) {
     this.hBaseConnection = hBaseConnection;
+    this.cacheScope = cacheScope;
   }
 
   /**
@@ -592,6 +610,7 @@ public class MappingAdmin implements Closeable {
         hBaseTableWriteOperationManager.createDelete(
           byteConversionUtil.compoundKey( HbaseUtil.parseQualifierFromTableName( tableName ), mappingName ) )
           .execute();
+        MappingCache.getInstance().invalidate( tableName, mappingName );
         return true;
       }
     }
@@ -714,6 +733,7 @@ public class MappingAdmin implements Closeable {
       // add the row
       hBasePut.execute();
       writeOperationManager.flushCommits();
+      MappingCache.getInstance().invalidate( tableName, mappingName );
     }
   }
 
@@ -759,9 +779,25 @@ public class MappingAdmin implements Closeable {
    *           if a mapping by the given name does not exist for the given table
    */
   public Mapping getMapping( String tableName, String mappingName ) throws Exception {
+    MappingCache.MappingRow mappingRow =
+      MappingCache.getInstance().get( cacheScope, tableName, mappingName,
+        () -> readMappingRow( tableName, mappingName ) );
+    return createMapping( tableName, mappingName, mappingRow );
+  }
+
+  /**
+   * Reads the row of a mapping from the mapping table
+   *
+   * @param tableName
+   *          the name of the table
+   * @param mappingName
+   *          the name of the mapping to get for the table
+   * @return the decoded key and column definitions of the mapping
+   * @throws Exception
+   *           if a mapping by the given name does not exist for the given table
+   */
+  private MappingCache.MappingRow readMappingRow( String tableName, String mappingName ) throws Exception {
     ByteConversionUtil byteConversionUtil = hBaseConnection.getByteConversionUtil();
-    MappingFactory mappingFactory = hBaseConnection.getMappingFactory();
-    HBaseValueMetaInterfaceFactory valueMetaInterfaceFactory = hBaseConnection.getHBaseValueMetaInterfaceFactory();
     try ( HBaseTable hBaseTable = hBaseConnection.getTable( getMappingTableName( tableName ) ) ) {
       if ( !hBaseTable.exists() ) {
 
@@ -776,143 +812,169 @@ public class MappingAdmin implements Closeable {
       ResultScannerBuilder scannerBuilder = hBaseTable.createScannerBuilder( compoundKey, compoundKey );
       scannerBuilder.setCaching( 10 );
 
-      ResultScanner resultScanner = scannerBuilder.build();
-      Result result = resultScanner.next();
-      if ( result == null ) {
-        throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" does not exist!" );
-      }
+      try ( ResultScanner resultScanner = scannerBuilder.build() ) {
+        Result result = resultScanner.next();
+        if ( result == null ) {
+          throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" does not exist!" );
+        }
 
-      NavigableMap<byte[], byte[]> colsInKeyFamily = result.getFamilyMap( KEY_FAMILY_NAME );
+        NavigableMap<byte[], byte[]> colsInKeyFamily = result.getFamilyMap( KEY_FAMILY_NAME );
 
-      Set<byte[]> keyCols = colsInKeyFamily.keySet();
-      // should only be one key defined!!
-      if ( keyCols.size() != 1 ) {
-        throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" has more than one key defined!" );
-      }
+        Set<byte[]> keyCols = colsInKeyFamily.keySet();
+        // should only be one key defined!!
+        if ( keyCols.size() != 1 ) {
+          throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" has more than one key defined!" );
+        }
 
-      byte[] keyNameB = keyCols.iterator().next();
-      String decodedKeyName = byteConversionUtil.toString( keyNameB );
-      byte[] keyTypeB = colsInKeyFamily.get( keyNameB );
-      String decodedKeyType = byteConversionUtil.toString( keyTypeB );
-      Mapping.KeyType keyType = null;
+        byte[] keyNameB = keyCols.iterator().next();
+        String decodedKeyName = byteConversionUtil.toString( keyNameB );
+        String decodedKeyType = byteConversionUtil.toString( colsInKeyFamily.get( keyNameB ) );
 
-      for ( Mapping.KeyType t : Mapping.KeyType.values() ) {
-        if ( decodedKeyType.equalsIgnoreCase( t.toString() ) ) {
-          keyType = t;
-          break;
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        NavigableMap<byte[], byte[]> colsInMapping = result.getFamilyMap( COLUMNS_FAMILY_NAME );
+        for ( Map.Entry<byte[], byte[]> column : colsInMapping.entrySet() ) {
+          String decodedName = byteConversionUtil.toString( column.getKey() );
+          if ( column.getValue() == null ) {
+            throw new IOException( "No type declaration for column \"" + decodedName + "\"" );
+          }
+          columnTypes.put( decodedName, byteConversionUtil.toString( column.getValue() ) );
         }
-      }
 
-      if ( keyType == null ) {
-        throw new IOException( "Unrecognized type for the key column in \"" + compoundKey + "\"" );
+        return new MappingCache.MappingRow( decodedKeyName, decodedKeyType, columnTypes );
       }
+    }
+  }
 
-      String tupleFamilies = "";
-      boolean isTupleMapping = false;
-      if ( decodedKeyName.indexOf( ',' ) > 0 ) {
+  /**
+   * Creates a new mapping object from the decoded row of a mapping
+   *
+   * @param tableName
+   *          the name of the table
+   * @param mappingName
+   *          the name of the mapping
+   * @param mappingRow
+   *          the decoded key and column definitions of the mapping
+   * @return a mapping for the supplied table
+   * @throws Exception
+   *           if the mapping definition is not valid
+   */
+  private Mapping createMapping( String tableName, String mappingName, MappingCache.MappingRow mappingRow )
+    throws Exception {
+    ByteConversionUtil byteConversionUtil = hBaseConnection.getByteConversionUtil();
+    MappingFactory mappingFactory = hBaseConnection.getMappingFactory();
+    HBaseValueMetaInterfaceFactory valueMetaInterfaceFactory = hBaseConnection.getHBaseValueMetaInterfaceFactory();
 
-        isTupleMapping = true;
+    String decodedKeyName = mappingRow.getKeyName();
+    String decodedKeyType = mappingRow.getKeyType();
+    Mapping.KeyType keyType = null;
 
-        if ( decodedKeyName.indexOf( ',' ) != decodedKeyName.length() - 1 ) {
-          tupleFamilies = decodedKeyName.substring( decodedKeyName.indexOf( ',' ) + 1, decodedKeyName.length() );
-        }
-        decodedKeyName = decodedKeyName.substring( 0, decodedKeyName.indexOf( ',' ) );
+    for ( Mapping.KeyType t : Mapping.KeyType.values() ) {
+      if ( decodedKeyType.equalsIgnoreCase( t.toString() ) ) {
+        keyType = t;
+        break;
       }
+    }
 
-      Mapping resultMapping = mappingFactory.createMapping( tableName, mappingName, decodedKeyName, keyType );
-      resultMapping.setTupleMapping( isTupleMapping );
-      if ( !Const.isEmpty( tupleFamilies ) ) {
-        resultMapping.setTupleFamilies( tupleFamilies );
-      }
+    if ( keyType == null ) {
+      throw new IOException( "Unrecognized type for the key column in \"" + tableName + "," + mappingName + "\"" );
+    }
 
-      Map<String, HBaseValueMetaInterface> resultCols = new TreeMap<String, HBaseValueMetaInterface>();
+    String tupleFamilies = "";
+    boolean isTupleMapping = false;
+    if ( decodedKeyName.indexOf( ',' ) > 0 ) {
 
-      // now process the mapping
-      NavigableMap<byte[], byte[]> colsInMapping = result.getFamilyMap( COLUMNS_FAMILY_NAME );
+      isTupleMapping = true;
 
-      Set<byte[]> colNames = colsInMapping.keySet();
+      if ( decodedKeyName.indexOf( ',' ) != decodedKeyName.length() - 1 ) {
+        tupleFamilies = decodedKeyName.substring( decodedKeyName.indexOf( ',' ) + 1, decodedKeyName.length() );
+      }
+      decodedKeyName = decodedKeyName.substring( 0, decodedKeyName.indexOf( ',' ) );
+    }
 
-      for ( byte[] b : colNames ) {
-        String decodedName = byteConversionUtil.toString( b );
-        byte[] c = colsInMapping.get( b );
-        if ( c == null ) {
-          throw new IOException( "No type declaration for column \"" + decodedName + "\"" );
-        }
+    Mapping resultMapping = mappingFactory.createMapping( tableName, mappingName, decodedKeyName, keyType );
+    resultMapping.setTupleMapping( isTupleMapping );
+    if ( !Const.isEmpty( tupleFamilies ) ) {
+      resultMapping.setTupleFamilies( tupleFamilies );
+    }
 
-        String decodedType = byteConversionUtil.toString( c );
-
-        HBaseValueMetaInterface newMeta = null;
-        if ( decodedType.equalsIgnoreCase( "Float" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
-
-          // While passing through Kettle this will be represented
-          // as a double
-          newMeta.setIsLongOrDouble( false );
-        } else if ( decodedType.equalsIgnoreCase( "Double" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "String" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
-        } else if ( decodedType.toLowerCase().startsWith( "date" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_DATE, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Boolean" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BOOLEAN, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Integer" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
-
-          // Integer in the mapping is really an integer (not a long
-          // as Kettle uses internally)
-          newMeta.setIsLongOrDouble( false );
-        } else if ( decodedType.equalsIgnoreCase( "Long" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "BigNumber" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BIGNUMBER, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Serializable" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_SERIALIZABLE, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Binary" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BINARY, -1, -1 );
-        } else if ( decodedType.startsWith( "{" ) && decodedType.endsWith( "}" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
-
-          Object[] labels = null;
-          try {
-            labels = byteConversionUtil.stringIndexListToObjects( decodedType );
-          } catch ( IllegalArgumentException ex ) {
-            throw new IOException( "Indexed/nominal type must have at least one " + "label declared" );
-          }
-          newMeta.setIndex( labels );
-          newMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_INDEXED );
-        } else {
-          throw new IOException( "Unknown column type : \"" + decodedType + "\"" );
+    Map<String, HBaseValueMetaInterface> resultCols = new TreeMap<String, HBaseValueMetaInterface>();
+
+    // now process the mapping
+    for ( Map.Entry<String, String> column : mappingRow.getColumnTypes().entrySet() ) {
+      String decodedName = column.getKey();
+      String decodedType = column.getValue();
+
+      HBaseValueMetaInterface newMeta = null;
+      if ( decodedType.equalsIgnoreCase( "Float" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
+
+        // While passing through Kettle this will be represented
+        // as a double
+        newMeta.setIsLongOrDouble( false );
+      } else if ( decodedType.equalsIgnoreCase( "Double" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "String" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
+      } else if ( decodedType.toLowerCase().startsWith( "date" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_DATE, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Boolean" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BOOLEAN, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Integer" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
+
+        // Integer in the mapping is really an integer (not a long
+        // as Kettle uses internally)
+        newMeta.setIsLongOrDouble( false );
+      } else if ( decodedType.equalsIgnoreCase( "Long" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "BigNumber" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BIGNUMBER, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Serializable" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_SERIALIZABLE, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Binary" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BINARY, -1, -1 );
+      } else if ( decodedType.startsWith( "{" ) && decodedType.endsWith( "}" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
+
+        Object[] labels = null;
+        try {
+          labels = byteConversionUtil.stringIndexListToObjects( decodedType );
+        } catch ( IllegalArgumentException ex ) {
+          throw new IOException( "Indexed/nominal type must have at least one " + "label declared" );
         }
+        newMeta.setIndex( labels );
+        newMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_INDEXED );
+      } else {
+        throw new IOException( "Unknown column type : \"" + decodedType + "\"" );
+      }
 
-        newMeta.setTableName( tableName );
-        newMeta.setMappingName( mappingName );
-        // check that this one doesn't have the same name as the key!
-        String alias = newMeta.getAlias();
-        if ( !Mapping.TupleMapping.KEY.toString().equalsIgnoreCase( alias ) ) {
-          if ( resultMapping.getKeyName().equals( alias ) ) {
-            throw new IOException( "Error in mapping. Column \"" + newMeta.getAlias()
-              + "\" has the same name as the table key (" + resultMapping.getKeyName() + ")" );
-          } else {
-            resultCols.put( newMeta.getAlias(), newMeta );
-          }
+      newMeta.setTableName( tableName );
+      newMeta.setMappingName( mappingName );
+      // check that this one doesn't have the same name as the key!
+      String alias = newMeta.getAlias();
+      if ( !Mapping.TupleMapping.KEY.toString().equalsIgnoreCase( alias ) ) {
+        if ( resultMapping.getKeyName().equals( alias ) ) {
+          throw new IOException( "Error in mapping. Column \"" + newMeta.getAlias()
+            + "\" has the same name as the table key (" + resultMapping.getKeyName() + ")" );
+        } else {
+          resultCols.put( newMeta.getAlias(), newMeta );
         }
       }
-
-      resultMapping.setMappedColumns( resultCols );
-      return resultMapping;
     }
+
+    resultMapping.setMappedColumns( resultCols );
+    return resultMapping;
   }
 
   @Override public void close() throws IOException {
@@ -0,0 +1,189 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+import org.pentaho.big.data.kettle.plugins.hbase.HbaseUtil;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process wide cache of the mapping definitions read from the mapping table, so that the HBase steps of a
+ * transformation don't each read and parse the same mapping row when they start.
+ * <p>
+ * Entries are kept per cluster, table and mapping name. Writing or deleting a mapping through {@link MappingAdmin}
+ * bumps the version of that table and mapping, which drops the cached definitions on every cluster. Changes made by
+ * other processes are picked up once an entry is older than the time to live, which can be set in milliseconds with
+ * the {@value #TTL_PROPERTY} variable ({@code 0} disables the cache).
+ * <p>
+ * The cached definitions are immutable; {@link MappingAdmin#getMapping(String, String)} builds a new {@code Mapping}
+ * from them for every caller, so step copies can't see each other's changes to their mapping.
+ */
+public class MappingCache {
+
+  public static final String TTL_PROPERTY = "KETTLE_HBASE_MAPPING_CACHE_TTL";
+
+  public static final long DEFAULT_TTL_MILLIS = 60000L;
+
+  private static final MappingCache INSTANCE =
+    new MappingCache( Const.toLong( EnvUtil.getSystemProperty( TTL_PROPERTY ), DEFAULT_TTL_MILLIS ),
+      System::currentTimeMillis );
+
+  /**
+   * The decoded contents of a row of the mapping table.
+   */
+  public static final class MappingRow {
+    private final String keyName;
+    private final String keyType;
+    private final Map<String, String> columnTypes;
+
+    /**
+     * @param keyName     the name of the key column, including the tuple families of a tuple mapping
+     * @param keyType     the type of the key
+     * @param columnTypes the type of every mapped column, by column name, in mapping table order
+     */
+    public MappingRow( String keyName, String keyType, Map<String, String> columnTypes ) {
+      this.keyName = keyName;
+      this.keyType = keyType;
+      this.columnTypes = Collections.unmodifiableMap( new LinkedHashMap<>( columnTypes ) );
+    }
+
+    public String getKeyName() {
+      return keyName;
+    }
+
+    public String getKeyType() {
+      return keyType;
+    }
+
+    public Map<String, String> getColumnTypes() {
+      return columnTypes;
+    }
+  }
+
+  /**
+   * Reads a mapping row from the mapping table.
+   */
+  public interface Loader {
+    MappingRow load() throws Exception;
+  }
+
+  private static final class Entry {
+    private final MappingRow row;
+    private final long version;
+    private final long loadedAt;
+
+    Entry( MappingRow row, long version, long loadedAt ) {
+      this.row = row;
+      this.version = version;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  private final Map<List<String>, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<List<String>, Long> versions = new ConcurrentHashMap<>();
+
+  MappingCache( long ttlMillis, LongSupplier clock ) {
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+  }
+
+  public static MappingCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Builds the cache scope of a named cluster, so that mappings of tables with the same name on different clusters
+   * are kept apart.
+   *
+   * @param namedCluster the cluster the mapping table is on
+   * @param space        the variables to resolve the cluster settings with
+   * @param siteConfig   the hbase-site.xml used for the connection, may be null
+   * @return the cache scope of the cluster
+   */
+  public static String clusterScope( NamedCluster namedCluster, VariableSpace space, String siteConfig ) {
+    StringBuilder scope = new StringBuilder();
+    if ( namedCluster != null ) {
+      scope.append( namedCluster.getName() ).append( '|' )
+        .append( space.environmentSubstitute( namedCluster.getZooKeeperHost() ) ).append( '|' )
+        .append( space.environmentSubstitute( namedCluster.getZooKeeperPort() ) );
+    }
+    return scope.append( '|' ).append( Const.NVL( siteConfig, "" ) ).toString();
+  }
+
+  /**
+   * Returns the cached definition of a mapping, loading it when it isn't cached, is outdated or has expired.
+   *
+   * @param scope       the cluster the mapping table is on, null to bypass the cache
+   * @param tableName   the name of the mapped table
+   * @param mappingName the name of the mapping
+   * @param loader      reads the mapping row from the mapping table
+   * @return the mapping definition
+   * @throws Exception if the mapping can't be loaded
+   */
+  public MappingRow get( String scope, String tableName, String mappingName, Loader loader ) throws Exception {
+    if ( scope == null || ttlMillis <= 0 ) {
+      return loader.load();
+    }
+    List<String> mappingKey = mappingKey( tableName, mappingName );
+    List<String> entryKey = Arrays.asList( scope, mappingKey.get( 0 ), mappingKey.get( 1 ) );
+    long version = versions.getOrDefault( mappingKey, 0L );
+
+    Entry entry = entries.get( entryKey );
+    if ( entry != null && entry.version == version && clock.getAsLong() - entry.loadedAt < ttlMillis ) {
+      return entry.row;
+    }
+
+    long loadedAt = clock.getAsLong();
+    MappingRow row = loader.load();
+    // a mapping changed while it was loaded is stored under its old version and reloaded by the next caller
+    entries.put( entryKey, new Entry( row, version, loadedAt ) );
+    return row;
+  }
+
+  /**
+   * Drops the cached definitions of a mapping on every cluster, after the mapping was written or deleted.
+   */
+  public void invalidate( String tableName, String mappingName ) {
+    List<String> mappingKey = mappingKey( tableName, mappingName );
+    versions.merge( mappingKey, 1L, Long::sum );
+    entries.keySet().removeIf( key -> key.subList( 1, 3 ).equals( mappingKey ) );
+  }
+
+  /**
+   * Drops every cached definition.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private static List<String> mappingKey( String tableName, String mappingName ) {
+    return Arrays.asList( HbaseUtil.expandTableName( tableName ), mappingName );
+  }
+}
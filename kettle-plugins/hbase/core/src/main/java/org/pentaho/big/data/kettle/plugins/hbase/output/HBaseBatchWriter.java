@@ -0,0 +1,202 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the puts and deletes of the HBase output step into batches and executes them on a background thread, so
+ * that the step thread can convert and encode the next rows while the previous batch is sent to HBase.
+ * <p>
+ * Batches are executed one after the other on a single thread because the write operation manager of a table is not
+ * safe for concurrent use. At most {@code maxInFlightBatches} batches are queued or executing; adding a row blocks when
+ * that limit is reached. Every row is handed back to the step together with the outcome of its mutation once its batch
+ * was executed, in the order the rows were added, so the step can pass it on or route it to its error stream then.
+ */
+class HBaseBatchWriter {
+
+  /**
+   * A put or delete that is ready to be executed.
+   */
+  interface Mutation {
+    void execute() throws Exception;
+  }
+
+  /**
+   * A row whose put or delete was executed.
+   */
+  static class WrittenMutation {
+    private final Object[] row;
+    private final boolean delete;
+    private final Exception error;
+
+    WrittenMutation( Object[] row, boolean delete, Exception error ) {
+      this.row = row;
+      this.delete = delete;
+      this.error = error;
+    }
+
+    Object[] getRow() {
+      return row;
+    }
+
+    boolean isDelete() {
+      return delete;
+    }
+
+    /**
+     * @return the failure of the put or delete, null if it succeeded
+     */
+    Exception getError() {
+      return error;
+    }
+  }
+
+  /**
+   * How long {@link #close()} waits for the batch being executed.
+   */
+  static final long CLOSE_TIMEOUT_MILLIS = 10000L;
+
+  private static class Entry {
+    private final Object[] row;
+    private final boolean delete;
+    private final Mutation mutation;
+
+    Entry( Object[] row, boolean delete, Mutation mutation ) {
+      this.row = row;
+      this.delete = delete;
+      this.mutation = mutation;
+    }
+  }
+
+  private final int batchSize;
+  private final int maxInFlightBatches;
+  private final Semaphore inFlightBatches;
+  private final ExecutorService executor;
+  private final Queue<WrittenMutation> written = new ConcurrentLinkedQueue<>();
+
+  private List<Entry> batch;
+  private volatile boolean closed;
+
+  HBaseBatchWriter( int batchSize, int maxInFlightBatches, String threadName ) {
+    this.batchSize = Math.max( 1, batchSize );
+    this.maxInFlightBatches = Math.max( 1, maxInFlightBatches );
+    this.inFlightBatches = new Semaphore( this.maxInFlightBatches );
+    this.executor = Executors.newSingleThreadExecutor( r -> {
+      Thread t = new Thread( r, threadName + " HBase writer" );
+      t.setDaemon( true );
+      return t;
+    } );
+  }
+
+  /**
+   * Adds a mutation to the current batch, the batch is submitted once it is full.
+   *
+   * @param row      the incoming row the mutation was created from
+   * @param delete   true if the mutation deletes the row
+   * @param mutation the put or delete to execute
+   */
+  void add( Object[] row, boolean delete, Mutation mutation ) throws InterruptedException {
+    if ( batch == null ) {
+      batch = new ArrayList<>( batchSize );
+    }
+    batch.add( new Entry( row, delete, mutation ) );
+    if ( batch.size() >= batchSize ) {
+      submit();
+    }
+  }
+
+  /**
+   * Submits the current batch and waits until every submitted batch is executed.
+   */
+  void flush() throws InterruptedException {
+    if ( batch != null && !batch.isEmpty() ) {
+      submit();
+    }
+    inFlightBatches.acquire( maxInFlightBatches );
+    inFlightBatches.release( maxInFlightBatches );
+  }
+
+  /**
+   * @return the mutations executed since the previous call, in the order they were added
+   */
+  List<WrittenMutation> drainWritten() {
+    List<WrittenMutation> drained = new ArrayList<>();
+    WrittenMutation mutation;
+    while ( ( mutation = written.poll() ) != null ) {
+      drained.add( mutation );
+    }
+    return drained;
+  }
+
+  /**
+   * Stops the writer thread, batches that were not executed yet are dropped. The writer thread is interrupted and
+   * waited for, at most {@value #CLOSE_TIMEOUT_MILLIS} ms, so that the write operation manager can be flushed and
+   * closed once this returns true.
+   *
+   * @return false if the writer thread is still executing a mutation
+   */
+  boolean close() {
+    closed = true;
+    // the dropped batches won't release their permits, a step blocked on the in-flight limit must not wait for them
+    inFlightBatches.release( executor.shutdownNow().size() );
+    try {
+      return executor.awaitTermination( CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      return executor.isTerminated();
+    }
+  }
+
+  private void submit() throws InterruptedException {
+    List<Entry> entries = batch;
+    batch = null;
+    inFlightBatches.acquire();
+    try {
+      executor.execute( () -> {
+        try {
+          write( entries );
+        } finally {
+          inFlightBatches.release();
+        }
+      } );
+    } catch ( RuntimeException e ) {
+      inFlightBatches.release();
+      throw e;
+    }
+  }
+
+  private void write( List<Entry> entries ) {
+    for ( Entry entry : entries ) {
+      if ( closed ) {
+        // the rest of the batch is dropped
+        return;
+      }
+      Exception error = null;
+      try {
+        entry.mutation.execute();
+      } catch ( Exception e ) {
+        error = e;
+      }
+      written.add( new WrittenMutation( entry.row, entry.delete, error ) );
+    }
+  }
+}
@@ -21,6 +21,7 @@ import java.util.Map;
 
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.big.data.kettle.plugins.hbase.output.KettleRowToHBaseTuple.FieldException;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
@@ -31,6 +32,7 @@ import org.pentaho.hadoop.shim.api.hbase.table.HBaseDelete;
 import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
 import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
 import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
@@ -58,6 +60,7 @@ public class HBaseOutput extends BaseStep implements StepInterface {
   private final NamedClusterServiceLocator namedClusterServiceLocator;
   private HBaseService hBaseService;
   private HBaseTableWriteOperationManager targetTableWriteOperationManager;
+  private volatile HBaseBatchWriter batchWriter;
 
   public HBaseOutput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
       Trans trans, NamedClusterServiceLocator namedClusterServiceLocator ) {
@@ -104,6 +107,19 @@ public class HBaseOutput extends BaseStep implements StepInterface {
       // clean up/close connections etc.
       // target table will be null if we haven't seen any input
       if ( targetTable != null ) {
+        if ( batchWriter != null ) {
+          try {
+            logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.WaitingForWriteBatches" ) );
+            batchWriter.flush();
+            passOnWrittenRows();
+          } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new KettleException( e );
+          } finally {
+            batchWriter.close();
+            batchWriter = null;
+          }
+        }
         if ( targetTableWriteOperationManager != null ) {
           try {
             if ( !targetTableWriteOperationManager.isAutoFlush() ) {
@@ -167,7 +183,8 @@ public class HBaseOutput extends BaseStep implements StepInterface {
             "HBaseOutput.Error.UnableToObtainConnection", ex.getMessage() ), ex );
       }
       try {
-        m_mappingAdmin = new MappingAdmin( m_hbAdmin );
+        m_mappingAdmin = new MappingAdmin( m_hbAdmin, MappingCache.clusterScope( m_meta.getNamedCluster(), this,
+            environmentSubstitute( m_meta.getCoreConfigURL() ) ) );
       } catch ( Exception ex ) {
         throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
             "HBaseOutput.Error.UnableToObtainConnection", ex.getMessage() ), ex );
@@ -258,6 +275,9 @@ public class HBaseOutput extends BaseStep implements StepInterface {
                   .getMappingName() ) );
         }
 
+        m_data.setMappedColumns(
+            HBaseOutputData.compileColumns( getInputRowMeta(), m_incomingKeyIndex, m_columnsMappedByAlias ) );
+
       }
 
       try {
@@ -275,6 +295,15 @@ public class HBaseOutput extends BaseStep implements StepInterface {
           }
         }
         targetTableWriteOperationManager = targetTable.createWriteOperationManager( writeBufferSize );
+
+        int writeBatchSize = Const.toInt( environmentSubstitute( m_meta.getWriteBatchSize() ), 0 );
+        if ( writeBatchSize > 1 ) {
+          int maxInFlightBatches = Const.toInt( environmentSubstitute( m_meta.getMaxInFlightBatches() ),
+              HBaseOutputMeta.DEFAULT_MAX_IN_FLIGHT_BATCHES );
+          logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.UsingWriteBatches", writeBatchSize,
+              maxInFlightBatches ) );
+          batchWriter = new HBaseBatchWriter( writeBatchSize, maxInFlightBatches, getStepname() );
+        }
       } catch ( Exception e ) {
         throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
             "HBaseOutput.Error.ProblemConnectingToTargetTable", e.getMessage() ), e );
@@ -284,6 +313,13 @@ public class HBaseOutput extends BaseStep implements StepInterface {
       m_data.setOutputRowMeta( getInputRowMeta() );
     }
 
+    if ( batchWriter != null ) {
+      // rows of earlier batches
+      passOnWrittenRows();
+    }
+
+    // the put or delete of the row when it is batched
+    HBaseBatchWriter.Mutation batchedMutation = null;
 
     if ( m_meta.getDeleteRowKey() ) {
 
@@ -295,7 +331,11 @@ public class HBaseOutput extends BaseStep implements StepInterface {
 
         byte[] encodedKeyBytes = m_bytesUtil.encodeKeyValue( r[m_incomingKeyIndex], m_incomingKeyValueMeta, m_tableMapping.getKeyType() );
         HBaseDelete hBaseDelete = targetTableWriteOperationManager.createDelete( encodedKeyBytes );
-        hBaseDelete.execute();
+        if ( batchWriter != null ) {
+          batchedMutation = hBaseDelete::execute;
+        } else {
+          hBaseDelete.execute();
+        }
 
       } catch ( Exception ex ) {
 
@@ -372,27 +412,40 @@ public class HBaseOutput extends BaseStep implements StepInterface {
         }
 
         // now encode the rest of the fields. Nulls do not get inserted of course
-        HBaseOutputData.addColumnsToPut( getInputRowMeta(), r, m_incomingKeyIndex, m_columnsMappedByAlias, hBasePut,
-            m_bytesUtil );
+        HBaseOutputData.addColumnsToPut( r, m_data.getMappedColumns(), hBasePut );
       }
 
-      try {
-        hBasePut.execute();
-      } catch ( Exception e ) {
-        String errorDescriptions =
-            BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase", e
-                .getMessage() );
-        if ( getStepMeta().isDoingErrorHandling() ) {
-          String errorFields = "Unknown";
-          putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput002" );
-        } else {
-          throw new KettleException( errorDescriptions, e );
+      if ( batchWriter != null ) {
+        batchedMutation = hBasePut::execute;
+      } else {
+        try {
+          hBasePut.execute();
+        } catch ( Exception e ) {
+          String errorDescriptions =
+              BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase", e
+                  .getMessage() );
+          if ( getStepMeta().isDoingErrorHandling() ) {
+            String errorFields = "Unknown";
+            putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput002" );
+          } else {
+            throw new KettleException( errorDescriptions, e );
+          }
         }
       }
     }
 
-    // pass on the data to any downstream steps
-    putRow( m_data.getOutputRowMeta(), r );
+    if ( batchedMutation != null ) {
+      // the row is passed on, or sent to the error stream, once its batch was written
+      try {
+        batchWriter.add( r, m_meta.getDeleteRowKey(), batchedMutation );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      }
+    } else {
+      // pass on the data to any downstream steps
+      putRow( m_data.getOutputRowMeta(), r );
+    }
 
     if ( log.isRowLevel() ) {
       log.logRowlevel( toString(), "Read row #" + getLinesRead() + " : " + r );
@@ -405,6 +458,37 @@ public class HBaseOutput extends BaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * Passes on the rows whose batched put or delete was executed, in their incoming order. Failures are handled the same
+   * way as the failures of unbatched writes: a row whose delete failed goes to the error stream only, a row whose put
+   * failed goes to the error stream and is passed on as well, and the step fails when there is no error handling.
+   */
+  protected void passOnWrittenRows() throws KettleException {
+    for ( HBaseBatchWriter.WrittenMutation written : batchWriter.drainWritten() ) {
+      Exception ex = written.getError();
+      if ( ex != null && written.isDelete() ) {
+        if ( !getStepMeta().isDoingErrorHandling() ) {
+          throw new KettleException( ex );
+        }
+        String errorDescriptions = !Utils.isEmpty( ex.getMessage() ) ? ex.getMessage()
+            : BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ErrorCreatingDelete" );
+        putError( getInputRowMeta(), written.getRow(), 1, errorDescriptions, m_tableMapping.getKeyName(),
+            "HBaseOutput004" );
+        continue;
+      }
+      if ( ex != null ) {
+        String errorDescriptions =
+            BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase", ex
+                .getMessage() );
+        if ( !getStepMeta().isDoingErrorHandling() ) {
+          throw new KettleException( errorDescriptions, ex );
+        }
+        putError( getInputRowMeta(), written.getRow(), 1, errorDescriptions, "Unknown", "HBaseOutput002" );
+      }
+      putRow( m_data.getOutputRowMeta(), written.getRow() );
+    }
+  }
+
   @Override
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     if ( super.init( smi, sdi ) ) {
@@ -432,7 +516,12 @@ public class HBaseOutput extends BaseStep implements StepInterface {
     super.setStopped( stopped );
 
     if ( stopped ) {
-      if ( targetTable != null ) {
+      HBaseBatchWriter writer = batchWriter;
+      if ( writer != null && !writer.close() ) {
+        // batches that were not written yet are dropped together with the rest of the stopped transformation, but the
+        // write operation manager can't be flushed while the writer thread still uses it
+        logError( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.WriterStillRunning" ) );
+      } else if ( targetTable != null ) {
         try {
           if ( !targetTableWriteOperationManager.isAutoFlush() ) {
             logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.FlushingWriteBuffer" ) );
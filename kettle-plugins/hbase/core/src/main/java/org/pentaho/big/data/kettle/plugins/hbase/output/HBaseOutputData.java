@@ -14,6 +14,7 @@
 
 package org.pentaho.big.data.kettle.plugins.hbase.output;
 
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappedColumn;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
 import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
@@ -29,6 +30,8 @@ import org.pentaho.di.trans.step.StepDataInterface;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -51,6 +54,17 @@ public class HBaseOutputData extends BaseStepData implements StepDataInterface {
     m_outputRowMeta = rmi;
   }
 
+  /** The incoming fields resolved against the table mapping */
+  protected MappedColumn[] m_mappedColumns;
+
+  public MappedColumn[] getMappedColumns() {
+    return m_mappedColumns;
+  }
+
+  public void setMappedColumns( MappedColumn[] mappedColumns ) {
+    m_mappedColumns = mappedColumns;
+  }
+
   /**
    * Sets up a new target table put operation using the connection shim
    *
@@ -111,23 +125,58 @@ public class HBaseOutputData extends BaseStepData implements StepDataInterface {
       Map<String, HBaseValueMetaInterface> columnsMappedByAlias, HBasePut hBasePut, ByteConversionUtil bu )
     throws KettleException {
 
+    addColumnsToPut( kettleRow, compileColumns( inRowMeta, keyIndex, columnsMappedByAlias ), hBasePut );
+  }
+
+  /**
+   * Resolves the incoming kettle fields against the table mapping once, for use with
+   * {@link #addColumnsToPut(Object[], MappedColumn[], HBasePut)}. The key field and fields that are not in the mapping
+   * are left out.
+   *
+   * @param inRowMeta
+   *          the incoming kettle row meta data
+   * @param keyIndex
+   *          the index of the key in the incoming row structure
+   * @param columnsMappedByAlias
+   *          the columns in the table mapping
+   * @return the mapped columns of the incoming fields, in incoming field order
+   */
+  public static MappedColumn[] compileColumns( RowMetaInterface inRowMeta, int keyIndex,
+      Map<String, HBaseValueMetaInterface> columnsMappedByAlias ) {
+    List<MappedColumn> columns = new ArrayList<>( inRowMeta.size() );
     for ( int i = 0; i < inRowMeta.size(); i++ ) {
       ValueMetaInterface current = inRowMeta.getValueMeta( i );
-      if ( i != keyIndex && !current.isNull( kettleRow[i] ) ) {
-        HBaseValueMetaInterface hbaseColMeta = columnsMappedByAlias.get( current.getName() );
-        String columnFamily = hbaseColMeta.getColumnFamily();
-        String columnName = hbaseColMeta.getColumnName();
-
-        boolean binaryColName = false;
-        if ( columnName.startsWith( "@@@binary@@@" ) ) {
-          // assume hex encoded column name
-          columnName = columnName.replace( "@@@binary@@@", "" );
-          binaryColName = true;
-        }
-        byte[] encoded = hbaseColMeta.encodeColumnValue( kettleRow[i], current );
+      HBaseValueMetaInterface hbaseColMeta = columnsMappedByAlias.get( current.getName() );
+      if ( i != keyIndex && hbaseColMeta != null ) {
+        columns.add( new MappedColumn( i, hbaseColMeta, current ) );
+      }
+    }
+    return columns.toArray( new MappedColumn[ 0 ] );
+  }
+
+  /**
+   * Adds the non-null values of the compiled columns of the current row to the target table put operation
+   *
+   * @param kettleRow
+   *          the current incoming kettle row
+   * @param columns
+   *          the columns compiled by {@link #compileColumns(RowMetaInterface, int, Map)}
+   * @param hBasePut
+   *          the put operation of the current row
+   * @throws KettleException
+   *           if a problem occurs when adding a column to the put operation
+   */
+  public static void addColumnsToPut( Object[] kettleRow, MappedColumn[] columns, HBasePut hBasePut )
+    throws KettleException {
+
+    for ( MappedColumn column : columns ) {
+      Object value = kettleRow[column.getIndex()];
+      ValueMetaInterface current = column.getValueMeta();
+      if ( !current.isNull( value ) ) {
+        byte[] encoded = column.getColumn().encodeColumnValue( value, current );
 
         try {
-          hBasePut.addColumn( columnFamily, columnName, binaryColName, encoded );
+          hBasePut.addColumn( column.getFamily(), column.getQualifier(), column.isBinaryQualifier(), encoded );
         } catch ( Exception ex ) {
           throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
               "HBaseOutput.Error.UnableToAddColumnToTargetTablePut" ), ex );
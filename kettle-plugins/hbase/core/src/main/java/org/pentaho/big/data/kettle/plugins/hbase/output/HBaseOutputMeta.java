@@ -81,6 +81,8 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
 
   protected static Class<?> PKG = HBaseOutputMeta.class;
 
+  public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 2;
+
   /**
    * path/url to hbase-site.xml
    */
@@ -123,6 +125,19 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "WRITE_BUFFER_SIZE" )
   protected String m_writeBufferSize;
 
+  /**
+   * The number of puts/deletes sent to HBase together from a background thread (empty - every row is written on the
+   * step thread)
+   */
+  @Injection( name = "WRITE_BATCH_SIZE" )
+  protected String m_writeBatchSize;
+
+  /**
+   * The number of batches that may be waiting to be written before the step blocks
+   */
+  @Injection( name = "MAX_IN_FLIGHT_BATCHES" )
+  protected String m_maxInFlightBatches;
+
   /**
    * The mapping to use if we are not loading one dynamically at runtime from HBase itself
    */
@@ -269,6 +284,22 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     return m_writeBufferSize;
   }
 
+  public void setWriteBatchSize( String size ) {
+    m_writeBatchSize = size;
+  }
+
+  public String getWriteBatchSize() {
+    return m_writeBatchSize;
+  }
+
+  public void setMaxInFlightBatches( String batches ) {
+    m_maxInFlightBatches = batches;
+  }
+
+  public String getMaxInFlightBatches() {
+    return m_maxInFlightBatches;
+  }
+
   void applyInjection( VariableSpace space ) throws KettleException {
     if ( namedCluster == null ) {
       throw new KettleException( "Named cluster was not initialized!" );
@@ -367,6 +398,12 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
       retval.append( "\n    " ).append( XMLHandler.addTagValue( "write_buffer_size", m_writeBufferSize ) );
     }
     retval.append( "\n    " ).append( XMLHandler.addTagValue( "disable_wal", m_disableWriteToWAL ) );
+    if ( !Utils.isEmpty( m_writeBatchSize ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "write_batch_size", m_writeBatchSize ) );
+    }
+    if ( !Utils.isEmpty( m_maxInFlightBatches ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "max_in_flight_batches", m_maxInFlightBatches ) );
+    }
 
 
     if ( m_mapping != null ) {
@@ -407,6 +444,8 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     m_writeBufferSize = XMLHandler.getTagValue( stepnode, "write_buffer_size" );
     String disableWAL = XMLHandler.getTagValue( stepnode, "disable_wal" );
     m_disableWriteToWAL = disableWAL.equalsIgnoreCase( "Y" );
+    m_writeBatchSize = XMLHandler.getTagValue( stepnode, "write_batch_size" );
+    m_maxInFlightBatches = XMLHandler.getTagValue( stepnode, "max_in_flight_batches" );
 
     Mapping tempMapping = null;
     try {
@@ -449,6 +488,8 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     m_deleteRowKey = rep.getStepAttributeBoolean( id_step, 0, "delete_rows_by_key" );
     m_writeBufferSize = rep.getStepAttributeString( id_step, 0, "write_buffer_size" );
     m_disableWriteToWAL = rep.getStepAttributeBoolean( id_step, 0, "disable_wal" );
+    m_writeBatchSize = rep.getStepAttributeString( id_step, 0, "write_batch_size" );
+    m_maxInFlightBatches = rep.getStepAttributeString( id_step, 0, "max_in_flight_batches" );
 
     Mapping tempMapping = null;
     try {
@@ -493,6 +534,12 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, 0, "write_buffer_size", m_writeBufferSize );
     }
     rep.saveStepAttribute( id_transformation, id_step, 0, "disable_wal", m_disableWriteToWAL );
+    if ( !Utils.isEmpty( m_writeBatchSize ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "write_batch_size", m_writeBatchSize );
+    }
+    if ( !Utils.isEmpty( m_maxInFlightBatches ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "max_in_flight_batches", m_maxInFlightBatches );
+    }
 
     if ( m_mapping != null ) {
       m_mapping.saveRep( rep, id_transformation, id_step );
@@ -507,6 +554,8 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     m_deleteRowKey = false;
     m_disableWriteToWAL = false;
     m_writeBufferSize = null;
+    m_writeBatchSize = null;
+    m_maxInFlightBatches = null;
     namedCluster = namedClusterService.getClusterTemplate();
   }
 
@@ -0,0 +1,86 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.rowdecoder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Typed access to the {@code getRow()} and {@code getValue(byte[], byte[])} methods of the HBase row objects handed to
+ * the row decoder by the table input format.
+ * <p>
+ * The row class comes from the Hadoop configuration in use, so it can't be referenced directly. Its methods are
+ * resolved to method handles once per class instead of being looked up reflectively for every row and column.
+ */
+class HBaseResultAccessor {
+
+  private static final MethodType GET_ROW_TYPE = MethodType.methodType( byte[].class, Object.class );
+  private static final MethodType GET_VALUE_TYPE =
+    MethodType.methodType( byte[].class, Object.class, byte[].class, byte[].class );
+
+  private final Class<?> resultClass;
+  private final MethodHandle getRow;
+  private final MethodHandle getValue;
+
+  private HBaseResultAccessor( Class<?> resultClass, MethodHandle getRow, MethodHandle getValue ) {
+    this.resultClass = resultClass;
+    this.getRow = getRow;
+    this.getValue = getValue;
+  }
+
+  /**
+   * Resolves the accessor methods of a row class.
+   *
+   * @param resultClass the class of the HBase row objects
+   * @return the accessor for rows of that class
+   * @throws ReflectiveOperationException if the class doesn't have accessible {@code getRow} and {@code getValue}
+   *                                      methods
+   */
+  static HBaseResultAccessor forClass( Class<?> resultClass ) throws ReflectiveOperationException {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    MethodHandle getRow = lookup.unreflect( resultClass.getMethod( "getRow" ) ).asType( GET_ROW_TYPE );
+    MethodHandle getValue =
+      lookup.unreflect( resultClass.getMethod( "getValue", byte[].class, byte[].class ) ).asType( GET_VALUE_TYPE );
+    return new HBaseResultAccessor( resultClass, getRow, getValue );
+  }
+
+  /**
+   * @return true if this accessor was resolved for the class of the given row
+   */
+  boolean accepts( Object hRow ) {
+    return hRow.getClass() == resultClass;
+  }
+
+  byte[] getRow( Object hRow ) throws Exception {
+    try {
+      return (byte[]) getRow.invokeExact( hRow );
+    } catch ( Exception | Error e ) {
+      throw e;
+    } catch ( Throwable t ) {
+      throw new InvocationTargetException( t );
+    }
+  }
+
+  byte[] getValue( Object hRow, byte[] family, byte[] qualifier ) throws Exception {
+    try {
+      return (byte[]) getValue.invokeExact( hRow, family, qualifier );
+    } catch ( Exception | Error e ) {
+      throw e;
+    } catch ( Throwable t ) {
+      throw new InvocationTargetException( t );
+    }
+  }
+}
@@ -71,6 +71,21 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
    */
   protected HBaseValueMetaInterface[] mOutputColumns;
 
+  /**
+   * Encoded column family of each output column
+   */
+  protected byte[][] mColumnFamilies;
+
+  /**
+   * Encoded qualifier of each output column
+   */
+  protected byte[][] mColumnQualifiers;
+
+  /**
+   * Accessor for the class of the incoming HBase row objects
+   */
+  private HBaseResultAccessor mResultAccessor;
+
   /**
    * Index of incoming key value
    */
@@ -130,9 +145,15 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
       }
 
       mOutputColumns = new HBaseValueMetaInterface[ mTableMapping.getMappedColumns().keySet().size() ];
+      mColumnFamilies = new byte[ mOutputColumns.length ][];
+      mColumnQualifiers = new byte[ mOutputColumns.length ][];
       int k = 0;
       for ( String alias : mTableMapping.getMappedColumns().keySet() ) {
-        mOutputColumns[ k++ ] = mTableMapping.getMappedColumns().get( alias );
+        HBaseValueMetaInterface column = mTableMapping.getMappedColumns().get( alias );
+        mOutputColumns[ k ] = column;
+        mColumnFamilies[ k ] = column.getColumnFamily() == null ? null : column.getColumnFamily().getBytes();
+        mColumnQualifiers[ k ] = column.getColumnName() == null ? null : column.getColumnName().getBytes();
+        k++;
       }
 
       hBaseRowDecoderData.setOutputRowMeta( getInputRowMeta().clone() );
@@ -193,9 +214,10 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
       } else {
         Object[] outputRowData = RowDataUtil.allocateRowData( mOutputColumns.length + 1 ); // + 1 for key
 
+        HBaseResultAccessor accessor = getResultAccessor( hRow );
         byte[] rowKey = null;
         try {
-          rowKey = (byte[]) hRow.getClass().getMethod( "getRow" ).invoke( hRow );
+          rowKey = accessor.getRow( hRow );
         } catch ( Exception ex ) {
           throw new KettleException(
             BaseMessages.getString( hBaseRowDecoderMetaClass, "HBaseRowDecoder.Error.UnableToGetRowKey" ), ex );
@@ -206,13 +228,9 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
         for ( int i = 0; i < mOutputColumns.length; i++ ) {
           HBaseValueMetaInterface current = mOutputColumns[ i ];
 
-          byte[] colFamilyName = current.getColumnFamily().getBytes();
-          byte[] qualifier = current.getColumnName().getBytes();
-
           byte[] kv = null;
           try {
-            kv = (byte[]) hRow.getClass().getMethod( "getValue", byte[].class, byte[].class )
-              .invoke( hRow, colFamilyName, qualifier );
+            kv = accessor.getValue( hRow, mColumnFamilies[ i ], mColumnQualifiers[ i ] );
           } catch ( Exception ex ) {
             throw new KettleException(
               BaseMessages.getString( hBaseRowDecoderMetaClass, "HBaseRowDecoder.Error.UnableToGetColumnValue" ),
@@ -231,6 +249,19 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
     return true;
   }
 
+  private HBaseResultAccessor getResultAccessor( Object hRow ) throws KettleException {
+    if ( mResultAccessor == null || !mResultAccessor.accepts( hRow ) ) {
+      try {
+        mResultAccessor = HBaseResultAccessor.forClass( hRow.getClass() );
+      } catch ( ReflectiveOperationException ex ) {
+        throw new KettleException(
+          BaseMessages.getString( hBaseRowDecoderMetaClass, HBASE_ROW_DECODER_ERROR_NOT_RESULT,
+            hRow.getClass().getName() ), ex );
+      }
+    }
+    return mResultAccessor;
+  }
+
   @Override
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     if ( super.init( smi, sdi ) ) {
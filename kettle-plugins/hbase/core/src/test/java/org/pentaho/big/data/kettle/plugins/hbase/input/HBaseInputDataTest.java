@@ -0,0 +1,89 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.junit.Test;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappedColumn;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.shim.api.hbase.Result;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HBaseInputDataTest {
+
+  private static HBaseValueMetaInterface column( String alias, String family, String name, boolean key )
+    throws Exception {
+    HBaseValueMetaInterface column = mock( HBaseValueMetaInterface.class );
+    when( column.getAlias() ).thenReturn( alias );
+    when( column.getColumnFamily() ).thenReturn( family );
+    when( column.getColumnName() ).thenReturn( name );
+    when( column.isKey() ).thenReturn( key );
+    when( column.decodeColumnValue( any() ) ).thenAnswer( invocation -> {
+      byte[] value = invocation.getArgument( 0 );
+      return value == null ? null : new String( value );
+    } );
+    return column;
+  }
+
+  private static RowMetaInterface outputRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "hex" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void testCompiledOutputRowMatchesOutputRowMeta() throws Exception {
+    List<HBaseValueMetaInterface> userColumns = Arrays.asList(
+      column( "id", null, "id", true ),
+      column( "name", "f", "name", false ),
+      column( "hex", "f", MappedColumn.BINARY_QUALIFIER_PREFIX + "0a0b", false ) );
+    Mapping mapping = mock( Mapping.class );
+    when( mapping.decodeKeyValue( any() ) ).thenReturn( "k1" );
+    Result result = mock( Result.class );
+    when( result.getRow() ).thenReturn( "k1".getBytes() );
+    when( result.getValue( "f", "name", false ) ).thenReturn( "bob".getBytes() );
+
+    RowMetaInterface rowMeta = outputRowMeta();
+    int keyIndex = HBaseInputData.getOutputKeyIndex( userColumns, mapping, rowMeta );
+    MappedColumn[] columns = HBaseInputData.compileOutputColumns( userColumns, Collections.emptyMap(), rowMeta );
+    Object[] row = HBaseInputData.getOutputRow( result, keyIndex, columns, mapping, rowMeta.size() );
+
+    assertEquals( 1, keyIndex );
+    assertEquals( 2, columns.length );
+    assertEquals( "bob", row[ 0 ] );
+    assertEquals( "k1", row[ 1 ] );
+    assertNull( row[ 2 ] );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testCompileFailsForColumnMissingFromOutput() throws Exception {
+    HBaseInputData.compileOutputColumns( Collections.singletonList( column( "other", "f", "other", false ) ),
+      Collections.emptyMap(), outputRowMeta() );
+  }
+}
@@ -75,6 +75,11 @@ public class HBaseInputMetaInjectionTest extends BaseMetadataInjectionTest<HBase
         return meta.getScannerCacheSize();
       }
     } );
+    check( "KEY_RANGE_SPLITS", new StringGetter() {
+      public String get() {
+        return meta.getKeyRangeSplits();
+      }
+    } );
     check( "MATCH_ANY_FILTER", new BooleanGetter() {
       public boolean get() {
         return meta.getMatchAnyFilter();
@@ -0,0 +1,77 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class KeyRangeSplitterTest {
+
+  @Test
+  public void testIntegerRangeIsSplitIntoContiguousRanges() {
+    List<String[]> ranges = KeyRangeSplitter.split( Mapping.KeyType.LONG, "0", "100", 3 );
+
+    assertEquals( 3, ranges.size() );
+    assertArrayEquals( new String[] { "0", "33" }, ranges.get( 0 ) );
+    assertArrayEquals( new String[] { "33", "66" }, ranges.get( 1 ) );
+    assertArrayEquals( new String[] { "66", "100" }, ranges.get( 2 ) );
+  }
+
+  @Test
+  public void testNarrowRangeIsNotSplitIntoEmptyRanges() {
+    List<String[]> ranges = KeyRangeSplitter.split( Mapping.KeyType.INTEGER, "10", "12", 8 );
+
+    assertEquals( 2, ranges.size() );
+    assertArrayEquals( new String[] { "10", "11" }, ranges.get( 0 ) );
+    assertArrayEquals( new String[] { "11", "12" }, ranges.get( 1 ) );
+  }
+
+  @Test
+  public void testExtremeLongBoundsDoNotOverflow() {
+    List<String[]> ranges =
+      KeyRangeSplitter.split( Mapping.KeyType.LONG, String.valueOf( Long.MIN_VALUE ), String.valueOf( Long.MAX_VALUE ),
+        2 );
+
+    assertEquals( 2, ranges.size() );
+    assertEquals( "-1", ranges.get( 0 )[ 1 ] );
+  }
+
+  @Test
+  public void testUnsplittableRanges() {
+    assertNull( KeyRangeSplitter.split( Mapping.KeyType.STRING, "a", "z", 4 ) );
+    assertNull( KeyRangeSplitter.split( Mapping.KeyType.LONG, "0", null, 4 ) );
+    assertNull( KeyRangeSplitter.split( Mapping.KeyType.LONG, "0@#", "100", 4 ) );
+  }
+
+  @Test
+  public void testCopiesScanEveryRangeOnce() {
+    List<Integer> ranges = Arrays.asList( 0, 1, 2, 3, 4, 5, 6 );
+    List<Integer> scanned = new ArrayList<>();
+    for ( int copyNr = 0; copyNr < 3; copyNr++ ) {
+      scanned.addAll( KeyRangeSplitter.assign( ranges, copyNr, 3 ) );
+    }
+    scanned.sort( null );
+
+    assertEquals( ranges, scanned );
+    assertEquals( Arrays.asList( 1, 4 ), KeyRangeSplitter.assign( ranges, 1, 3 ) );
+  }
+}
@@ -0,0 +1,106 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MappingCacheTest {
+  private static final long TTL = 1000L;
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+  private MappingCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new MappingCache( TTL, now::get );
+  }
+
+  private MappingCache.MappingRow load() {
+    loads.incrementAndGet();
+    return new MappingCache.MappingRow( "key", "String", Collections.singletonMap( "f,col,alias", "Long" ) );
+  }
+
+  @Test
+  public void testCachedRowIsReusedUntilItExpires() throws Exception {
+    MappingCache.MappingRow first = cache.get( "cluster", "table", "mapping", this::load );
+    now.addAndGet( TTL - 1 );
+    assertSame( first, cache.get( "cluster", "default:table", "mapping", this::load ) );
+    assertEquals( 1, loads.get() );
+
+    now.addAndGet( 1 );
+    cache.get( "cluster", "table", "mapping", this::load );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testEntriesAreKeptPerClusterAndMapping() throws Exception {
+    cache.get( "cluster1", "table", "mapping", this::load );
+    cache.get( "cluster2", "table", "mapping", this::load );
+    cache.get( "cluster1", "table", "other", this::load );
+    cache.get( "cluster1", "table", "mapping", this::load );
+
+    assertEquals( 3, loads.get() );
+    assertEquals( 3, cache.size() );
+  }
+
+  @Test
+  public void testInvalidateDropsTheMappingOnEveryCluster() throws Exception {
+    cache.get( "cluster1", "table", "mapping", this::load );
+    cache.get( "cluster2", "table", "mapping", this::load );
+    cache.get( "cluster1", "table", "other", this::load );
+
+    cache.invalidate( "default:table", "mapping" );
+    assertEquals( 1, cache.size() );
+
+    cache.get( "cluster1", "table", "mapping", this::load );
+    assertEquals( 4, loads.get() );
+  }
+
+  @Test
+  public void testRowLoadedDuringAnInvalidationIsNotReused() throws Exception {
+    cache.get( "cluster", "table", "mapping", () -> {
+      cache.invalidate( "table", "mapping" );
+      return load();
+    } );
+    cache.get( "cluster", "table", "mapping", this::load );
+
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testNoScopeOrTtlBypassesTheCache() throws Exception {
+    cache.get( null, "table", "mapping", this::load );
+    cache.get( null, "table", "mapping", this::load );
+    MappingCache disabled = new MappingCache( 0, now::get );
+    disabled.get( "cluster", "table", "mapping", this::load );
+    disabled.get( "cluster", "table", "mapping", this::load );
+
+    assertEquals( 4, loads.get() );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test( expected = UnsupportedOperationException.class )
+  public void testCachedRowIsImmutable() {
+    load().getColumnTypes().put( "f,other,alias", "String" );
+  }
+}
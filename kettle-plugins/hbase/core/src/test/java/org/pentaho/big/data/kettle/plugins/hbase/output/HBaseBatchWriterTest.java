@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HBaseBatchWriterTest {
+  private HBaseBatchWriter writer;
+
+  @After
+  public void tearDown() {
+    if ( writer != null ) {
+      writer.close();
+    }
+  }
+
+  @Test
+  public void testMutationsAreExecutedInOrder() throws Exception {
+    writer = new HBaseBatchWriter( 3, 2, "test" );
+    List<Integer> executed = Collections.synchronizedList( new ArrayList<>() );
+    for ( int i = 0; i < 10; i++ ) {
+      int rowNr = i;
+      writer.add( new Object[] { rowNr }, false, () -> executed.add( rowNr ) );
+    }
+    writer.flush();
+
+    List<Integer> expected = new ArrayList<>();
+    for ( int i = 0; i < 10; i++ ) {
+      expected.add( i );
+    }
+    assertEquals( expected, executed );
+    List<HBaseBatchWriter.WrittenMutation> written = writer.drainWritten();
+    assertEquals( 10, written.size() );
+    for ( int i = 0; i < 10; i++ ) {
+      assertEquals( i, written.get( i ).getRow()[ 0 ] );
+      assertNull( written.get( i ).getError() );
+    }
+    assertTrue( writer.drainWritten().isEmpty() );
+  }
+
+  @Test
+  public void testFailedMutationsKeepTheirRow() throws Exception {
+    writer = new HBaseBatchWriter( 2, 1, "test" );
+    IOException failure = new IOException( "region server unavailable" );
+    Object[] failedRow = new Object[] { "bad" };
+    writer.add( new Object[] { "good" }, false, () -> { } );
+    writer.add( failedRow, true, () -> {
+      throw failure;
+    } );
+    writer.add( new Object[] { "also good" }, false, () -> { } );
+    writer.flush();
+
+    List<HBaseBatchWriter.WrittenMutation> written = writer.drainWritten();
+    assertEquals( 3, written.size() );
+    assertNull( written.get( 0 ).getError() );
+    assertArrayEquals( failedRow, written.get( 1 ).getRow() );
+    assertTrue( written.get( 1 ).isDelete() );
+    assertSame( failure, written.get( 1 ).getError() );
+    assertNull( written.get( 2 ).getError() );
+    assertTrue( writer.drainWritten().isEmpty() );
+  }
+
+  @Test
+  public void testCloseWaitsForTheWriterThread() throws Exception {
+    writer = new HBaseBatchWriter( 3, 1, "test" );
+    CountDownLatch writing = new CountDownLatch( 1 );
+    AtomicBoolean finished = new AtomicBoolean();
+    AtomicInteger executed = new AtomicInteger();
+    writer.add( new Object[] { 0 }, false, () -> {
+      executed.incrementAndGet();
+      writing.countDown();
+      try {
+        Thread.sleep( 10000L );
+      } catch ( InterruptedException e ) {
+        // like a put that gives up once interrupted, after a little while
+        Thread.sleep( 100L );
+      }
+      finished.set( true );
+    } );
+    writer.add( new Object[] { 1 }, false, executed::incrementAndGet );
+    writer.add( new Object[] { 2 }, false, executed::incrementAndGet );
+    assertTrue( writing.await( 10, TimeUnit.SECONDS ) );
+
+    assertTrue( writer.close() );
+    // the mutation being executed is done once close returns, the rest of the batch is dropped
+    assertTrue( finished.get() );
+    assertEquals( 1, executed.get() );
+  }
+
+  @Test
+  public void testInFlightBatchesAreBounded() throws Exception {
+    writer = new HBaseBatchWriter( 1, 2, "test" );
+    CountDownLatch writesMayFinish = new CountDownLatch( 1 );
+    for ( int i = 0; i < 2; i++ ) {
+      writer.add( new Object[] { i }, false, () -> writesMayFinish.await( 10, TimeUnit.SECONDS ) );
+    }
+
+    CountDownLatch thirdAdded = new CountDownLatch( 1 );
+    Thread step = new Thread( () -> {
+      try {
+        writer.add( new Object[] { 2 }, false, () -> { } );
+        thirdAdded.countDown();
+      } catch ( InterruptedException e ) {
+        // the latch stays closed and the test fails
+      }
+    } );
+    step.start();
+
+    assertFalse( thirdAdded.await( 200, TimeUnit.MILLISECONDS ) );
+    writesMayFinish.countDown();
+    assertTrue( thirdAdded.await( 10, TimeUnit.SECONDS ) );
+    writer.flush();
+  }
+}
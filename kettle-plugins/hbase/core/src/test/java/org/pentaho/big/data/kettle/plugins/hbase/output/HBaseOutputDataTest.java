@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import org.junit.Test;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappedColumn;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HBaseOutputDataTest {
+
+  private static HBaseValueMetaInterface column( String family, String name ) throws Exception {
+    HBaseValueMetaInterface column = mock( HBaseValueMetaInterface.class );
+    when( column.getColumnFamily() ).thenReturn( family );
+    when( column.getColumnName() ).thenReturn( name );
+    when( column.encodeColumnValue( any(), any() ) ).thenAnswer(
+      invocation -> ( (String) invocation.getArgument( 0 ) ).getBytes() );
+    return column;
+  }
+
+  private static RowMetaInterface inputRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "unmapped" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "hex" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void testCompileColumnsSkipsKeyAndUnmappedFields() throws Exception {
+    Map<String, HBaseValueMetaInterface> mapped = new HashMap<>();
+    mapped.put( "name", column( "f", "name" ) );
+    mapped.put( "hex", column( "f", MappedColumn.BINARY_QUALIFIER_PREFIX + "0a0b" ) );
+
+    MappedColumn[] columns = HBaseOutputData.compileColumns( inputRowMeta(), 0, mapped );
+
+    assertEquals( 2, columns.length );
+    assertEquals( 1, columns[ 0 ].getIndex() );
+    assertEquals( "name", columns[ 0 ].getQualifier() );
+    assertFalse( columns[ 0 ].isBinaryQualifier() );
+    assertEquals( 3, columns[ 1 ].getIndex() );
+    assertEquals( "0a0b", columns[ 1 ].getQualifier() );
+    assertTrue( columns[ 1 ].isBinaryQualifier() );
+  }
+
+  @Test
+  public void testAddColumnsToPutSkipsNullValues() throws Exception {
+    Map<String, HBaseValueMetaInterface> mapped = new HashMap<>();
+    mapped.put( "name", column( "f", "name" ) );
+    mapped.put( "hex", column( "g", MappedColumn.BINARY_QUALIFIER_PREFIX + "0a0b" ) );
+    MappedColumn[] columns = HBaseOutputData.compileColumns( inputRowMeta(), 0, mapped );
+
+    HBasePut put = mock( HBasePut.class );
+    HBaseOutputData.addColumnsToPut( new Object[] { "k1", "bob", "x", "v" }, columns, put );
+    verify( put ).addColumn( "f", "name", false, "bob".getBytes() );
+    verify( put ).addColumn( "g", "0a0b", true, "v".getBytes() );
+
+    HBasePut nullPut = mock( HBasePut.class );
+    HBaseOutputData.addColumnsToPut( new Object[] { "k2", null, "x", null }, columns, nullPut );
+    verify( nullPut, never() ).addColumn( anyString(), anyString(), anyBoolean(), any() );
+  }
+}
@@ -77,6 +77,16 @@ public class HBaseOutputMetaInjectionTest extends BaseMetadataInjectionTest<HBas
         return meta.getWriteBufferSize();
       }
     } );
+    check( "WRITE_BATCH_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getWriteBatchSize();
+      }
+    } );
+    check( "MAX_IN_FLIGHT_BATCHES", new StringGetter() {
+      public String get() {
+        return meta.getMaxInFlightBatches();
+      }
+    } );
 
     check( "TABLE_NAME", new StringGetter() {
       public String get() {
@@ -0,0 +1,223 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
+import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
+import org.pentaho.hadoop.shim.api.hbase.HBaseService;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseDelete;
+import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HBaseOutputTest {
+  private StepMockHelper<HBaseOutputMeta, HBaseOutputData> stepMockHelper;
+  private NamedClusterServiceLocator namedClusterServiceLocator;
+  private HBaseTableWriteOperationManager writeOperationManager;
+  private RowMetaInterface inputRowMeta;
+  private Deque<Object[]> input;
+  private List<String> output;
+  private List<String> errors;
+  private HBaseOutputData data;
+  private HBaseOutput hBaseOutput;
+
+  @Before
+  public void setup() throws Exception {
+    stepMockHelper = new StepMockHelper<>( "hBaseOutput", HBaseOutputMeta.class, HBaseOutputData.class );
+    when( stepMockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) )
+      .thenReturn( stepMockHelper.logChannelInterface );
+    when( stepMockHelper.trans.isRunning() ).thenReturn( true );
+    when( stepMockHelper.stepMeta.isDoingErrorHandling() ).thenReturn( true );
+
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+
+    Mapping mapping = mock( Mapping.class );
+    when( mapping.getKeyName() ).thenReturn( "key" );
+    when( mapping.getKeyType() ).thenReturn( Mapping.KeyType.STRING );
+    when( mapping.getMappedColumns() ).thenReturn( Collections.emptyMap() );
+
+    HBaseOutputMeta meta = stepMockHelper.processRowsStepMetaInterface;
+    when( meta.getTargetTableName() ).thenReturn( "table" );
+    when( meta.getMapping() ).thenReturn( mapping );
+    when( meta.getWriteBatchSize() ).thenReturn( "2" );
+    when( meta.getMaxInFlightBatches() ).thenReturn( "1" );
+
+    ByteConversionUtil byteConversionUtil = mock( ByteConversionUtil.class );
+    when( byteConversionUtil.encodeKeyValue( any(), any(), any() ) )
+      .thenAnswer( invocation -> ( (String) invocation.getArgument( 0 ) ).getBytes() );
+
+    writeOperationManager = mock( HBaseTableWriteOperationManager.class );
+    HBaseTable table = mock( HBaseTable.class );
+    when( table.exists() ).thenReturn( true );
+    when( table.available() ).thenReturn( true );
+    when( table.createWriteOperationManager( any() ) ).thenReturn( writeOperationManager );
+
+    HBaseConnection hBaseConnection = mock( HBaseConnection.class );
+    when( hBaseConnection.getTable( "table" ) ).thenReturn( table );
+    HBaseService hBaseService = mock( HBaseService.class );
+    when( hBaseService.getHBaseConnection( any(), any(), any(), any() ) ).thenReturn( hBaseConnection );
+    when( hBaseService.getByteConversionUtil() ).thenReturn( byteConversionUtil );
+    namedClusterServiceLocator = mock( NamedClusterServiceLocator.class );
+    when( namedClusterServiceLocator.getService( any(), eq( HBaseService.class ) ) ).thenReturn( hBaseService );
+
+    input = new ArrayDeque<>();
+    output = new ArrayList<>();
+    errors = new ArrayList<>();
+    data = new HBaseOutputData();
+    hBaseOutput = new HBaseOutput( stepMockHelper.stepMeta, new HBaseOutputData(), 0, stepMockHelper.transMeta,
+      stepMockHelper.trans, namedClusterServiceLocator ) {
+      @Override
+      public Object[] getRow() {
+        return input.poll();
+      }
+
+      @Override
+      public RowMetaInterface getInputRowMeta() {
+        return inputRowMeta;
+      }
+
+      @Override
+      public void putRow( RowMetaInterface rowMeta, Object[] row ) {
+        output.add( (String) row[ 0 ] );
+      }
+
+      @Override
+      public void putError( RowMetaInterface rowMeta, Object[] row, long nrErrors, String errorDescriptions,
+                            String fieldNames, String errorCodes ) {
+        errors.add( row[ 0 ] + ":" + errorCodes );
+      }
+    };
+  }
+
+  @After
+  public void teardown() {
+    stepMockHelper.cleanUp();
+  }
+
+  private void processAll() throws Exception {
+    while ( hBaseOutput.processRow( stepMockHelper.processRowsStepMetaInterface, data ) ) {
+      // next row
+    }
+  }
+
+  @Test( timeout = 10000 )
+  public void testFailedBatchedDeleteIsOnlySentToTheErrorStream() throws Exception {
+    when( stepMockHelper.processRowsStepMetaInterface.getDeleteRowKey() ).thenReturn( true );
+    for ( String key : Arrays.asList( "a", "bad", "c" ) ) {
+      HBaseDelete delete = mock( HBaseDelete.class );
+      if ( key.equals( "bad" ) ) {
+        doThrow( new IllegalStateException( "region server unavailable" ) ).when( delete ).execute();
+      }
+      when( writeOperationManager.createDelete( aryEq( key.getBytes() ) ) ).thenReturn( delete );
+      input.add( new Object[] { key } );
+    }
+
+    processAll();
+
+    assertEquals( Arrays.asList( "a", "c" ), output );
+    assertEquals( Collections.singletonList( "bad:HBaseOutput004" ), errors );
+  }
+
+  @Test( timeout = 10000 )
+  public void testFailedBatchedPutIsSentToTheErrorStreamAndPassedOn() throws Exception {
+    HBasePut put = mock( HBasePut.class );
+    HBasePut badPut = mock( HBasePut.class );
+    doThrow( new IllegalStateException( "region server unavailable" ) ).when( badPut ).execute();
+    when( writeOperationManager.createPut( any() ) ).thenAnswer(
+      invocation -> new String( (byte[]) invocation.getArgument( 0 ) ).equals( "bad" ) ? badPut : put );
+    for ( String key : Arrays.asList( "a", "bad", "c" ) ) {
+      input.add( new Object[] { key } );
+    }
+
+    processAll();
+
+    assertEquals( Arrays.asList( "a", "bad", "c" ), output );
+    assertEquals( Collections.singletonList( "bad:HBaseOutput002" ), errors );
+  }
+
+  @Test( timeout = 10000 )
+  public void testStopWaitsForTheWriterBeforeFlushing() throws Exception {
+    when( stepMockHelper.processRowsStepMetaInterface.getDeleteRowKey() ).thenReturn( true );
+    final boolean[] writing = new boolean[ 1 ];
+    final boolean[] flushedWhileWriting = new boolean[ 1 ];
+    HBaseDelete delete = mock( HBaseDelete.class );
+    doAnswer( invocation -> {
+      synchronized ( writing ) {
+        writing[ 0 ] = true;
+        writing.notifyAll();
+      }
+      try {
+        Thread.sleep( 10000L );
+      } catch ( InterruptedException e ) {
+        Thread.sleep( 100L );
+      }
+      synchronized ( writing ) {
+        writing[ 0 ] = false;
+      }
+      return null;
+    } ).when( delete ).execute();
+    when( writeOperationManager.createDelete( any() ) ).thenReturn( delete );
+    doAnswer( invocation -> {
+      synchronized ( writing ) {
+        flushedWhileWriting[ 0 ] = writing[ 0 ];
+      }
+      return null;
+    } ).when( writeOperationManager ).flushCommits();
+
+    input.add( new Object[] { "a" } );
+    input.add( new Object[] { "b" } );
+    assertTrue( hBaseOutput.processRow( stepMockHelper.processRowsStepMetaInterface, data ) );
+    assertTrue( hBaseOutput.processRow( stepMockHelper.processRowsStepMetaInterface, data ) );
+    synchronized ( writing ) {
+      while ( !writing[ 0 ] ) {
+        writing.wait();
+      }
+    }
+
+    hBaseOutput.setStopped( true );
+    verify( writeOperationManager ).flushCommits();
+    assertFalse( flushedWhileWriting[ 0 ] );
+  }
+}
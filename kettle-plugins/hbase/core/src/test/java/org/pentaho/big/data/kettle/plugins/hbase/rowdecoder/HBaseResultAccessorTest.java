@@ -0,0 +1,86 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.rowdecoder;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HBaseResultAccessorTest {
+
+  /**
+   * In-memory stand-in for the HBase Result class
+   */
+  public static class FakeResult {
+    private final byte[] row;
+    private final byte[] family;
+    private final byte[] qualifier;
+    private final byte[] value;
+
+    public FakeResult( byte[] row, byte[] family, byte[] qualifier, byte[] value ) {
+      this.row = row;
+      this.family = family;
+      this.qualifier = qualifier;
+      this.value = value;
+    }
+
+    public byte[] getRow() {
+      return row;
+    }
+
+    public byte[] getValue( byte[] family, byte[] qualifier ) throws IOException {
+      if ( family == null ) {
+        throw new IOException( "no family" );
+      }
+      return Arrays.equals( this.family, family ) && Arrays.equals( this.qualifier, qualifier ) ? value : null;
+    }
+  }
+
+  @Test
+  public void testAccessorReadsRowAndValues() throws Exception {
+    FakeResult result = new FakeResult( "k1".getBytes(), "f".getBytes(), "q".getBytes(), "v".getBytes() );
+    HBaseResultAccessor accessor = HBaseResultAccessor.forClass( FakeResult.class );
+
+    assertTrue( accessor.accepts( result ) );
+    assertFalse( accessor.accepts( "not a result" ) );
+    assertArrayEquals( "k1".getBytes(), accessor.getRow( result ) );
+    assertArrayEquals( "v".getBytes(), accessor.getValue( result, "f".getBytes(), "q".getBytes() ) );
+    assertNull( accessor.getValue( result, "f".getBytes(), "other".getBytes() ) );
+  }
+
+  @Test
+  public void testExceptionsOfTheRowArePassedOn() throws Exception {
+    FakeResult result = new FakeResult( null, null, null, null );
+    HBaseResultAccessor accessor = HBaseResultAccessor.forClass( FakeResult.class );
+    try {
+      accessor.getValue( result, null, null );
+      fail( "The exception of getValue was swallowed" );
+    } catch ( IOException e ) {
+      assertSame( IOException.class, e.getClass() );
+    }
+  }
+
+  @Test( expected = NoSuchMethodException.class )
+  public void testClassWithoutAccessorsIsRejected() throws Exception {
+    HBaseResultAccessor.forClass( String.class );
+  }
+}
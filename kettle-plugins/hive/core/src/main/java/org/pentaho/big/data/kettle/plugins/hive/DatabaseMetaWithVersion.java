@@ -17,8 +17,10 @@ package org.pentaho.big.data.kettle.plugins.hive;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.pentaho.hadoop.shim.api.jdbc.DriverLocator;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.database.BaseDatabaseMeta;
 import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.platform.api.data.DBDatasourceServiceException;
 import org.pentaho.platform.api.data.IDBDatasourceService;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
@@ -28,13 +30,25 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
 import java.sql.SQLException;
+import java.util.Objects;
 
 /**
  * Created by bryan on 4/14/16.
+ * <p>
+ * The version of the driver is resolved once and kept along with what it was read through, the driver locator and
+ * URL of a JDBC connection or the name of a JNDI connection, together with the {@link DriverFeatures} that follow from
+ * it. The data source of a JNDI connection is looked up only when the version is resolved. Everything is resolved
+ * again when the URL or name changes, when {@link #invalidateDriverVersion()} is called, or after
+ * {@value #DEFAULT_DRIVER_VERSION_CACHE_TTL_MILLIS} ms by default ({@value #DRIVER_VERSION_CACHE_TTL_PROPERTY} sets
+ * another time to live), so that drivers registered by another shim and redefined data sources are picked up.
  */
 public abstract class DatabaseMetaWithVersion extends BaseDatabaseMeta {
+  public static final String DRIVER_VERSION_CACHE_TTL_PROPERTY = "KETTLE_HIVE_DRIVER_VERSION_CACHE_TTL";
+  public static final long DEFAULT_DRIVER_VERSION_CACHE_TTL_MILLIS = 60000L;
+
   private static final Logger logger = LogManager.getLogger( DatabaseMetaWithVersion.class );
   private final DriverLocator driverLocator;
+  private volatile CachedDriverVersion cachedDriverVersion;
 
   protected DatabaseMetaWithVersion( DriverLocator driverLocator ) {
     this.driverLocator = driverLocator;
@@ -50,19 +64,43 @@ public abstract class DatabaseMetaWithVersion extends BaseDatabaseMeta {
    * is older than the one you requested
    */
   protected boolean isDriverVersion( int majorVersion, int minorVersion ) {
-    int driverMajorVersion;
-    int driverMinorVersion;
+    return getDriverVersion().isAtLeast( majorVersion, minorVersion );
+  }
+
+  /**
+   * Returns the version of the driver being used, resolving it only if it isn't known yet, so that the features
+   * depending on it can be worked out up front.
+   *
+   * @return the version of the driver
+   */
+  public DriverVersion getDriverVersion() {
+    return resolveDriverVersion().driverVersion;
+  }
+
+  /**
+   * Returns what the SQL of the driver being used supports, worked out once for every resolved driver version.
+   *
+   * @return the features of the driver
+   */
+  public DriverFeatures getDriverFeatures() {
+    return resolveDriverVersion().driverFeatures;
+  }
+
+  private CachedDriverVersion resolveDriverVersion() {
+    CachedDriverVersion cached = cachedDriverVersion;
+    long now = System.currentTimeMillis();
+    Object source;
+    String key;
+    DriverVersion driverVersion;
 
     // If it is a JNDI connection
     if ( getAccessType() == DatabaseMeta.TYPE_ACCESS_JNDI ) {
-      IDBDatasourceService dss = PentahoSystem.get( IDBDatasourceService.class );
-
-      DataSource dataSource = null;
-      try {
-        dataSource = dss.getDataSource( this.getDatabaseName() );
-      } catch ( DBDatasourceServiceException e ) {
-        logger.error( e.getMessage(), e );
+      key = this.getDatabaseName();
+      // the data source is only looked up again together with the version
+      if ( cached != null && cached.matchesDataSource( key, now ) ) {
+        return cached;
       }
+      DataSource dataSource = lookupDataSource( key );
 
       DatabaseMetaData meta = null;
 
@@ -72,18 +110,147 @@ public abstract class DatabaseMetaWithVersion extends BaseDatabaseMeta {
         logger.error( e.getMessage(), e );
       }
 
-      driverMajorVersion = meta.getDriverMajorVersion();
-      driverMinorVersion = meta.getDriverMinorVersion();
+      source = dataSource;
+      driverVersion = new DriverVersion( meta.getDriverMajorVersion(), meta.getDriverMinorVersion() );
     // if it is a JDBC or ODBC connection
     } else {
-      String url = getURL( "localhost", "10000", "default" );
+      key = getURL( "localhost", "10000", "default" );
+      if ( cached != null && cached.matches( driverLocator, key, now ) ) {
+        return cached;
+      }
+
+      Driver driver = driverLocator.getDriver( key );
+      source = driverLocator;
+      driverVersion = new DriverVersion( driver.getMajorVersion(), driver.getMinorVersion() );
+    }
+
+    long ttl = Const.toLong( EnvUtil.getSystemProperty( DRIVER_VERSION_CACHE_TTL_PROPERTY ),
+      DEFAULT_DRIVER_VERSION_CACHE_TTL_MILLIS );
+    cached = new CachedDriverVersion( source, key, driverVersion, new DriverFeatures( driverVersion ), now + ttl );
+    cachedDriverVersion = cached;
+    return cached;
+  }
+
+  /**
+   * Forgets the version of the driver, it is resolved again the next time it is needed.
+   */
+  public void invalidateDriverVersion() {
+    cachedDriverVersion = null;
+  }
+
+  DataSource lookupDataSource( String name ) {
+    IDBDatasourceService dss = PentahoSystem.get( IDBDatasourceService.class );
+
+    DataSource dataSource = null;
+    try {
+      dataSource = dss.getDataSource( name );
+    } catch ( DBDatasourceServiceException e ) {
+      logger.error( e.getMessage(), e );
+    }
+    return dataSource;
+  }
+
+  /**
+   * The major and minor version of a driver.
+   */
+  public static final class DriverVersion {
+    private final int majorVersion;
+    private final int minorVersion;
+
+    public DriverVersion( int majorVersion, int minorVersion ) {
+      this.majorVersion = majorVersion;
+      this.minorVersion = minorVersion;
+    }
+
+    public int getMajorVersion() {
+      return majorVersion;
+    }
+
+    public int getMinorVersion() {
+      return minorVersion;
+    }
+
+    /**
+     * @return true if this version is equal to or newer than the given one
+     */
+    public boolean isAtLeast( int majorVersion, int minorVersion ) {
+      return this.majorVersion > majorVersion || ( this.majorVersion == majorVersion
+        && this.minorVersion >= minorVersion );
+    }
+
+    @Override
+    public String toString() {
+      return majorVersion + "." + minorVersion;
+    }
+  }
+
+  /**
+   * What the SQL of a driver version supports, the versions are the ones of the Hive driver.
+   */
+  public static final class DriverFeatures {
+    private final boolean columnAliases;
+    private final boolean timestampType;
+    private final boolean truncateTable;
+    private final boolean dateType;
 
-      Driver driver = driverLocator.getDriver( url );
-      driverMajorVersion = driver.getMajorVersion();
-      driverMinorVersion = driver.getMinorVersion();
+    DriverFeatures( DriverVersion driverVersion ) {
+      this.columnAliases = driverVersion.isAtLeast( 0, 6 );
+      this.timestampType = driverVersion.isAtLeast( 0, 8 );
+      this.truncateTable = driverVersion.isAtLeast( 0, 11 );
+      this.dateType = driverVersion.isAtLeast( 0, 12 );
     }
 
-    return driverMajorVersion > majorVersion || ( driverMajorVersion == majorVersion
-      && driverMinorVersion >= minorVersion );
+    /**
+     * @return true if column aliases are kept, from 0.6 on
+     */
+    public boolean supportsColumnAliases() {
+      return columnAliases;
+    }
+
+    /**
+     * @return true if the TIMESTAMP type is supported, from 0.8 on
+     */
+    public boolean supportsTimestampType() {
+      return timestampType;
+    }
+
+    /**
+     * @return true if TRUNCATE TABLE is supported, from 0.11 on
+     */
+    public boolean supportsTruncateTable() {
+      return truncateTable;
+    }
+
+    /**
+     * @return true if the DATE type is supported, from 0.12 on
+     */
+    public boolean supportsDateType() {
+      return dateType;
+    }
+  }
+
+  private static final class CachedDriverVersion {
+    private final Object source;
+    private final String key;
+    private final DriverVersion driverVersion;
+    private final DriverFeatures driverFeatures;
+    private final long expires;
+
+    CachedDriverVersion( Object source, String key, DriverVersion driverVersion, DriverFeatures driverFeatures,
+                         long expires ) {
+      this.source = source;
+      this.key = key;
+      this.driverVersion = driverVersion;
+      this.driverFeatures = driverFeatures;
+      this.expires = expires;
+    }
+
+    boolean matches( Object source, String key, long now ) {
+      return this.source == source && Objects.equals( this.key, key ) && now < expires;
+    }
+
+    boolean matchesDataSource( String name, long now ) {
+      return source instanceof DataSource && Objects.equals( key, name ) && now < expires;
+    }
   }
 }
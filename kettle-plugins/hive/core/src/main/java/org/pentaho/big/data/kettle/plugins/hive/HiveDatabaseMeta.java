@@ -88,7 +88,7 @@ public class HiveDatabaseMeta extends DatabaseMetaWithVersion {
 
       // Hive does not support DATE until 0.12
       case ValueMetaInterface.TYPE_DATE:
-        if ( isDriverVersion( 0, 12 ) ) {
+        if ( getDriverFeatures().supportsDateType() ) {
           retval += "DATE";
         } else {
           throw new IllegalArgumentException( "Date types not supported in this version of Hive" );
@@ -97,7 +97,7 @@ public class HiveDatabaseMeta extends DatabaseMetaWithVersion {
 
       // Hive does not support DATE until 0.8
       case ValueMetaInterface.TYPE_TIMESTAMP:
-        if ( isDriverVersion( 0, 8 ) ) {
+        if ( getDriverFeatures().supportsTimestampType() ) {
           retval += "TIMESTAMP";
         } else {
           throw new IllegalArgumentException( "Timestamp types not supported in this version of Hive" );
@@ -176,7 +176,7 @@ public class HiveDatabaseMeta extends DatabaseMetaWithVersion {
 
   @Override
   public String generateColumnAlias( int columnIndex, String suggestedName ) {
-    if ( isDriverVersion( 0, 6 ) ) {
+    if ( getDriverFeatures().supportsColumnAliases() ) {
       return suggestedName;
     } else {
       // For version 0.5 and prior:
@@ -232,7 +232,7 @@ public class HiveDatabaseMeta extends DatabaseMetaWithVersion {
    */
   @Override
   public String getTruncateTableStatement( String tableName ) {
-    if ( isDriverVersion( 0, 11 ) ) {
+    if ( getDriverFeatures().supportsTruncateTable() ) {
       return TRUNCATE_TABLE + tableName;
     }
     return null;
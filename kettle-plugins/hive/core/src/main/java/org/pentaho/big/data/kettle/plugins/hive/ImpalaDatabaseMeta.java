@@ -98,7 +98,7 @@ public class ImpalaDatabaseMeta extends Hive2DatabaseMeta implements DatabaseInt
       // Hive does not support DATE until 0.12 - check Impala version against Hive
       case ValueMetaInterface.TYPE_DATE:
       case ValueMetaInterface.TYPE_TIMESTAMP:
-        if ( isDriverVersion( 0, 8 ) ) {
+        if ( getDriverFeatures().supportsTimestampType() ) {
           retval += "TIMESTAMP";
         } else {
           throw new IllegalArgumentException( "Timestamp types not supported in this version of Impala" );
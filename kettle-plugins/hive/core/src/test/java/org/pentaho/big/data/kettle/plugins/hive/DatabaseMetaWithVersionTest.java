@@ -0,0 +1,266 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.hive;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.hadoop.shim.api.jdbc.DriverLocator;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DatabaseMetaWithVersionTest {
+  private DriverLocator driverLocator;
+  private HiveDatabaseMeta hiveDatabaseMeta;
+  private String url;
+
+  @Before
+  public void setup() {
+    driverLocator = mock( DriverLocator.class );
+    hiveDatabaseMeta = new HiveDatabaseMeta( driverLocator );
+    url = hiveDatabaseMeta.getURL( "localhost", "10000", "default" );
+    when( driverLocator.getDriver( url ) ).thenReturn( new StubDriver( 0, 12 ) );
+  }
+
+  @Test
+  public void testDriverIsLocatedOnce() {
+    for ( int i = 0; i < 100; i++ ) {
+      assertTrue( hiveDatabaseMeta.isDriverVersion( 0, 12 ) );
+      assertFalse( hiveDatabaseMeta.isDriverVersion( 0, 13 ) );
+      assertFalse( hiveDatabaseMeta.isDriverVersion( 1, 0 ) );
+    }
+    verify( driverLocator, times( 1 ) ).getDriver( url );
+  }
+
+  @Test
+  public void testDriverVersionIsExposed() {
+    DatabaseMetaWithVersion.DriverVersion driverVersion = hiveDatabaseMeta.getDriverVersion();
+    assertEquals( 0, driverVersion.getMajorVersion() );
+    assertEquals( 12, driverVersion.getMinorVersion() );
+    assertTrue( driverVersion.isAtLeast( 0, 8 ) );
+    assertEquals( "0.12", driverVersion.toString() );
+  }
+
+  @Test
+  public void testDriverIsLocatedAgainOnceInvalidated() {
+    assertTrue( hiveDatabaseMeta.isDriverVersion( 0, 12 ) );
+
+    when( driverLocator.getDriver( url ) ).thenReturn( new StubDriver( 0, 11 ) );
+    assertTrue( hiveDatabaseMeta.isDriverVersion( 0, 12 ) );
+
+    hiveDatabaseMeta.invalidateDriverVersion();
+    assertFalse( hiveDatabaseMeta.isDriverVersion( 0, 12 ) );
+    assertTrue( hiveDatabaseMeta.isDriverVersion( 0, 11 ) );
+    verify( driverLocator, times( 2 ) ).getDriver( url );
+  }
+
+  @Test
+  public void testDataSourceIsConnectedOnce() throws SQLException {
+    StubDataSource dataSource = new StubDataSource( 0, 8 );
+    JndiHiveDatabaseMeta jndiDatabaseMeta = new JndiHiveDatabaseMeta( driverLocator, dataSource );
+
+    for ( int i = 0; i < 100; i++ ) {
+      assertTrue( jndiDatabaseMeta.isDriverVersion( 0, 8 ) );
+      assertFalse( jndiDatabaseMeta.isDriverVersion( 0, 11 ) );
+    }
+    assertEquals( 1, dataSource.connections );
+    verify( dataSource.connection, times( 1 ) ).close();
+  }
+
+  @Test
+  public void testDataSourceIsLookedUpOnce() throws SQLException {
+    JndiHiveDatabaseMeta jndiDatabaseMeta = new JndiHiveDatabaseMeta( driverLocator, new StubDataSource( 0, 8 ) );
+
+    for ( int i = 0; i < 100; i++ ) {
+      assertTrue( jndiDatabaseMeta.getDriverFeatures().supportsTimestampType() );
+    }
+    assertEquals( 1, jndiDatabaseMeta.lookups );
+  }
+
+  @Test
+  public void testRedefinedDataSourceIsConnectedOnceInvalidated() throws SQLException {
+    StubDataSource dataSource = new StubDataSource( 0, 8 );
+    JndiHiveDatabaseMeta jndiDatabaseMeta = new JndiHiveDatabaseMeta( driverLocator, dataSource );
+    assertFalse( jndiDatabaseMeta.isDriverVersion( 0, 12 ) );
+
+    StubDataSource redefined = new StubDataSource( 0, 12 );
+    jndiDatabaseMeta.dataSource = redefined;
+    assertFalse( jndiDatabaseMeta.isDriverVersion( 0, 12 ) );
+
+    jndiDatabaseMeta.invalidateDriverVersion();
+    assertTrue( jndiDatabaseMeta.isDriverVersion( 0, 12 ) );
+    assertTrue( jndiDatabaseMeta.isDriverVersion( 0, 12 ) );
+    assertEquals( 1, dataSource.connections );
+    assertEquals( 1, redefined.connections );
+    assertEquals( 2, jndiDatabaseMeta.lookups );
+  }
+
+  @Test
+  public void testDataSourceIsLookedUpAgainOnceExpired() throws SQLException {
+    System.setProperty( DatabaseMetaWithVersion.DRIVER_VERSION_CACHE_TTL_PROPERTY, "0" );
+    try {
+      StubDataSource dataSource = new StubDataSource( 0, 8 );
+      JndiHiveDatabaseMeta jndiDatabaseMeta = new JndiHiveDatabaseMeta( driverLocator, dataSource );
+      assertTrue( jndiDatabaseMeta.isDriverVersion( 0, 8 ) );
+      assertTrue( jndiDatabaseMeta.isDriverVersion( 0, 8 ) );
+      assertEquals( 2, jndiDatabaseMeta.lookups );
+      assertEquals( 2, dataSource.connections );
+    } finally {
+      System.clearProperty( DatabaseMetaWithVersion.DRIVER_VERSION_CACHE_TTL_PROPERTY );
+    }
+  }
+
+  @Test
+  public void testDriverFeaturesAreWorkedOutOncePerVersion() {
+    DatabaseMetaWithVersion.DriverFeatures driverFeatures = hiveDatabaseMeta.getDriverFeatures();
+    assertTrue( driverFeatures.supportsColumnAliases() );
+    assertTrue( driverFeatures.supportsTimestampType() );
+    assertTrue( driverFeatures.supportsTruncateTable() );
+    assertTrue( driverFeatures.supportsDateType() );
+    assertSame( driverFeatures, hiveDatabaseMeta.getDriverFeatures() );
+
+    when( driverLocator.getDriver( url ) ).thenReturn( new StubDriver( 0, 7 ) );
+    hiveDatabaseMeta.invalidateDriverVersion();
+    driverFeatures = hiveDatabaseMeta.getDriverFeatures();
+    assertTrue( driverFeatures.supportsColumnAliases() );
+    assertFalse( driverFeatures.supportsTimestampType() );
+    assertFalse( driverFeatures.supportsTruncateTable() );
+    assertFalse( driverFeatures.supportsDateType() );
+    verify( driverLocator, times( 2 ) ).getDriver( url );
+  }
+
+  private static class JndiHiveDatabaseMeta extends HiveDatabaseMeta {
+    private DataSource dataSource;
+    private int lookups;
+
+    JndiHiveDatabaseMeta( DriverLocator driverLocator, DataSource dataSource ) {
+      super( driverLocator );
+      this.dataSource = dataSource;
+      setAccessType( DatabaseMeta.TYPE_ACCESS_JNDI );
+      setDatabaseName( "jdbc/hive" );
+    }
+
+    @Override
+    DataSource lookupDataSource( String name ) {
+      lookups++;
+      return dataSource;
+    }
+  }
+
+  private static class StubDriver implements Driver {
+    private final int majorVersion;
+    private final int minorVersion;
+
+    StubDriver( int majorVersion, int minorVersion ) {
+      this.majorVersion = majorVersion;
+      this.minorVersion = minorVersion;
+    }
+
+    @Override public Connection connect( String url, Properties info ) {
+      return null;
+    }
+
+    @Override public boolean acceptsURL( String url ) {
+      return true;
+    }
+
+    @Override public DriverPropertyInfo[] getPropertyInfo( String url, Properties info ) {
+      return new DriverPropertyInfo[ 0 ];
+    }
+
+    @Override public int getMajorVersion() {
+      return majorVersion;
+    }
+
+    @Override public int getMinorVersion() {
+      return minorVersion;
+    }
+
+    @Override public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override public Logger getParentLogger() {
+      return null;
+    }
+  }
+
+  /**
+   * Counts the connections opened to it, each reporting the given driver version.
+   */
+  private static class StubDataSource implements DataSource {
+    private final Connection connection = mock( Connection.class );
+    private int connections;
+
+    StubDataSource( int majorVersion, int minorVersion ) throws SQLException {
+      DatabaseMetaData metaData = mock( DatabaseMetaData.class );
+      when( metaData.getDriverMajorVersion() ).thenReturn( majorVersion );
+      when( metaData.getDriverMinorVersion() ).thenReturn( minorVersion );
+      when( connection.getMetaData() ).thenReturn( metaData );
+    }
+
+    @Override public Connection getConnection() {
+      connections++;
+      return connection;
+    }
+
+    @Override public Connection getConnection( String username, String password ) {
+      return getConnection();
+    }
+
+    @Override public PrintWriter getLogWriter() {
+      return null;
+    }
+
+    @Override public void setLogWriter( PrintWriter out ) {
+    }
+
+    @Override public void setLoginTimeout( int seconds ) {
+    }
+
+    @Override public int getLoginTimeout() {
+      return 0;
+    }
+
+    @Override public Logger getParentLogger() {
+      return null;
+    }
+
+    @Override public <T> T unwrap( Class<T> iface ) {
+      return null;
+    }
+
+    @Override public boolean isWrapperFor( Class<?> iface ) {
+      return false;
+    }
+  }
+}
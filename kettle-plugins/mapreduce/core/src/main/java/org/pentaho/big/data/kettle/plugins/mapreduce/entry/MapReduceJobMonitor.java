@@ -0,0 +1,278 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.mapreduce.entry;
+
+import org.pentaho.big.data.kettle.plugins.logging.HadoopExecutionLogging;
+import org.pentaho.hadoop.shim.api.mapreduce.MapReduceJobAdvanced;
+import org.pentaho.hadoop.shim.api.mapreduce.TaskCompletionEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Follows a running MapReduce job on a scheduler shared by every monitored job, instead of the job entry thread
+ * sleeping between polls.
+ * <p>
+ * The job is polled for completion and for new task completion events, at first every {@value #MIN_POLL_MILLIS} ms,
+ * then less and less often, up to every {@value #MAX_POLL_MILLIS} ms, while nothing happens. The diagnostics of the
+ * tasks that didn't succeed are fetched asynchronously and the events are handed to the listener in order. The
+ * progress of the job is reported every reporting interval. When the job completes, or the monitoring is stopped, the
+ * remaining events and the final progress are reported and {@link #start()}'s future completes.
+ */
+public class MapReduceJobMonitor {
+
+  public static final long MIN_POLL_MILLIS = 500L;
+  public static final long MAX_POLL_MILLIS = 5000L;
+
+  private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+  /**
+   * Receives the progress and the task events of the monitored job. Calls are made on the threads of the scheduler.
+   */
+  public interface Listener {
+    /**
+     * Reports the progress of the job.
+     */
+    void printJobStatus( MapReduceJobAdvanced runningJob ) throws IOException;
+
+    /**
+     * Reports a task completion event.
+     *
+     * @param event       the event
+     * @param diagnostics the diagnostics of the task attempt, null for tasks that succeeded
+     */
+    void taskCompleted( TaskCompletionEvent event, String[] diagnostics );
+  }
+
+  private final MapReduceJobAdvanced runningJob;
+  private final Listener listener;
+  private final BooleanSupplier stopped;
+  private final long reportIntervalMillis;
+  private final long minPollMillis;
+  private final long maxPollMillis;
+  private final ScheduledExecutorService scheduler;
+  private final LongSupplier clock;
+
+  private final CompletableFuture<Void> done = new CompletableFuture<>();
+  private CompletableFuture<Void> deliveries = CompletableFuture.completedFuture( null );
+  private int eventIndex;
+  private long pollMillis;
+  private long nextReport;
+
+  /**
+   * @param runningJob           the job to follow
+   * @param listener             receives the progress and task events of the job
+   * @param stopped              tells whether the monitoring should stop before the job completes
+   * @param reportIntervalMillis how often the progress and task events are reported while the job runs, 0 to report
+   *                             them once the job completed only
+   */
+  public MapReduceJobMonitor( MapReduceJobAdvanced runningJob, Listener listener, BooleanSupplier stopped,
+                              long reportIntervalMillis ) {
+    this( runningJob, listener, stopped, reportIntervalMillis, MIN_POLL_MILLIS, MAX_POLL_MILLIS, SCHEDULER,
+      System::currentTimeMillis );
+  }
+
+  MapReduceJobMonitor( MapReduceJobAdvanced runningJob, Listener listener, BooleanSupplier stopped,
+                       long reportIntervalMillis, long minPollMillis, long maxPollMillis,
+                       ScheduledExecutorService scheduler, LongSupplier clock ) {
+    this.runningJob = runningJob;
+    this.listener = listener;
+    this.stopped = stopped;
+    this.reportIntervalMillis = reportIntervalMillis;
+    this.minPollMillis = minPollMillis;
+    this.maxPollMillis = Math.max( minPollMillis, maxPollMillis );
+    this.scheduler = scheduler;
+    this.clock = clock;
+  }
+
+  /**
+   * Starts following the job.
+   *
+   * @return a future completed once the job completed, or the monitoring was stopped, and everything was reported
+   */
+  public synchronized CompletableFuture<Void> start() {
+    pollMillis = minPollMillis;
+    nextReport = clock.getAsLong() + reportIntervalMillis;
+    schedule( 0L );
+    return done;
+  }
+
+  /**
+   * Waits for the job to complete, or the monitoring to stop, and everything to be reported.
+   *
+   * @throws IOException          if the job couldn't be polled
+   * @throws InterruptedException if the calling thread was interrupted, the monitoring is then cancelled
+   */
+  public void await() throws IOException, InterruptedException {
+    try {
+      done.get();
+    } catch ( InterruptedException e ) {
+      cancel();
+      throw e;
+    } catch ( ExecutionException e ) {
+      Throwable cause = e.getCause();
+      if ( cause instanceof IOException ) {
+        throw (IOException) cause;
+      }
+      if ( cause instanceof RuntimeException ) {
+        throw (RuntimeException) cause;
+      }
+      if ( cause instanceof Error ) {
+        throw (Error) cause;
+      }
+      throw new IOException( cause );
+    }
+  }
+
+  /**
+   * Stops following the job without reporting anything more.
+   */
+  public void cancel() {
+    done.cancel( false );
+  }
+
+  private void schedule( long delayMillis ) {
+    scheduler.schedule( HadoopExecutionLogging.propagate( this::poll ), delayMillis, TimeUnit.MILLISECONDS );
+  }
+
+  private synchronized void poll() {
+    if ( done.isDone() ) {
+      return;
+    }
+    try {
+      if ( stopped.getAsBoolean() || runningJob.isComplete() || deliveries.isCompletedExceptionally() ) {
+        finish();
+        return;
+      }
+
+      boolean active = false;
+      if ( reportIntervalMillis > 0 ) {
+        active = pollEvents();
+        long now = clock.getAsLong();
+        if ( now >= nextReport ) {
+          listener.printJobStatus( runningJob );
+          nextReport = now + reportIntervalMillis;
+        }
+      }
+
+      // poll again soon while events come in, less and less often while nothing happens
+      pollMillis = active ? minPollMillis : Math.min( pollMillis * 2, maxPollMillis );
+      schedule( pollMillis );
+    } catch ( Throwable t ) {
+      done.completeExceptionally( t );
+    }
+  }
+
+  /**
+   * Reports the remaining events and the final progress, then completes the future.
+   */
+  private void finish() throws IOException {
+    while ( pollEvents() ) {
+      // until every event was read
+    }
+    deliveries.thenRun( () -> {
+      try {
+        listener.printJobStatus( runningJob );
+      } catch ( IOException e ) {
+        throw new UncheckedIOException( e );
+      }
+    } ).whenComplete( ( ignored, t ) -> {
+      if ( t == null ) {
+        done.complete( null );
+      } else {
+        done.completeExceptionally( unwrap( t ) );
+      }
+    } );
+  }
+
+  /**
+   * Reads the next task completion events and queues their delivery, with their diagnostics.
+   *
+   * @return true if there were new events
+   */
+  private boolean pollEvents() throws IOException {
+    TaskCompletionEvent[] events = runningJob.getTaskCompletionEvents( eventIndex );
+    if ( events == null || events.length == 0 ) {
+      return false;
+    }
+    eventIndex += events.length;
+
+    final List<TaskCompletionEvent> batch = new ArrayList<>( events.length );
+    final List<CompletableFuture<String[]>> diagnostics = new ArrayList<>( events.length );
+    for ( final TaskCompletionEvent event : events ) {
+      batch.add( event );
+      diagnostics.add( needsDiagnostics( event )
+        ? CompletableFuture.supplyAsync( () -> diagnostics( event ), this::runOnScheduler )
+        : CompletableFuture.completedFuture( null ) );
+    }
+    final CompletableFuture<Void> fetched =
+      CompletableFuture.allOf( diagnostics.toArray( new CompletableFuture<?>[ 0 ] ) );
+    deliveries = deliveries.thenCompose( ignored -> fetched ).thenRun( () -> {
+      for ( int i = 0; i < batch.size() && !done.isDone(); i++ ) {
+        listener.taskCompleted( batch.get( i ), diagnostics.get( i ).join() );
+      }
+    } );
+    return true;
+  }
+
+  private void runOnScheduler( Runnable task ) {
+    scheduler.execute( HadoopExecutionLogging.propagate( task ) );
+  }
+
+  private String[] diagnostics( TaskCompletionEvent event ) {
+    try {
+      return runningJob.getTaskDiagnostics( event.getTaskAttemptId() );
+    } catch ( IOException e ) {
+      throw new UncheckedIOException( e );
+    }
+  }
+
+  private static boolean needsDiagnostics( TaskCompletionEvent event ) {
+    TaskCompletionEvent.Status status = event.getTaskStatus();
+    return status != TaskCompletionEvent.Status.SUCCEEDED && status != TaskCompletionEvent.Status.OBSOLETE;
+  }
+
+  private static Throwable unwrap( Throwable t ) {
+    while ( ( t instanceof CompletionException || t instanceof UncheckedIOException ) && t.getCause() != null ) {
+      t = t.getCause();
+    }
+    return t;
+  }
+
+  private static ScheduledExecutorService createScheduler() {
+    final AtomicInteger threadNr = new AtomicInteger();
+    ScheduledThreadPoolExecutor scheduler =
+      new ScheduledThreadPoolExecutor( Math.max( 2, Runtime.getRuntime().availableProcessors() / 2 ), r -> {
+        Thread t = new Thread( r, "MapReduce job monitor " + threadNr.incrementAndGet() );
+        t.setDaemon( true );
+        return t;
+      } );
+    // no threads are kept while no job is monitored
+    scheduler.setKeepAliveTime( 60L, TimeUnit.SECONDS );
+    scheduler.allowCoreThreadTimeOut( true );
+    return scheduler;
+  }
+}
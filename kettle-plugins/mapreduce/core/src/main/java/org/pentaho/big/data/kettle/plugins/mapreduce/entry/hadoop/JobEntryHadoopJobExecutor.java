@@ -426,18 +426,19 @@ public class JobEntryHadoopJobExecutor extends JobEntryBase implements Cloneable
         }
         if ( blocking ) {
           try {
-            int taskCompletionEventIndex = 0;
-            while ( !mapReduceJobAdvanced
-              .waitOnCompletion( logIntv >= 1 ? logIntv : 60, TimeUnit.SECONDS, new MapReduceService.Stoppable() {
-                @Override public boolean isStopped() {
-                  return parentJob.isStopped();
+            // Task messages are logged as they come in, the job status every logging interval and once the job is done
+            MapReduceJobMonitor monitor =
+              new MapReduceJobMonitor( mapReduceJobAdvanced, new MapReduceJobMonitor.Listener() {
+                @Override public void printJobStatus( MapReduceJobAdvanced job ) throws IOException {
+                  JobEntryHadoopJobExecutor.this.printJobStatus( job );
                 }
-              } ) ) {
-              if ( logIntv >= 1 ) {
-                printJobStatus( mapReduceJobAdvanced );
-                taskCompletionEventIndex = logTaskMessages( mapReduceJobAdvanced, taskCompletionEventIndex );
-              }
-            }
+
+                @Override public void taskCompleted( TaskCompletionEvent event, String[] diagnostics ) {
+                  logTaskMessage( event, diagnostics );
+                }
+              }, parentJob::isStopped, logIntv >= 1 ? logIntv * 1000L : 0L );
+            monitor.start();
+            monitor.await();
 
             if ( parentJob.isStopped() && !mapReduceJobAdvanced.isComplete() ) {
               // We must stop the job running on Hadoop
@@ -445,10 +446,6 @@ public class JobEntryHadoopJobExecutor extends JobEntryBase implements Cloneable
               // Indicate this job entry did not complete
               result.setResult( false );
             }
-
-            printJobStatus( mapReduceJobAdvanced );
-            // Log any messages we may have missed while polling
-            logTaskMessages( mapReduceJobAdvanced, taskCompletionEventIndex );
           } catch ( InterruptedException ie ) {
             logError( ie.getMessage(), ie );
           }
@@ -486,58 +483,51 @@ public class JobEntryHadoopJobExecutor extends JobEntryBase implements Cloneable
   }
 
   /**
-   * Log messages indicating completion (success/failure) of component tasks for the provided running job.
+   * Log a message indicating completion (success/failure) of a component task of the running job.
    *
-   * @param runningJob Running job to poll for completion events
-   * @param startIndex Start at this event index to poll from
-   * @return Total events consumed
-   * @throws IOException Error fetching events
+   * @param event Task completion event
+   * @param diags Diagnostics of the task attempt, null if none were fetched
    */
-  private int logTaskMessages( MapReduceJobAdvanced runningJob, int startIndex ) throws IOException {
-    TaskCompletionEvent[] tcEvents = runningJob.getTaskCompletionEvents( startIndex );
-    for ( int i = 0; i < tcEvents.length; i++ ) {
-      String[] diags = runningJob.getTaskDiagnostics( tcEvents[ i ].getTaskAttemptId() );
-      StringBuilder diagsOutput = new StringBuilder();
+  private void logTaskMessage( TaskCompletionEvent event, String[] diags ) {
+    StringBuilder diagsOutput = new StringBuilder();
 
-      if ( diags != null && diags.length > 0 ) {
+    if ( diags != null && diags.length > 0 ) {
+      diagsOutput.append( Const.CR );
+      for ( String s : diags ) {
+        diagsOutput.append( s );
         diagsOutput.append( Const.CR );
-        for ( String s : diags ) {
-          diagsOutput.append( s );
-          diagsOutput.append( Const.CR );
-        }
       }
+    }
 
-      switch ( tcEvents[ i ].getTaskStatus() ) {
-        case KILLED:
-          logError( BaseMessages
-            .getString(
-              PKG,
-              "JobEntryHadoopJobExecutor.TaskDetails", TaskCompletionEvent.Status.KILLED,
-              tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getEventId(),
-              diagsOutput ) ); //$NON-NLS-1$
-
-          break;
-        case FAILED:
-          logError( BaseMessages
-            .getString(
-              PKG,
-              "JobEntryHadoopJobExecutor.TaskDetails", TaskCompletionEvent.Status.FAILED,
-              tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getEventId(),
-              diagsOutput ) ); //$NON-NLS-1$
-
-          break;
-        case SUCCEEDED:
-          logDetailed( BaseMessages
-            .getString(
-              PKG,
-              "JobEntryHadoopJobExecutor.TaskDetails", TaskCompletionEvent.Status.SUCCEEDED,
-              tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getEventId(),
-              diagsOutput ) ); //$NON-NLS-1$
-
-          break;
-      }
+    switch ( event.getTaskStatus() ) {
+      case KILLED:
+        logError( BaseMessages
+          .getString(
+            PKG,
+            "JobEntryHadoopJobExecutor.TaskDetails", TaskCompletionEvent.Status.KILLED,
+            event.getTaskAttemptId(), event.getTaskAttemptId(), event.getEventId(),
+            diagsOutput ) ); //$NON-NLS-1$
+
+        break;
+      case FAILED:
+        logError( BaseMessages
+          .getString(
+            PKG,
+            "JobEntryHadoopJobExecutor.TaskDetails", TaskCompletionEvent.Status.FAILED,
+            event.getTaskAttemptId(), event.getTaskAttemptId(), event.getEventId(),
+            diagsOutput ) ); //$NON-NLS-1$
+
+        break;
+      case SUCCEEDED:
+        logDetailed( BaseMessages
+          .getString(
+            PKG,
+            "JobEntryHadoopJobExecutor.TaskDetails", TaskCompletionEvent.Status.SUCCEEDED,
+            event.getTaskAttemptId(), event.getTaskAttemptId(), event.getEventId(),
+            diagsOutput ) ); //$NON-NLS-1$
+
+        break;
     }
-    return tcEvents.length;
   }
 
   /**
@@ -14,9 +14,11 @@
 
 package org.pentaho.big.data.kettle.plugins.mapreduce.entry.pmr;
 
+import org.apache.commons.vfs2.FileObject;
 import org.pentaho.big.data.api.services.BigDataServicesHelper;
 import org.pentaho.big.data.impl.cluster.NamedClusterManager;
 import org.pentaho.big.data.kettle.plugins.mapreduce.DialogClassUtil;
+import org.pentaho.big.data.kettle.plugins.mapreduce.entry.MapReduceJobMonitor;
 import org.pentaho.big.data.kettle.plugins.mapreduce.entry.NamedClusterLoadSaveUtil;
 import org.pentaho.big.data.kettle.plugins.mapreduce.entry.UserDefinedItem;
 import org.pentaho.big.data.kettle.plugins.logging.HadoopExecutionLogging;
@@ -37,6 +39,7 @@ import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.util.CurrentDirectoryResolver;
 import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.entry.JobEntryBase;
@@ -49,8 +52,6 @@ import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.repository.StringObjectId;
 import org.pentaho.di.resource.ResourceDefinition;
 import org.pentaho.di.resource.ResourceNamingInterface;
-import org.pentaho.di.trans.TransConfiguration;
-import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.di.trans.step.StepMeta;
@@ -97,6 +98,8 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
   private final NamedClusterService namedClusterService;
   private final NamedClusterServiceLocator namedClusterServiceLocator;
   private final NamedClusterLoadSaveUtil namedClusterLoadSaveUtil = new NamedClusterLoadSaveUtil();
+  // shared with the copies of this entry the job runs
+  private final TransPayloadCache transPayloadCache = new TransPayloadCache();
   private String hadoopJobName;
   private String mapRepositoryDir;
   private String mapRepositoryFile;
@@ -563,11 +566,9 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
       jobBuilder.setHadoopJobName( hadoopJobNameS );
 
       // mapper
-      TransExecutionConfiguration transExecConfig = new TransExecutionConfiguration();
-      TransMeta transMeta =
-        loadTransMeta( parentJobMeta.getBowl(), this, rep, mapTrans, mapRepositoryReference, mapRepositoryDir,
-          mapRepositoryFile );
-      TransConfiguration transConfig = new TransConfiguration( transMeta, transExecConfig );
+      TransPayloadCache.Payload payload =
+        loadTransPayload( mapTrans, mapRepositoryReference, mapRepositoryDir, mapRepositoryFile );
+      TransMeta transMeta = payload != null ? payload.getTransMeta() : null;
       String mapInputStepNameS = environmentSubstitute( mapInputStepName );
       String mapOutputStepNameS = environmentSubstitute( mapOutputStepName );
 
@@ -577,12 +578,12 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
         throw new KettleException( BaseMessages
           .getString( PKG, "JobEntryHadoopTransJobExecutor.MapConfiguration.Error" ), ex );
       } finally {
-        if ( transMeta != null ) {
-          transMeta.disposeEmbeddedMetastoreProvider();
+        if ( payload != null ) {
+          transPayloadCache.release( payload );
         }
       }
 
-      jobBuilder.setMapperInfo( transConfig.getXML(), mapInputStepNameS, mapOutputStepNameS );
+      jobBuilder.setMapperInfo( payload.getXml(), mapInputStepNameS, mapOutputStepNameS );
 
       jobBuilder.set( MapReduceJobBuilder.STRING_COMBINE_SINGLE_THREADED, combiningSingleThreaded ? "true" : "false" );
 
@@ -633,10 +634,10 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
       }
 
       // combiner
-      transMeta =
-        loadTransMeta( parentJobMeta.getBowl(), this, rep, combinerTrans, combinerRepositoryReference,
-          combinerRepositoryDir, combinerRepositoryFile );
-      if ( transMeta != null ) {
+      payload = loadTransPayload( combinerTrans, combinerRepositoryReference, combinerRepositoryDir,
+        combinerRepositoryFile );
+      if ( payload != null ) {
+        transMeta = payload.getTransMeta();
 
         if ( combiningSingleThreaded ) {
           verifySingleThreadingValidity( transMeta );
@@ -644,26 +645,22 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
 
         String combinerInputStepNameS = environmentSubstitute( combinerInputStepName );
         String combinerOutputStepNameS = environmentSubstitute( combinerOutputStepName );
-        transConfig = new TransConfiguration( transMeta, transExecConfig );
-        jobBuilder.setCombinerInfo( transConfig.getXML(), combinerInputStepNameS, combinerOutputStepNameS );
+        jobBuilder.setCombinerInfo( payload.getXml(), combinerInputStepNameS, combinerOutputStepNameS );
         try {
           jobBuilder.verifyTransMeta( transMeta, combinerInputStepNameS, combinerOutputStepNameS );
         } catch ( Exception ex ) {
           throw new KettleException( BaseMessages.getString( PKG,
             "JobEntryHadoopTransJobExecutor.CombinerConfiguration.Error" ), ex );
         } finally {
-          if ( transMeta != null ) {
-            transMeta.disposeEmbeddedMetastoreProvider();
-          }
+          transPayloadCache.release( payload );
         }
       }
 
       // reducer
-      transMeta =
-        loadTransMeta( parentJobMeta.getBowl(), this, rep, reduceTrans, reduceRepositoryReference, reduceRepositoryDir,
-          reduceRepositoryFile );
+      payload = loadTransPayload( reduceTrans, reduceRepositoryReference, reduceRepositoryDir, reduceRepositoryFile );
 
-      if ( transMeta != null ) {
+      if ( payload != null ) {
+        transMeta = payload.getTransMeta();
 
         // See if this is a valid single threading reducer
         //
@@ -673,8 +670,7 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
 
         String reduceInputStepNameS = environmentSubstitute( reduceInputStepName );
         String reduceOutputStepNameS = environmentSubstitute( reduceOutputStepName );
-        transConfig = new TransConfiguration( transMeta, transExecConfig );
-        jobBuilder.setReducerInfo( transConfig.getXML(), reduceInputStepNameS, reduceOutputStepNameS );
+        jobBuilder.setReducerInfo( payload.getXml(), reduceInputStepNameS, reduceOutputStepNameS );
 
         try {
           jobBuilder.verifyTransMeta( transMeta, reduceInputStepNameS, reduceOutputStepNameS );
@@ -682,9 +678,7 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
           throw new KettleException( BaseMessages.getString( PKG,
             "JobEntryHadoopTransJobExecutor.ReducerConfiguration.Error" ), ex );
         } finally {
-          if ( transMeta != null ) {
-            transMeta.disposeEmbeddedMetastoreProvider();
-          }
+          transPayloadCache.release( payload );
         }
 
         if ( getSuppressOutputOfKey() ) {
@@ -792,16 +786,18 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
 
       if ( blocking ) {
         try {
-          int taskCompletionEventIndex = 0;
-          while ( !parentJob.isStopped() && !runningJob.isComplete() ) {
-            if ( logIntv >= 1 ) {
-              printJobStatus( runningJob );
-              taskCompletionEventIndex += logTaskMessages( runningJob, taskCompletionEventIndex );
-              Thread.sleep( logIntv * 1000 );
-            } else {
-              Thread.sleep( 60000 );
+          // Task messages are logged as they come in, the job status every logging interval and once the job is done
+          MapReduceJobMonitor monitor = new MapReduceJobMonitor( runningJob, new MapReduceJobMonitor.Listener() {
+            @Override public void printJobStatus( MapReduceJobAdvanced job ) throws IOException {
+              JobEntryHadoopTransJobExecutor.this.printJobStatus( job );
             }
-          }
+
+            @Override public void taskCompleted( TaskCompletionEvent event, String[] diagnostics ) {
+              logTaskMessage( event, diagnostics );
+            }
+          }, parentJob::isStopped, logIntv >= 1 ? logIntv * 1000L : 0L );
+          monitor.start();
+          monitor.await();
 
           if ( parentJob.isStopped() && !runningJob.isComplete() ) {
             // We must stop the job running on Hadoop
@@ -809,10 +805,6 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
             // Indicate this job entry did not complete
             result.setResult( false );
           }
-
-          printJobStatus( runningJob );
-          // Log any messages we may have missed while polling
-          logTaskMessages( runningJob, taskCompletionEventIndex );
         } catch ( InterruptedException ie ) {
           logError( ie.getMessage(), ie );
         }
@@ -833,59 +825,67 @@ public class JobEntryHadoopTransJobExecutor extends JobEntryBase implements Clon
   }
 
   /**
-   * Log messages indicating completion (success/failure) of component tasks for the provided running job.
+   * Loads a transformation of this entry along with its XML. Transformations read from a file are cached until the
+   * file changes.
+   */
+  private TransPayloadCache.Payload loadTransPayload( final String filename, final ObjectId transformationId,
+                                                      final String repositoryDir, final String repositoryFile )
+    throws KettleException {
+    final Bowl bowl = parentJobMeta.getBowl();
+    FileObject file = null;
+    if ( rep == null && !Const.isEmpty( filename ) ) {
+      file = KettleVFS.getInstance( bowl ).getFileObject( environmentSubstitute( filename ), this );
+    }
+    return transPayloadCache.get( file,
+      () -> loadTransMeta( bowl, this, rep, filename, transformationId, repositoryDir, repositoryFile ) );
+  }
+
+  /**
+   * Log a message indicating completion (success/failure) of a component task of the running job.
    *
-   * @param runningJob
-   *          Running job to poll for completion events
-   * @param startIndex
-   *          Start at this event index to poll from
-   * @return Total events consumed
-   * @throws IOException
-   *           Error fetching events
+   * @param event
+   *          Task completion event
+   * @param diags
+   *          Diagnostics of the task attempt, null if none were fetched
    */
-  private int logTaskMessages( MapReduceJobAdvanced runningJob, int startIndex ) throws IOException {
-    TaskCompletionEvent[] tcEvents = runningJob.getTaskCompletionEvents( startIndex );
-    for ( int i = 0; i < tcEvents.length; i++ ) {
-      String[] diags = runningJob.getTaskDiagnostics( tcEvents[ i ].getTaskAttemptId() );
-      StringBuilder diagsOutput = new StringBuilder();
+  private void logTaskMessage( TaskCompletionEvent event, String[] diags ) {
+    StringBuilder diagsOutput = new StringBuilder();
 
-      if ( diags != null && diags.length > 0 ) {
+    if ( diags != null && diags.length > 0 ) {
+      diagsOutput.append( Const.CR );
+      for ( String s : diags ) {
+        diagsOutput.append( s );
         diagsOutput.append( Const.CR );
-        for ( String s : diags ) {
-          diagsOutput.append( s );
-          diagsOutput.append( Const.CR );
-        }
       }
+    }
 
-      TaskCompletionEvent.Status status = tcEvents[ i ].getTaskStatus();
-      switch ( tcEvents[ i ].getTaskStatus() ) {
-        case KILLED:
-        case FAILED:
-        case TIPFAILED:
-          logError( BaseMessages
-            .getString(
-              PKG,
-              "JobEntryHadoopTransJobExecutor.TaskDetails", status, tcEvents[ i ].getTaskAttemptId(),
-              tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getEventId(), diagsOutput ) ); //$NON-NLS-1$
-          break;
-        case SUCCEEDED:
-        case OBSOLETE:
-          logDetailed( BaseMessages
-            .getString(
-              PKG,
-              "JobEntryHadoopTransJobExecutor.TaskDetails", TaskCompletionEvent.Status.SUCCEEDED,
-              tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getEventId(),
-              diagsOutput ) ); //$NON-NLS-1$
-          break;
-        default:
-          logError( BaseMessages
-            .getString(
-              PKG,
-              "JobEntryHadoopTransJobExecutor.TaskDetails", "UNKNOWN", tcEvents[ i ].getTaskAttemptId(),
-              tcEvents[ i ].getTaskAttemptId(), tcEvents[ i ].getEventId(), diagsOutput ) ); //$NON-NLS-1$
-      }
+    TaskCompletionEvent.Status status = event.getTaskStatus();
+    switch ( status ) {
+      case KILLED:
+      case FAILED:
+      case TIPFAILED:
+        logError( BaseMessages
+          .getString(
+            PKG,
+            "JobEntryHadoopTransJobExecutor.TaskDetails", status, event.getTaskAttemptId(),
+            event.getTaskAttemptId(), event.getEventId(), diagsOutput ) ); //$NON-NLS-1$
+        break;
+      case SUCCEEDED:
+      case OBSOLETE:
+        logDetailed( BaseMessages
+          .getString(
+            PKG,
+            "JobEntryHadoopTransJobExecutor.TaskDetails", TaskCompletionEvent.Status.SUCCEEDED,
+            event.getTaskAttemptId(), event.getTaskAttemptId(), event.getEventId(),
+            diagsOutput ) ); //$NON-NLS-1$
+        break;
+      default:
+        logError( BaseMessages
+          .getString(
+            PKG,
+            "JobEntryHadoopTransJobExecutor.TaskDetails", "UNKNOWN", event.getTaskAttemptId(),
+            event.getTaskAttemptId(), event.getEventId(), diagsOutput ) ); //$NON-NLS-1$
     }
-    return tcEvents.length;
   }
 
   /**
@@ -0,0 +1,198 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.mapreduce.entry.pmr;
+
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.trans.TransConfiguration;
+import org.pentaho.di.trans.TransExecutionConfiguration;
+import org.pentaho.di.trans.TransMeta;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The mapper, combiner and reducer transformations of a Pentaho MapReduce job entry, loaded and serialized once and
+ * kept until their file changes, so that a job running the entry in a loop doesn't read and serialize them again for
+ * every iteration.
+ * <p>
+ * Transformations are keyed by the URI of their file and stamped with its modification time and size. Transformations
+ * read from a repository aren't cached. The cache is shared by the copies the job makes of the entry it belongs to.
+ * <p>
+ * Every payload handed out by {@link #get(FileObject, Loader)} is handed back to {@link #release(Payload)} once the
+ * transformation was verified. The embedded metastore of a transformation is disposed when the last user releases it
+ * and it is no longer cached, so a cached transformation keeps it for the next runs.
+ */
+class TransPayloadCache {
+
+  static final int MAX_ENTRIES = 16;
+
+  /**
+   * Loads a transformation from its source.
+   */
+  interface Loader {
+    TransMeta load() throws KettleException;
+  }
+
+  /**
+   * A transformation along with the XML handed to the Hadoop job.
+   */
+  static final class Payload {
+    private final TransMeta transMeta;
+    private final String xml;
+    private final long lastModified;
+    private final long size;
+    private int users;
+    private boolean cached;
+
+    Payload( TransMeta transMeta, String xml, long lastModified, long size ) {
+      this.transMeta = transMeta;
+      this.xml = xml;
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+
+    private void disposeIfUnused() {
+      if ( users == 0 && !cached ) {
+        transMeta.disposeEmbeddedMetastoreProvider();
+      }
+    }
+
+    TransMeta getTransMeta() {
+      return transMeta;
+    }
+
+    String getXml() {
+      return xml;
+    }
+  }
+
+  private final Map<String, Payload> payloads = new LinkedHashMap<String, Payload>( MAX_ENTRIES, 0.75f, true ) {
+    @Override
+    protected boolean removeEldestEntry( Map.Entry<String, Payload> eldest ) {
+      if ( size() > MAX_ENTRIES ) {
+        drop( eldest.getValue() );
+        return true;
+      }
+      return false;
+    }
+  };
+
+  private long hits;
+  private long misses;
+
+  /**
+   * Returns the transformation stored in a file, loading it if it isn't cached or its file changed since. The payload
+   * must be {@link #release(Payload) released} once it is no longer used.
+   *
+   * @param file   the file of the transformation, null if it isn't read from a file
+   * @param loader loads the transformation
+   * @return the transformation and its XML, null if the loader returns no transformation
+   * @throws KettleException if the transformation can't be loaded or serialized
+   */
+  synchronized Payload get( FileObject file, Loader loader ) throws KettleException {
+    String key = null;
+    long lastModified = 0L;
+    long size = 0L;
+    if ( file != null ) {
+      try {
+        if ( file.exists() ) {
+          FileContent content = file.getContent();
+          key = file.getName().getURI();
+          lastModified = content.getLastModifiedTime();
+          size = content.getSize();
+        }
+      } catch ( FileSystemException e ) {
+        // can't tell whether the file changed, it is read again
+        key = null;
+      }
+    }
+
+    if ( key != null ) {
+      Payload cached = payloads.get( key );
+      if ( cached != null && cached.lastModified == lastModified && cached.size == size ) {
+        hits++;
+        cached.users++;
+        return cached;
+      }
+    }
+
+    misses++;
+    TransMeta transMeta = loader.load();
+    if ( transMeta == null ) {
+      return null;
+    }
+    String xml;
+    try {
+      xml = toXml( transMeta );
+    } catch ( KettleException e ) {
+      transMeta.disposeEmbeddedMetastoreProvider();
+      throw e;
+    }
+    Payload payload = new Payload( transMeta, xml, lastModified, size );
+    payload.users++;
+    if ( key != null ) {
+      payload.cached = true;
+      Payload replaced = payloads.put( key, payload );
+      if ( replaced != null ) {
+        drop( replaced );
+      }
+    }
+    return payload;
+  }
+
+  /**
+   * Hands back a payload returned by {@link #get(FileObject, Loader)}, disposing the embedded metastore of its
+   * transformation if it isn't cached or used anymore.
+   */
+  synchronized void release( Payload payload ) {
+    payload.users--;
+    payload.disposeIfUnused();
+  }
+
+  /**
+   * Drops every cached transformation.
+   */
+  synchronized void clear() {
+    for ( Payload payload : payloads.values() ) {
+      drop( payload );
+    }
+    payloads.clear();
+  }
+
+  private void drop( Payload payload ) {
+    payload.cached = false;
+    payload.disposeIfUnused();
+  }
+
+  synchronized long getHits() {
+    return hits;
+  }
+
+  synchronized long getMisses() {
+    return misses;
+  }
+
+  private static String toXml( TransMeta transMeta ) throws KettleException {
+    try {
+      return new TransConfiguration( transMeta, new TransExecutionConfiguration() ).getXML();
+    } catch ( IOException e ) {
+      throw new KettleException( e );
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.mapreduce.entry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.mapreduce.MapReduceJobAdvanced;
+import org.pentaho.hadoop.shim.api.mapreduce.TaskCompletionEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MapReduceJobMonitorTest {
+
+  private ScheduledThreadPoolExecutor scheduler;
+  private MapReduceJobAdvanced job;
+  private List<TaskCompletionEvent> events;
+  private AtomicInteger polls;
+  private RecordingListener listener;
+
+  @Before
+  public void setup() throws Exception {
+    scheduler = new ScheduledThreadPoolExecutor( 2 );
+    events = Arrays.asList(
+      event( 0, TaskCompletionEvent.Status.SUCCEEDED ),
+      event( 1, TaskCompletionEvent.Status.FAILED ),
+      event( 2, TaskCompletionEvent.Status.OBSOLETE ),
+      event( 3, TaskCompletionEvent.Status.KILLED ),
+      event( 4, TaskCompletionEvent.Status.SUCCEEDED ) );
+    polls = new AtomicInteger();
+    listener = new RecordingListener();
+
+    // one more event shows up on every poll, the job completes a few polls after the last one
+    job = mock( MapReduceJobAdvanced.class );
+    when( job.isComplete() ).thenAnswer( invocation -> polls.incrementAndGet() > events.size() + 3 );
+    when( job.getTaskCompletionEvents( anyInt() ) ).thenAnswer( invocation -> {
+      int from = invocation.getArgument( 0 );
+      int to = Math.min( polls.get(), events.size() );
+      return from >= to ? new TaskCompletionEvent[ 0 ]
+        : events.subList( from, to ).toArray( new TaskCompletionEvent[ 0 ] );
+    } );
+    when( job.getTaskDiagnostics( any() ) ).thenAnswer( invocation -> new String[] { "diagnostics of "
+      + invocation.getArgument( 0 ) } );
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  private static TaskCompletionEvent event( int id, TaskCompletionEvent.Status status ) {
+    TaskCompletionEvent event = mock( TaskCompletionEvent.class );
+    when( event.getEventId() ).thenReturn( id );
+    when( event.getTaskStatus() ).thenReturn( status );
+    when( event.getTaskAttemptId() ).thenReturn( "attempt_" + id );
+    return event;
+  }
+
+  private MapReduceJobMonitor monitor( AtomicBoolean stopped, long reportIntervalMillis ) {
+    return new MapReduceJobMonitor( job, listener, stopped::get, reportIntervalMillis, 1L, 4L, scheduler,
+      System::currentTimeMillis );
+  }
+
+  @Test
+  public void testEventsAreReportedInOrderWhileTheJobRuns() throws Exception {
+    MapReduceJobMonitor monitor = monitor( new AtomicBoolean(), 1L );
+    monitor.start().get( 10, TimeUnit.SECONDS );
+
+    assertEquals( events, listener.events );
+    assertNull( listener.diagnostics.get( 0 ) );
+    assertArrayEquals( new String[] { "diagnostics of attempt_1" }, listener.diagnostics.get( 1 ) );
+    assertNull( listener.diagnostics.get( 2 ) );
+    assertArrayEquals( new String[] { "diagnostics of attempt_3" }, listener.diagnostics.get( 3 ) );
+    assertNull( listener.diagnostics.get( 4 ) );
+    verify( job, never() ).getTaskDiagnostics( "attempt_0" );
+    verify( job, never() ).getTaskDiagnostics( "attempt_4" );
+
+    // the status is reported while the job runs and once after the last event
+    assertTrue( listener.statusReports.get() > 1 );
+    assertEquals( "status", listener.lastCall );
+  }
+
+  @Test
+  public void testEventsAreReportedOnceTheJobCompletedWithoutReportInterval() throws Exception {
+    MapReduceJobMonitor monitor = monitor( new AtomicBoolean(), 0L );
+    monitor.start();
+    monitor.await();
+
+    assertEquals( events, listener.events );
+    assertEquals( 1, listener.statusReports.get() );
+  }
+
+  @Test
+  public void testStoppedMonitoringCompletesBeforeTheJob() throws Exception {
+    polls.set( 2 );
+    when( job.isComplete() ).thenReturn( false );
+    MapReduceJobMonitor monitor = monitor( new AtomicBoolean( true ), 1L );
+    monitor.start();
+    monitor.await();
+
+    // the events received so far and the final status are still reported
+    assertEquals( events.subList( 0, 2 ), listener.events );
+    assertEquals( 1, listener.statusReports.get() );
+    verify( job, never() ).killJob();
+  }
+
+  @Test
+  public void testPollingErrorIsThrown() throws Exception {
+    IOException error = new IOException( "lost the job tracker" );
+    when( job.getTaskCompletionEvents( anyInt() ) ).thenThrow( error );
+    MapReduceJobMonitor monitor = monitor( new AtomicBoolean(), 1L );
+    monitor.start();
+    try {
+      monitor.await();
+      fail( "the polling error should have been thrown" );
+    } catch ( IOException e ) {
+      assertSame( error, e );
+    }
+  }
+
+  @Test
+  public void testDiagnosticsErrorIsThrown() throws Exception {
+    IOException error = new IOException( "no diagnostics" );
+    when( job.getTaskDiagnostics( any() ) ).thenThrow( error );
+    MapReduceJobMonitor monitor = monitor( new AtomicBoolean(), 1L );
+    monitor.start();
+    try {
+      monitor.await();
+      fail( "the diagnostics error should have been thrown" );
+    } catch ( IOException e ) {
+      assertSame( error, e );
+    }
+    assertEquals( Collections.singletonList( events.get( 0 ) ), listener.events );
+  }
+
+  private static class RecordingListener implements MapReduceJobMonitor.Listener {
+    private final List<TaskCompletionEvent> events = Collections.synchronizedList( new ArrayList<>() );
+    private final List<String[]> diagnostics = Collections.synchronizedList( new ArrayList<>() );
+    private final AtomicInteger statusReports = new AtomicInteger();
+    private volatile String lastCall;
+
+    @Override
+    public void printJobStatus( MapReduceJobAdvanced runningJob ) {
+      statusReports.incrementAndGet();
+      lastCall = "status";
+    }
+
+    @Override
+    public void taskCompleted( TaskCompletionEvent event, String[] eventDiagnostics ) {
+      events.add( event );
+      diagnostics.add( eventDiagnostics );
+      lastCall = "event";
+    }
+  }
+}
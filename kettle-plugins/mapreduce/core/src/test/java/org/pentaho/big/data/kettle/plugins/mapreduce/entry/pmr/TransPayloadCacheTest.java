@@ -0,0 +1,167 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.big.data.kettle.plugins.mapreduce.entry.pmr;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.trans.TransMeta;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class TransPayloadCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private TransPayloadCache cache;
+  private File transFile;
+  private AtomicInteger loads;
+
+  @Before
+  public void setup() throws Exception {
+    KettleClientEnvironment.init();
+    cache = new TransPayloadCache();
+    transFile = temporaryFolder.newFile( "testTrans.ktr" );
+    Files.copy( Paths.get( "src/test/resources/testTrans.ktr" ), transFile.toPath(),
+      StandardCopyOption.REPLACE_EXISTING );
+    loads = new AtomicInteger();
+  }
+
+  private FileObject fileObject( File file ) throws KettleException {
+    return KettleVFS.getInstance( DefaultBowl.getInstance() ).getFileObject( file.getAbsolutePath(),
+      (VariableSpace) null );
+  }
+
+  private TransPayloadCache.Loader loader( final File file ) {
+    return () -> {
+      loads.incrementAndGet();
+      return new TransMeta( DefaultBowl.getInstance(), file.getAbsolutePath() );
+    };
+  }
+
+  @Test
+  public void testTransformationIsLoadedAndSerializedOnce() throws Exception {
+    TransPayloadCache.Payload payload = cache.get( fileObject( transFile ), loader( transFile ) );
+    assertTrue( payload.getXml().contains( "<transformation>" ) );
+
+    for ( int i = 0; i < 10; i++ ) {
+      assertSame( payload, cache.get( fileObject( transFile ), loader( transFile ) ) );
+    }
+    assertEquals( 1, loads.get() );
+    assertEquals( 10L, cache.getHits() );
+    assertEquals( 1L, cache.getMisses() );
+  }
+
+  @Test
+  public void testTransformationIsLoadedAgainWhenItsFileChanges() throws Exception {
+    TransPayloadCache.Payload payload = cache.get( fileObject( transFile ), loader( transFile ) );
+
+    Files.write( transFile.toPath(), "\n".getBytes( "UTF-8" ), StandardOpenOption.APPEND );
+    assertNotSame( payload, cache.get( fileObject( transFile ), loader( transFile ) ) );
+    assertEquals( 2, loads.get() );
+
+    transFile.setLastModified( transFile.lastModified() - 10000L );
+    cache.get( fileObject( transFile ), loader( transFile ) );
+    assertEquals( 3, loads.get() );
+  }
+
+  @Test
+  public void testTransformationsWithoutFileAreNotCached() throws Exception {
+    cache.get( null, loader( transFile ) );
+    cache.get( null, loader( transFile ) );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testMissingTransformation() throws Exception {
+    assertNull( cache.get( null, () -> null ) );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedTransformationsAreDropped() throws Exception {
+    File[] files = new File[ TransPayloadCache.MAX_ENTRIES + 1 ];
+    for ( int i = 0; i < files.length; i++ ) {
+      files[ i ] = temporaryFolder.newFile( "trans" + i + ".ktr" );
+      Files.copy( transFile.toPath(), files[ i ].toPath(), StandardCopyOption.REPLACE_EXISTING );
+      cache.get( fileObject( files[ i ] ), loader( files[ i ] ) );
+    }
+    cache.get( fileObject( files[ files.length - 1 ] ), loader( files[ files.length - 1 ] ) );
+    assertEquals( files.length, loads.get() );
+
+    cache.get( fileObject( files[ 0 ] ), loader( files[ 0 ] ) );
+    assertEquals( files.length + 1, loads.get() );
+  }
+
+  private TransPayloadCache.Loader spyLoader( final File file ) {
+    return () -> spy( new TransMeta( DefaultBowl.getInstance(), file.getAbsolutePath() ) );
+  }
+
+  @Test
+  public void testCachedTransformationKeepsItsEmbeddedMetastoreUntilDropped() throws Exception {
+    TransPayloadCache.Payload payload = cache.get( fileObject( transFile ), spyLoader( transFile ) );
+    cache.release( payload );
+    cache.release( cache.get( fileObject( transFile ), spyLoader( transFile ) ) );
+    verify( payload.getTransMeta(), never() ).disposeEmbeddedMetastoreProvider();
+
+    Files.write( transFile.toPath(), "\n".getBytes( "UTF-8" ), StandardOpenOption.APPEND );
+    TransPayloadCache.Payload reloaded = cache.get( fileObject( transFile ), spyLoader( transFile ) );
+    verify( payload.getTransMeta() ).disposeEmbeddedMetastoreProvider();
+
+    cache.release( reloaded );
+    cache.clear();
+    verify( reloaded.getTransMeta() ).disposeEmbeddedMetastoreProvider();
+  }
+
+  @Test
+  public void testDroppedTransformationIsDisposedOnceReleased() throws Exception {
+    TransPayloadCache.Payload payload = cache.get( fileObject( transFile ), spyLoader( transFile ) );
+    Files.write( transFile.toPath(), "\n".getBytes( "UTF-8" ), StandardOpenOption.APPEND );
+    cache.get( fileObject( transFile ), spyLoader( transFile ) );
+    verify( payload.getTransMeta(), never() ).disposeEmbeddedMetastoreProvider();
+
+    cache.release( payload );
+    verify( payload.getTransMeta() ).disposeEmbeddedMetastoreProvider();
+  }
+
+  @Test
+  public void testTransformationWithoutFileIsDisposedWhenReleased() throws Exception {
+    TransPayloadCache.Payload payload = cache.get( null, spyLoader( transFile ) );
+    cache.release( payload );
+    verify( payload.getTransMeta() ).disposeEmbeddedMetastoreProvider();
+  }
+}
+
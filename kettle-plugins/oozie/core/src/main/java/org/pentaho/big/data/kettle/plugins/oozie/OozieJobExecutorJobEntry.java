@@ -19,6 +19,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.pentaho.big.data.api.services.BigDataServicesHelper;
 import org.pentaho.big.data.impl.cluster.NamedClusterManager;
 import org.pentaho.big.data.kettle.plugins.job.AbstractJobEntry;
+import org.pentaho.big.data.kettle.plugins.job.JobEntryExecutionService;
 import org.pentaho.big.data.kettle.plugins.job.JobEntryMode;
 import org.pentaho.big.data.kettle.plugins.job.JobEntryUtils;
 import org.pentaho.big.data.kettle.plugins.job.PropertyEntry;
@@ -54,6 +55,7 @@ import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 /**
  * User: RFellows Date: 6/4/12
  */
@@ -323,12 +325,11 @@ public class OozieJobExecutorJobEntry extends AbstractJobEntry<OozieJobExecutorC
             jobProps.setProperty( USER_NAME, getVariableSpace().environmentSubstitute( "${" + USER_NAME + "}" ) );
           }
 
-          OozieJobInfo job = hadoopClientServices.runOozie( jobProps );
+          final OozieJobInfo job = hadoopClientServices.runOozie( jobProps );
           if ( JobEntryUtils.asBoolean( getJobConfig().getBlockingExecution(), variables ) ) {
-            while ( job.isRunning() ) {
-              long interval = JobEntryUtils.asLong( jobConfig.getBlockingPollingInterval(), variables );
-              Thread.sleep( interval );
-            }
+            long interval = JobEntryUtils.asLong( jobConfig.getBlockingPollingInterval(), variables );
+            JobEntryExecutionService.await(
+              JobEntryExecutionService.getInstance().monitor( () -> !job.isRunning(), interval, interval ) );
             String logDetail = job.getJobLog();
             if ( job.didSucceed() ) {
               jobResult.setResult( true );
@@ -352,6 +353,11 @@ public class OozieJobExecutorJobEntry extends AbstractJobEntry<OozieJobExecutorC
           setJobResultFailed( jobResult );
           logError(
             BaseMessages.getString( OozieJobExecutorJobEntry.class, "Oozie.JobExecutor.ERROR.OozieClient" ), e );
+        } catch ( ExecutionException e ) {
+          setJobResultFailed( jobResult );
+          logError(
+            BaseMessages.getString( OozieJobExecutorJobEntry.class, "Oozie.JobExecutor.ERROR.OozieClient" ),
+            e.getCause() );
         } catch ( InterruptedException e ) {
           setJobResultFailed( jobResult );
           logError( BaseMessages.getString( OozieJobExecutorJobEntry.class, "Oozie.JobExecutor.ERROR.Threading" ), e );
@@ -18,6 +18,7 @@ import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.pentaho.big.data.api.services.BigDataServicesHelper;
+import org.pentaho.big.data.kettle.plugins.job.JobEntryExecutionService;
 import org.pentaho.big.data.kettle.plugins.logging.HadoopExecutionLogging;
 import org.pentaho.hadoop.shim.api.HadoopClientServices;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
@@ -55,6 +56,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Job entry that executes a Pig script either on a hadoop cluster or locally.
@@ -462,7 +464,7 @@ public class JobEntryPigScriptExecutor extends JobEntryBase implements Cloneable
         }
       } else {
         final String finalScriptFileS = scriptFileS;
-        final Thread runThread = new Thread() {
+        final Future<?> run = JobEntryExecutionService.getInstance().execute( new Runnable() {
           public void run() {
             try ( HadoopExecutionLogging ignored = HadoopExecutionLogging.start( log ) ) {
               PigResult pigResult =
@@ -471,9 +473,8 @@ public class JobEntryPigScriptExecutor extends JobEntryBase implements Cloneable
               processScriptExecutionResult( pigResult, result );
             }
           }
-        };
+        } );
 
-        runThread.start();
         parentJob.addJobListener( new JobListener() {
 
           @Override
@@ -482,7 +483,7 @@ public class JobEntryPigScriptExecutor extends JobEntryBase implements Cloneable
 
           @Override
           public void jobFinished( Job job ) throws KettleException {
-            if ( runThread.isAlive() ) {
+            if ( !run.isDone() ) {
               logMinimal( BaseMessages.getString( PKG, "JobEntryPigScriptExecutor.Warning.AsynctaskStillRunning", getName(), job.getJobname() ) );
             }
           }
@@ -18,6 +18,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.sun.jna.Platform;
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.big.data.kettle.plugins.job.JobEntryExecutionService;
 import org.pentaho.di.cluster.SlaveServer;
 import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
@@ -53,6 +54,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.pentaho.di.job.entry.validator.AndValidator.putValidators;
@@ -77,6 +79,9 @@ public class JobEntrySparkSubmit extends JobEntryBase implements Cloneable, JobE
   public static final String JOB_TYPE_PYTHON = "Python";
   public static final String HADOOP_CLUSTER_PREFIX = "hc://";
 
+  private static final long STOP_POLL_MILLIS = 500L;
+  private static final long MAX_STOP_POLL_MILLIS = 5000L;
+
   private static Class<?> PKG = JobEntrySparkSubmit.class; // for i18n purposes, needed by Translator2!!
 
   private String jobType = JOB_TYPE_JAVA_SCALA;
@@ -612,33 +617,19 @@ public class JobEntrySparkSubmit extends JobEntryBase implements Cloneable, JobE
         outputLogger.addPatternMatchedListener( cb );
       }
 
-      // kick them off
-      Thread errorLoggerThread = new Thread( errorLogger );
-      errorLoggerThread.start();
-      Thread outputLoggerThread = new Thread( outputLogger );
-      outputLoggerThread.start();
-
-      // Stop on job stop
-      final AtomicBoolean processFinished = new AtomicBoolean( false );
-      new Thread( new Runnable() {
-        @Override
-        public void run() {
-          while ( !getParentJob().isStopped() && !processFinished.get() ) {
-            try {
-              Thread.sleep( 5000 );
-            } catch ( InterruptedException e ) {
-              e.printStackTrace();
-            }
-          }
-          proc.destroy();
-        }
-      } ).start();
+      // kick them off, the output of every spark-submit is pumped on a single shared thread
+      CompletableFuture<Void> output = ProcessOutputPump.getInstance().pump( proc, errorLogger, outputLogger );
 
-      proc.waitFor();
+      // Stop on job stop, the watch ends as soon as the process exits
+      final Process process = proc;
+      final CompletableFuture<Void> stopWatch = JobEntryExecutionService.getInstance().monitor(
+        () -> getParentJob().isStopped(), STOP_POLL_MILLIS, MAX_STOP_POLL_MILLIS );
+      stopWatch.thenRun( process::destroy );
+      process.onExit().thenRun( () -> stopWatch.cancel( false ) );
 
-      processFinished.set( true );
+      proc.waitFor();
 
-      prepareProcessThreadsToStop( proc, errorLoggerThread, outputLoggerThread );
+      prepareProcessOutputToStop( proc, output );
 
       if ( log.isDetailed() ) {
         logDetailed( "Spark submit finished" );
@@ -672,23 +663,16 @@ public class JobEntrySparkSubmit extends JobEntryBase implements Cloneable, JobE
     return result;
   }
 
-  private void waitForThreadsFinishToRead( Thread errorLoggerThread, Thread outputLoggerThread )
-    throws InterruptedException {
-    // wait until loggers read all data from stdout and stderr
-    errorLoggerThread.join();
-    outputLoggerThread.join();
-  }
-
-  private void prepareProcessThreadsToStop( Process proc, Thread errorLoggerThread, Thread outputLoggerThread )
-    throws Exception {
+  private void prepareProcessOutputToStop( Process proc, CompletableFuture<Void> output ) throws Exception {
     if ( blockExecution ) {
-      waitForThreadsFinishToRead( errorLoggerThread, outputLoggerThread );
+      // wait until loggers read all data from stdout and stderr
+      output.get();
     } else {
+      // the pump still drains what the process wrote before it was stopped
       killChildProcesses();
     }
-    // close the streams
+    // close the streams, stdout and stderr are closed by the pump once it is done with them
     // otherwise you get "Too many open files, java.io.IOException" after a lot of iterations
-    proc.getErrorStream().close();
     proc.getOutputStream().close();
   }
 
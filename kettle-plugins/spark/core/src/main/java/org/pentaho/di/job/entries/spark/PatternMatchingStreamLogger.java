@@ -19,18 +19,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.pentaho.di.core.logging.LogChannelInterface;
 
 /**
  * Class pumps input stream to output stream while searching it's content for patterns and notifying listener if any.
+ * <p>
+ * Patterns are searched literally. Their matchers are compiled once and only applied to the lines that contain the
+ * first few characters of the pattern, which most of the output of spark-submit doesn't. Lines can also be handed over
+ * one by one with {@link #logLine(String)}, which is how {@link ProcessOutputPump} uses it.
  *
  * @author Pavel Sakun
  */
 public class PatternMatchingStreamLogger implements Runnable {
+  private static final int PREFIX_LENGTH = 4;
+
   private LogChannelInterface log;
   private InputStream is;
   private String[] patterns;
+  private String[] prefixes;
+  private Matcher[] matchers;
   private PatternMatchedListener listener;
   private AtomicBoolean stop;
 
@@ -39,6 +49,12 @@ public class PatternMatchingStreamLogger implements Runnable {
     this.is = is;
     this.patterns = patterns;
     this.stop = stop;
+    prefixes = new String[ patterns.length ];
+    matchers = new Matcher[ patterns.length ];
+    for ( int i = 0; i < patterns.length; i++ ) {
+      prefixes[ i ] = patterns[ i ].substring( 0, Math.min( PREFIX_LENGTH, patterns[ i ].length() ) );
+      matchers[ i ] = Pattern.compile( Pattern.quote( patterns[ i ] ) ).matcher( "" );
+    }
   }
 
   public void run() {
@@ -47,20 +63,41 @@ public class PatternMatchingStreamLogger implements Runnable {
 
     try {
       while ( !stop.get() && ( line = br.readLine() ) != null ) {
-        log.logBasic( line );
-        for ( String pattern : patterns ) {
-          if ( line.contains( pattern ) ) {
-            if ( listener != null ) {
-              listener.onPatternFound( pattern );
-            }
-          }
-        }
+        logLine( line );
       }
     } catch ( IOException e ) {
       log.logError( "", e );
     }
   }
 
+  /**
+   * Logs a line of the stream and notifies the listener of the patterns it contains. Not thread safe, lines of a stream
+   * are handed over by a single thread.
+   *
+   * @param line the line, without its line terminator
+   */
+  public void logLine( String line ) {
+    log.logBasic( line );
+    for ( int i = 0; i < patterns.length; i++ ) {
+      // cheap check first, most lines don't even contain the start of the pattern
+      if ( line.contains( prefixes[ i ] ) && matchers[ i ].reset( line ).find() && listener != null ) {
+        listener.onPatternFound( patterns[ i ] );
+      }
+    }
+  }
+
+  LogChannelInterface getLog() {
+    return log;
+  }
+
+  InputStream getInputStream() {
+    return is;
+  }
+
+  AtomicBoolean getStop() {
+    return stop;
+  }
+
   public void addPatternMatchedListener( PatternMatchedListener pml ) {
     listener = pml;
   }
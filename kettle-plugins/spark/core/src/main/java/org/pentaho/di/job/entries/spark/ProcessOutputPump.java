@@ -0,0 +1,267 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.job.entries.spark;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pumps the output of every running spark-submit process on a single thread, instead of a thread per stream.
+ * <p>
+ * Process streams can't be selected on, so the pump reads whatever is available on every stream into a large buffer
+ * and hands the complete lines over to the {@link PatternMatchingStreamLogger} of the stream. While no stream has
+ * anything to read, the pump parks, at first for {@value #MIN_IDLE_MILLIS} ms, then longer and longer, up to
+ * {@value #MAX_IDLE_MILLIS} ms; it is woken up right away by new processes and by processes exiting, which is detected
+ * through {@link Process#onExit()}. The output left once a process exited is drained before its future completes. The
+ * pump thread goes away when there is nothing left to pump.
+ */
+public class ProcessOutputPump {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+  static final long MIN_IDLE_MILLIS = 1L;
+  static final long MAX_IDLE_MILLIS = 50L;
+
+  private static final ProcessOutputPump INSTANCE = new ProcessOutputPump();
+
+  private final Queue<Pumped> added = new ConcurrentLinkedQueue<>();
+  private Thread thread;
+  private int threadNr;
+
+  public static ProcessOutputPump getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts pumping the output of a process. The streams are closed once they have been pumped.
+   *
+   * @param process       the process
+   * @param streamLoggers the loggers of the streams of the process, usually one for its standard output and one for
+   *                      its standard error. Pumping of a stream stops as soon as the stop flag of its logger is set
+   * @return a future completed once every stream was read up to the exit of the process, or stopped. Cancelling it
+   * stops the pumping
+   */
+  public CompletableFuture<Void> pump( Process process, PatternMatchingStreamLogger... streamLoggers ) {
+    final Pumped pumped = new Pumped( streamLoggers );
+    added.add( pumped );
+    process.onExit().thenRun( () -> {
+      pumped.exited = true;
+      wakeUp();
+    } );
+    wakeUp();
+    return pumped.done;
+  }
+
+  /**
+   * @return true while the pump thread is running
+   */
+  synchronized boolean isRunning() {
+    return thread != null;
+  }
+
+  private synchronized void wakeUp() {
+    if ( thread == null ) {
+      thread = new Thread( this::run, "Spark submit output pump " + ( ++threadNr ) );
+      thread.setDaemon( true );
+      thread.start();
+    } else {
+      LockSupport.unpark( thread );
+    }
+  }
+
+  private boolean stopIfIdle() {
+    synchronized ( this ) {
+      if ( added.isEmpty() ) {
+        thread = null;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private void run() {
+    final List<Pumped> active = new ArrayList<>();
+    final byte[] buffer = new byte[ BUFFER_SIZE ];
+    long idleMillis = MIN_IDLE_MILLIS;
+    while ( true ) {
+      for ( Pumped pumped = added.poll(); pumped != null; pumped = added.poll() ) {
+        active.add( pumped );
+      }
+      if ( active.isEmpty() ) {
+        if ( stopIfIdle() ) {
+          return;
+        }
+        continue;
+      }
+
+      boolean read = false;
+      for ( Iterator<Pumped> it = active.iterator(); it.hasNext(); ) {
+        Pumped pumped = it.next();
+        read |= pumped.pump( buffer );
+        if ( pumped.done.isDone() ) {
+          pumped.close();
+          it.remove();
+        }
+      }
+
+      if ( read ) {
+        idleMillis = MIN_IDLE_MILLIS;
+      } else {
+        LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( idleMillis ) );
+        idleMillis = Math.min( idleMillis * 2, MAX_IDLE_MILLIS );
+      }
+    }
+  }
+
+  /**
+   * The streams of one process.
+   */
+  private static final class Pumped {
+    private final List<StreamPump> streams = new ArrayList<>();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private volatile boolean exited;
+
+    Pumped( PatternMatchingStreamLogger[] streamLoggers ) {
+      for ( PatternMatchingStreamLogger streamLogger : streamLoggers ) {
+        streams.add( new StreamPump( streamLogger ) );
+      }
+    }
+
+    /**
+     * Reads what is available on the streams of the process, completes the future once there's nothing left.
+     *
+     * @return true if something was read
+     */
+    boolean pump( byte[] buffer ) {
+      if ( done.isDone() ) {
+        return false;
+      }
+      // the exit must be known before the last read, everything the process wrote is available by then
+      boolean exitedBeforeRead = exited;
+      boolean read = false;
+      boolean open = false;
+      for ( StreamPump stream : streams ) {
+        if ( !stream.isClosed() ) {
+          read |= stream.pump( buffer );
+          open |= !stream.isClosed();
+        }
+      }
+      if ( !open || ( exitedBeforeRead && !read ) ) {
+        for ( StreamPump stream : streams ) {
+          stream.flush();
+        }
+        done.complete( null );
+      }
+      return read;
+    }
+
+    void close() {
+      for ( StreamPump stream : streams ) {
+        stream.close();
+      }
+    }
+  }
+
+  /**
+   * Splits one stream into lines.
+   */
+  private static final class StreamPump {
+    private final PatternMatchingStreamLogger streamLogger;
+    private byte[] line = new byte[ 256 ];
+    private int lineLength;
+    private boolean closed;
+
+    StreamPump( PatternMatchingStreamLogger streamLogger ) {
+      this.streamLogger = streamLogger;
+    }
+
+    boolean isClosed() {
+      return closed || streamLogger.getStop().get();
+    }
+
+    boolean pump( byte[] buffer ) {
+      try {
+        int available = streamLogger.getInputStream().available();
+        if ( available <= 0 ) {
+          return false;
+        }
+        int count = streamLogger.getInputStream().read( buffer, 0, Math.min( available, buffer.length ) );
+        if ( count < 0 ) {
+          closed = true;
+          return false;
+        }
+        int start = 0;
+        for ( int i = 0; i < count && !isClosed(); i++ ) {
+          if ( buffer[ i ] == '\n' ) {
+            append( buffer, start, i - start );
+            logLine();
+            start = i + 1;
+          }
+        }
+        if ( !isClosed() ) {
+          append( buffer, start, count - start );
+        }
+        return true;
+      } catch ( IOException e ) {
+        streamLogger.getLog().logError( "", e );
+        closed = true;
+        return false;
+      }
+    }
+
+    /**
+     * Logs the last line, which has no line terminator.
+     */
+    void flush() {
+      if ( lineLength > 0 && !streamLogger.getStop().get() ) {
+        logLine();
+      }
+    }
+
+    void close() {
+      closed = true;
+      try {
+        streamLogger.getInputStream().close();
+      } catch ( IOException e ) {
+        // nothing more to read anyway
+      }
+    }
+
+    private void append( byte[] bytes, int offset, int length ) {
+      if ( lineLength + length > line.length ) {
+        line = Arrays.copyOf( line, Math.max( line.length * 2, lineLength + length ) );
+      }
+      System.arraycopy( bytes, offset, line, lineLength, length );
+      lineLength += length;
+    }
+
+    private void logLine() {
+      int length = lineLength;
+      if ( length > 0 && line[ length - 1 ] == '\r' ) {
+        length--;
+      }
+      streamLogger.logLine( new String( line, 0, length, Charset.defaultCharset() ) );
+      lineLength = 0;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.job.entries.spark;
+
+import com.sun.jna.Platform;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class ProcessOutputPumpTest {
+  private static final String[] PATTERNS = new String[] { "tracking URL:" };
+
+  private String script;
+
+  @Before
+  public void setUp() throws Exception {
+    Assume.assumeFalse( Platform.isWindows() );
+    script = new File( getClass().getClassLoader().getResource( "spark-submit-output.sh" ).toURI() ).getPath();
+  }
+
+  private Process start( int outLines, int errLines, int sleepSeconds, int exitCode ) throws Exception {
+    return new ProcessBuilder( "sh", script, String.valueOf( outLines ), String.valueOf( errLines ),
+      String.valueOf( sleepSeconds ), String.valueOf( exitCode ) ).start();
+  }
+
+  private static LogChannelInterface collectingLog( final List<String> lines ) {
+    LogChannelInterface log = mock( LogChannelInterface.class );
+    doAnswer( invocation -> lines.add( invocation.getArgument( 0 ) ) ).when( log ).logBasic( anyString() );
+    return log;
+  }
+
+  private static long pumpThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+      .filter( t -> t.getName().startsWith( "Spark submit output pump" ) ).count();
+  }
+
+  @Test
+  public void testHighVolumeOutputIsLoggedInOrder() throws Exception {
+    List<String> lines = Collections.synchronizedList( new ArrayList<>() );
+    LogChannelInterface log = collectingLog( lines );
+    AtomicInteger matches = new AtomicInteger();
+    AtomicBoolean stop = new AtomicBoolean();
+
+    Process process = start( 20000, 500, 0, 3 );
+    PatternMatchingStreamLogger errorLogger =
+      new PatternMatchingStreamLogger( log, process.getErrorStream(), PATTERNS, stop );
+    PatternMatchingStreamLogger outputLogger =
+      new PatternMatchingStreamLogger( log, process.getInputStream(), PATTERNS, stop );
+    errorLogger.addPatternMatchedListener( pattern -> matches.incrementAndGet() );
+    outputLogger.addPatternMatchedListener( pattern -> matches.incrementAndGet() );
+
+    ProcessOutputPump.getInstance().pump( process, errorLogger, outputLogger ).get( 30, TimeUnit.SECONDS );
+    assertEquals( 3, process.waitFor() );
+
+    assertEquals( 20000 + 500 + 1, lines.size() );
+    int out = 0;
+    int err = 0;
+    for ( String line : lines ) {
+      if ( line.startsWith( "INFO" ) ) {
+        assertTrue( line, line.endsWith( " line " + out++ ) );
+      } else if ( line.startsWith( "WARN" ) ) {
+        assertEquals( "WARN Client: line " + err++, line );
+      }
+    }
+    assertEquals( 20000, out );
+    assertEquals( 500, err );
+    assertEquals( 1, matches.get() );
+  }
+
+  @Test
+  public void testProcessesArePumpedOnASingleThread() throws Exception {
+    // let the pump of the previous tests go away
+    for ( int i = 0; i < 100 && pumpThreads() > 0; i++ ) {
+      Thread.sleep( 10L );
+    }
+    List<String> lines = Collections.synchronizedList( new ArrayList<>() );
+    LogChannelInterface log = collectingLog( lines );
+    List<CompletableFuture<Void>> outputs = new ArrayList<>();
+    for ( int i = 0; i < 4; i++ ) {
+      Process process = start( 2000, 10, 1, 0 );
+      outputs.add( ProcessOutputPump.getInstance().pump( process,
+        new PatternMatchingStreamLogger( log, process.getErrorStream(), PATTERNS, new AtomicBoolean() ),
+        new PatternMatchingStreamLogger( log, process.getInputStream(), PATTERNS, new AtomicBoolean() ) ) );
+    }
+    assertEquals( 1, pumpThreads() );
+
+    for ( CompletableFuture<Void> output : outputs ) {
+      output.get( 30, TimeUnit.SECONDS );
+    }
+    assertEquals( 4 * ( 2000 + 10 + 1 ), lines.size() );
+
+    // the pump goes away once there is nothing left to pump
+    for ( int i = 0; i < 100 && ProcessOutputPump.getInstance().isRunning(); i++ ) {
+      Thread.sleep( 10L );
+    }
+    assertFalse( ProcessOutputPump.getInstance().isRunning() );
+  }
+
+  @Test
+  public void testPumpingStopsOnceThePatternIsFound() throws Exception {
+    LogChannelInterface log = collectingLog( Collections.synchronizedList( new ArrayList<>() ) );
+    final AtomicBoolean submitted = new AtomicBoolean();
+
+    Process process = start( 10, 0, 30, 0 );
+    try {
+      PatternMatchingStreamLogger errorLogger =
+        new PatternMatchingStreamLogger( log, process.getErrorStream(), PATTERNS, submitted );
+      PatternMatchingStreamLogger outputLogger =
+        new PatternMatchingStreamLogger( log, process.getInputStream(), PATTERNS, submitted );
+      errorLogger.addPatternMatchedListener( pattern -> submitted.set( true ) );
+      outputLogger.addPatternMatchedListener( pattern -> submitted.set( true ) );
+
+      // completes long before the process exits
+      ProcessOutputPump.getInstance().pump( process, errorLogger, outputLogger ).get( 10, TimeUnit.SECONDS );
+      assertTrue( submitted.get() );
+      assertTrue( process.isAlive() );
+    } finally {
+      process.destroy();
+    }
+  }
+}
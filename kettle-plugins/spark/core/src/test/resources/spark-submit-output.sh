@@ -0,0 +1,16 @@
+#!/bin/sh
+# Stand-in for spark-submit: writes $1 lines to stdout and $2 lines to stderr, reports a tracking URL on stderr,
+# then sleeps $3 seconds before exiting with status $4.
+i=0
+while [ $i -lt "$1" ]; do
+  echo "INFO Client: Application report for application_1 (state: RUNNING) line $i"
+  i=$((i+1))
+done
+i=0
+while [ $i -lt "$2" ]; do
+  echo "WARN Client: line $i" 1>&2
+  i=$((i+1))
+done
+echo "	 tracking URL: http://localhost:8088/proxy/application_1/" 1>&2
+sleep "$3"
+exit "$4"
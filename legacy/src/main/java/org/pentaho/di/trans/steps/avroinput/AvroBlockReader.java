@@ -0,0 +1,329 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.steps.avroinput;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.avro.generic.GenericDatumReader;
+
+/**
+ * Reads an Avro container file with its blocks decoded on a small pool of worker threads. The blocks of a container
+ * file are compressed independently and end with the sync marker of the file, so the calling thread only reads the
+ * raw blocks one after the other and hands them to the workers, which decompress them and deserialize their objects.
+ * Objects are returned in file order.
+ * <p>
+ * Every worker decodes its blocks with its own {@link DataFileReader}, over the header of the file followed by the
+ * block at hand, so all the codecs supported by Avro are supported here as well. At most two blocks per worker are
+ * read ahead.
+ */
+class AvroBlockReader implements Closeable {
+
+  private static final byte[] MAGIC = new byte[] { 'O', 'b', 'j', 1 };
+  private static final int SYNC_SIZE = 16;
+
+  private final InputStream m_in;
+  private final byte[] m_header;
+  private final byte[] m_sync = new byte[SYNC_SIZE];
+
+  private final ExecutorService m_executor;
+  private final int m_maxPending;
+  private final Deque<Future<List<Object>>> m_pending = new ArrayDeque<Future<List<Object>>>();
+  private final ThreadLocal<BlockDecoder> m_decoders = new ThreadLocal<BlockDecoder>();
+
+  private boolean m_endOfFile;
+  private List<Object> m_current;
+  private int m_currentIndex;
+
+  /**
+   * Reads the header of a container file.
+   *
+   * @param in
+   *          the container file, positioned at its start
+   * @param threads
+   *          the number of worker threads decoding blocks
+   * @param threadName
+   *          prefix of the names of the worker threads
+   * @throws IOException
+   *           if the header can't be read or this is not a container file
+   */
+  AvroBlockReader( InputStream in, int threads, String threadName ) throws IOException {
+    m_in = new BufferedInputStream( in );
+    m_header = readHeader();
+
+    final AtomicInteger threadNr = new AtomicInteger();
+    final String name = threadName;
+    m_executor = Executors.newFixedThreadPool( Math.max( 1, threads ), r -> {
+      Thread t = new Thread( r, name + " block decoder " + threadNr.incrementAndGet() );
+      t.setDaemon( true );
+      return t;
+    } );
+    m_maxPending = Math.max( 1, threads ) * 2;
+  }
+
+  /**
+   * Returns the next object of the file. Objects are not reused, every one of them is a new instance.
+   *
+   * @return the next object, or null when all the objects have been read
+   * @throws IOException
+   *           if a block can't be read or decoded
+   */
+  Object next() throws IOException {
+    while ( m_current == null || m_currentIndex >= m_current.size() ) {
+      readAhead();
+      Future<List<Object>> block = m_pending.poll();
+      if ( block == null ) {
+        m_current = null;
+        return null;
+      }
+      m_current = await( block );
+      m_currentIndex = 0;
+    }
+    return m_current.get( m_currentIndex++ );
+  }
+
+  private void readAhead() throws IOException {
+    while ( !m_endOfFile && m_pending.size() < m_maxPending ) {
+      final byte[] block = readBlock();
+      if ( block == null ) {
+        m_endOfFile = true;
+      } else {
+        m_pending.add( m_executor.submit( () -> decoder().decode( block ) ) );
+      }
+    }
+  }
+
+  private static List<Object> await( Future<List<Object>> block ) throws IOException {
+    try {
+      return block.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( e.getMessage() );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof IOException ) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException( e.getCause() );
+    }
+  }
+
+  private BlockDecoder decoder() throws IOException {
+    BlockDecoder decoder = m_decoders.get();
+    if ( decoder == null ) {
+      decoder = new BlockDecoder( m_header );
+      m_decoders.set( decoder );
+    }
+    return decoder;
+  }
+
+  /**
+   * Reads the header (magic, metadata and sync marker) of the file, keeping a copy of its bytes for the workers.
+   */
+  private byte[] readHeader() throws IOException {
+    ByteArrayOutputStream header = new ByteArrayOutputStream();
+    byte[] magic = readFully( MAGIC.length, header );
+    if ( !Arrays.equals( MAGIC, magic ) ) {
+      throw new IOException( "Not an Avro data file" );
+    }
+
+    // metadata map of string keys to bytes values
+    for ( long count = readLong( m_in.read(), header ); count != 0; count = readLong( m_in.read(), header ) ) {
+      if ( count < 0 ) {
+        count = -count;
+        readLong( m_in.read(), header ); // size of the map block in bytes
+      }
+      for ( long i = 0; i < count * 2; i++ ) {
+        readFully( checkedLength( readLong( m_in.read(), header ) ), header );
+      }
+    }
+
+    System.arraycopy( readFully( SYNC_SIZE, header ), 0, m_sync, 0, SYNC_SIZE );
+    return header.toByteArray();
+  }
+
+  /**
+   * Reads the next raw block: its object count, its size, its (compressed) objects and the sync marker.
+   *
+   * @return the bytes of the block, or null at the end of the file
+   */
+  private byte[] readBlock() throws IOException {
+    int first = m_in.read();
+    if ( first < 0 ) {
+      return null;
+    }
+    ByteArrayOutputStream prefix = new ByteArrayOutputStream( 20 );
+    readLong( first, prefix ); // object count
+    int size = checkedLength( readLong( m_in.read(), prefix ) );
+
+    byte[] block = new byte[prefix.size() + size + SYNC_SIZE];
+    System.arraycopy( prefix.toByteArray(), 0, block, 0, prefix.size() );
+    readFully( block, prefix.size(), size + SYNC_SIZE );
+    for ( int i = 0; i < SYNC_SIZE; i++ ) {
+      if ( block[block.length - SYNC_SIZE + i] != m_sync[i] ) {
+        throw new IOException( "Invalid sync marker" );
+      }
+    }
+    return block;
+  }
+
+  /**
+   * Reads a zig-zag encoded variable length long, copying its bytes.
+   */
+  private long readLong( int first, ByteArrayOutputStream copy ) throws IOException {
+    long n = 0;
+    int shift = 0;
+    int b = first;
+    while ( true ) {
+      if ( b < 0 ) {
+        throw new EOFException();
+      }
+      if ( shift > 63 ) {
+        throw new IOException( "Invalid long encoding" );
+      }
+      copy.write( b );
+      n |= (long) ( b & 0x7f ) << shift;
+      if ( ( b & 0x80 ) == 0 ) {
+        return ( n >>> 1 ) ^ -( n & 1 );
+      }
+      shift += 7;
+      b = m_in.read();
+    }
+  }
+
+  private static int checkedLength( long length ) throws IOException {
+    if ( length < 0 || length > Integer.MAX_VALUE - 64 ) {
+      throw new IOException( "Invalid length " + length );
+    }
+    return (int) length;
+  }
+
+  private byte[] readFully( int length, ByteArrayOutputStream copy ) throws IOException {
+    byte[] bytes = new byte[length];
+    readFully( bytes, 0, length );
+    copy.write( bytes, 0, length );
+    return bytes;
+  }
+
+  private void readFully( byte[] bytes, int offset, int length ) throws IOException {
+    int read = 0;
+    while ( read < length ) {
+      int count = m_in.read( bytes, offset + read, length - read );
+      if ( count < 0 ) {
+        throw new EOFException();
+      }
+      read += count;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    m_executor.shutdownNow();
+    m_pending.clear();
+    m_in.close();
+  }
+
+  /**
+   * Decodes blocks on one worker thread. The reader sees the header of the file followed by a single block.
+   */
+  private static final class BlockDecoder {
+    private final BlockInput m_input;
+    private final DataFileReader<Object> m_reader;
+
+    BlockDecoder( byte[] header ) throws IOException {
+      m_input = new BlockInput( header );
+      m_reader = new DataFileReader<Object>( m_input, new GenericDatumReader<Object>() );
+    }
+
+    List<Object> decode( byte[] block ) throws IOException {
+      m_input.m_block = block;
+      m_reader.seek( m_input.m_header.length );
+      List<Object> objects = new ArrayList<Object>();
+      while ( m_reader.hasNext() ) {
+        objects.add( m_reader.next( null ) );
+      }
+      return objects;
+    }
+  }
+
+  /**
+   * The header of the file followed by the block being decoded.
+   */
+  private static final class BlockInput implements SeekableInput {
+    private final byte[] m_header;
+    private byte[] m_block = new byte[0];
+    private long m_position;
+
+    BlockInput( byte[] header ) {
+      m_header = header;
+    }
+
+    @Override
+    public void seek( long p ) {
+      m_position = p;
+    }
+
+    @Override
+    public long tell() {
+      return m_position;
+    }
+
+    @Override
+    public long length() {
+      return m_header.length + m_block.length;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) {
+      if ( len == 0 ) {
+        return 0;
+      }
+      if ( m_position >= length() ) {
+        return -1;
+      }
+      int n;
+      if ( m_position < m_header.length ) {
+        n = (int) Math.min( len, m_header.length - m_position );
+        System.arraycopy( m_header, (int) m_position, b, off, n );
+      } else {
+        int blockPosition = (int) ( m_position - m_header.length );
+        n = Math.min( len, m_block.length - blockPosition );
+        System.arraycopy( m_block, blockPosition, b, off, n );
+      }
+      m_position += n;
+      return n;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -16,19 +16,24 @@ package org.pentaho.di.trans.steps.avroinput;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
 import org.apache.avro.file.DataFileStream;
 import org.apache.avro.generic.GenericContainer;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.JsonDecoder;
 import org.apache.avro.util.Utf8;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
@@ -40,6 +45,7 @@ import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
@@ -55,6 +61,18 @@ import org.pentaho.di.trans.step.StepDataInterface;
  */
 public class AvroInputData extends BaseStepData implements StepDataInterface {
 
+  /** The variable that sets the number of schemas read from incoming fields that are cached in memory */
+  public static final String SCHEMA_CACHE_SIZE_PROPERTY = "KETTLE_AVRO_INPUT_SCHEMA_CACHE_SIZE";
+
+  /** The default number of schemas read from incoming fields that are cached in memory */
+  public static final int DEFAULT_SCHEMA_CACHE_SIZE = 100;
+
+  /** The variable that sets the number of threads decoding the blocks of a container file */
+  public static final String DECODER_THREADS_PROPERTY = "KETTLE_AVRO_INPUT_DECODER_THREADS";
+
+  /** By default the blocks of a container file are decoded on the step thread */
+  public static final int DEFAULT_DECODER_THREADS = 1;
+
   /** For logging */
   protected LogChannelInterface m_log;
 
@@ -64,6 +82,16 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
   /** For reading container files - will be null if file is not a container file */
   protected DataFileStream m_containerReader;
 
+  /**
+   * For reading container files with their blocks decoded on worker threads - will be null if the file is not a
+   * container file or if its blocks are decoded on the step thread
+   */
+  protected AvroBlockReader m_blockReader;
+
+  /** The number of threads decoding the blocks of a container file */
+  protected int m_decoderThreads =
+      Const.toInt( EnvUtil.getSystemProperty( DECODER_THREADS_PROPERTY ), DEFAULT_DECODER_THREADS );
+
   /** For reading from files of just serialized objects */
   protected GenericDatumReader m_datumReader;
   protected Decoder m_decoder;
@@ -87,11 +115,28 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
   protected GenericDatumReader m_defaultDatumReader;
   protected Object m_defaultTopLevelObject;
 
+  /** The maximum number of entries of the schema caches */
+  protected int m_schemaCacheSize =
+      Const.toInt( EnvUtil.getSystemProperty( SCHEMA_CACHE_SIZE_PROPERTY ), DEFAULT_SCHEMA_CACHE_SIZE );
+
+  /**
+   * Schema cache. Map of schema fingerprints to two element array. Element 0 = GenericDatumReader configured with
+   * schema; 1 = top level structure object to use. Bounded, the least recently used schema is evicted first.
+   */
+  protected Map<Long, Object[]> m_schemaCache = boundedCache( m_schemaCacheSize );
+
   /**
-   * Schema cache. Map of strings (actual schema or path to schema) to two element array. Element 0 = GenericDatumReader
-   * configured with schema; 2 = top level structure object to use.
+   * Map of strings (actual schema or path to schema) to the fingerprint of the schema they resolved to, so that a
+   * schema is only parsed or loaded once and schemas that only differ in formatting share one cache entry.
    */
-  protected Map<String, Object[]> m_schemaCache = new HashMap<String, Object[]>();
+  protected Map<String, Long> m_schemaFingerprints = boundedCache( m_schemaCacheSize );
+
+  /** Binary decoder reused across the values of an incoming field */
+  protected BinaryDecoder m_binaryDecoder;
+
+  /** JSON decoder reused across the values of an incoming field, as long as the schema doesn't change */
+  protected JsonDecoder m_jsonDecoder;
+  protected Schema m_jsonDecoderSchema;
 
   /** True if the data to be decoded is json rather than binary */
   protected boolean m_jsonEncoded;
@@ -142,6 +187,34 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
   /** Factory for obtaining a decoder */
   protected DecoderFactory m_factory;
 
+  /**
+   * Creates a map that keeps at most the given number of entries, evicting the least recently used one.
+   *
+   * @param maxEntries
+   *          the maximum number of entries
+   * @return the map
+   */
+  protected static <K, V> Map<K, V> boundedCache( final int maxEntries ) {
+    return new LinkedHashMap<K, V>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<K, V> eldest ) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Computes the fingerprint of a schema. Uses the full JSON form of the schema rather than its parsing canonical form,
+   * which would drop defaults and logical types.
+   *
+   * @param schema
+   *          the schema
+   * @return the 64 bit fingerprint of the schema
+   */
+  protected static long fingerprint( Schema schema ) {
+    return SchemaNormalization.fingerprint64( schema.toString().getBytes( StandardCharsets.UTF_8 ) );
+  }
+
   /**
    * Cleanses a string path by ensuring that any variables names present in the path do not contain "."s (replaces any
    * dots with underscores).
@@ -1272,6 +1345,19 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
       }
     }
 
+    if ( m_containerReader != null && m_decoderThreads > 1 ) {
+      // read the container again, with its blocks decoded on worker threads
+      try {
+        m_containerReader.close();
+        m_containerReader = null;
+        m_inStream = KettleVFS.getInputStream( avroFile );
+        m_blockReader = new AvroBlockReader( m_inStream, m_decoderThreads, Thread.currentThread().getName() );
+      } catch ( IOException e ) {
+        throw new KettleException( BaseMessages.getString( AvroInputMeta.PKG, "AvroInput.Error.UnableToOpenAvroFile" ),
+            e );
+      }
+    }
+
     if ( nonContainer || jsonEncoded ) {
       if ( Const.isEmpty( readerSchemaFile ) ) {
         throw new KettleException( BaseMessages.getString( AvroInputMeta.PKG, "AvroInput.Error.NoSchema" ) );
@@ -1379,7 +1465,8 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
 
     Object[] cached = null;
     if ( useCache ) {
-      cached = m_schemaCache.get( schemaKey );
+      Long fingerprint = m_schemaFingerprints.get( schemaKey );
+      cached = fingerprint != null ? m_schemaCache.get( fingerprint ) : null;
       if ( m_log.isDetailed() && cached != null ) {
         m_log.logDetailed(
             BaseMessages.getString( AvroInputMeta.PKG, "AvroInput.Message.UsingCachedSchema", schemaKey ) );
@@ -1421,11 +1508,25 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
         Schema.Parser p = new Schema.Parser();
         toUse = p.parse( schemaKey );
       }
+      Object[] schemaInfo = null;
+      long fingerprint = 0;
+      if ( useCache ) {
+        // the same schema may already be cached under a differently formatted text or another path
+        fingerprint = fingerprint( toUse );
+        m_schemaFingerprints.put( schemaKey, fingerprint );
+        schemaInfo = m_schemaCache.get( fingerprint );
+      }
+      if ( schemaInfo != null ) {
+        m_datumReader = (GenericDatumReader) schemaInfo[0];
+        m_schemaToUse = m_datumReader.getSchema();
+        setTopLevelStructure( schemaInfo[1] );
+        return;
+      }
       m_schemaToUse = toUse;
       m_datumReader = new GenericDatumReader( toUse );
       initTopLevelStructure( toUse, false );
       if ( useCache ) {
-        Object[] schemaInfo = new Object[2];
+        schemaInfo = new Object[2];
         schemaInfo[0] = m_datumReader;
         schemaInfo[1] =
             ( m_topLevelArray != null ) ? m_topLevelArray : ( ( m_topLevelRecord != null ) ? m_topLevelRecord
@@ -1433,7 +1534,7 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
         if ( m_log.isDetailed() ) {
           m_log.logDetailed( BaseMessages.getString( AvroInputMeta.PKG, "AvroInput.Message.StoringSchemaInCache" ) );
         }
-        m_schemaCache.put( schemaKey, schemaInfo );
+        m_schemaCache.put( fingerprint, schemaInfo );
       }
     } else if ( useCache ) {
       // got one from the cache
@@ -1648,7 +1749,20 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
    */
   public Object[][] avroObjectToKettle( Bowl bowl, Object[] incoming, VariableSpace space ) throws KettleException {
 
-    if ( m_containerReader != null ) {
+    if ( m_blockReader != null ) {
+      // container file decoded on worker threads, objects are not reused
+      try {
+        Object next = m_blockReader.next();
+        if ( next == null ) {
+          return null; // no more input
+        }
+        setTopLevelStructure( next );
+
+        return setKettleFields( incoming, space );
+      } catch ( IOException e ) {
+        throw new KettleException( BaseMessages.getString( AvroInputMeta.PKG, "AvroInput.Error.ObjectReadError" ), e );
+      }
+    } else if ( m_containerReader != null ) {
       // container file
       try {
         if ( m_containerReader.hasNext() ) {
@@ -1705,17 +1819,25 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
             setSchemaToUse( bowl, schemaToUse, m_cacheSchemas, space );
           }
 
+          // decoders are reconfigured for every value rather than created anew
           if ( m_jsonEncoded ) {
             try {
               String fieldValue = fieldMeta.getString( incoming[m_fieldToDecodeIndex] );
-              m_decoder = m_factory.jsonDecoder( m_schemaToUse, fieldValue );
+              if ( m_jsonDecoder == null || m_jsonDecoderSchema != m_schemaToUse ) {
+                m_jsonDecoder = m_factory.jsonDecoder( m_schemaToUse, fieldValue );
+                m_jsonDecoderSchema = m_schemaToUse;
+              } else {
+                m_jsonDecoder.configure( fieldValue );
+              }
+              m_decoder = m_jsonDecoder;
             } catch ( IOException e ) {
               throw new KettleException(
                   BaseMessages.getString( AvroInputMeta.PKG, "AvroInput.Error.JsonDecoderError" ) );
             }
           } else {
             byte[] fieldValue = fieldMeta.getBinary( incoming[m_fieldToDecodeIndex] );
-            m_decoder = m_factory.binaryDecoder( fieldValue, null );
+            m_binaryDecoder = m_factory.binaryDecoder( fieldValue, m_binaryDecoder );
+            m_decoder = m_binaryDecoder;
           }
         }
 
@@ -1748,6 +1870,9 @@ public class AvroInputData extends BaseStepData implements StepDataInterface {
   }
 
   public void close() throws IOException {
+    if ( m_blockReader != null ) {
+      m_blockReader.close();
+    }
     if ( m_containerReader != null ) {
       m_containerReader.close();
     }
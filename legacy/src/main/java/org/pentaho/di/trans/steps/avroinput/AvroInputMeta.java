@@ -15,6 +15,7 @@
 package org.pentaho.di.trans.steps.avroinput;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -199,7 +200,68 @@ public class AvroInputMeta extends BaseStepMeta implements StepMetaInterface {
                                  // row structure
     private ValueMeta m_tempValueMeta;
     private List<String> m_pathParts;
-    private List<String> m_tempParts;
+
+    /** true if the path refers to variables, which are then resolved again for every Avro object */
+    private boolean m_pathHasVariables;
+
+    /** the resolved path parts that m_steps were compiled from */
+    private String[] m_resolvedParts;
+
+    /** the path split into record field names and bracketed array indexes/map keys */
+    private PathStep[] m_steps = new PathStep[0];
+
+    /** the index of the step to take next when converting the current Avro object */
+    private int m_nextStep;
+
+    /**
+     * One step of a compiled path: either the name of a record field or a bracketed array index or map key. The map
+     * key, the array index and the record field (for the last record schema seen) are looked up once and then reused
+     * for every Avro object.
+     */
+    private static final class PathStep {
+      private final String m_part;
+      private Utf8 m_key;
+      private Integer m_index;
+      private Schema m_recordSchema;
+      private Schema.Field m_recordField;
+
+      PathStep( String part ) {
+        m_part = part;
+      }
+
+      Utf8 key() {
+        if ( m_key == null ) {
+          m_key = new Utf8( m_part.substring( 1, m_part.indexOf( ']' ) ) );
+        }
+        return m_key;
+      }
+
+      int index() throws KettleException {
+        if ( m_index == null ) {
+          String index = m_part.substring( 1, m_part.indexOf( ']' ) );
+          try {
+            m_index = Integer.parseInt( index.trim() );
+          } catch ( NumberFormatException e ) {
+            throw new KettleException(
+                BaseMessages.getString( PKG, "AvroInput.Error.UnableToParseArrayIndex", index ) );
+          }
+        }
+        return m_index;
+      }
+
+      Schema.Field recordField( Schema s ) {
+        if ( s != m_recordSchema ) {
+          m_recordField = s.getField( m_part );
+          m_recordSchema = s;
+        }
+        return m_recordField;
+      }
+
+      @Override
+      public String toString() {
+        return m_part;
+      }
+    }
 
     /**
      * Initialize this field by parsing the path etc.
@@ -234,7 +296,11 @@ public class AvroInputMeta extends BaseStepMeta implements StepMetaInterface {
         m_pathParts.set( 0, r );
       }
 
-      m_tempParts = new ArrayList<String>();
+      for ( String part : m_pathParts ) {
+        if ( part.contains( "${" ) || part.contains( "%%" ) || part.contains( "$[" ) ) {
+          m_pathHasVariables = true;
+        }
+      }
 
       m_tempValueMeta = new ValueMeta();
       m_tempValueMeta.setType( ValueMeta.getType( m_kettleType ) );
@@ -248,14 +314,60 @@ public class AvroInputMeta extends BaseStepMeta implements StepMetaInterface {
      *          environment variables (values that environment variables resolve to cannot contain "."s)
      */
     public void reset( VariableSpace space ) {
-      // first clear because there may be stuff left over from processing
-      // the previous avro object (especially if a path exited early due to
-      // non-existent map key or array index out of bounds)
-      m_tempParts.clear();
+      // the path is only compiled again if its variables now resolve differently
+      if ( m_resolvedParts == null || m_pathHasVariables ) {
+        String[] resolved = new String[m_pathParts.size()];
+        for ( int i = 0; i < resolved.length; i++ ) {
+          String part = m_pathParts.get( i );
+          resolved[i] = m_pathHasVariables ? space.environmentSubstitute( part ) : part;
+        }
+        if ( !Arrays.equals( resolved, m_resolvedParts ) ) {
+          m_steps = compilePath( resolved );
+          m_resolvedParts = resolved;
+        }
+      }
 
-      for ( String part : m_pathParts ) {
-        m_tempParts.add( space.environmentSubstitute( part ) );
+      // start from the first step, there may be steps left over from the
+      // previous avro object (if a path exited early due to a non-existent
+      // map key or array index out of bounds)
+      m_nextStep = 0;
+    }
+
+    /**
+     * Splits resolved path parts into steps, separating record field names from the array indexes/map keys that follow
+     * them (e.g. "a[0][key]" becomes "a", "[0]" and "[key]").
+     *
+     * @param parts
+     *          the resolved path parts
+     * @return the steps of the path
+     */
+    private static PathStep[] compilePath( String[] parts ) {
+      List<PathStep> steps = new ArrayList<PathStep>();
+      for ( String part : parts ) {
+        if ( part.length() == 0 ) {
+          // malformed, left for the conversion to fail on
+          steps.add( new PathStep( part ) );
+        }
+        while ( part.length() > 0 ) {
+          // a step ends after a closing bracket or before an opening one
+          int end = part.charAt( 0 ) == '[' ? part.indexOf( ']' ) + 1 : part.indexOf( '[' );
+          if ( end <= 0 || end == part.length() ) {
+            steps.add( new PathStep( part ) );
+            break;
+          }
+          steps.add( new PathStep( part.substring( 0, end ) ) );
+          part = part.substring( end );
+        }
       }
+      return steps.toArray( new PathStep[steps.size()] );
+    }
+
+    private boolean hasNextStep() {
+      return m_nextStep < m_steps.length;
+    }
+
+    private List<PathStep> remainingSteps() {
+      return Arrays.asList( m_steps ).subList( m_nextStep, m_steps.length );
     }
 
     /**
@@ -373,24 +485,16 @@ public class AvroInputMeta extends BaseStepMeta implements StepMetaInterface {
         return null;
       }
 
-      if ( m_tempParts.size() == 0 ) {
+      if ( !hasNextStep() ) {
         throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathMap" ) );
       }
 
-      String part = m_tempParts.remove( 0 );
-      if ( !( part.charAt( 0 ) == '[' ) ) {
-        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathMap2", part ) );
-      }
-
-      String key = part.substring( 1, part.indexOf( ']' ) );
-
-      if ( part.indexOf( ']' ) < part.length() - 1 ) {
-        // more dimensions to the array/map
-        part = part.substring( part.indexOf( ']' ) + 1, part.length() );
-        m_tempParts.add( 0, part );
+      PathStep step = m_steps[m_nextStep++];
+      if ( !( step.m_part.charAt( 0 ) == '[' ) ) {
+        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathMap2", step.m_part ) );
       }
 
-      Object value = map.get( new Utf8( key ) );
+      Object value = map.get( step.key() );
       if ( value == null ) {
         return null;
       }
@@ -466,28 +570,16 @@ public class AvroInputMeta extends BaseStepMeta implements StepMetaInterface {
         return null;
       }
 
-      if ( m_tempParts.size() == 0 ) {
+      if ( !hasNextStep() ) {
         throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathArray" ) );
       }
 
-      String part = m_tempParts.remove( 0 );
-      if ( !( part.charAt( 0 ) == '[' ) ) {
-        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathArray2", part ) );
-      }
-
-      String index = part.substring( 1, part.indexOf( ']' ) );
-      int arrayI = 0;
-      try {
-        arrayI = Integer.parseInt( index.trim() );
-      } catch ( NumberFormatException e ) {
-        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.UnableToParseArrayIndex", index ) );
+      PathStep step = m_steps[m_nextStep++];
+      if ( !( step.m_part.charAt( 0 ) == '[' ) ) {
+        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathArray2", step.m_part ) );
       }
 
-      if ( part.indexOf( ']' ) < part.length() - 1 ) {
-        // more dimensions to the array
-        part = part.substring( part.indexOf( ']' ) + 1, part.length() );
-        m_tempParts.add( 0, part );
-      }
+      int arrayI = step.index();
 
       if ( arrayI >= array.size() || arrayI < 0 ) {
         return null;
@@ -569,29 +661,23 @@ public class AvroInputMeta extends BaseStepMeta implements StepMetaInterface {
         return null;
       }
 
-      if ( m_tempParts.size() == 0 ) {
+      if ( !hasNextStep() ) {
         throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.MalformedPathRecord" ) );
       }
 
-      String part = m_tempParts.remove( 0 );
+      PathStep step = m_steps[m_nextStep++];
+      String part = step.m_part;
       if ( part.charAt( 0 ) == '[' ) {
-        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.InvalidPath" ) + m_tempParts );
-      }
-
-      if ( part.indexOf( '[' ) > 0 ) {
-        String arrayPart = part.substring( part.indexOf( '[' ) );
-        part = part.substring( 0, part.indexOf( '[' ) );
-
-        // put the array section back into location zero
-        m_tempParts.add( 0, arrayPart );
+        throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.InvalidPath" ) + remainingSteps() );
       }
 
       // part is a named field of the record
-      Schema.Field fieldS = s.getField( part );
+      Schema.Field fieldS = step.recordField( s );
       if ( fieldS == null && !ignoreMissing ) {
         throw new KettleException( BaseMessages.getString( PKG, "AvroInput.Error.NonExistentField", part ) );
       }
-      Object field = record.get( part );
+      // read by position when the field was looked up in the record's own schema
+      Object field = fieldS != null && record.getSchema() == s ? record.get( fieldS.pos() ) : record.get( part );
 
       if ( field == null ) {
         fieldS = defaultSchema.getField( part );
@@ -14,6 +14,11 @@
 
 package org.pentaho.di.trans.steps.couchdbinput;
 
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
@@ -41,12 +46,25 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 
-import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 
 public class CouchDbInput extends BaseStep implements StepInterface {
   private static Class<?> PKG = CouchDbInputMeta.class; // for i18n purposes, needed by Translator2!! $NON-NLS-1$
 
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  // Rows are passed on as compact JSON, decimal numbers are kept as exact BigDecimals rather than rounded to doubles
+  private static final ObjectMapper MAPPER = new ObjectMapper()
+    .enable( DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS )
+    .setNodeFactory( JsonNodeFactory.withExactBigDecimals( true ) );
+
   private final HttpClientFactory httpClientFactory = new HttpClientFactory();
   private final HttpClientManager httpClientManager = createHttpClientManager();
 
@@ -89,143 +107,181 @@ public class CouchDbInput extends BaseStep implements StepInterface {
         meta.getFields( getTransMeta().getBowl(), data.outputRowMeta, getStepname(), null, null, this, repository,
                         metaStore );
 
-        // Skip over first introduction row containing the number of results...
+        // Skip over the header containing the number of results, up to the rows...
         //
         // Example: {"total_rows":3,"offset":0,"rows":[
         //
-        data.buffer = new StringBuilder( 1000 );
-        data.open = 0;
-        boolean cont = true;
-        int c = data.bufferedInputStream.read();
-        while ( c >= 0 && cont && !isStopped() ) {
-          data.buffer.append( (char) c );
-
-          switch ( (char) c ) {
-            case '{':
-              data.open++;
-
-              // Second JSON nested block means: another row of data...
-              if ( data.open == 2 ) {
-                logBasic( "Read header: >>" + data.buffer.substring( 0, data.buffer.length() - 1 ) + "<<" );
-                data.buffer.delete( 0, data.buffer.length() - 1 );
-                cont = false; // Stop the while loop.
-              }
-
-              break;
-            case '}':
-              data.open--;
-              break;
-
-            case '"':
-              // skip until the next "
-              //
-              int prev = c;
-              c = data.bufferedInputStream.read();
-              while ( c != '"' && prev != '\\' && c >= 0 ) {
-                data.buffer.append( (char) c );
-                prev = c;
-                c = data.bufferedInputStream.read();
-              }
-          }
-
-          if ( cont ) {
-            c = data.bufferedInputStream.read();
-          }
-        }
-
-        if ( c < 0 ) {
+        if ( !openRows( true ) ) {
           setOutputDone();
           return false;
         }
       }
 
-      // read one JSON block from the data until no data is left on the input stream
-      //
-      boolean cont = true;
-      int c = data.bufferedInputStream.read();
-      while ( c >= 0 && cont && !isStopped() ) {
-        data.buffer.append( (char) c );
-
-        switch ( (char) c ) {
-          case '{':
-            data.open++;
-
-            // Second JSON nested block means: another row of data...
-            if ( data.open == 2 ) {
-
-              sendBufferRow( false );
+      JsonNode row = nextRow();
+      if ( row == null ) {
+        setOutputDone();
+        return false;
+      }
+      sendRow( row );
 
-              cont = false; // Stop the while loop.
-            }
+      return true;
+    } catch ( IOException e ) {
+      throw new KettleException( "Unable to read from the CouchDB REST web service", e );
+    }
+  }
 
-            break;
-          case '}':
-            data.open--;
-            break;
-        }
+  /**
+   * Opens a parser on the current response and positions it at the start of the rows array.
+   *
+   * @return false if the response holds no rows
+   */
+  private boolean openRows( boolean firstPage ) throws IOException {
+    data.parser = MAPPER.getFactory().createParser(
+      new BufferedReader( new InputStreamReader( data.inputStream, StandardCharsets.UTF_8 ), READ_BUFFER_SIZE ) );
+    if ( data.parser.nextToken() != JsonToken.START_OBJECT ) {
+      return false;
+    }
 
-        if ( cont ) {
-          c = data.bufferedInputStream.read();
+    StringBuilder header = new StringBuilder();
+    while ( data.parser.nextToken() == JsonToken.FIELD_NAME ) {
+      String field = data.parser.getCurrentName();
+      JsonToken value = data.parser.nextToken();
+      if ( "rows".equals( field ) && value == JsonToken.START_ARRAY ) {
+        if ( firstPage ) {
+          logBasic( "Read header: >>" + header + "<<" );
+        } else if ( log.isDetailed() ) {
+          logDetailed( "Read header: >>" + header + "<<" );
         }
+        return true;
       }
+      header.append( header.length() > 0 ? "," : "" ).append( field ).append( ':' )
+        .append( value.isScalarValue() ? data.parser.getText() : "..." );
+      data.parser.skipChildren();
+    }
+    return false;
+  }
 
-      if ( c < 0 ) {
-        if ( data.buffer.length() > 0 ) {
-          sendBufferRow( true );
-        }
-        setOutputDone();
-        return false;
+  /**
+   * Reads the next row of the view, requesting the next page when the current one is exhausted.
+   *
+   * @return the next row, or null when all the rows have been read
+   */
+  private JsonNode nextRow() throws IOException, KettleException {
+    while ( !isStopped() ) {
+      JsonToken token = data.parser.nextToken();
+      if ( token == null || token == JsonToken.END_ARRAY ) {
+        return null;
+      }
+      if ( token != JsonToken.START_OBJECT ) {
+        data.parser.skipChildren();
+        continue;
       }
 
-      return true;
-    } catch ( IOException e ) {
-      throw new KettleException( "Unable to read from the CouchDB REST web service", e );
+      JsonNode row = MAPPER.readTree( data.parser );
+      if ( data.pageSize > 0 && ++data.rowsInPage > data.pageSize ) {
+        // One row more than a page is requested: it is the first row of the next page.
+        //
+        nextPage( row );
+        continue;
+      }
+      return row;
     }
+    return null;
   }
 
-  private void sendBufferRow( boolean lastRow ) throws KettleStepException {
+  /**
+   * Requests the page of the view starting at the given row. Rows are addressed by key and, since several rows can
+   * share the same key, by document id.
+   */
+  private void nextPage( JsonNode firstRow ) throws IOException, KettleException {
+    String startKey = MAPPER.writeValueAsString( firstRow.get( "key" ) );
+    JsonNode id = firstRow.get( "id" );
+    String startDocId = id != null && id.isTextual() ? id.asText() : null;
+    if ( startKey.equals( data.startKey ) && Objects.equals( startDocId, data.startDocId ) ) {
+      throw new KettleException( "Unable to page through the CouchDB view: more than " + data.pageSize
+        + " rows have key " + startKey + ( startDocId != null ? " and document id " + startDocId : "" ) );
+    }
+    data.startKey = startKey;
+    data.startDocId = startDocId;
+    closeResponse();
 
-    int pos = data.buffer.length() - 2;
+    String url = pageUrl();
+    if ( log.isDetailed() ) {
+      logDetailed( "Querying CouchDB view on URL: " + url );
+    }
+    HttpResponse httpResponse = execute( url );
+    int result = httpResponse.getStatusLine().getStatusCode();
+    data.inputStream = httpResponse.getEntity().getContent();
+    if ( result < 200 || result >= 300 ) {
+      throw new KettleException( "Web request returned code " + result + " : " + readBody( data.inputStream ) );
+    }
+    if ( !openRows( false ) ) {
+      throw new KettleException( "No rows returned by the CouchDB view on URL: " + url );
+    }
+    data.rowsInPage = 0;
+  }
 
-    if ( lastRow ) {
-      // Get rid of any ]} at the end of the last row.
-      //
-      pos = removeTrailingSpaces( data.buffer, pos );
-      pos = removeTrailingCharacter( data.buffer, pos, '}' );
-      pos = removeTrailingSpaces( data.buffer, pos );
-      pos = removeTrailingCharacter( data.buffer, pos, ']' );
+  /**
+   * @return the URL of the current page, one row more than the page size is requested to find the start of the next
+   */
+  private String pageUrl() throws IOException {
+    if ( data.pageSize <= 0 ) {
+      return data.url;
+    }
+    // a view name like view?reduce=false already brings a query string of its own
+    StringBuilder url = new StringBuilder( data.url ).append( data.url.indexOf( '?' ) >= 0 ? '&' : '?' )
+      .append( "limit=" ).append( data.pageSize + 1 );
+    if ( data.startKey != null ) {
+      url.append( "&startkey=" ).append( URLEncoder.encode( data.startKey, "UTF-8" ) );
+      if ( data.startDocId != null ) {
+        url.append( "&startkey_docid=" ).append( URLEncoder.encode( data.startDocId, "UTF-8" ) );
+      }
     }
+    return url.toString();
+  }
 
-    pos = removeTrailingSpaces( data.buffer, pos );
-    pos = removeTrailingCharacter( data.buffer, pos, ',' );
+  private HttpResponse execute( String url ) throws IOException {
+    HttpGet method = getMethodFactory.create( url );
+    return data.context != null ? data.client.execute( method, data.context ) : data.client.execute( method );
+  }
 
-    String json = data.buffer.substring( 0, pos + 1 );
-    data.buffer.delete( 0, data.buffer.length() - 1 );
+  private static String readBody( InputStream inputStream ) throws IOException {
+    StringBuilder body = new StringBuilder();
+    if ( inputStream != null ) {
+      Reader reader = new InputStreamReader( inputStream, StandardCharsets.UTF_8 );
+      char[] buffer = new char[ 1024 ];
+      int n;
+      while ( ( n = reader.read( buffer ) ) >= 0 ) {
+        body.append( buffer, 0, n );
+      }
+    }
+    return body.toString();
+  }
+
+  private void sendRow( JsonNode row ) throws IOException, KettleStepException {
+    String json = MAPPER.writeValueAsString( row );
 
     if ( log.isDebug() ) {
       logDebug( "Read row: " + json );
     }
-    Object[] row = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    Object[] outputRow = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
     int index = 0;
-    row[ index++ ] = json;
+    outputRow[ index++ ] = json;
 
     // putRow will send the row on to the default output hop.
     //
-    putRow( data.outputRowMeta, row );
-  }
-
-  private int removeTrailingCharacter( StringBuilder buffer, int pos, char c ) {
-    if ( data.buffer.charAt( pos ) == c ) {
-      pos--;
-    }
-    return pos;
+    putRow( data.outputRowMeta, outputRow );
   }
 
-  private int removeTrailingSpaces( StringBuilder buffer, int pos ) {
-    while ( pos >= 0 && Const.isSpace( data.buffer.charAt( pos ) ) ) {
-      pos--;
+  private void closeResponse() throws IOException {
+    if ( data.parser != null ) {
+      // closes the underlying stream as well
+      data.parser.close();
+      data.parser = null;
+    } else if ( data.inputStream != null ) {
+      data.inputStream.close();
     }
-    return pos;
+    data.inputStream = null;
   }
 
   public boolean init( StepMetaInterface stepMetaInterface, StepDataInterface stepDataInterface ) {
@@ -253,40 +309,36 @@ public class CouchDbInput extends BaseStep implements StepInterface {
       String realPass =
         Encr.decryptPasswordOptionallyEncrypted( environmentSubstitute( meta.getAuthenticationPassword() ) );
 
-      String url = buildUrl( hostname, port, db, design, view );
-
-      logBasic( "Querying CouchDB view on URL: " + url );
+      data.url = buildUrl( hostname, port, db, design, view );
+      data.pageSize = Math.max( 0, Const.toInt( environmentSubstitute( meta.getPageSize() ), 0 ) );
+      data.rowsInPage = 0;
+      data.startKey = null;
+      data.startDocId = null;
 
       try {
-        HttpClient client = createHttpClient( realUser, realPass );
+        String url = pageUrl();
+        logBasic( "Querying CouchDB view on URL: " + url );
 
-        HttpGet method = getMethodFactory.create( url );
+        data.client = createHttpClient( realUser, realPass );
 
         // Execute request
         data.inputStream = null;
-        data.bufferedInputStream = null;
+        data.parser = null;
 
         //Client Preemptive Basic Authentication
-        HttpClientContext context = null;
+        data.context = null;
         if ( StringUtils.isNotBlank( hostname ) ) {
-          context = getHttpClientContext( hostname, port );
+          data.context = getHttpClientContext( hostname, port );
         }
 
-        HttpResponse httpResponse =
-          context != null ? client.execute( method, context ) : client.execute( method );
+        HttpResponse httpResponse = execute( url );
         int result = httpResponse.getStatusLine().getStatusCode();
 
         // the response
         data.inputStream = httpResponse.getEntity().getContent();
-        data.bufferedInputStream = new BufferedInputStream( data.inputStream, 1000 );
 
         if ( result < 200 || result >= 300 ) {
-          StringBuilder err = new StringBuilder();
-          int c;
-          while ( ( c = data.bufferedInputStream.read() ) >= 0 ) {
-            err.append( (char) c );
-          }
-          logError( "Web request returned code " + result + " : " + err.toString() );
+          logError( "Web request returned code " + result + " : " + readBody( data.inputStream ) );
           return false;
         }
 
@@ -305,13 +357,11 @@ public class CouchDbInput extends BaseStep implements StepInterface {
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
 
-    if ( data.bufferedInputStream != null ) {
-      try {
-        data.bufferedInputStream.close();
-      } catch ( Exception e ) {
-        setErrors( 1 );
-        logError( "Error closing data stream", e );
-      }
+    try {
+      closeResponse();
+    } catch ( Exception e ) {
+      setErrors( 1 );
+      logError( "Error closing data stream", e );
     }
 
     super.dispose( smi, sdi );
@@ -14,9 +14,11 @@
 
 package org.pentaho.di.trans.steps.couchdbinput;
 
-import java.io.BufferedInputStream;
 import java.io.InputStream;
 
+import com.fasterxml.jackson.core.JsonParser;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -30,10 +32,18 @@ public class CouchDbInputData extends BaseStepData implements StepDataInterface
 
   public int counter;
 
+  public HttpClient client;
+  public HttpClientContext context;
+  public String url;
+
   public InputStream inputStream;
-  public BufferedInputStream bufferedInputStream;
+  public JsonParser parser;
 
-  public StringBuilder buffer;
+  /** The number of rows requested at a time, 0 when the view is read with a single request */
+  public int pageSize;
+  public int rowsInPage;
 
-  public int open;
+  /** The key (as JSON) and document id of the first row of the current page */
+  public String startKey;
+  public String startDocId;
 }
@@ -83,6 +83,9 @@ public class CouchDbInputMeta extends BaseStepMeta implements StepMetaInterface
   @Injection( name = "AUTHENTICATION_PASSWORD" )
   private String authenticationPassword;
 
+  @Injection( name = "PAGE_SIZE" )
+  private String pageSize;
+
   @Override
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore )
     throws KettleXMLException {
@@ -95,6 +98,7 @@ public class CouchDbInputMeta extends BaseStepMeta implements StepMetaInterface
       authenticationUser = XMLHandler.getTagValue( stepnode, "auth_user" ); //$NON-NLS-1$
       authenticationPassword =
         Encr.decryptPasswordOptionallyEncrypted( XMLHandler.getTagValue( stepnode, "auth_password" ) ); //$NON-NLS-1$
+      pageSize = XMLHandler.getTagValue( stepnode, "page_size" ); //$NON-NLS-1$
     } catch ( Exception e ) {
       throw new KettleXMLException( BaseMessages.getString( PKG, "CouchDbInputMeta.Exception.UnableToLoadStepInfo" ),
         e ); //$NON-NLS-1$
@@ -135,6 +139,7 @@ public class CouchDbInputMeta extends BaseStepMeta implements StepMetaInterface
     retval.append( "    " ).append( XMLHandler.addTagValue( "auth_user", authenticationUser ) );
     retval.append( "    " ).append(
       XMLHandler.addTagValue( "auth_password", Encr.encryptPasswordIfNotUsingVariables( authenticationPassword ) ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "page_size", pageSize ) ); //$NON-NLS-1$ //$NON-NLS-2$
 
     return retval.toString();
   }
@@ -151,6 +156,7 @@ public class CouchDbInputMeta extends BaseStepMeta implements StepMetaInterface
       authenticationUser = rep.getStepAttributeString( id_step, "auth_user" );
       authenticationPassword =
         Encr.decryptPasswordOptionallyEncrypted( rep.getStepAttributeString( id_step, "auth_password" ) );
+      pageSize = rep.getStepAttributeString( id_step, "page_size" ); //$NON-NLS-1$
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString( PKG,
         "CouchDbInputMeta.Exception.UnexpectedErrorWhileReadingStepInfo" ), e ); //$NON-NLS-1$
@@ -169,6 +175,7 @@ public class CouchDbInputMeta extends BaseStepMeta implements StepMetaInterface
       rep.saveStepAttribute( id_transformation, id_step, "auth_user", authenticationUser );
       rep.saveStepAttribute( id_transformation, id_step, "auth_password", Encr
         .encryptPasswordIfNotUsingVariables( authenticationPassword ) );
+      rep.saveStepAttribute( id_transformation, id_step, "page_size", pageSize ); //$NON-NLS-1$
     } catch ( Exception e ) {
       throw new KettleException(
         BaseMessages.getString( PKG, "CouchDbInputMeta.Exception.UnableToSaveStepInfo" ) + id_step, e ); //$NON-NLS-1$
@@ -284,4 +291,18 @@ public class CouchDbInputMeta extends BaseStepMeta implements StepMetaInterface
     this.designDocument = designDocument;
   }
 
+  /**
+   * @return the number of rows to request from the view at a time, empty or 0 to read the view with a single request
+   */
+  public String getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * @param pageSize the number of rows to request from the view at a time
+   */
+  public void setPageSize( String pageSize ) {
+    this.pageSize = pageSize;
+  }
+
 }
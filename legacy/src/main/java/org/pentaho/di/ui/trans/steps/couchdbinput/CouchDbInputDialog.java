@@ -55,6 +55,7 @@ public class CouchDbInputDialog extends BaseStepDialog implements StepDialogInte
   private TextVar wDbName;
   private TextVar wDesignDocument;
   private TextVar wViewName;
+  private TextVar wPageSize;
 
   private TextVar wAuthUser;
   private TextVar wAuthPass;
@@ -211,6 +212,26 @@ public class CouchDbInputDialog extends BaseStepDialog implements StepDialogInte
     wViewName.setLayoutData( fdViewName );
     lastControl = wViewName;
 
+    // rows per request ...
+    //
+    Label wlPageSize = new Label( shell, SWT.RIGHT );
+    wlPageSize.setText( BaseMessages.getString( PKG, "CouchDbInputDialog.PageSize.Label" ) ); //$NON-NLS-1$
+    props.setLook( wlPageSize );
+    FormData fdlPageSize = new FormData();
+    fdlPageSize.left = new FormAttachment( 0, 0 );
+    fdlPageSize.right = new FormAttachment( middle, -margin );
+    fdlPageSize.top = new FormAttachment( lastControl, margin );
+    wlPageSize.setLayoutData( fdlPageSize );
+    wPageSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPageSize );
+    wPageSize.addModifyListener( lsMod );
+    FormData fdPageSize = new FormData();
+    fdPageSize.left = new FormAttachment( middle, 0 );
+    fdPageSize.top = new FormAttachment( lastControl, margin );
+    fdPageSize.right = new FormAttachment( 100, 0 );
+    wPageSize.setLayoutData( fdPageSize );
+    lastControl = wPageSize;
+
     // Authentication...
     //
     // AuthUser line
@@ -297,6 +318,7 @@ public class CouchDbInputDialog extends BaseStepDialog implements StepDialogInte
     wHostname.addSelectionListener( lsDef );
     wDbName.addSelectionListener( lsDef );
     wViewName.addSelectionListener( lsDef );
+    wPageSize.addSelectionListener( lsDef );
     wAuthUser.addSelectionListener( lsDef );
     wAuthPass.addSelectionListener( lsDef );
 
@@ -331,6 +353,7 @@ public class CouchDbInputDialog extends BaseStepDialog implements StepDialogInte
     wDbName.setText( Const.NVL( input.getDbName(), "" ) ); //$NON-NLS-1$
     wDesignDocument.setText( Const.NVL( input.getDesignDocument(), "" ) ); //$NON-NLS-1$
     wViewName.setText( Const.NVL( input.getViewName(), "" ) ); //$NON-NLS-1$
+    wPageSize.setText( Const.NVL( input.getPageSize(), "" ) ); //$NON-NLS-1$
 
     wAuthUser.setText( Const.NVL( input.getAuthenticationUser(), "" ) ); // $NON-NLS-1$
     wAuthPass.setText( Const.NVL( input.getAuthenticationPassword(), "" ) ); // $NON-NLS-1$
@@ -351,6 +374,7 @@ public class CouchDbInputDialog extends BaseStepDialog implements StepDialogInte
     meta.setDbName( wDbName.getText() );
     meta.setDesignDocument( wDesignDocument.getText() );
     meta.setViewName( wViewName.getText() );
+    meta.setPageSize( wPageSize.getText() );
 
     meta.setAuthenticationUser( wAuthUser.getText() );
     meta.setAuthenticationPassword( wAuthPass.getText() );
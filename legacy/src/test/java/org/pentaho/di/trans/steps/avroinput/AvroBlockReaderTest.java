@@ -0,0 +1,101 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 - 2026 by Pentaho Canada Inc. : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2030-06-15
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.steps.avroinput;
+
+import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AvroBlockReaderTest {
+  private static final Schema SCHEMA = new Schema.Parser().parse( "{\"type\":\"record\",\"name\":\"r\",\"fields\":["
+    + "{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"string\"}]}" );
+
+  private static byte[] containerFile( CodecFactory codec, int records ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataFileWriter<GenericRecord> writer = new DataFileWriter<GenericRecord>( new GenericDatumWriter<GenericRecord>() );
+    writer.setCodec( codec );
+    writer.setSyncInterval( 64 ); // many small blocks
+    writer.setMeta( "origin", "test" );
+    writer.create( SCHEMA, out );
+    for ( int i = 0; i < records; i++ ) {
+      GenericData.Record record = new GenericData.Record( SCHEMA );
+      record.put( "id", (long) i );
+      record.put( "name", "name " + i );
+      writer.append( record );
+    }
+    writer.close();
+    return out.toByteArray();
+  }
+
+  private static void assertReadsInOrder( byte[] file, int records, int threads ) throws IOException {
+    try ( AvroBlockReader reader = new AvroBlockReader( new ByteArrayInputStream( file ), threads, "test" ) ) {
+      for ( int i = 0; i < records; i++ ) {
+        GenericRecord record = (GenericRecord) reader.next();
+        assertEquals( (long) i, record.get( "id" ) );
+        assertEquals( "name " + i, record.get( "name" ).toString() );
+      }
+      assertNull( reader.next() );
+      assertNull( reader.next() );
+    }
+  }
+
+  @Test
+  public void testBlocksAreDecodedInFileOrder() throws Exception {
+    assertReadsInOrder( containerFile( CodecFactory.nullCodec(), 1000 ), 1000, 3 );
+  }
+
+  @Test
+  public void testCompressedBlocksAreDecoded() throws Exception {
+    assertReadsInOrder( containerFile( CodecFactory.deflateCodec( 6 ), 1000 ), 1000, 4 );
+  }
+
+  @Test
+  public void testSingleWorker() throws Exception {
+    assertReadsInOrder( containerFile( CodecFactory.deflateCodec( 1 ), 100 ), 100, 1 );
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    assertReadsInOrder( containerFile( CodecFactory.nullCodec(), 0 ), 0, 2 );
+  }
+
+  @Test( expected = IOException.class )
+  public void testNonContainerFileIsRejected() throws Exception {
+    new AvroBlockReader( new ByteArrayInputStream( "{\"id\":1}".getBytes( "UTF-8" ) ), 2, "test" );
+  }
+
+  @Test( expected = IOException.class )
+  public void testCorruptSyncMarkerIsReported() throws Exception {
+    byte[] file = containerFile( CodecFactory.nullCodec(), 100 );
+    // the last bytes of the file are the sync marker of the last block
+    file[file.length - 1] ^= 0x7f;
+    try ( AvroBlockReader reader = new AvroBlockReader( new ByteArrayInputStream( file ), 2, "test" ) ) {
+      while ( reader.next() != null ) {
+        // read up to the corrupt block
+      }
+    }
+  }
+}
@@ -14,26 +14,162 @@
 
 package org.pentaho.di.trans.steps.avroinput;
 
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.util.Utf8;
+import org.junit.BeforeClass;
 import org.junit.Test;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettlePluginException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.plugins.PluginRegistry;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaPluginType;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.variables.Variables;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
 
 /**
  * Created by bryan on 10/21/15.
  */
 public class AvroInputDataTest {
+  private static final String NESTED_SCHEMA = "{\"type\":\"record\",\"name\":\"outer\",\"fields\":["
+    + "{\"name\":\"inner\",\"type\":{\"type\":\"record\",\"name\":\"inner\",\"fields\":["
+    + "{\"name\":\"values\",\"type\":{\"type\":\"array\",\"items\":\"long\"}}]}}]}";
+
+  @BeforeClass
+  public static void before() throws KettlePluginException {
+    PluginRegistry.addPluginType( ValueMetaPluginType.getInstance() );
+    PluginRegistry.init( false );
+  }
+
+  private static AvroInputData dataDecodingField( Schema schema, boolean jsonEncoded ) throws KettleException {
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( jsonEncoded ? new ValueMetaString( "avro" ) : new ValueMetaBinary( "avro" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+
+    AvroInputMeta.AvroField field = new AvroInputMeta.AvroField();
+    field.m_fieldName = "value";
+    field.m_fieldPath = "$.inner.values[1]";
+    field.m_kettleType = "Integer";
+
+    AvroInputData data = new AvroInputData();
+    data.setOutputRowMeta( rowMeta );
+    data.m_log = mock( LogChannelInterface.class );
+    data.m_decodingFromField = true;
+    data.m_jsonEncoded = jsonEncoded;
+    data.m_fieldToDecodeIndex = 0;
+    data.m_newFieldOffset = 1;
+    data.m_schemaToUse = schema;
+    data.m_defaultSchema = schema;
+    data.m_datumReader = new GenericDatumReader( schema );
+    data.m_defaultDatumReader = data.m_datumReader;
+    data.m_factory = new DecoderFactory();
+    data.m_normalFields = new ArrayList<AvroInputMeta.AvroField>( Collections.singletonList( field ) );
+    data.init();
+    return data;
+  }
+
+  private static byte[] encode( Schema schema, long first, long second ) throws IOException {
+    GenericData.Record inner = new GenericData.Record( schema.getField( "inner" ).schema() );
+    inner.put( "values", Arrays.asList( first, second ) );
+    GenericData.Record outer = new GenericData.Record( schema );
+    outer.put( "inner", inner );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder( out, null );
+    new GenericDatumWriter<GenericData.Record>( schema ).write( outer, encoder );
+    encoder.flush();
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testBinaryDecoderAndRecordsAreReusedAcrossRows() throws Exception {
+    Schema schema = new Schema.Parser().parse( NESTED_SCHEMA );
+    AvroInputData data = dataDecodingField( schema, false );
+
+    Object[][] rows = data.avroObjectToKettle( null, new Object[] { encode( schema, 1L, 2L ) }, new Variables() );
+    assertEquals( 2L, rows[0][1] );
+    Object decoder = data.m_decoder;
+    Object record = data.m_topLevelRecord;
+
+    rows = data.avroObjectToKettle( null, new Object[] { encode( schema, 3L, 4L ) }, new Variables() );
+    assertEquals( 4L, rows[0][1] );
+    assertSame( decoder, data.m_decoder );
+    assertSame( record, data.m_topLevelRecord );
+  }
+
+  @Test
+  public void testJsonDecoderIsReusedAcrossRows() throws Exception {
+    Schema schema = new Schema.Parser().parse( NESTED_SCHEMA );
+    AvroInputData data = dataDecodingField( schema, true );
+
+    Object[][] rows = data.avroObjectToKettle( null, new Object[] { "{\"inner\":{\"values\":[1,2]}}" },
+      new Variables() );
+    assertEquals( 2L, rows[0][1] );
+    Object decoder = data.m_decoder;
+
+    rows = data.avroObjectToKettle( null, new Object[] { "{\"inner\":{\"values\":[3,4]}}" }, new Variables() );
+    assertEquals( 4L, rows[0][1] );
+    assertSame( decoder, data.m_decoder );
+  }
+
+  @Test
+  public void testSchemaCacheIsKeyedByFingerprintAndBounded() throws Exception {
+    System.setProperty( AvroInputData.SCHEMA_CACHE_SIZE_PROPERTY, "2" );
+    AvroInputData data;
+    try {
+      data = new AvroInputData();
+    } finally {
+      System.clearProperty( AvroInputData.SCHEMA_CACHE_SIZE_PROPERTY );
+    }
+    data.m_log = mock( LogChannelInterface.class );
+
+    String schemaA = "{\"type\":\"record\",\"name\":\"a\",\"fields\":[{\"name\":\"f\",\"type\":\"long\"}]}";
+    String schemaB = "{\"type\":\"record\",\"name\":\"b\",\"fields\":[{\"name\":\"f\",\"type\":\"long\"}]}";
+    String schemaC = "{\"type\":\"record\",\"name\":\"c\",\"fields\":[{\"name\":\"f\",\"type\":\"long\"}]}";
+
+    data.setSchemaToUse( null, schemaA, true, new Variables() );
+    GenericDatumReader readerA = data.m_datumReader;
+    // the same schema, formatted differently
+    data.setSchemaToUse( null, schemaA.replace( ",", " , " ), true, new Variables() );
+    assertSame( readerA, data.m_datumReader );
+    assertEquals( 1, data.m_schemaCache.size() );
+
+    data.setSchemaToUse( null, schemaB, true, new Variables() );
+    data.setSchemaToUse( null, schemaA, true, new Variables() );
+    assertSame( readerA, data.m_datumReader );
+
+    // b is the least recently used schema
+    data.setSchemaToUse( null, schemaC, true, new Variables() );
+    assertEquals( 2, data.m_schemaCache.size() );
+    data.setSchemaToUse( null, schemaA, true, new Variables() );
+    assertSame( readerA, data.m_datumReader );
+    data.setSchemaToUse( null, schemaB, true, new Variables() );
+    assertNotSame( readerA, data.m_datumReader );
+    assertEquals( "b", data.m_schemaToUse.getName() );
+  }
   @Test
   public void testCleansePath() {
     assertEquals( "const.name", AvroInputData.cleansePath( "const.name" ) );
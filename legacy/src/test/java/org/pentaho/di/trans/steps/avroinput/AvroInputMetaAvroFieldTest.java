@@ -53,6 +53,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -391,6 +393,45 @@ public class AvroInputMetaAvroFieldTest {
     assertEquals( 5L, avroField.convertToKettleValue( record, schemaToUse, defaultSchema, true ) );
   }
 
+  @Test
+  public void testPathWithoutVariablesIsCompiledOnce() throws KettleException {
+    Schema schema = new Schema.Parser().parse( "{\"type\":\"record\",\"name\":\"r\",\"fields\":["
+      + "{\"name\":\"m\",\"type\":{\"type\":\"map\",\"values\":{\"type\":\"array\",\"items\":\"string\"}}}]}" );
+    GenericData.Record record = new GenericData.Record( schema );
+    Map<Utf8, Object> map = new HashMap<Utf8, Object>();
+    map.put( new Utf8( "key" ), new GenericData.Array<Object>( schema.getField( "m" ).schema().getValueType(),
+      Arrays.<Object>asList( "first", "second" ) ) );
+    record.put( "m", map );
+
+    avroField.m_kettleType = "String";
+    avroField.m_fieldPath = "$.m[key][1]";
+    avroField.init( 0 );
+    for ( int i = 0; i < 3; i++ ) {
+      avroField.reset( variableSpace );
+      assertEquals( "second", avroField.convertToKettleValue( record, schema, schema, false ) );
+    }
+    verify( variableSpace, never() ).environmentSubstitute( anyString() );
+  }
+
+  @Test
+  public void testPathWithVariablesIsResolvedForEveryObject() throws KettleException {
+    Schema schema = new Schema.Parser().parse( "{\"type\":\"record\",\"name\":\"r\",\"fields\":["
+      + "{\"name\":\"a\",\"type\":\"string\"},{\"name\":\"b\",\"type\":\"string\"}]}" );
+    GenericData.Record record = new GenericData.Record( schema );
+    record.put( "a", "valueA" );
+    record.put( "b", "valueB" );
+
+    avroField.m_kettleType = "String";
+    avroField.m_fieldPath = "$.${field}";
+    avroField.init( 0 );
+    variableSpaceMap.put( "${field}", "a" );
+    avroField.reset( variableSpace );
+    assertEquals( "valueA", avroField.convertToKettleValue( record, schema, schema, false ) );
+    variableSpaceMap.put( "${field}", "b" );
+    avroField.reset( variableSpace );
+    assertEquals( "valueB", avroField.convertToKettleValue( record, schema, schema, false ) );
+  }
+
   @Test
   public void testGetPrimitiveFromConvertNode() throws KettleException {
     avroField.m_kettleType = "Integer";
@@ -14,6 +14,9 @@
 
 package org.pentaho.di.trans.steps.couchdbinput;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
@@ -21,6 +24,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.protocol.HttpContext;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.pentaho.di.core.Const;
@@ -30,14 +34,28 @@ import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.steps.mock.StepMockHelper;
 
 import java.io.IOException;
-
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -53,6 +71,8 @@ public class CouchDbInputTest {
   private CouchDbInput couchDbInput;
   private CouchDbInput.HttpClientFactory httpClientFactory;
   private CouchDbInput.GetMethodFactory getMethodFactory;
+  private HttpServer server;
+  private final List<String> queries = Collections.synchronizedList( new ArrayList<>() );
 
   @Before
   public void setup() throws KettleException {
@@ -70,6 +90,13 @@ public class CouchDbInputTest {
         stepMockHelper.trans ) );
   }
 
+  @After
+  public void tearDown() {
+    if ( server != null ) {
+      server.stop( 0 );
+    }
+  }
+
   @Test
   public void testInitException() {
     CouchDbInputMeta couchDbInputMeta = (CouchDbInputMeta) stepMockHelper.initStepMetaInterface;
@@ -281,4 +308,128 @@ public class CouchDbInputTest {
 
     assertFalse( couchDbInput.init( couchDbInputMeta, couchDbInputData ) );
   }
+
+  @Test
+  public void testRowsAreStreamedAsUtf8() throws Exception {
+    AtomicInteger requests = startView( 7 );
+
+    assertEquals( expectedRows( 7 ), readView( null ) );
+    assertEquals( 1, requests.get() );
+  }
+
+  @Test
+  public void testViewIsReadInPages() throws Exception {
+    AtomicInteger requests = startView( 7 );
+
+    // rows share their keys two by two, so the pages have to start at a document id as well
+    assertEquals( expectedRows( 7 ), readView( "2" ) );
+    assertEquals( 4, requests.get() );
+  }
+
+  @Test
+  public void testEmptyViewIsReadInPages() throws Exception {
+    AtomicInteger requests = startView( 0 );
+
+    assertEquals( new ArrayList<String>(), readView( "2" ) );
+    assertEquals( 1, requests.get() );
+  }
+
+  @Test
+  public void testViewWithQueryStringIsReadInPages() throws Exception {
+    AtomicInteger requests = startView( 7 );
+
+    assertEquals( expectedRows( 7 ), readView( "view?reduce=false", "2" ) );
+    assertEquals( 4, requests.get() );
+    for ( String query : queries ) {
+      assertTrue( query, query.startsWith( "reduce=false&limit=3" ) );
+    }
+  }
+
+  private static String row( int i ) {
+    return "{\"id\":\"doc 日本 " + i + "\",\"key\":\"żółw " + ( i / 2 ) + "\",\"value\":{\"text\":\"🐢 " + i
+      + "\",\"n\":1.50}}";
+  }
+
+  private static List<String> expectedRows( int count ) {
+    List<String> rows = new ArrayList<>();
+    for ( int i = 0; i < count; i++ ) {
+      rows.add( row( i ) );
+    }
+    return rows;
+  }
+
+  /**
+   * Serves a view of the given number of rows, honoring limit, startkey and startkey_docid.
+   */
+  private AtomicInteger startView( final int count ) throws IOException {
+    final AtomicInteger requests = new AtomicInteger();
+    final ObjectMapper mapper = new ObjectMapper();
+    server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+    server.createContext( "/db/_design/doc/_view/view", ( HttpExchange exchange ) -> {
+      requests.incrementAndGet();
+      Map<String, String> query = new HashMap<>();
+      String rawQuery = exchange.getRequestURI().getRawQuery();
+      queries.add( rawQuery );
+      if ( rawQuery != null ) {
+        for ( String parameter : rawQuery.split( "&" ) ) {
+          String[] nameValue = parameter.split( "=", 2 );
+          query.put( nameValue[ 0 ], URLDecoder.decode( nameValue[ 1 ], "UTF-8" ) );
+        }
+      }
+      int first = 0;
+      if ( query.containsKey( "startkey" ) ) {
+        String startKey = mapper.readValue( query.get( "startkey" ), String.class );
+        String startDocId = query.get( "startkey_docid" );
+        while ( first < count && ( ( "żółw " + ( first / 2 ) ).compareTo( startKey ) < 0
+          || ( "żółw " + ( first / 2 ) ).equals( startKey ) && ( "doc 日本 " + first ).compareTo( startDocId ) < 0 ) ) {
+          first++;
+        }
+      }
+      int last = query.containsKey( "limit" ) ? Math.min( count, first + Integer.parseInt( query.get( "limit" ) ) )
+        : count;
+
+      StringBuilder body =
+        new StringBuilder( "{\"total_rows\":" + count + ",\"offset\":" + first + ",\"rows\":[\r\n" );
+      for ( int i = first; i < last; i++ ) {
+        body.append( row( i ).replace( ",", ", " ) ).append( i < last - 1 ? ",\r\n" : "\r\n" );
+      }
+      body.append( "]}\n" );
+
+      byte[] bytes = body.toString().getBytes( StandardCharsets.UTF_8 );
+      exchange.getResponseHeaders().add( "Content-Type", "application/json" );
+      exchange.sendResponseHeaders( 200, bytes.length );
+      try ( OutputStream out = exchange.getResponseBody() ) {
+        out.write( bytes );
+      }
+    } );
+    server.start();
+    return requests;
+  }
+
+  private List<String> readView( String pageSize ) throws KettleException {
+    return readView( "view", pageSize );
+  }
+
+  private List<String> readView( String viewName, String pageSize ) throws KettleException {
+    CouchDbInputMeta couchDbInputMeta = (CouchDbInputMeta) stepMockHelper.initStepMetaInterface;
+    CouchDbInputData couchDbInputData = (CouchDbInputData) stepMockHelper.initStepDataInterface;
+
+    when( couchDbInputMeta.getHostname() ).thenReturn( "localhost" );
+    when( couchDbInputMeta.getPort() ).thenReturn( String.valueOf( server.getAddress().getPort() ) );
+    when( couchDbInputMeta.getDbName() ).thenReturn( "db" );
+    when( couchDbInputMeta.getDesignDocument() ).thenReturn( "doc" );
+    when( couchDbInputMeta.getViewName() ).thenReturn( viewName );
+    when( couchDbInputMeta.getPageSize() ).thenReturn( pageSize );
+
+    final List<String> rows = new ArrayList<>();
+    doAnswer( invocation -> rows.add( (String) ( (Object[]) invocation.getArgument( 1 ) )[ 0 ] ) )
+      .when( couchDbInput ).putRow( any( RowMetaInterface.class ), any( Object[].class ) );
+
+    assertTrue( couchDbInput.init( couchDbInputMeta, couchDbInputData ) );
+    while ( couchDbInput.processRow( couchDbInputMeta, couchDbInputData ) ) {
+      // read all the rows
+    }
+    couchDbInput.dispose( couchDbInputMeta, couchDbInputData );
+    return rows;
+  }
 }